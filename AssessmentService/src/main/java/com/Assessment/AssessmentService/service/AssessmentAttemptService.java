@@ -7,10 +7,13 @@ import com.Assessment.AssessmentService.repository.AssessmentCandidateRepository
 import com.Assessment.AssessmentService.repository.AssessmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +27,12 @@ public class AssessmentAttemptService {
     private static final String QUESTION_SERVICE_URL = "http://localhost:8082";
     private static final String SUBMISSION_SERVICE_URL = "http://localhost:8083";
 
+    // Autosaved answers are graded ahead of submit by SubmissionService, off the request thread
+    private final ExecutorService provisionalGrading = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${assessment.incremental-grading.enabled:true}")
+    private boolean incrementalGrading;
+
     /**
      * Start an assessment attempt for a candidate
      */
@@ -404,6 +413,9 @@ public class AssessmentAttemptService {
         @SuppressWarnings("unchecked")
         Map<String, Object> answers = (Map<String, Object>) progressData.get("answers");
         if (answers != null) {
+            if (incrementalGrading && candidate.getStatus() == AssessmentCandidate.CandidateStatus.IN_PROGRESS) {
+                sendAnswerChanges(assessmentId, userRef, candidate.getId(), candidate.getAnswers(), answers);
+            }
             candidate.setAnswers(answers);
         }
         
@@ -422,6 +434,45 @@ public class AssessmentAttemptService {
         return result;
     }
     
+    /**
+     * Send the answers changed since the last autosave to SubmissionService, which grades them
+     * ahead of submit. Failures only cost grading time on submit, so they are logged and ignored.
+     */
+    private void sendAnswerChanges(Long assessmentId, Integer userRef, Long candidateId,
+                                   Map<String, Object> previous, Map<String, Object> answers) {
+        Map<String, Object> changed = new HashMap<>();
+        answers.forEach((questionId, answer) -> {
+            if (answer != null && !Objects.equals(previous != null ? previous.get(questionId) : null, answer)) {
+                changed.put(questionId, answer);
+            }
+        });
+        List<String> removed = new ArrayList<>();
+        if (previous != null) {
+            previous.forEach((questionId, answer) -> {
+                if (answer != null && answers.get(questionId) == null) {
+                    removed.add(questionId);
+                }
+            });
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("testId", String.valueOf(assessmentId));
+        request.put("userId", String.valueOf(userRef));
+        request.put("answers", changed);
+        request.put("removed", removed);
+        provisionalGrading.execute(() -> {
+            try {
+                restTemplate.put(SUBMISSION_SERVICE_URL + "/api/evaluations/provisional/" + candidateId, request);
+            } catch (Exception e) {
+                log.warn("Could not grade autosaved answers of attempt {} ahead of submit: {}", candidateId,
+                        e.getMessage());
+            }
+        });
+    }
+
     /**
      * Get candidate assessment results and analytics
      */
@@ -4,14 +4,20 @@ import com.Question.Questions.entity.Question;
 import com.Question.Questions.entity.MCQOption;
 import com.Question.Questions.entity.TestCase;
 import com.Question.Questions.dto.QuestionCreateRequest;
+import com.Question.Questions.service.AnswerKeyService;
 import com.Question.Questions.service.QuestionService;
+import com.Question.Questions.service.TestSuiteBundleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/questions")
@@ -20,6 +26,8 @@ import java.util.List;
 public class QuestionController {
     
     private final QuestionService questionService;
+    private final TestSuiteBundleService testSuiteBundleService;
+    private final AnswerKeyService answerKeyService;
     
     @PostMapping("/sections/{sectionId}")
     public ResponseEntity<Question> createQuestion(@PathVariable Long sectionId, @RequestBody QuestionCreateRequest request) {
@@ -71,6 +79,23 @@ public class QuestionController {
         return new ResponseEntity<>(questions, HttpStatus.OK);
     }
     
+    // Compact grading data of the given questions; the ETag is a content hash, so graders holding
+    // the current key get 304 Not Modified
+    @GetMapping("/answer-key")
+    public ResponseEntity<byte[]> getAnswerKey(@RequestParam List<Long> ids,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        AnswerKeyService.AnswerKey answerKey = answerKeyService.getAnswerKey(ids);
+        String etag = "\"" + answerKey.hash() + "\"";
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(answerKey.json());
+    }
+    
     @GetMapping("/{questionId}")
     public ResponseEntity<Question> getQuestionById(@PathVariable Long questionId) {
         return questionService.getQuestionById(questionId)
@@ -84,6 +109,13 @@ public class QuestionController {
         return new ResponseEntity<>(updatedQuestion, HttpStatus.OK);
     }
     
+    // Re-run the reference solution, e.g. after the execution service was down or test cases changed
+    @PostMapping("/{questionId}/reference/validate")
+    public ResponseEntity<Question> validateReferenceSolution(@PathVariable Long questionId) {
+        Question question = questionService.validateReferenceSolution(questionId);
+        return new ResponseEntity<>(question, HttpStatus.OK);
+    }
+    
     @DeleteMapping("/{questionId}")
     public ResponseEntity<Void> deleteQuestion(@PathVariable Long questionId) {
         questionService.deleteQuestion(questionId);
@@ -121,6 +153,13 @@ public class QuestionController {
         return new ResponseEntity<>(options, HttpStatus.OK);
     }
     
+    // Corrections to an option regrade the answers already evaluated for its question
+    @PutMapping("/mcq-options/{optionId}")
+    public ResponseEntity<MCQOption> updateMCQOption(@PathVariable Long optionId, @RequestBody MCQOption option) {
+        MCQOption updatedOption = questionService.updateMCQOption(optionId, option);
+        return new ResponseEntity<>(updatedOption, HttpStatus.OK);
+    }
+    
     @DeleteMapping("/mcq-options/{optionId}")
     public ResponseEntity<Void> deleteMCQOption(@PathVariable Long optionId) {
         questionService.deleteMCQOption(optionId);
@@ -163,6 +202,40 @@ public class QuestionController {
         return new ResponseEntity<>(sampleTestCases, HttpStatus.OK);
     }
     
+    // Whole test suite as one gzip-compressed JSON bundle; the ETag is its content hash, so a
+    // client holding the current version gets 304 Not Modified without a body
+    @GetMapping("/{questionId}/test-suite")
+    public ResponseEntity<byte[]> getTestSuite(@PathVariable Long questionId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        TestSuiteBundleService.Bundle bundle = testSuiteBundleService.getBundle(questionId);
+        return bundleResponse(bundle, ifNoneMatch, CacheControl.noCache());
+    }
+    
+    // A bundle by hash never changes, so it may be cached for good; 404 once the suite has moved on
+    @GetMapping("/{questionId}/test-suite/{hash}")
+    public ResponseEntity<byte[]> getTestSuiteVersion(@PathVariable Long questionId, @PathVariable String hash,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        TestSuiteBundleService.Bundle bundle = testSuiteBundleService.getBundle(questionId);
+        if (!bundle.hash().equals(hash)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return bundleResponse(bundle, ifNoneMatch, CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+    }
+    
+    private ResponseEntity<byte[]> bundleResponse(TestSuiteBundleService.Bundle bundle, String ifNoneMatch,
+                                                  CacheControl cacheControl) {
+        String etag = "\"" + bundle.hash() + "\"";
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header("X-Test-Case-Count", String.valueOf(bundle.testCaseCount()))
+                .body(bundle.content());
+    }
+    
     @DeleteMapping("/test-cases/{testCaseId}")
     public ResponseEntity<Void> deleteTestCase(@PathVariable Long testCaseId) {
         questionService.deleteTestCase(testCaseId);
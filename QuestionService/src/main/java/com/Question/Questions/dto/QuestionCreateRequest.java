@@ -17,6 +17,8 @@ public class QuestionCreateRequest {
     private Integer timeLimitMinutes;
     private String codeTemplate;
     private String programmingLanguage;
+    private String referenceSolution; // Optional; fills in missing expected outputs and checks the others
+    private String referenceLanguage; // Defaults to programmingLanguage
     
     // Add fields for MCQ options and test cases
     private List<MCQOptionRequest> mcqOptions;
@@ -35,6 +37,11 @@ public class QuestionCreateRequest {
         private String input;
         private String expectedOutput;
         private Boolean isHidden;
+        private String comparator; // EXACT, TOKEN, FLOAT, UNORDERED_LINES or CUSTOM
+        private Double absoluteError;
+        private Double relativeError;
+        private String checkerCode;
+        private String checkerLanguage;
     }
 
     public Question toQuestion() {
@@ -55,6 +62,8 @@ public class QuestionCreateRequest {
         question.setTimeLimitMinutes(this.timeLimitMinutes);
         question.setCodeTemplate(this.codeTemplate);
         question.setProgrammingLanguage(this.programmingLanguage);
+        question.setReferenceSolution(this.referenceSolution);
+        question.setReferenceLanguage(this.referenceLanguage);
         
         // Convert MCQ options
         if (this.mcqOptions != null && !this.mcqOptions.isEmpty()) {
@@ -92,6 +101,13 @@ public class QuestionCreateRequest {
                         testCase.setExpectedOutput(testCaseReq.getExpectedOutput());
                         testCase.setIsSample(testCaseReq.getIsHidden() != null ? !testCaseReq.getIsHidden() : true);
                         testCase.setTestCaseOrder(i + 1);
+                        if (testCaseReq.getComparator() != null) {
+                            testCase.setComparator(TestCase.ComparatorType.valueOf(testCaseReq.getComparator().toUpperCase()));
+                        }
+                        testCase.setAbsoluteError(testCaseReq.getAbsoluteError());
+                        testCase.setRelativeError(testCaseReq.getRelativeError());
+                        testCase.setCheckerCode(testCaseReq.getCheckerCode());
+                        testCase.setCheckerLanguage(testCaseReq.getCheckerLanguage());
                         return testCase;
                     })
                     .toList();
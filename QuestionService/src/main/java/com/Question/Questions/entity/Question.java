@@ -1,6 +1,7 @@
 package com.Question.Questions.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -52,6 +53,31 @@ public class Question {
     @Column(name = "programming_language")
     private String programmingLanguage;
     
+    // Optional reference solution, run against every test case to generate and check expected outputs.
+    // Accepted on input but never serialized, since it is the answer.
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    @Column(name = "reference_solution", columnDefinition = "TEXT")
+    private String referenceSolution;
+    
+    @Column(name = "reference_language")
+    private String referenceLanguage;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reference_status")
+    private ReferenceStatus referenceStatus;
+    
+    @Column(name = "reference_message", columnDefinition = "TEXT")
+    private String referenceMessage; // Why the last reference run failed or which cases disagree
+    
+    @Column(name = "reference_runtime_ms")
+    private Long referenceRuntimeMs; // Slowest test case of the reference solution
+    
+    @Column(name = "run_time_limit_ms")
+    private Long runTimeLimitMs; // Per-test-case limit derived from referenceRuntimeMs
+    
+    @Column(name = "reference_checked_at")
+    private LocalDateTime referenceCheckedAt;
+    
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -104,4 +130,10 @@ public class Question {
     public enum DifficultyLevel {
         EASY, MEDIUM, HARD
     }
+    
+    public enum ReferenceStatus {
+        VALIDATED, // Every expected output matches the reference solution
+        MISMATCH,  // At least one test case has outputMismatch set
+        FAILED     // The reference solution did not compile, crashed, timed out or could not be run
+    }
 }
@@ -37,4 +37,41 @@ public class TestCase {
     
     @Column(columnDefinition = "TEXT")
     private String description; // Optional description for the test case
+    
+    // How the program's output is judged against expectedOutput; EXACT when not set
+    @Enumerated(EnumType.STRING)
+    @Column(name = "comparator")
+    private ComparatorType comparator;
+    
+    @Column(name = "absolute_error")
+    private Double absoluteError; // FLOAT only, default 1e-6
+    
+    @Column(name = "relative_error")
+    private Double relativeError; // FLOAT only, default 1e-6
+    
+    // CUSTOM only: a checker program run in the sandbox. It reads one header line with the UTF-8 byte
+    // lengths of input, expected and actual output, then the three texts, and exits 0 to accept.
+    @Column(name = "checker_code", columnDefinition = "TEXT")
+    private String checkerCode;
+    
+    @Column(name = "checker_language")
+    private String checkerLanguage;
+    
+    // Filled in when the question has a reference solution
+    @Column(name = "generated_output", columnDefinition = "TEXT")
+    private String generatedOutput; // What the reference solution printed
+    
+    @Column(name = "output_mismatch")
+    private Boolean outputMismatch; // expectedOutput disagrees with generatedOutput under the comparator
+    
+    @Column(name = "reference_time_ms")
+    private Long referenceTimeMs;
+    
+    public enum ComparatorType {
+        EXACT,           // Identical apart from leading and trailing whitespace of the whole output
+        TOKEN,           // Same whitespace-separated tokens
+        FLOAT,           // Same tokens, numbers within absoluteError or relativeError
+        UNORDERED_LINES, // Same lines in any order, ignoring trailing whitespace and blank lines
+        CUSTOM           // Decided by checkerCode
+    }
 }
@@ -0,0 +1,89 @@
+package com.Question.Questions.service;
+
+import com.Question.Questions.entity.MCQOption;
+import com.Question.Questions.entity.Question;
+import com.Question.Questions.repository.MCQOptionRepository;
+import com.Question.Questions.repository.QuestionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * What a grader needs to score a set of questions and nothing else: type, points, difficulty,
+ * the MCQ options with their correct flags and the language coding answers are run in.
+ *
+ * The JSON is built in the order the ids were asked for, so the same questions always give the
+ * same bytes, and its SHA-256 serves as a strong ETag: graders that cache a key revalidate it
+ * without downloading it again.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerKeyService {
+
+    private final QuestionRepository questionRepository;
+    private final MCQOptionRepository mcqOptionRepository;
+    private final ObjectMapper objectMapper;
+
+    public record AnswerKey(String hash, byte[] json) {
+    }
+
+    /**
+     * Answer key of the questions that exist among the ids; unknown ids are left out
+     */
+    @Transactional(readOnly = true)
+    public AnswerKey getAnswerKey(List<Long> questionIds) {
+        Map<Long, Question> questions = questionRepository.findAllById(questionIds).stream()
+                .collect(Collectors.toMap(Question::getQuestionId, Function.identity()));
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Long questionId : questionIds) {
+            Question question = questions.get(questionId);
+            if (question == null) {
+                continue;
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("questionId", questionId);
+            entry.put("type", question.getType());
+            entry.put("points", question.getPoints());
+            entry.put("difficultyLevel", question.getDifficultyLevel());
+            if (question.getType() == Question.QuestionType.CODING) {
+                entry.put("programmingLanguage", question.getProgrammingLanguage());
+            }
+            if (question.getType() == Question.QuestionType.MCQ) {
+                List<Map<String, Object>> options = new ArrayList<>();
+                for (MCQOption option : mcqOptionRepository.findByQuestionQuestionIdOrderByDisplayOrderAsc(questionId)) {
+                    Map<String, Object> entryOption = new LinkedHashMap<>();
+                    entryOption.put("optionId", option.getOptionId());
+                    entryOption.put("optionLabel", option.getOptionLabel());
+                    entryOption.put("optionText", option.getOptionText());
+                    entryOption.put("isCorrect", option.getIsCorrect());
+                    options.add(entryOption);
+                }
+                entry.put("mcqOptions", options);
+            }
+            entries.add(entry);
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Map.of("questions", entries));
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+            return new AnswerKey(hash, json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize answer key", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -12,9 +12,12 @@ import com.Question.Questions.repository.TestCaseRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -27,7 +30,14 @@ public class QuestionService {
     private final SectionRepository sectionRepository;
     private final MCQOptionRepository mcqOptionRepository;
     private final TestCaseRepository testCaseRepository;
+    private final ReferenceSolutionService referenceSolutionService;
+    private final TestSuiteBundleService testSuiteBundleService;
+    private final RegradeNotifier regradeNotifier;
+    private final TransactionTemplate transactionTemplate;
     
+    // Methods that run the reference solution hold no transaction while it runs; their database work
+    // goes through the repositories' own transactions or transactionTemplate
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Question createQuestion(Long sectionId, Question question) {
         try {
             log.info("Creating question for section ID: {}", sectionId);
@@ -91,6 +101,8 @@ public class QuestionService {
                         testCase.setIsSample(false);
                     }
                     
+                    validateComparator(testCase);
+                    
                     // Use helper method to maintain bidirectional relationship
                     question.addTestCase(testCase);
                     log.info("Added test case: input={}, output={}", testCase.getInputData(), testCase.getExpectedOutput());
@@ -101,6 +113,17 @@ public class QuestionService {
             Question savedQuestion = questionRepository.save(question);
             log.info("Question saved with ID: {}", savedQuestion.getQuestionId());
             
+            // Generate missing expected outputs and check the others; a question whose missing outputs
+            // cannot be generated is not kept
+            if (referenceSolutionService.hasReference(savedQuestion)) {
+                try {
+                    savedQuestion = validateReference(savedQuestion.getQuestionId());
+                } catch (IllegalArgumentException e) {
+                    questionRepository.deleteById(savedQuestion.getQuestionId());
+                    throw e;
+                }
+            }
+            
             log.info("Question creation completed successfully");
             return savedQuestion;
         } catch (Exception e) {
@@ -132,9 +155,36 @@ public class QuestionService {
         return questionRepository.findById(questionId);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Question updateQuestion(Long questionId, Question updatedQuestion) {
-        Question existingQuestion = questionRepository.findById(questionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+        boolean[] referenceChanged = new boolean[1];
+        Question saved = transactionTemplate.execute(status -> {
+            Question existingQuestion = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+            referenceChanged[0] = applyUpdate(existingQuestion, updatedQuestion);
+            return questionRepository.save(existingQuestion);
+        });
+        testSuiteBundleService.evict(questionId);
+        // The run depends on the code, its language and the question type only
+        if (referenceChanged[0] && referenceSolutionService.hasReference(saved)) {
+            return validateReference(questionId);
+        }
+        return saved;
+    }
+    
+    /**
+     * Copy the editable fields onto the stored question, returning whether its reference solution
+     * has to be run again
+     */
+    private boolean applyUpdate(Question existingQuestion, Question updatedQuestion) {
+        Long questionId = existingQuestion.getQuestionId();
+        // Points and type decide the scores already awarded for the question
+        boolean answerKeyChanged = !Objects.equals(existingQuestion.getPoints(), updatedQuestion.getPoints())
+                || existingQuestion.getType() != updatedQuestion.getType();
+        String referenceLanguage = existingQuestion.getReferenceLanguage() != null
+                ? existingQuestion.getReferenceLanguage() : existingQuestion.getProgrammingLanguage();
+        String referenceSolution = existingQuestion.getReferenceSolution();
+        Question.QuestionType type = existingQuestion.getType();
         
         existingQuestion.setQuestionText(updatedQuestion.getQuestionText());
         existingQuestion.setType(updatedQuestion.getType());
@@ -143,8 +193,20 @@ public class QuestionService {
         existingQuestion.setTimeLimitMinutes(updatedQuestion.getTimeLimitMinutes());
         existingQuestion.setCodeTemplate(updatedQuestion.getCodeTemplate());
         existingQuestion.setProgrammingLanguage(updatedQuestion.getProgrammingLanguage());
+        // The reference solution is never sent back to clients, so an update without one keeps the stored one
+        if (updatedQuestion.getReferenceSolution() != null) {
+            existingQuestion.setReferenceSolution(updatedQuestion.getReferenceSolution());
+            existingQuestion.setReferenceLanguage(updatedQuestion.getReferenceLanguage());
+        }
         
-        return questionRepository.save(existingQuestion);
+        if (answerKeyChanged) {
+            regradeNotifier.answerKeyChanged(questionId);
+        }
+        String newReferenceLanguage = existingQuestion.getReferenceLanguage() != null
+                ? existingQuestion.getReferenceLanguage() : existingQuestion.getProgrammingLanguage();
+        return !Objects.equals(referenceSolution, existingQuestion.getReferenceSolution())
+                || !Objects.equals(referenceLanguage, newReferenceLanguage)
+                || type != existingQuestion.getType();
     }
     
     public void deleteQuestion(Long questionId) {
@@ -152,6 +214,7 @@ public class QuestionService {
             throw new ResourceNotFoundException("Question not found with id: " + questionId);
         }
         questionRepository.deleteById(questionId);
+        testSuiteBundleService.evict(questionId);
     }
     
     // MCQ Options management
@@ -180,6 +243,9 @@ public class QuestionService {
         if (option.getIsCorrect() == null) {
             option.setIsCorrect(false);
         }
+        if (option.getIsCorrect()) {
+            regradeNotifier.answerKeyChanged(questionId);
+        }
         
         return mcqOptionRepository.save(option);
     }
@@ -214,6 +280,9 @@ public class QuestionService {
                 option.setIsCorrect(false);
             }
         }
+        if (options.stream().anyMatch(MCQOption::getIsCorrect)) {
+            regradeNotifier.answerKeyChanged(questionId);
+        }
         
         return mcqOptionRepository.saveAll(options);
     }
@@ -223,65 +292,174 @@ public class QuestionService {
         return mcqOptionRepository.findByQuestionQuestionIdOrderByDisplayOrderAsc(questionId);
     }
     
-    public void deleteMCQOption(Long optionId) {
-        if (!mcqOptionRepository.existsById(optionId)) {
-            throw new ResourceNotFoundException("MCQ Option not found with id: " + optionId);
-        }
-        mcqOptionRepository.deleteById(optionId);
-    }
-    
-    // Test Cases management
-    public TestCase addTestCase(Long questionId, TestCase testCase) {
-        Question question = questionRepository.findById(questionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+    /**
+     * Correct an option's text, label or correct flag; answers already graded are regraded
+     */
+    public MCQOption updateMCQOption(Long optionId, MCQOption updatedOption) {
+        MCQOption option = mcqOptionRepository.findById(optionId)
+                .orElseThrow(() -> new ResourceNotFoundException("MCQ Option not found with id: " + optionId));
         
-        if (question.getType() != Question.QuestionType.CODING) {
-            throw new IllegalArgumentException("Cannot add test cases to non-coding question");
+        // Fixing an option's text or label keeps every stored answer right or wrong as it was; only
+        // moving the correct flag changes grades
+        boolean answerKeyChanged = false;
+        if (updatedOption.getOptionText() != null) {
+            option.setOptionText(updatedOption.getOptionText());
         }
-        
-        // Use helper method to maintain bidirectional relationship
-        question.addTestCase(testCase);
-        
-        // Set defaults if not provided
-        if (testCase.getTestCaseOrder() == null) {
-            int nextOrder = question.getTestCases() != null ? question.getTestCases().size() : 1;
-            testCase.setTestCaseOrder(nextOrder);
+        if (updatedOption.getOptionLabel() != null) {
+            option.setOptionLabel(updatedOption.getOptionLabel());
         }
-        
-        if (testCase.getIsSample() == null) {
-            testCase.setIsSample(false);
+        if (updatedOption.getIsCorrect() != null) {
+            answerKeyChanged |= !updatedOption.getIsCorrect().equals(option.getIsCorrect());
+            option.setIsCorrect(updatedOption.getIsCorrect());
+        }
+        if (updatedOption.getDisplayOrder() != null) {
+            option.setDisplayOrder(updatedOption.getDisplayOrder());
         }
         
-        return testCaseRepository.save(testCase);
+        if (answerKeyChanged) {
+            regradeNotifier.answerKeyChanged(option.getQuestion().getQuestionId());
+        }
+        return mcqOptionRepository.save(option);
     }
     
-    public List<TestCase> addTestCases(Long questionId, List<TestCase> testCases) {
-        Question question = questionRepository.findById(questionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
-        
-        if (question.getType() != Question.QuestionType.CODING) {
-            throw new IllegalArgumentException("Cannot add test cases to non-coding question");
-        }
-        
-        // Set the question reference and test case order for each test case
-        for (int i = 0; i < testCases.size(); i++) {
-            TestCase testCase = testCases.get(i);
+    public void deleteMCQOption(Long optionId) {
+        MCQOption option = mcqOptionRepository.findById(optionId)
+                .orElseThrow(() -> new ResourceNotFoundException("MCQ Option not found with id: " + optionId));
+        mcqOptionRepository.deleteById(optionId);
+        regradeNotifier.answerKeyChanged(option.getQuestion().getQuestionId());
+    }
+    
+    // Test Cases management
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TestCase addTestCase(Long questionId, TestCase testCase) {
+        boolean[] hasReference = new boolean[1];
+        TestCase saved = transactionTemplate.execute(status -> {
+            Question question = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+            
+            if (question.getType() != Question.QuestionType.CODING) {
+                throw new IllegalArgumentException("Cannot add test cases to non-coding question");
+            }
             
             // Use helper method to maintain bidirectional relationship
             question.addTestCase(testCase);
             
-            // Set test case order if not provided
+            // Set defaults if not provided
             if (testCase.getTestCaseOrder() == null) {
-                testCase.setTestCaseOrder(i + 1);
+                int nextOrder = question.getTestCases() != null ? question.getTestCases().size() : 1;
+                testCase.setTestCaseOrder(nextOrder);
             }
             
-            // Set default isSample if not provided
             if (testCase.getIsSample() == null) {
                 testCase.setIsSample(false);
             }
+            
+            validateComparator(testCase);
+            hasReference[0] = referenceSolutionService.hasReference(question);
+            return testCaseRepository.save(testCase);
+        });
+        testSuiteBundleService.evict(questionId);
+        
+        if (!hasReference[0]) {
+            return saved;
+        }
+        // Fill in the case's expected output, or check it, against the reference solution
+        validateReference(questionId);
+        return testCaseRepository.findById(saved.getTestCaseId()).orElse(saved);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TestCase> addTestCases(Long questionId, List<TestCase> testCases) {
+        boolean[] hasReference = new boolean[1];
+        List<TestCase> saved = transactionTemplate.execute(status -> {
+            Question question = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+            
+            if (question.getType() != Question.QuestionType.CODING) {
+                throw new IllegalArgumentException("Cannot add test cases to non-coding question");
+            }
+            
+            // Set the question reference and test case order for each test case
+            for (int i = 0; i < testCases.size(); i++) {
+                TestCase testCase = testCases.get(i);
+                
+                // Use helper method to maintain bidirectional relationship
+                question.addTestCase(testCase);
+                
+                // Set test case order if not provided
+                if (testCase.getTestCaseOrder() == null) {
+                    testCase.setTestCaseOrder(i + 1);
+                }
+                
+                // Set default isSample if not provided
+                if (testCase.getIsSample() == null) {
+                    testCase.setIsSample(false);
+                }
+                
+                validateComparator(testCase);
+            }
+            hasReference[0] = referenceSolutionService.hasReference(question);
+            return testCaseRepository.saveAll(testCases);
+        });
+        testSuiteBundleService.evict(questionId);
+        
+        if (!hasReference[0]) {
+            return saved;
+        }
+        validateReference(questionId);
+        return testCaseRepository.findAllById(saved.stream().map(TestCase::getTestCaseId).toList());
+    }
+    
+    /**
+     * Re-run the question's reference solution against all of its test cases
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Question validateReferenceSolution(Long questionId) {
+        Question question = questionRepository.findById(questionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+        
+        if (!referenceSolutionService.hasReference(question)) {
+            throw new IllegalArgumentException("Question " + questionId + " has no reference solution");
         }
         
-        return testCaseRepository.saveAll(testCases);
+        return validateReference(questionId);
+    }
+    
+    /**
+     * Run the saved question's reference solution and record the outcome. The run can take seconds,
+     * so the question is read in one short transaction and the outcome written in another, with no
+     * transaction or connection held in between.
+     */
+    private Question validateReference(Long questionId) {
+        Question snapshot = transactionTemplate.execute(status -> {
+            Question question = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+            // Load the test cases while the session is open, the run reads them afterwards
+            if (question.getTestCases() != null) {
+                question.getTestCases().size();
+            }
+            return question;
+        });
+        ReferenceSolutionService.ReferenceRun run = referenceSolutionService.run(snapshot);
+        Question validated = transactionTemplate.execute(status -> {
+            Question question = questionRepository.findById(questionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+            referenceSolutionService.apply(question, run);
+            return questionRepository.save(question);
+        });
+        testSuiteBundleService.evict(questionId);
+        return validated;
+    }
+    
+    /**
+     * A custom comparator needs a checker program to run
+     */
+    private void validateComparator(TestCase testCase) {
+        if (testCase.getComparator() == TestCase.ComparatorType.CUSTOM
+                && (testCase.getCheckerCode() == null || testCase.getCheckerCode().isBlank()
+                || testCase.getCheckerLanguage() == null || testCase.getCheckerLanguage().isBlank())) {
+            throw new IllegalArgumentException("CUSTOM comparator requires checkerCode and checkerLanguage");
+        }
     }
     
     @Transactional(readOnly = true)
@@ -295,9 +473,9 @@ public class QuestionService {
     }
     
     public void deleteTestCase(Long testCaseId) {
-        if (!testCaseRepository.existsById(testCaseId)) {
-            throw new ResourceNotFoundException("Test Case not found with id: " + testCaseId);
-        }
+        TestCase testCase = testCaseRepository.findById(testCaseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Test Case not found with id: " + testCaseId));
         testCaseRepository.deleteById(testCaseId);
+        testSuiteBundleService.evict(testCase.getQuestion().getQuestionId());
     }
 }
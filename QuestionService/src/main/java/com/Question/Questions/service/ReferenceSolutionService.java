@@ -0,0 +1,294 @@
+package com.Question.Questions.service;
+
+import com.Question.Questions.entity.Question;
+import com.Question.Questions.entity.TestCase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a question's reference solution against its test cases through the execution service.
+ *
+ * Cases are dealt round robin into up to {@code reference.parallelism} batches that run side by side.
+ * Missing expected outputs are filled in from the reference output; the others are compared with it
+ * using each case's comparator and flagged when they disagree. The slowest case sets the reference
+ * runtime, from which the per-case run time limit of submissions is derived.
+ */
+@Service
+@Slf4j
+public class ReferenceSolutionService {
+
+    private final RestTemplate restTemplate;
+    private final String executionServiceUrl;
+    private final int parallelism;
+    private final int runTimeoutMs;
+    private final double timeLimitMultiplier;
+    private final long minTimeLimitMs;
+    private final long maxTimeLimitMs;
+
+    public ReferenceSolutionService(RestTemplate restTemplate,
+                                    @Value("${execution.service.url:http://localhost:8083}") String executionServiceUrl,
+                                    @Value("${reference.parallelism:4}") int parallelism,
+                                    @Value("${reference.run-timeout-ms:10000}") int runTimeoutMs,
+                                    @Value("${reference.time-limit.multiplier:3}") double timeLimitMultiplier,
+                                    @Value("${reference.time-limit.min-ms:1000}") long minTimeLimitMs,
+                                    @Value("${reference.time-limit.max-ms:10000}") long maxTimeLimitMs) {
+        this.restTemplate = restTemplate;
+        this.executionServiceUrl = executionServiceUrl;
+        this.parallelism = Math.max(1, parallelism);
+        this.runTimeoutMs = runTimeoutMs;
+        this.timeLimitMultiplier = timeLimitMultiplier;
+        this.minTimeLimitMs = minTimeLimitMs;
+        this.maxTimeLimitMs = maxTimeLimitMs;
+    }
+
+    public boolean hasReference(Question question) {
+        return question.getType() == Question.QuestionType.CODING
+                && question.getReferenceSolution() != null && !question.getReferenceSolution().isBlank();
+    }
+
+    /**
+     * Run the reference solution of a saved question on every one of its test cases. Reads the
+     * question and its cases only, so it can run on a detached copy with no transaction open.
+     *
+     * @throws IllegalArgumentException when the question names no language to run it in
+     */
+    public ReferenceRun run(Question question) {
+        List<TestCase> testCases = question.getTestCases() != null ? question.getTestCases() : List.of();
+        if (!hasReference(question) || testCases.isEmpty()) {
+            return new ReferenceRun(null, Map.of());
+        }
+        String language = question.getReferenceLanguage() != null ? question.getReferenceLanguage()
+                : question.getProgrammingLanguage();
+        if (language == null || language.isBlank()) {
+            throw new IllegalArgumentException("referenceLanguage or programmingLanguage is required for a reference solution");
+        }
+        log.info("Running reference solution of question {} on {} test cases", question.getQuestionId(), testCases.size());
+        try {
+            return new ReferenceRun(null, runAll(question, language, testCases));
+        } catch (RestClientException e) {
+            return new ReferenceRun("Execution service unavailable: " + e.getMessage(), Map.of());
+        }
+    }
+
+    /**
+     * Record the outcome of a run on the question and its cases, matched by test case id. Nothing
+     * is saved here; the caller's transaction does that.
+     *
+     * @throws IllegalArgumentException when a case has no expected output and the reference
+     *                                  solution could not produce one
+     */
+    public void apply(Question question, ReferenceRun run) {
+        List<TestCase> testCases = question.getTestCases() != null ? question.getTestCases() : List.of();
+        if (!hasReference(question) || testCases.isEmpty()) {
+            return;
+        }
+        String failure = run.failure();
+        Map<Long, Map<String, Object>> results = run.results();
+
+        long maxTimeMs = 0;
+        List<Integer> mismatches = new ArrayList<>();
+        for (TestCase testCase : testCases) {
+            if (failure != null) {
+                break;
+            }
+            Map<String, Object> result = results.get(testCase.getTestCaseId());
+            if (result == null) {
+                // Added after the run started; the next validation covers it
+                failure = "Test case " + testCase.getTestCaseOrder() + " was not part of the reference run";
+                break;
+            }
+            failure = failureOf(testCase, result);
+            if (failure != null) {
+                break;
+            }
+            String generated = (String) result.get("actualOutput");
+            Long wallTimeMs = toLong(result.get("wallTimeMs"));
+            testCase.setGeneratedOutput(generated);
+            testCase.setReferenceTimeMs(wallTimeMs);
+            maxTimeMs = Math.max(maxTimeMs, wallTimeMs != null ? wallTimeMs : 0);
+
+            if (testCase.getExpectedOutput() == null || testCase.getExpectedOutput().isBlank()) {
+                testCase.setExpectedOutput(generated);
+                testCase.setOutputMismatch(false);
+            } else if (testCase.getComparator() == TestCase.ComparatorType.CUSTOM) {
+                // Only the checker program can tell, and it runs on graded executions alone
+                testCase.setOutputMismatch(null);
+            } else {
+                testCase.setOutputMismatch(!Boolean.TRUE.equals(result.get("passed")));
+                if (testCase.getOutputMismatch()) {
+                    mismatches.add(testCase.getTestCaseOrder());
+                }
+            }
+        }
+
+        question.setReferenceCheckedAt(LocalDateTime.now());
+        if (failure != null) {
+            for (TestCase testCase : testCases) {
+                if (testCase.getExpectedOutput() == null || testCase.getExpectedOutput().isBlank()) {
+                    throw new IllegalArgumentException("Test case " + testCase.getTestCaseOrder()
+                            + " has no expected output and the reference solution could not generate one: " + failure);
+                }
+            }
+            log.warn("Reference solution of question {} failed: {}", question.getQuestionId(), failure);
+            question.setReferenceStatus(Question.ReferenceStatus.FAILED);
+            question.setReferenceMessage(failure);
+            return;
+        }
+
+        question.setReferenceRuntimeMs(maxTimeMs);
+        question.setRunTimeLimitMs(deriveTimeLimit(maxTimeMs));
+        if (mismatches.isEmpty()) {
+            question.setReferenceStatus(Question.ReferenceStatus.VALIDATED);
+            question.setReferenceMessage(null);
+        } else {
+            log.warn("Reference solution of question {} disagrees with test cases {}", question.getQuestionId(), mismatches);
+            question.setReferenceStatus(Question.ReferenceStatus.MISMATCH);
+            question.setReferenceMessage("Expected output differs from the reference solution for test cases " + mismatches);
+        }
+    }
+
+    /**
+     * Reference runtime times the multiplier, rounded up to 100 ms and clamped to the configured range
+     */
+    long deriveTimeLimit(long referenceRuntimeMs) {
+        long limit = (long) Math.ceil(referenceRuntimeMs * timeLimitMultiplier / 100.0) * 100;
+        return Math.min(maxTimeLimitMs, Math.max(minTimeLimitMs, limit));
+    }
+
+    /**
+     * One batch run per stripe of cases, all in flight at once; returns each case's result
+     */
+    private Map<Long, Map<String, Object>> runAll(Question question, String language, List<TestCase> testCases) {
+        int stripes = Math.min(parallelism, testCases.size());
+        List<List<TestCase>> batches = new ArrayList<>();
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            List<TestCase> batch = new ArrayList<>();
+            for (int i = stripe; i < testCases.size(); i += stripes) {
+                batch.add(testCases.get(i));
+            }
+            batches.add(batch);
+        }
+
+        // Keyed by id: the outcome is applied to a copy of the question loaded again afterwards
+        Map<Long, Map<String, Object>> results = new HashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<String, Object>>> futures = new ArrayList<>();
+            for (List<TestCase> batch : batches) {
+                futures.add(executor.submit(() -> runBatch(question, language, batch)));
+            }
+            for (int b = 0; b < batches.size(); b++) {
+                Map<String, Object> response = futures.get(b).get();
+                List<TestCase> batch = batches.get(b);
+                for (Map<String, Object> result : results(response)) {
+                    Long index = toLong(result.get("index"));
+                    if (index != null && index >= 0 && index < batch.size()) {
+                        results.put(batch.get(index.intValue()).getTestCaseId(), withBatch(result, response));
+                    }
+                }
+                // Cases with no result of their own carry the batch-level outcome, e.g. a compile error
+                for (TestCase testCase : batch) {
+                    results.putIfAbsent(testCase.getTestCaseId(), withBatch(new HashMap<>(), response));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the reference solution", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> runBatch(Question question, String language, List<TestCase> batch) {
+        List<Map<String, Object>> cases = new ArrayList<>();
+        for (TestCase testCase : batch) {
+            Map<String, Object> input = new HashMap<>();
+            input.put("input", testCase.getInputData());
+            input.put("expectedOutput", testCase.getExpectedOutput());
+            input.put("comparator", testCase.getComparator());
+            input.put("absoluteError", testCase.getAbsoluteError());
+            input.put("relativeError", testCase.getRelativeError());
+            cases.add(input);
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("language", language);
+        request.put("code", question.getReferenceSolution());
+        request.put("runTimeout", runTimeoutMs);
+        // Outputs become expected outputs, so they are needed whole rather than as displayed
+        request.put("fullOutput", true);
+        request.put("testCases", cases);
+
+        Map<String, Object> response = restTemplate.postForObject(
+                executionServiceUrl + "/api/code/run/batch", request, Map.class);
+        return response != null ? response : Map.of("message", "Empty response from execution service");
+    }
+
+    /**
+     * Why the reference run of a case does not count, or null if it ran cleanly
+     */
+    @SuppressWarnings("unchecked")
+    private String failureOf(TestCase testCase, Map<String, Object> result) {
+        Map<String, Object> compile = (Map<String, Object>) result.get("compile");
+        Long compileCode = compile != null ? toLong(compile.get("code")) : null;
+        if (compileCode != null && compileCode != 0) {
+            Object output = compile.get("stderr") != null ? compile.get("stderr") : compile.get("output");
+            return "Reference solution did not compile: " + output;
+        }
+        if (!result.containsKey("index")) {
+            Object message = result.get("message");
+            return "Reference solution could not be run" + (message != null ? ": " + message : "");
+        }
+        Long code = toLong(result.get("code"));
+        Object signal = result.get("signal");
+        if (signal != null || code == null || code != 0) {
+            return "Reference solution failed on test case " + testCase.getTestCaseOrder()
+                    + " (exit code " + code + (signal != null ? ", signal " + signal : "") + "): " + result.get("stderr");
+        }
+        if (Boolean.TRUE.equals(result.get("outputTruncated"))) {
+            // Only the start and end came back, which is no expected output
+            return "Reference solution printed more than the execution service keeps on test case "
+                    + testCase.getTestCaseOrder();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> results(Map<String, Object> response) {
+        Object results = response.get("results");
+        return results instanceof List<?> list ? (List<Map<String, Object>>) list : List.of();
+    }
+
+    private Map<String, Object> withBatch(Map<String, Object> result, Map<String, Object> response) {
+        Map<String, Object> merged = new HashMap<>(result);
+        merged.put("compile", response.get("compile"));
+        merged.putIfAbsent("message", response.get("message"));
+        return merged;
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    /**
+     * Per-case results of a reference run by test case id, or why it could not run at all
+     */
+    public record ReferenceRun(String failure, Map<Long, Map<String, Object>> results) {
+    }
+}
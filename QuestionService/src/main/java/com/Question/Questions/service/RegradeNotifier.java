@@ -0,0 +1,63 @@
+package com.Question.Questions.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tells the evaluation service that the answer key of some questions was corrected, so evaluations
+ * already stored for them are regraded.
+ *
+ * The call is made once the transaction commits, so the regrade reads the corrected key, and on a
+ * virtual thread, so the edit does not wait for it. A failed call is only logged; the regrade can be
+ * triggered again with POST /api/evaluations/regrade.
+ */
+@Service
+@Slf4j
+public class RegradeNotifier {
+
+    private final RestTemplate restTemplate;
+    private final String executionServiceUrl;
+    private final boolean enabled;
+
+    public RegradeNotifier(RestTemplate restTemplate,
+                           @Value("${execution.service.url:http://localhost:8083}") String executionServiceUrl,
+                           @Value("${regrade.notify.enabled:true}") boolean enabled) {
+        this.restTemplate = restTemplate;
+        this.executionServiceUrl = executionServiceUrl;
+        this.enabled = enabled;
+    }
+
+    public void answerKeyChanged(Long questionId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    Thread.startVirtualThread(() -> notifyRegrade(questionId));
+                }
+            });
+        } else {
+            Thread.startVirtualThread(() -> notifyRegrade(questionId));
+        }
+    }
+
+    private void notifyRegrade(Long questionId) {
+        try {
+            Map<?, ?> result = restTemplate.postForObject(executionServiceUrl + "/api/evaluations/regrade",
+                    Map.of("questionIds", List.of(String.valueOf(questionId))), Map.class);
+            log.info("Regraded evaluations of question {}: {}", questionId, result);
+        } catch (RestClientException e) {
+            log.warn("Could not request a regrade of question {}: {}", questionId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.Question.Questions.service;
+
+import com.Question.Questions.entity.Question;
+import com.Question.Questions.entity.TestCase;
+import com.Question.Questions.exception.ResourceNotFoundException;
+import com.Question.Questions.repository.QuestionRepository;
+import com.Question.Questions.repository.TestCaseRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Packs a question's whole test suite into one gzip-compressed JSON bundle named by the
+ * SHA-256 of its uncompressed content.
+ *
+ * The same test cases always give the same bytes and hash, so the hash doubles as a strong
+ * ETag and a bundle fetched by hash never changes. Built bundles are kept in memory until
+ * the question or its test cases change, the least recently used beyond max-entries are dropped.
+ */
+@Service
+@Slf4j
+public class TestSuiteBundleService {
+
+    private final QuestionRepository questionRepository;
+    private final TestCaseRepository testCaseRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final LinkedHashMap<Long, Bundle> bundles; // guarded by itself
+    // Bumped by every eviction; a bundle whose build overlapped one may hold stale data and is not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public TestSuiteBundleService(QuestionRepository questionRepository,
+                                  TestCaseRepository testCaseRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${test-suite.cache.max-entries:256}") int maxEntries) {
+        this.questionRepository = questionRepository;
+        this.testCaseRepository = testCaseRepository;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.bundles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Bundle> eldest) {
+                return size() > TestSuiteBundleService.this.maxEntries;
+            }
+        };
+    }
+
+    public record Bundle(String hash, byte[] content, int testCaseCount) {
+    }
+
+    /**
+     * The current bundle of the question, built on first use
+     */
+    @Transactional(readOnly = true)
+    public Bundle getBundle(Long questionId) {
+        synchronized (bundles) {
+            Bundle bundle = bundles.get(questionId);
+            if (bundle != null) {
+                return bundle;
+            }
+        }
+        long builtAt = generation.get();
+        Bundle bundle = build(questionId);
+        synchronized (bundles) {
+            if (generation.get() == builtAt) {
+                bundles.put(questionId, bundle);
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Forget the question's bundle now and again once the surrounding transaction commits,
+     * so a bundle rebuilt from not yet committed data does not linger
+     */
+    public void evict(Long questionId) {
+        remove(questionId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(questionId);
+                }
+            });
+        }
+    }
+
+    private void remove(Long questionId) {
+        synchronized (bundles) {
+            generation.incrementAndGet();
+            bundles.remove(questionId);
+        }
+    }
+
+    private Bundle build(Long questionId) {
+        Question question = questionRepository.findById(questionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + questionId));
+        List<TestCase> testCases = testCaseRepository.findByQuestionQuestionIdOrderByTestCaseOrderAsc(questionId);
+
+        List<Map<String, Object>> cases = new ArrayList<>();
+        for (TestCase testCase : testCases) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("testCaseId", testCase.getTestCaseId());
+            entry.put("inputData", testCase.getInputData());
+            entry.put("expectedOutput", testCase.getExpectedOutput());
+            entry.put("isSample", testCase.getIsSample());
+            entry.put("testCaseOrder", testCase.getTestCaseOrder());
+            entry.put("comparator", testCase.getComparator());
+            entry.put("absoluteError", testCase.getAbsoluteError());
+            entry.put("relativeError", testCase.getRelativeError());
+            entry.put("checkerCode", testCase.getCheckerCode());
+            entry.put("checkerLanguage", testCase.getCheckerLanguage());
+            cases.add(entry);
+        }
+        Map<String, Object> suite = new LinkedHashMap<>();
+        suite.put("questionId", questionId);
+        suite.put("runTimeLimitMs", question.getRunTimeLimitMs());
+        suite.put("testCases", cases);
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(suite);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+            log.info("Built test suite bundle {} for question {}: {} test cases, {} bytes ({} uncompressed)",
+                    hash, questionId, cases.size(), compressed.size(), json.length);
+            return new Bundle(hash, compressed.toByteArray(), cases.size());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize test suite of question " + questionId, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
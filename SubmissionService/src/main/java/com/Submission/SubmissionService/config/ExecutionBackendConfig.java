@@ -0,0 +1,57 @@
+package com.Submission.SubmissionService.config;
+
+import com.Submission.SubmissionService.service.CodeRunner;
+import com.Submission.SubmissionService.service.ExecutionBackendPool;
+import com.Submission.SubmissionService.service.LocalCodeRunner;
+import com.Submission.SubmissionService.service.PistonApiService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@Slf4j
+public class ExecutionBackendConfig {
+
+    /**
+     * Build the backend pool from execution.backends. Each entry is "local", "piston"
+     * (the instance at piston.api.url) or the base URL of another Piston instance.
+     */
+    @Bean
+    public ExecutionBackendPool executionBackendPool(
+            @Value("${execution.backends:piston}") List<String> backends,
+            @Value("${piston.api.url:https://emkc.org/api/v2/piston}") String pistonApiUrl,
+            @Value("${piston.api.connect-timeout-ms:5000}") int connectTimeoutMs,
+            @Value("${piston.api.read-timeout-ms:60000}") int readTimeoutMs,
+            @Value("${execution.pool.failure-threshold:3}") int failureThreshold,
+            @Value("${execution.output.max-bytes:4194304}") int maxOutputBytes,
+            LocalCodeRunner localCodeRunner) {
+        List<CodeRunner> runners = new ArrayList<>();
+        for (String backend : backends) {
+            String entry = backend.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (entry.equalsIgnoreCase("local")) {
+                // Without a process limit one fork bomb takes the whole host down
+                if (!localCodeRunner.isProcessLimited()) {
+                    throw new IllegalStateException("The local execution backend needs a process limit: set "
+                            + "execution.local.cgroup-parent, or run as a dedicated user with "
+                            + "execution.local.limit-user-processes=true");
+                }
+                runners.add(localCodeRunner);
+            } else if (entry.equalsIgnoreCase("piston")) {
+                runners.add(new PistonApiService(pistonApiUrl, connectTimeoutMs, readTimeoutMs, maxOutputBytes));
+            } else if (entry.startsWith("http://") || entry.startsWith("https://")) {
+                runners.add(new PistonApiService(entry, connectTimeoutMs, readTimeoutMs, maxOutputBytes));
+            } else {
+                throw new IllegalStateException("Unknown execution backend '" + entry
+                        + "', expected local, piston or a Piston URL");
+            }
+        }
+        return new ExecutionBackendPool(runners, failureThreshold);
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.IndexOperations;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 @Slf4j
@@ -23,30 +25,48 @@ public class MongoConfig {
             log.info("Creating MongoDB indexes...");
 
             IndexOperations submissionOps = mongoTemplate.indexOps(Submission.class);
-            submissionOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC));
-            submissionOps.ensureIndex(new Index().on("testId", Sort.Direction.ASC));
-            submissionOps.ensureIndex(new Index().on("status", Sort.Direction.ASC));
-            submissionOps.ensureIndex(new Index()
+            submissionOps.createIndex(new Index().on("userId", Sort.Direction.ASC));
+            submissionOps.createIndex(new Index().on("testId", Sort.Direction.ASC));
+            submissionOps.createIndex(new Index().on("status", Sort.Direction.ASC));
+            submissionOps.createIndex(new Index()
                     .on("userId", Sort.Direction.ASC)
                     .on("createdAt", Sort.Direction.DESC));
-            submissionOps.ensureIndex(new Index()
+            submissionOps.createIndex(new Index()
                     .on("testId", Sort.Direction.ASC)
                     .on("createdAt", Sort.Direction.DESC));
+            // Evaluation workers claim the oldest SUBMITTED submission or a RUNNING one whose lease expired
+            submissionOps.createIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("leaseExpiresAt", Sort.Direction.ASC));
+            submissionOps.createIndex(new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.ASC));
+            // Bulk evaluation looks up the pending submissions of one test
+            submissionOps.createIndex(new Index()
+                    .on("testId", Sort.Direction.ASC)
+                    .on("status", Sort.Direction.ASC));
+
+            // Results of attempts that were never submitted are dropped after a week
+            mongoTemplate.indexOps(ProvisionalEvaluation.class).createIndex(new Index()
+                    .on("updatedAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(7)));
 
             IndexOperations fileOps = mongoTemplate.indexOps(SubmissionFile.class);
-            fileOps.ensureIndex(new Index().on("submissionId", Sort.Direction.ASC));
-            fileOps.ensureIndex(new Index().on("questionId", Sort.Direction.ASC));
+            fileOps.createIndex(new Index().on("submissionId", Sort.Direction.ASC));
+            fileOps.createIndex(new Index().on("questionId", Sort.Direction.ASC));
 
             IndexOperations executionOps = mongoTemplate.indexOps(CodeExecution.class);
-            executionOps.ensureIndex(new Index().on("submissionId", Sort.Direction.ASC));
-            executionOps.ensureIndex(new Index().on("questionId", Sort.Direction.ASC));
-            executionOps.ensureIndex(new Index().on("status", Sort.Direction.ASC));
-            executionOps.ensureIndex(new Index()
+            executionOps.createIndex(new Index().on("submissionId", Sort.Direction.ASC));
+            executionOps.createIndex(new Index().on("questionId", Sort.Direction.ASC));
+            executionOps.createIndex(new Index().on("status", Sort.Direction.ASC));
+            executionOps.createIndex(new Index()
                     .on("submissionId", Sort.Direction.ASC)
                     .on("executedAt", Sort.Direction.DESC));
 
             IndexOperations evaluationOps = mongoTemplate.indexOps(Evaluation.class);
-            evaluationOps.ensureIndex(new Index().on("submissionId", Sort.Direction.ASC).unique());
+            evaluationOps.createIndex(new Index().on("submissionId", Sort.Direction.ASC).unique());
+            // Multikey: finds the evaluations that graded a question when its answer key is corrected
+            evaluationOps.createIndex(new Index().on("questionResults.questionId", Sort.Direction.ASC));
 
             log.info("MongoDB indexes created successfully");
         } catch (Exception e) {
@@ -2,6 +2,7 @@ package com.Submission.SubmissionService.controller;
 
 import com.Submission.SubmissionService.dto.CodeExecutionResponse;
 import com.Submission.SubmissionService.dto.ExecuteCodeRequest;
+import com.Submission.SubmissionService.dto.ExecutionStatsResponse;
 import com.Submission.SubmissionService.service.CodeExecutionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -51,5 +52,10 @@ public class CodeExecutionController {
         List<CodeExecutionResponse> responses = executionService.getExecutionsByQuestion(questionId);
         return ResponseEntity.ok(responses);
     }
-}
 
+    @GetMapping("/question/{questionId}/stats")
+    public ResponseEntity<ExecutionStatsResponse> getQuestionStats(@PathVariable String questionId) {
+        log.info("GET /api/executions/question/{}/stats - Fetching execution stats", questionId);
+        return ResponseEntity.ok(executionService.getQuestionStats(questionId));
+    }
+}
@@ -0,0 +1,57 @@
+package com.Submission.SubmissionService.controller;
+
+import com.Submission.SubmissionService.dto.CodeJobResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.service.CodeJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/code/jobs")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class CodeJobController {
+
+    private final CodeJobService codeJobService;
+
+    /**
+     * Queue code for execution and return a job id immediately
+     * POST /api/code/jobs
+     */
+    @PostMapping
+    public ResponseEntity<CodeJobResponse> submitJob(@Valid @RequestBody RunCodeRequest request,
+                                                     HttpServletRequest httpRequest) {
+        log.info("POST /api/code/jobs - Queueing {} code", request.getLanguage());
+        request.setCandidateId(ExecutionFlows.keyOf(httpRequest));
+        CodeJobResponse response = codeJobService.submitJob(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Poll the status (and result, once done) of a job
+     * GET /api/code/jobs/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<CodeJobResponse> getJob(@PathVariable String jobId) {
+        log.debug("GET /api/code/jobs/{} - Polling job", jobId);
+        return ResponseEntity.ok(codeJobService.getJob(jobId));
+    }
+
+    /**
+     * Stream status changes of a job as server-sent events
+     * GET /api/code/jobs/{jobId}/events
+     */
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(@PathVariable String jobId) {
+        log.info("GET /api/code/jobs/{}/events - Subscribing to job", jobId);
+        return codeJobService.subscribe(jobId);
+    }
+}
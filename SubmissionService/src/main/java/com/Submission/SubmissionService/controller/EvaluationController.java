@@ -1,13 +1,27 @@
 package com.Submission.SubmissionService.controller;
 
+import com.Submission.SubmissionService.dto.BulkEvaluationResponse;
 import com.Submission.SubmissionService.dto.EvaluateSubmissionRequest;
 import com.Submission.SubmissionService.dto.EvaluationResponse;
+import com.Submission.SubmissionService.dto.ProvisionalAnswersRequest;
+import com.Submission.SubmissionService.dto.RegradeRequest;
+import com.Submission.SubmissionService.dto.RegradeResponse;
+import com.Submission.SubmissionService.service.BulkEvaluationService;
 import com.Submission.SubmissionService.service.EvaluationService;
+import com.Submission.SubmissionService.service.EvaluationWorker;
+import com.Submission.SubmissionService.service.ProvisionalEvaluationService;
+import com.Submission.SubmissionService.service.RegradeService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/evaluations")
@@ -17,10 +31,17 @@ import org.springframework.web.bind.annotation.*;
 public class EvaluationController {
 
     private final EvaluationService evaluationService;
+    private final EvaluationWorker evaluationWorker;
+    private final BulkEvaluationService bulkEvaluationService;
+    private final ProvisionalEvaluationService provisionalEvaluationService;
+    private final RegradeService regradeService;
 
     /**
      * Evaluate a submission - Main API endpoint
      * POST /api/evaluations/submission/{submissionId}
+     *
+     * With the evaluation worker enabled the submission is queued and 202 Accepted is returned;
+     * poll the Location for the result. An existing evaluation is returned right away.
      */
     @PostMapping("/submission/{submissionId}")
     public ResponseEntity<EvaluationResponse> evaluateSubmission(
@@ -29,6 +50,16 @@ public class EvaluationController {
         log.info("POST /api/evaluations/submission/{} - Starting evaluation", submissionId);
 
         try {
+            if (evaluationWorker.isEnabled()) {
+                Optional<EvaluationResponse> existing = evaluationService.findEvaluationBySubmissionId(submissionId);
+                if (existing.isPresent()) {
+                    return ResponseEntity.status(HttpStatus.CREATED).body(existing.get());
+                }
+                evaluationWorker.enqueue(submissionId, request != null ? request.getPassingThreshold() : null);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/evaluations/submission/" + submissionId))
+                        .build();
+            }
             EvaluationResponse response = evaluationService.evaluateSubmission(submissionId, request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
@@ -37,6 +68,44 @@ public class EvaluationController {
         }
     }
 
+    /**
+     * Evaluate every pending submission of a test in the background
+     * POST /api/evaluations/test/{testId}
+     *
+     * Returns 202 Accepted with the job's progress; a job already running for the test is returned instead
+     * of starting another.
+     */
+    @PostMapping("/test/{testId}")
+    public ResponseEntity<BulkEvaluationResponse> evaluateTest(
+            @PathVariable String testId,
+            @RequestBody(required = false) EvaluateSubmissionRequest request) {
+        log.info("POST /api/evaluations/test/{} - Starting bulk evaluation", testId);
+        BulkEvaluationResponse response = bulkEvaluationService.startJob(testId, request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/evaluations/jobs/" + response.getJobId()))
+                .body(response);
+    }
+
+    /**
+     * Poll the progress of a bulk evaluation job
+     * GET /api/evaluations/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BulkEvaluationResponse> getBulkJob(@PathVariable String jobId) {
+        log.debug("GET /api/evaluations/jobs/{} - Polling bulk evaluation", jobId);
+        return ResponseEntity.ok(bulkEvaluationService.getJob(jobId));
+    }
+
+    /**
+     * Stream the progress of a bulk evaluation job as server-sent events
+     * GET /api/evaluations/jobs/{jobId}/events
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBulkJob(@PathVariable String jobId) {
+        log.info("GET /api/evaluations/jobs/{}/events - Subscribing to bulk evaluation", jobId);
+        return bulkEvaluationService.subscribe(jobId);
+    }
+
     /**
      * Get evaluation by evaluation ID
      * GET /api/evaluations/{evaluationId}
@@ -59,4 +128,50 @@ public class EvaluationController {
         EvaluationResponse response = evaluationService.getEvaluationBySubmissionId(submissionId);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Grade the answers an autosave changed, ahead of submit
+     * PUT /api/evaluations/provisional/{candidateId}
+     */
+    @PutMapping("/provisional/{candidateId}")
+    public ResponseEntity<Void> applyProvisionalAnswers(
+            @PathVariable String candidateId,
+            @Valid @RequestBody ProvisionalAnswersRequest request) {
+        log.debug("PUT /api/evaluations/provisional/{} - Grading {} changed answers", candidateId,
+                request.getAnswers() != null ? request.getAnswers().size() : 0);
+        provisionalEvaluationService.applyAnswers(candidateId, request);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Drop the provisional results of an attempt
+     * DELETE /api/evaluations/provisional/{candidateId}
+     */
+    @DeleteMapping("/provisional/{candidateId}")
+    public ResponseEntity<Void> discardProvisionalAnswers(@PathVariable String candidateId) {
+        log.info("DELETE /api/evaluations/provisional/{} - Discarding provisional results", candidateId);
+        provisionalEvaluationService.discard(candidateId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Drop the cached answer key of a test so its next evaluation rebuilds it
+     * DELETE /api/evaluations/answer-keys/{testId}
+     */
+    @DeleteMapping("/answer-keys/{testId}")
+    public ResponseEntity<Void> evictAnswerKey(@PathVariable String testId) {
+        log.info("DELETE /api/evaluations/answer-keys/{} - Evicting answer key", testId);
+        evaluationService.evictAnswerKey(testId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Regrade the stored evaluations of questions whose answer key was corrected
+     * POST /api/evaluations/regrade
+     */
+    @PostMapping("/regrade")
+    public ResponseEntity<RegradeResponse> regrade(@Valid @RequestBody RegradeRequest request) {
+        log.info("POST /api/evaluations/regrade - Regrading questions {}", request.getQuestionIds());
+        return ResponseEntity.ok(regradeService.regrade(request.getQuestionIds()));
+    }
 }
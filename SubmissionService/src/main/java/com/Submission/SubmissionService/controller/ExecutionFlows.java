@@ -0,0 +1,22 @@
+package com.Submission.SubmissionService.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+/**
+ * Who an interactive run is queued for. The scheduler shares capacity per key, so the key comes
+ * from the caller's principal or, without one, its connection, never from the request body:
+ * a client inventing a new id per request would otherwise get a fresh share every time.
+ * Behind a proxy, set server.forward-headers-strategy so the remote address is the client's.
+ */
+final class ExecutionFlows {
+
+    private ExecutionFlows() {
+    }
+
+    static String keyOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : "addr:" + request.getRemoteAddr();
+    }
+}
@@ -1,9 +1,18 @@
 package com.Submission.SubmissionService.controller;
 
+import com.Submission.SubmissionService.dto.BatchRunRequest;
+import com.Submission.SubmissionService.dto.BatchRunResponse;
+import com.Submission.SubmissionService.dto.CodeCheckResponse;
+import com.Submission.SubmissionService.dto.ExecutionBackendStatus;
 import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
 import com.Submission.SubmissionService.dto.RunCodeRequest;
 import com.Submission.SubmissionService.dto.RunCodeResponse;
-import com.Submission.SubmissionService.service.PistonApiService;
+import com.Submission.SubmissionService.dto.SchedulerMetricsResponse;
+import com.Submission.SubmissionService.service.CodeCheckService;
+import com.Submission.SubmissionService.service.ExecutionBackendPool;
+import com.Submission.SubmissionService.service.ExecutionScheduler;
+import com.Submission.SubmissionService.service.ExecutionDispatcher;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/code")
@@ -19,7 +29,10 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class PistonCodeController {
 
-    private final PistonApiService pistonApiService;
+    private final ExecutionDispatcher executionDispatcher;
+    private final ExecutionScheduler executionScheduler;
+    private final ExecutionBackendPool executionBackendPool;
+    private final CodeCheckService codeCheckService;
 
     /**
      * Get list of available programming languages/runtimes
@@ -28,8 +41,7 @@ public class PistonCodeController {
     @GetMapping("/runtimes")
     public ResponseEntity<List<PistonRuntimeResponse>> getRuntimes() {
         log.info("GET /api/code/runtimes - Fetching available runtimes");
-        List<PistonRuntimeResponse> runtimes = pistonApiService.getRuntimes();
-        return ResponseEntity.ok(runtimes);
+        return ResponseEntity.ok(executionDispatcher.getRuntimes());
     }
 
     /**
@@ -37,10 +49,53 @@ public class PistonCodeController {
      * POST /api/code/run
      */
     @PostMapping("/run")
-    public ResponseEntity<RunCodeResponse> runCode(@Valid @RequestBody RunCodeRequest request) {
+    public CompletableFuture<ResponseEntity<RunCodeResponse>> runCode(@Valid @RequestBody RunCodeRequest request,
+                                                                      HttpServletRequest httpRequest) {
         log.info("POST /api/code/run - Executing {} code", request.getLanguage());
-        RunCodeResponse response = pistonApiService.executeCode(request);
-        return ResponseEntity.ok(response);
+        request.setCandidateId(ExecutionFlows.keyOf(httpRequest));
+        return executionDispatcher.executeCode(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Execute code against a batch of test cases and judge each case on the server
+     * POST /api/code/run/batch
+     */
+    @PostMapping("/run/batch")
+    public CompletableFuture<ResponseEntity<BatchRunResponse>> runBatch(@Valid @RequestBody BatchRunRequest request,
+                                                                        HttpServletRequest httpRequest) {
+        log.info("POST /api/code/run/batch - Executing {} code against {} test cases",
+                request.getLanguage(), request.getTestCases().size());
+        request.setCandidateId(ExecutionFlows.keyOf(httpRequest));
+        return executionDispatcher.executeBatch(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Report compile errors without running the code; Java is compiled in-process
+     * POST /api/code/check
+     */
+    @PostMapping("/check")
+    public CompletableFuture<ResponseEntity<CodeCheckResponse>> checkCode(@Valid @RequestBody RunCodeRequest request,
+                                                                         HttpServletRequest httpRequest) {
+        log.info("POST /api/code/check - Checking {} code", request.getLanguage());
+        request.setCandidateId(ExecutionFlows.keyOf(httpRequest));
+        return codeCheckService.check(request).thenApply(ResponseEntity::ok);
     }
-}
 
+    /**
+     * Queue depth, throughput and wait-time metrics of the execution scheduler
+     * GET /api/code/scheduler/metrics
+     */
+    @GetMapping("/scheduler/metrics")
+    public ResponseEntity<SchedulerMetricsResponse> getSchedulerMetrics() {
+        return ResponseEntity.ok(executionScheduler.getMetrics());
+    }
+
+    /**
+     * Health and load of every execution backend in the pool
+     * GET /api/code/backends
+     */
+    @GetMapping("/backends")
+    public ResponseEntity<List<ExecutionBackendStatus>> getBackends() {
+        return ResponseEntity.ok(executionBackendPool.getStatus());
+    }
+}
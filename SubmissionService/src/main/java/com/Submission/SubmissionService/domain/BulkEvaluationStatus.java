@@ -0,0 +1,8 @@
+package com.Submission.SubmissionService.domain;
+
+public enum BulkEvaluationStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -35,8 +35,9 @@ public class CodeExecution {
     private String language;
 
     private Instant executedAt;
-    private Long runTimeMs;
-    private Long memoryUsedMb;
+    private Long runTimeMs; // Slowest test case, wall clock
+    private Long cpuTimeMs; // Slowest test case, CPU
+    private Long memoryUsedMb; // Highest peak memory of any test case
     private Integer exitCode;
 
     @Indexed
@@ -0,0 +1,9 @@
+package com.Submission.SubmissionService.domain;
+
+public enum CodeJobStatus {
+    QUEUED,
+    COMPILING,
+    RUNNING,
+    DONE,
+    FAILED
+}
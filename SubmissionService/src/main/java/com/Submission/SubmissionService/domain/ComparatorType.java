@@ -0,0 +1,13 @@
+package com.Submission.SubmissionService.domain;
+
+/**
+ * How a program's output is judged against the expected output of a test case.
+ * Mirrors TestCase.ComparatorType in QuestionService.
+ */
+public enum ComparatorType {
+    EXACT,           // Identical apart from leading and trailing whitespace of the whole output
+    TOKEN,           // Same whitespace-separated tokens
+    FLOAT,           // Same tokens, numbers within an absolute or relative error
+    UNORDERED_LINES, // Same lines in any order, ignoring trailing whitespace and blank lines
+    CUSTOM           // Decided by a checker program, see CustomChecker
+}
@@ -41,6 +41,7 @@ public class Evaluation {
     private Integer codingTotal;
 
     private Instant evaluatedAt;
+    private Instant regradedAt; // Last time a corrected answer key changed the results
     private String evaluatorId;
     private String remarks;
 
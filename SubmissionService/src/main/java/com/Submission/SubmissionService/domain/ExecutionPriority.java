@@ -0,0 +1,6 @@
+package com.Submission.SubmissionService.domain;
+
+public enum ExecutionPriority {
+    INTERACTIVE, // Run / batch run clicks from the editor
+    EVALUATION   // Grading of submitted answers
+}
@@ -0,0 +1,35 @@
+package com.Submission.SubmissionService.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-question results of an attempt in progress, graded as its answers are autosaved.
+ * Evaluation on submit reuses a result when the final answer is the one it was graded for.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "provisional_evaluations")
+public class ProvisionalEvaluation {
+    @Id
+    private String id; // AssessmentService candidate (attempt) id
+
+    private String testId;
+    private String userId;
+    private String answerKeyVersion; // Results are only valid for this version of the answer key
+
+    @Builder.Default
+    private Map<String, QuestionResult> results = new HashMap<>(); // By question id, answered questions only
+
+    private Instant updatedAt;
+}
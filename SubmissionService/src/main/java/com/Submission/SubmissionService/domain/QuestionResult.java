@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -13,11 +16,18 @@ public class QuestionResult {
     private String questionId;
     private String questionType; // MCQ or CODING
     private String userAnswer;
+    private String selectedOptionId; // MCQ: the option the answer resolved to when graded, kept across option edits
     private String correctAnswer;
     private Boolean isCorrect;
     private Double pointsAwarded;
     private Double maxPoints;
     private String feedback;
     private String difficulty;
+
+    // Coding questions: the language the answer ran in and the hidden test execution behind the points awarded
+    private String language;
+    private Integer passedCount;
+    private Integer totalCount;
+    private List<Map<String, Object>> testCaseResults;
 }
 
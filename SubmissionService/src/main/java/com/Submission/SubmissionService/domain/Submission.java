@@ -45,5 +45,12 @@ public class Submission {
     private List<String> fileIds = new ArrayList<>();
 
     private String evaluationId;
+
+    // Evaluation lease: a worker owns the submission while status is RUNNING and leaseExpiresAt is in the future
+    private String leaseOwner;
+    private Instant leaseExpiresAt;
+    private Integer evaluationAttempts;
+    private String lastEvaluationError;
+    private Double passingThreshold; // From the evaluation request, used by the worker that evaluates it
 }
 
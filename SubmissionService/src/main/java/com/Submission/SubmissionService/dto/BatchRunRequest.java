@@ -0,0 +1,49 @@
+package com.Submission.SubmissionService.dto;
+
+import com.Submission.SubmissionService.domain.ComparatorType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRunRequest {
+    @NotBlank(message = "Language is required")
+    private String language;
+
+    @NotBlank(message = "Code is required")
+    private String code;
+
+    @Valid
+    @NotEmpty(message = "At least one test case is required")
+    private List<TestCaseInput> testCases;
+
+    private String version; // Optional: SemVer version selector
+    private List<String> args; // Arguments to pass to the program
+    private Integer runTimeout; // Max time in ms for run stage of each case (default: 3000)
+    private Integer compileTimeout; // Max time in ms for compile stage (default: 10000)
+    private Long compileMemoryLimit; // Max memory for compile in bytes (default: -1)
+    private Long runMemoryLimit; // Max memory for run in bytes (default: -1)
+    private String candidateId; // Who the run is for; set by the server, used to share execution capacity fairly
+    private Boolean fullOutput; // Return each case's whole output rather than the displayed part, for callers storing it
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCaseInput {
+        private String input; // Passed to the program as stdin
+        private String expectedOutput; // Compared with stdout on the server
+        private ComparatorType comparator; // Default EXACT; CUSTOM is judged as EXACT here, checkers only run on graded executions
+        private Double absoluteError; // FLOAT only
+        private Double relativeError; // FLOAT only
+    }
+}
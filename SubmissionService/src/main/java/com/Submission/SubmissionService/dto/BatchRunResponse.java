@@ -0,0 +1,44 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRunResponse {
+    private String language;
+    private String version;
+    private RunCodeResponse.CompileResult compile; // Shared by every case
+    private Integer passedCount;
+    private Integer totalCount;
+    private String message; // Error message if any
+
+    @Builder.Default
+    private List<TestCaseResult> results = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestCaseResult {
+        private Integer index;
+        private String input;
+        private String expectedOutput;
+        private String actualOutput;
+        private String stderr;
+        private Integer code;
+        private String signal;
+        private Long wallTimeMs;
+        private Long cpuTimeMs;
+        private Long memoryBytes;
+        private Boolean outputTruncated; // actualOutput is cut and cannot be judged or used as an expected output
+        private Boolean passed;
+    }
+}
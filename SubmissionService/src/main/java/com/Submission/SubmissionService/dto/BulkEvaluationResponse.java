@@ -0,0 +1,29 @@
+package com.Submission.SubmissionService.dto;
+
+import com.Submission.SubmissionService.domain.BulkEvaluationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEvaluationResponse {
+    private String jobId;
+    private String testId;
+    private BulkEvaluationStatus status;
+    private Integer questions; // Size of the test's answer key
+    private Long total; // Pending submissions found so far; grows if more arrive while the job runs
+    private Long processed;
+    private Long evaluated;
+    private Long skipped; // Already had an evaluation
+    private Long failed;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String error; // Present once status is FAILED
+}
@@ -0,0 +1,44 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeCheckResponse {
+    public static final String MODE_IN_PROCESS = "IN_PROCESS";
+    public static final String MODE_SANDBOX = "SANDBOX";
+
+    public static final String SEVERITY_ERROR = "ERROR";
+    public static final String SEVERITY_WARNING = "WARNING";
+    public static final String SEVERITY_NOTE = "NOTE";
+
+    private String language;
+    private String version;
+    private Boolean success; // No compile errors
+    private String mode; // IN_PROCESS (Java compiled in the service) or SANDBOX (compile-only backend call)
+    private String output; // Raw compiler output, when it came from a backend
+    private Long checkTimeMs;
+    private String message; // Error message if the check itself could not be done
+
+    @Builder.Default
+    private List<Diagnostic> diagnostics = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Diagnostic {
+        private String severity;
+        private Long line; // 1-based, null when the compiler does not say
+        private Long column; // 1-based, null when the compiler does not say
+        private String message;
+    }
+}
@@ -21,8 +21,9 @@ public class CodeExecutionResponse {
     private String questionId;
     private String language;
     private Instant executedAt;
-    private Long runTimeMs;
-    private Long memoryUsedMb;
+    private Long runTimeMs; // Slowest test case, wall clock
+    private Long cpuTimeMs; // Slowest test case, CPU
+    private Long memoryUsedMb; // Highest peak memory of any test case
     private Integer exitCode;
     private ExecutionStatus status;
     private String stdout;
@@ -0,0 +1,15 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeJobOutput {
+    private String stream; // stdout or stderr
+    private String data;
+}
@@ -0,0 +1,24 @@
+package com.Submission.SubmissionService.dto;
+
+import com.Submission.SubmissionService.domain.CodeJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeJobResponse {
+    private String jobId;
+    private CodeJobStatus status;
+    private String language;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant completedAt;
+    private RunCodeResponse result; // Present once status is DONE
+    private String error; // Present once status is FAILED
+}
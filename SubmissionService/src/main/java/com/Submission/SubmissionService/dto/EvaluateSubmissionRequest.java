@@ -11,6 +11,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class EvaluateSubmissionRequest {
     private Double passingThreshold; // Optional: percentage required to pass (e.g., 60.0)
-    private Boolean autoEvaluateCoding; // Whether to auto-evaluate coding questions
+    private Boolean autoEvaluateCoding; // Run coding answers against their hidden tests (default true)
 }
 
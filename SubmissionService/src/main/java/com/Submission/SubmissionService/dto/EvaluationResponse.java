@@ -36,6 +36,7 @@ public class EvaluationResponse {
     private Integer codingTotal;
 
     private Instant evaluatedAt;
+    private Instant regradedAt;
     private String evaluatorId;
     private String remarks;
 
@@ -26,5 +26,10 @@ public class ExecuteCodeRequest {
     private List<Map<String, Object>> testCases;
     private Long timeoutMs;
     private Long memoryLimitMb;
+
+    /**
+     * Stop at the first failing test case; cases that never ran are reported as SKIPPED
+     */
+    private Boolean failFast;
 }
 
@@ -0,0 +1,20 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionBackendStatus {
+    private String name;
+    private Boolean healthy;
+    private Integer inFlight;
+    private Long requests;
+    private Long failures;
+    private Integer consecutiveFailures;
+    private String lastError;
+}
@@ -0,0 +1,34 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionStatsResponse {
+    private String questionId;
+    private Long executions;
+    private Distribution wallTimeMs; // One sample per test case run
+    private Distribution cpuTimeMs;
+    private Distribution memoryKb; // Peak resident memory
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Distribution {
+        private Long count;
+        private Long min;
+        private Double mean;
+        private Long p50;
+        private Long p90;
+        private Long p95;
+        private Long p99;
+        private Long p999;
+        private Long max;
+    }
+}
@@ -0,0 +1,29 @@
+package com.Submission.SubmissionService.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisionalAnswersRequest {
+    @NotBlank
+    private String testId;
+
+    private String userId;
+
+    @Builder.Default
+    private Map<String, Object> answers = new HashMap<>(); // Answers changed since the last autosave, by question id
+
+    @Builder.Default
+    private List<String> removed = new ArrayList<>(); // Questions whose answer was cleared
+}
@@ -0,0 +1,18 @@
+package com.Submission.SubmissionService.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeRequest {
+    @NotEmpty
+    private List<String> questionIds; // Questions whose points, type or options changed
+}
@@ -0,0 +1,20 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegradeResponse {
+    private List<String> questionIds; // The requested questions QuestionService still knows
+    private Long evaluationsMatched; // Evaluations containing one of the questions
+    private Long evaluationsChanged; // Evaluations whose results changed and were written back
+    private Long questionResultsChanged;
+    private Long durationMs;
+}
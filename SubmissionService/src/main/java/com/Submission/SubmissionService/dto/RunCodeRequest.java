@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class RunCodeRequest {
@@ -26,5 +26,7 @@ public class RunCodeRequest {
     private Integer compileTimeout; // Max time in ms for compile stage (default: 10000)
     private Long compileMemoryLimit; // Max memory for compile in bytes (default: -1)
     private Long runMemoryLimit; // Max memory for run in bytes (default: -1)
+    private String candidateId; // Who the run is for; set by the server, used to share execution capacity fairly
+    private Boolean compileOnly; // Stop after the compile stage, for syntax checks
 }
 
@@ -6,7 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class RunCodeResponse {
@@ -17,7 +17,7 @@ public class RunCodeResponse {
     private String message; // Error message if any
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class RunResult {
@@ -26,10 +26,14 @@ public class RunCodeResponse {
         private String output;
         private Integer code;
         private String signal;
+        private Long wallTimeMs; // Null when the backend does not measure it
+        private Long cpuTimeMs;
+        private Long memoryBytes; // Peak resident memory
+        private Boolean stdoutTruncated; // Past the backend's output limit; stdout then holds only its start and end
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CompileResult {
@@ -38,6 +42,9 @@ public class RunCodeResponse {
         private String output;
         private Integer code;
         private String signal;
+        private Long wallTimeMs; // Null when the backend does not measure it
+        private Long cpuTimeMs;
+        private Long memoryBytes; // Peak resident memory
     }
 }
 
@@ -0,0 +1,43 @@
+package com.Submission.SubmissionService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerMetricsResponse {
+    // Configuration
+    private Double ratePerSecond;
+    private Integer burst;
+    private Integer maxQueueSize;
+    private Long maxQueueWaitMs;
+    private Integer workerThreads;
+    private Integer maxConcurrentPerCandidate;
+    private Integer maxConcurrentPerEvaluation;
+    private Integer evaluationWeight;
+
+    // Current state
+    private Integer queueDepth;
+    private Long queuedCost;
+    private Integer evaluationQueueDepth;
+    private Integer activeCandidates;
+    private Integer running;
+
+    // Admission control: queued work is capped at what the measured service rate clears within maxQueueWaitMs
+    private Double serviceRatePerSecond;
+    private Long queueCostLimit;
+    private Long estimatedWaitMs;
+
+    // Counters since startup
+    private Long submitted;
+    private Long completed;
+    private Long rejected;
+
+    // Time spent waiting in the queue before dispatch
+    private Double averageWaitMs;
+    private Double maxWaitMs;
+}
@@ -26,5 +26,7 @@ public class SubmissionResponse {
     private Map<String, Object> metadata;
     private List<String> fileIds;
     private String evaluationId;
+    private Integer evaluationAttempts;
+    private String lastEvaluationError;
 }
 
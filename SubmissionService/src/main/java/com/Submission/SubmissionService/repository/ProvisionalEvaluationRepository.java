@@ -0,0 +1,9 @@
+package com.Submission.SubmissionService.repository;
+
+import com.Submission.SubmissionService.domain.ProvisionalEvaluation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProvisionalEvaluationRepository extends MongoRepository<ProvisionalEvaluation, String> {
+}
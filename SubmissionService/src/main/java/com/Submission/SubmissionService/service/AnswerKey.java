@@ -0,0 +1,207 @@
+package com.Submission.SubmissionService.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The grading table of one test: per question its type, points, difficulty, which MCQ
+ * options are correct and the language of coding answers, in the order the test lists them.
+ *
+ * Built once per test version and shared by every evaluation of that test, so it is immutable
+ * and kept in parallel arrays indexed by position. Correct options are a bit mask over the
+ * question's options; a question has at most 32 options.
+ */
+public final class AnswerKey {
+
+    public static final String TYPE_MCQ = "MCQ";
+    public static final String TYPE_CODING = "CODING";
+
+    private static final int MAX_OPTIONS = 32;
+    private static final String[] NO_OPTIONS = new String[0];
+
+    private final String[] questionIds;
+    private final String[] types; // interned: "MCQ", "CODING" or whatever else the source said
+    private final int[] points;
+    private final String[] difficulties;
+    private final String[] languages;
+    private final int[] correctMasks;
+    private final String[][] optionLabels;
+    private final String[][] optionTexts;
+    private final String[][] optionIds;
+    private final Map<String, Integer> positions;
+    private final String version;
+
+    private AnswerKey(int size, String version) {
+        questionIds = new String[size];
+        types = new String[size];
+        points = new int[size];
+        difficulties = new String[size];
+        languages = new String[size];
+        correctMasks = new int[size];
+        optionLabels = new String[size][];
+        optionTexts = new String[size][];
+        optionIds = new String[size][];
+        positions = new HashMap<>(size * 2);
+        this.version = version;
+    }
+
+    /**
+     * Compile question maps, as served by QuestionService's answer key or the assessment structure:
+     * questionId, type, points (default 1), difficultyLevel, programmingLanguage and mcqOptions with
+     * optionId, optionLabel, optionText and isCorrect. The version identifies the source content, e.g. its ETag,
+     * and is null when unknown.
+     */
+    @SuppressWarnings("unchecked")
+    public static AnswerKey compile(List<Map<String, Object>> questions, String version) {
+        AnswerKey key = new AnswerKey(questions.size(), version);
+        for (int i = 0; i < questions.size(); i++) {
+            Map<String, Object> question = questions.get(i);
+            key.questionIds[i] = String.valueOf(question.get("questionId"));
+            key.types[i] = question.get("type") != null ? String.valueOf(question.get("type")).intern() : null;
+            key.points[i] = question.get("points") instanceof Number number ? number.intValue() : 1;
+            key.difficulties[i] = question.get("difficultyLevel") != null
+                    ? String.valueOf(question.get("difficultyLevel")).intern() : null;
+            key.languages[i] = question.get("programmingLanguage") != null
+                    ? String.valueOf(question.get("programmingLanguage")).toLowerCase().intern() : null;
+            key.positions.put(key.questionIds[i], i);
+
+            List<Map<String, Object>> options = question.get("mcqOptions") instanceof List<?> list
+                    ? (List<Map<String, Object>>) list : List.of();
+            int count = Math.min(options.size(), MAX_OPTIONS);
+            String[] labels = count > 0 ? new String[count] : NO_OPTIONS;
+            String[] texts = count > 0 ? new String[count] : NO_OPTIONS;
+            String[] ids = count > 0 ? new String[count] : NO_OPTIONS;
+            int mask = 0;
+            for (int j = 0; j < count; j++) {
+                Map<String, Object> option = options.get(j);
+                labels[j] = (String) option.get("optionLabel");
+                texts[j] = (String) option.get("optionText");
+                ids[j] = option.get("optionId") != null ? String.valueOf(option.get("optionId")) : null;
+                if (Boolean.TRUE.equals(option.get("isCorrect"))) {
+                    mask |= 1 << j;
+                }
+            }
+            key.optionLabels[i] = labels;
+            key.optionTexts[i] = texts;
+            key.optionIds[i] = ids;
+            key.correctMasks[i] = mask;
+        }
+        return key;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Position of the question in the key, or -1 if the test does not contain it
+     */
+    public int indexOf(String questionId) {
+        Integer position = positions.get(questionId);
+        return position != null ? position : -1;
+    }
+
+    public String questionId(int i) {
+        return questionIds[i];
+    }
+
+    public String type(int i) {
+        return types[i];
+    }
+
+    public int points(int i) {
+        return points[i];
+    }
+
+    public String difficulty(int i) {
+        return difficulties[i];
+    }
+
+    /**
+     * Language a coding answer is run in, or null when the question does not say
+     */
+    public String language(int i) {
+        return languages[i];
+    }
+
+    public int optionCount(int i) {
+        return optionLabels[i].length;
+    }
+
+    /**
+     * Labels of the correct options joined by commas, or null when none is marked correct
+     */
+    public String correctLabels(int i) {
+        int mask = correctMasks[i];
+        if (mask == 0) {
+            return null;
+        }
+        StringBuilder labels = new StringBuilder();
+        for (int j = 0; j < optionLabels[i].length; j++) {
+            if ((mask & (1 << j)) != 0) {
+                if (!labels.isEmpty()) {
+                    labels.append(',');
+                }
+                labels.append(optionLabels[i][j]);
+            }
+        }
+        return labels.toString();
+    }
+
+    /**
+     * The option label a candidate's answer stands for. Answers may be a label (A to D), the text
+     * of an option or its id; anything else is returned as is.
+     */
+    public String resolveLabel(int i, String answer) {
+        if (answer == null || answer.isEmpty()) {
+            return null;
+        }
+        if (answer.length() <= 2 && answer.matches("[A-Da-d]")) {
+            return answer.toUpperCase();
+        }
+        for (int j = 0; j < optionLabels[i].length; j++) {
+            if (answer.equals(optionTexts[i][j]) || answer.equals(optionIds[i][j])) {
+                return optionLabels[i][j];
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Id of the option a candidate's answer stands for, or null when it names none. Unlike the
+     * text or label, the id survives edits to the option.
+     */
+    public String resolveOptionId(int i, String answer) {
+        if (answer == null || answer.isEmpty()) {
+            return null;
+        }
+        for (int j = 0; j < optionLabels[i].length; j++) {
+            if (answer.equals(optionTexts[i][j]) || answer.equals(optionIds[i][j])
+                    || answer.equalsIgnoreCase(optionLabels[i][j])) {
+                return optionIds[i][j];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the label is one of the question's correct options
+     */
+    public boolean isCorrectLabel(int i, String label) {
+        if (label == null) {
+            return false;
+        }
+        int mask = correctMasks[i];
+        for (int j = 0; j < optionLabels[i].length; j++) {
+            if ((mask & (1 << j)) != 0 && label.equalsIgnoreCase(optionLabels[i][j])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
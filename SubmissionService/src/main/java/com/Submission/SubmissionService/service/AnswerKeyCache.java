@@ -0,0 +1,215 @@
+package com.Submission.SubmissionService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answer keys per test, so grading a test's submissions does not rebuild its structure each time.
+ *
+ * Which questions a test contains comes from AssessmentService's assessment structure, an
+ * expensive call that fans out to QuestionService per question; it is made once per test and again
+ * only after {@code evaluation.answer-key.structure-ttl-ms}. The grading data of those questions
+ * comes from QuestionService's answer key, which carries a content-hash ETag. A cached key is used
+ * as is for {@code evaluation.answer-key.revalidate-ms} and then revalidated with If-None-Match,
+ * which costs a 304 while no question changed. If QuestionService cannot serve the answer key, the
+ * key is compiled from the structure itself.
+ */
+@Component
+@Slf4j
+public class AnswerKeyCache {
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final String assessmentServiceUrl;
+    private final String questionServiceUrl;
+    private final long revalidateNanos;
+    private final long structureTtlNanos;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final AtomicLong structureFetches = new AtomicLong();
+    private final AtomicLong keyDownloads = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    private record Entry(AnswerKey key, String etag, List<String> questionIds, long structureFetchedAt,
+                         long validatedAt) {
+    }
+
+    public AnswerKeyCache(RestTemplate restTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${assessment.service.url:http://localhost:8081}") String assessmentServiceUrl,
+                          @Value("${question.service.url:http://localhost:8082}") String questionServiceUrl,
+                          @Value("${evaluation.answer-key.revalidate-ms:10000}") long revalidateMs,
+                          @Value("${evaluation.answer-key.structure-ttl-ms:600000}") long structureTtlMs) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.assessmentServiceUrl = assessmentServiceUrl;
+        this.questionServiceUrl = questionServiceUrl;
+        this.revalidateNanos = TimeUnit.MILLISECONDS.toNanos(revalidateMs);
+        this.structureTtlNanos = TimeUnit.MILLISECONDS.toNanos(structureTtlMs);
+    }
+
+    /**
+     * The test's answer key, refreshed first if it is due. Concurrent callers for the same test
+     * wait for one refresh instead of each fetching.
+     */
+    public AnswerKey get(String testId) {
+        Entry entry = entries.get(testId);
+        if (entry != null && isFresh(entry, System.nanoTime())) {
+            return entry.key();
+        }
+        synchronized (locks.computeIfAbsent(testId, id -> new Object())) {
+            entry = entries.get(testId);
+            if (entry != null && isFresh(entry, System.nanoTime())) {
+                return entry.key();
+            }
+            entry = refresh(testId, entry);
+            entries.put(testId, entry);
+            return entry.key();
+        }
+    }
+
+    /**
+     * Forget the test's key, e.g. after its assessment was edited, so the next evaluation rebuilds it
+     */
+    public void evict(String testId) {
+        entries.remove(testId);
+    }
+
+    /**
+     * Forget the keys of every test containing one of the questions, so their next evaluation
+     * revalidates right away instead of after revalidate-ms
+     */
+    public void evictContaining(Collection<String> questionIds) {
+        entries.values().removeIf(entry -> questionIds.stream().anyMatch(id -> entry.key().indexOf(id) >= 0));
+    }
+
+    /**
+     * The current answer key of the given questions straight from QuestionService, bypassing the cache;
+     * questions QuestionService does not know are left out
+     */
+    public AnswerKey fetch(List<String> questionIds) {
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(
+                questionServiceUrl + "/questions/answer-key?ids=" + String.join(",", questionIds), byte[].class);
+        try {
+            return compile(response);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable answer key for questions " + questionIds, e);
+        }
+    }
+
+    public long getStructureFetches() {
+        return structureFetches.get();
+    }
+
+    public long getKeyDownloads() {
+        return keyDownloads.get();
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return now - entry.validatedAt() < revalidateNanos && now - entry.structureFetchedAt() < structureTtlNanos;
+    }
+
+    private Entry refresh(String testId, Entry current) {
+        long now = System.nanoTime();
+        List<Map<String, Object>> structureQuestions = null;
+        List<String> questionIds;
+        long structureFetchedAt;
+        if (current == null || now - current.structureFetchedAt() >= structureTtlNanos) {
+            structureQuestions = fetchStructureQuestions(testId);
+            questionIds = structureQuestions.stream().map(question -> String.valueOf(question.get("questionId"))).toList();
+            structureFetchedAt = now;
+        } else {
+            questionIds = current.questionIds();
+            structureFetchedAt = current.structureFetchedAt();
+        }
+        // The ETag only describes the same list of questions
+        String knownEtag = current != null && current.etag() != null && questionIds.equals(current.questionIds())
+                ? current.etag() : null;
+
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            if (knownEtag != null) {
+                headers.setIfNoneMatch(knownEtag);
+            }
+            ResponseEntity<byte[]> response = restTemplate.exchange(
+                    questionServiceUrl + "/questions/answer-key?ids=" + String.join(",", questionIds),
+                    HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && knownEtag != null) {
+                notModified.incrementAndGet();
+                return new Entry(current.key(), knownEtag, questionIds, structureFetchedAt, now);
+            }
+            AnswerKey key = compile(response);
+            keyDownloads.incrementAndGet();
+            log.info("Answer key for test {} loaded: {} questions", testId, key.size());
+            return new Entry(key, key.version(), questionIds, structureFetchedAt, now);
+        } catch (RestClientException | IOException | IllegalArgumentException e) {
+            if (structureQuestions != null) {
+                log.warn("Answer key for test {} unavailable, compiling it from the assessment structure: {}",
+                        testId, e.getMessage());
+                return new Entry(AnswerKey.compile(structureQuestions, null), null, questionIds, structureFetchedAt, now);
+            }
+            log.warn("Could not revalidate answer key for test {}, keeping the cached one: {}", testId, e.getMessage());
+            return new Entry(current.key(), current.etag(), questionIds, structureFetchedAt, now);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private AnswerKey compile(ResponseEntity<byte[]> response) throws IOException {
+        List<Map<String, Object>> questions = (List<Map<String, Object>>)
+                objectMapper.readValue(response.getBody(), Map.class).get("questions");
+        return AnswerKey.compile(questions != null ? questions : List.of(), response.getHeaders().getETag());
+    }
+
+    /**
+     * Questions of the test in section order, with their details as the assessment structure lists them
+     */
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> fetchStructureQuestions(String testId) {
+        Map<String, Object> structure;
+        try {
+            structure = restTemplate.getForObject(assessmentServiceUrl + "/assessments/" + testId + "/structure", Map.class);
+        } catch (Exception e) {
+            log.error("Error fetching assessment structure for testId {}: {}", testId, e.getMessage());
+            throw new RuntimeException("Failed to fetch assessment structure: " + e.getMessage());
+        }
+        structureFetches.incrementAndGet();
+
+        List<Map<String, Object>> questions = new ArrayList<>();
+        Object questionsMap = structure != null ? structure.get("questionsMap") : null;
+        if (questionsMap instanceof Map<?, ?> sections) {
+            for (Object sectionQuestions : sections.values()) {
+                if (sectionQuestions instanceof List<?> list) {
+                    questions.addAll((List<Map<String, Object>>) list);
+                }
+            }
+        } else {
+            log.error("❌ questionsMap key not found in assessment structure for test {}", testId);
+        }
+        log.info("✓ Assessment structure fetched for test {}: {} questions", testId, questions.size());
+        return questions;
+    }
+}
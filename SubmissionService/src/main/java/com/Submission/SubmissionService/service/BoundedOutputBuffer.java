@@ -0,0 +1,108 @@
+package com.Submission.SubmissionService.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the first and last bytes of an output stream of any length.
+ *
+ * The head is filled first; after that, the most recent bytes are kept in a ring buffer that
+ * is only allocated once output spills past the head. Memory never exceeds headBytes +
+ * tailBytes, and the text shows how much was dropped in between. Not thread-safe: one writer, read once it is done.
+ */
+public class BoundedOutputBuffer {
+
+    private final int headBytes;
+    private final ByteArrayOutputStream head;
+    private final int tailBytes;
+    private byte[] tail;
+    private int tailStart;
+    private int tailLength;
+    private long totalBytes;
+
+    public BoundedOutputBuffer(int headBytes, int tailBytes) {
+        this.headBytes = Math.max(0, headBytes);
+        this.head = new ByteArrayOutputStream(Math.min(this.headBytes, 8192));
+        this.tailBytes = Math.max(0, tailBytes);
+        this.tail = new byte[0];
+    }
+
+    /**
+     * Half of maxBytes for the head and half for the tail
+     */
+    public static BoundedOutputBuffer ofSize(int maxBytes) {
+        return new BoundedOutputBuffer(maxBytes - maxBytes / 2, maxBytes / 2);
+    }
+
+    /**
+     * Cap text that is already in memory, e.g. a backend response, to maxBytes of UTF-8
+     */
+    public static String cap(String text, int maxBytes) {
+        if (text == null || text.length() <= maxBytes / 4) {
+            // Even at four bytes per character this fits
+            return text;
+        }
+        BoundedOutputBuffer buffer = ofSize(maxBytes);
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        return buffer.toString();
+    }
+
+    public void write(byte[] bytes, int offset, int length) {
+        totalBytes += length;
+        int toHead = Math.min(length, headBytes - head.size());
+        if (toHead > 0) {
+            head.write(bytes, offset, toHead);
+            offset += toHead;
+            length -= toHead;
+        }
+        if (length <= 0 || tailBytes == 0) {
+            return;
+        }
+        if (tail.length == 0) {
+            tail = new byte[tailBytes];
+        }
+        if (length >= tail.length) {
+            // Only the last tail.length bytes of this write survive
+            System.arraycopy(bytes, offset + length - tail.length, tail, 0, tail.length);
+            tailStart = 0;
+            tailLength = tail.length;
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            int position = (tailStart + tailLength) % tail.length;
+            tail[position] = bytes[offset + i];
+            if (tailLength < tail.length) {
+                tailLength++;
+            } else {
+                tailStart = (tailStart + 1) % tail.length;
+            }
+        }
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public boolean isTruncated() {
+        return totalBytes > (long) head.size() + tailLength;
+    }
+
+    /**
+     * Head and tail as UTF-8, with a marker where bytes were dropped
+     */
+    @Override
+    public String toString() {
+        byte[] kept = new byte[tailLength];
+        for (int i = 0; i < tailLength; i++) {
+            kept[i] = tail[(tailStart + i) % tail.length];
+        }
+        String headText = head.toString(StandardCharsets.UTF_8);
+        String tailText = new String(kept, StandardCharsets.UTF_8);
+        if (!isTruncated()) {
+            return headText + tailText;
+        }
+        long omitted = totalBytes - head.size() - tailLength;
+        return headText + "\n[output truncated: " + omitted + " bytes omitted]\n" + tailText;
+    }
+}
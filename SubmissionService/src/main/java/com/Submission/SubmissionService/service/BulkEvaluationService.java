@@ -0,0 +1,490 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.BulkEvaluationStatus;
+import com.Submission.SubmissionService.domain.Evaluation;
+import com.Submission.SubmissionService.domain.ProvisionalEvaluation;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import com.Submission.SubmissionService.domain.Submission;
+import com.Submission.SubmissionService.domain.SubmissionStatus;
+import com.Submission.SubmissionService.dto.BulkEvaluationResponse;
+import com.Submission.SubmissionService.dto.EvaluateSubmissionRequest;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Evaluates every pending submission of a test in one job: SUBMITTED, COMPLETED or FAILED ones, and
+ * RUNNING ones whose lease expired.
+ *
+ * The job works in batches. A batch is claimed with the same lease fields the evaluation workers use,
+ * so workers and other jobs leave it alone, and its leases are renewed on a heartbeat while the job
+ * runs. The batch is graded on virtual threads against one answer key, at most
+ * {@code evaluation.bulk.concurrency} submissions at a time since grading blocks on code execution,
+ * and written back with two unordered bulk writes: one inserting the evaluations, one updating the
+ * submissions. A submission that fails to grade is handed to the evaluation workers, which retry it
+ * with their backoff and attempt limit. Scores are then synced to AssessmentService from virtual
+ * threads. Progress is observed by polling or as server-sent events; jobs are held in memory only.
+ */
+@Service
+@Slf4j
+public class BulkEvaluationService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final EvaluationService evaluationService;
+    private final AnswerKeyCache answerKeyCache;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration leaseDuration;
+    private final int syncConcurrency;
+    private final Duration retention;
+    private final long emitterTimeoutMs;
+
+    private final Map<String, BulkJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService runner = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BulkEvaluationService(MongoTemplate mongoTemplate,
+                                 EvaluationService evaluationService,
+                                 AnswerKeyCache answerKeyCache,
+                                 @Value("${evaluation.bulk.batch-size:500}") int batchSize,
+                                 @Value("${evaluation.bulk.concurrency:8}") int concurrency,
+                                 @Value("${evaluation.bulk.lease-ms:300000}") long leaseMs,
+                                 @Value("${evaluation.bulk.sync-concurrency:16}") int syncConcurrency,
+                                 @Value("${evaluation.bulk.retention-seconds:3600}") long retentionSeconds,
+                                 @Value("${evaluation.bulk.sse-timeout-ms:600000}") long emitterTimeoutMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.evaluationService = evaluationService;
+        this.answerKeyCache = answerKeyCache;
+        this.batchSize = Math.max(1, batchSize);
+        this.concurrency = Math.max(1, concurrency);
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+        this.syncConcurrency = Math.max(1, syncConcurrency);
+        this.retention = Duration.ofSeconds(retentionSeconds);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    /**
+     * Start evaluating the test's pending submissions, or return the job already doing so
+     */
+    public BulkEvaluationResponse startJob(String testId, EvaluateSubmissionRequest request) {
+        Double passingThreshold = request != null ? request.getPassingThreshold() : null;
+        synchronized (jobs) {
+            for (BulkJob job : jobs.values()) {
+                if (job.testId.equals(testId) && job.completedAt == null) {
+                    log.info("Bulk evaluation of test {} already running as job {}", testId, job.id);
+                    return job.toResponse();
+                }
+            }
+            BulkJob job = new BulkJob(UUID.randomUUID().toString(), testId);
+            jobs.put(job.id, job);
+            runner.execute(() -> run(job, passingThreshold));
+            log.info("Bulk evaluation job {} queued for test {}", job.id, testId);
+            return job.toResponse();
+        }
+    }
+
+    public BulkEvaluationResponse getJob(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    /**
+     * Open an SSE stream that receives a "progress" event after every batch and is completed once
+     * the job reaches DONE or FAILED
+     */
+    public SseEmitter subscribe(String jobId) {
+        BulkJob job = findJob(jobId);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        job.addEmitter(emitter);
+        return emitter;
+    }
+
+    /**
+     * Extend the leases of running jobs, so a long batch is not reclaimed by the evaluation workers
+     * and graded twice
+     */
+    @Scheduled(fixedDelayString = "${evaluation.bulk.heartbeat-ms:60000}")
+    public void heartbeat() {
+        for (BulkJob job : jobs.values()) {
+            if (job.completedAt != null) {
+                continue;
+            }
+            try {
+                mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("leaseOwner").is(owner(job)).and("status").is(SubmissionStatus.RUNNING)),
+                        Update.update("leaseExpiresAt", Instant.now().plus(leaseDuration)), Submission.class);
+            } catch (RuntimeException e) {
+                log.warn("Could not renew leases of bulk evaluation job {}: {}", job.id, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${evaluation.bulk.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private BulkJob findJob(String jobId) {
+        BulkJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Bulk evaluation job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private String owner(BulkJob job) {
+        return "bulk-" + job.id;
+    }
+
+    private void run(BulkJob job, Double passingThreshold) {
+        String owner = owner(job);
+        try {
+            AnswerKey answerKey = answerKeyCache.get(job.testId);
+            job.start(answerKey.size(), mongoTemplate.count(Query.query(pending(job.testId, Instant.now())),
+                    Submission.class));
+            log.info("Bulk evaluation job {} started: {} pending submissions of test {}, {} questions",
+                    job.id, job.total, job.testId, answerKey.size());
+
+            // Submissions that failed here are handed to the evaluation workers, not claimed again
+            Set<String> failedIds = new HashSet<>();
+            List<Submission> batch;
+            while (!(batch = claimBatch(job.testId, owner, failedIds)).isEmpty()) {
+                failedIds.addAll(evaluateBatch(job, owner, answerKey, batch, passingThreshold));
+            }
+            job.complete();
+            log.info("Bulk evaluation job {} done in {} ms: {} evaluated, {} skipped, {} failed", job.id,
+                    Duration.between(job.startedAt, job.completedAt).toMillis(), job.evaluated, job.skipped,
+                    job.failed);
+        } catch (RuntimeException e) {
+            log.error("Bulk evaluation job {} for test {} failed: {}", job.id, job.testId, e.getMessage());
+            job.fail(e.getMessage());
+            try {
+                // Hand whatever this job still holds back to the evaluation workers
+                mongoTemplate.updateMulti(Query.query(Criteria.where("leaseOwner").is(owner)),
+                        new Update().set("leaseExpiresAt", Instant.now()).unset("leaseOwner"), Submission.class);
+            } catch (RuntimeException releaseError) {
+                log.warn("Could not release leases of job {}; they expire on their own: {}", job.id,
+                        releaseError.getMessage());
+            }
+        }
+    }
+
+    private Criteria pending(String testId, Instant now) {
+        return Criteria.where("testId").is(testId).orOperator(
+                Criteria.where("status").in(SubmissionStatus.SUBMITTED, SubmissionStatus.COMPLETED,
+                        SubmissionStatus.FAILED),
+                Criteria.where("status").is(SubmissionStatus.RUNNING).and("leaseExpiresAt").lt(now));
+    }
+
+    /**
+     * Lease up to a batch of pending submissions. Candidates are picked first and then claimed with a
+     * conditional update, so a submission taken by someone else in between is simply not part of the batch.
+     */
+    private List<Submission> claimBatch(String testId, String owner, Set<String> excluded) {
+        Instant now = Instant.now();
+        Query candidates = Query.query(pending(testId, now)).limit(batchSize);
+        if (!excluded.isEmpty()) {
+            candidates.addCriteria(Criteria.where("_id").nin(excluded));
+        }
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, Submission.class).stream().map(Submission::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), pending(testId, now))),
+                new Update()
+                        .set("status", SubmissionStatus.RUNNING)
+                        .set("leaseOwner", owner)
+                        .set("leaseExpiresAt", now.plus(leaseDuration))
+                        .inc("evaluationAttempts", 1),
+                Submission.class);
+        return mongoTemplate.find(Query.query(Criteria.where("_id").in(ids).and("leaseOwner").is(owner)),
+                Submission.class);
+    }
+
+    /**
+     * Grade and write back one claimed batch, returning the ids of the submissions that failed
+     */
+    private Set<String> evaluateBatch(BulkJob job, String owner, AnswerKey answerKey, List<Submission> batch,
+                               Double passingThreshold) {
+        // Submissions evaluated earlier only need their status repaired
+        Map<String, String> existing = existingEvaluations(batch.stream().map(Submission::getId).toList());
+
+        List<Submission> toGrade = batch.stream().filter(s -> !existing.containsKey(s.getId())).toList();
+        Map<String, Map<String, QuestionResult>> provisional = provisionalResults(toGrade, answerKey);
+        Semaphore permits = new Semaphore(concurrency);
+        List<Future<Evaluation>> outcomes = new ArrayList<>(toGrade.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Submission submission : toGrade) {
+                outcomes.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        Double threshold = passingThreshold != null ? passingThreshold
+                                : submission.getPassingThreshold() != null ? submission.getPassingThreshold()
+                                : EvaluationService.DEFAULT_PASSING_THRESHOLD;
+                        // Immutable maps reject a null key, and not every submission has a candidate id
+                        String candidateId = EvaluationService.assessmentCandidateId(submission.getMetadata());
+                        Evaluation evaluation = evaluationService.grade(submission, answerKey, threshold, false,
+                                candidateId != null ? provisional.getOrDefault(candidateId, Map.of()) : Map.of(),
+                                true);
+                        evaluation.setId(new ObjectId().toHexString());
+                        return evaluation;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<Evaluation> evaluations = new ArrayList<>();
+        Map<String, String> errors = new HashMap<>();
+        for (int i = 0; i < toGrade.size(); i++) {
+            try {
+                evaluations.add(outcomes.get(i).get());
+            } catch (ExecutionException e) {
+                errors.put(toGrade.get(i).getId(), String.valueOf(e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while grading a batch", e);
+            }
+        }
+
+        // Evaluations inserted concurrently by a single evaluation hit the unique submissionId index
+        Set<String> duplicates = insertEvaluations(evaluations);
+        if (!duplicates.isEmpty()) {
+            existing.putAll(existingEvaluations(new ArrayList<>(duplicates)));
+        }
+
+        Instant now = Instant.now();
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Submission.class);
+        List<Evaluation> inserted = new ArrayList<>();
+        for (Evaluation evaluation : evaluations) {
+            if (duplicates.contains(evaluation.getSubmissionId())) {
+                continue;
+            }
+            inserted.add(evaluation);
+            updates.updateOne(leased(evaluation.getSubmissionId(), owner), evaluated(evaluation.getId())
+                    .set("totalScore", evaluation.getTotalScore())
+                    .set("maxScore", evaluation.getMaxScore()));
+        }
+        existing.forEach((submissionId, evaluationId) ->
+                updates.updateOne(leased(submissionId, owner), evaluated(evaluationId)));
+        // Left RUNNING with an expired lease and no owner, like a worker's retry; a submission out of
+        // attempts is marked FAILED by the workers' heartbeat
+        errors.forEach((submissionId, error) -> updates.updateOne(leased(submissionId, owner), new Update()
+                .set("lastEvaluationError", error)
+                .set("leaseExpiresAt", now)
+                .unset("leaseOwner")));
+        updates.execute();
+        if (!provisional.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(provisional.keySet())), ProvisionalEvaluation.class);
+        }
+
+        Map<String, Map<String, Object>> metadata = new HashMap<>();
+        batch.forEach(submission -> metadata.put(submission.getId(), submission.getMetadata()));
+        evaluationService.syncScoresToAssessmentService(metadata, inserted, syncConcurrency);
+        job.progress(batch.size(), inserted.size(), existing.size(), errors.size());
+        log.info("Bulk evaluation job {}: batch of {} written in {} ms ({} processed so far)", job.id, batch.size(),
+                Duration.between(now, Instant.now()).toMillis(), job.processed);
+        return errors.keySet();
+    }
+
+    /**
+     * Insert the evaluations in one unordered bulk write and return the submission ids that already
+     * had one
+     */
+    private Set<String> insertEvaluations(List<Evaluation> evaluations) {
+        if (evaluations.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Evaluation.class).insert(evaluations).execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<String> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicates.add(evaluations.get(error.getIndex()).getSubmissionId());
+            }
+            return duplicates;
+        }
+    }
+
+    /**
+     * Results graded while the batch's attempts were in progress, by candidate id, for this answer key only
+     */
+    private Map<String, Map<String, QuestionResult>> provisionalResults(List<Submission> submissions,
+                                                                        AnswerKey answerKey) {
+        List<String> candidateIds = submissions.stream()
+                .map(submission -> EvaluationService.assessmentCandidateId(submission.getMetadata()))
+                .filter(Objects::nonNull)
+                .toList();
+        if (candidateIds.isEmpty() || answerKey.version() == null) {
+            return Map.of();
+        }
+        Map<String, Map<String, QuestionResult>> results = new HashMap<>();
+        for (ProvisionalEvaluation evaluation : mongoTemplate.find(Query.query(Criteria.where("_id").in(candidateIds)
+                .and("answerKeyVersion").is(answerKey.version())), ProvisionalEvaluation.class)) {
+            results.put(evaluation.getId(), evaluation.getResults());
+        }
+        return results;
+    }
+
+    private Map<String, String> existingEvaluations(List<String> submissionIds) {
+        Query query = Query.query(Criteria.where("submissionId").in(submissionIds));
+        query.fields().include("_id", "submissionId");
+        Map<String, String> existing = new HashMap<>();
+        for (Evaluation evaluation : mongoTemplate.find(query, Evaluation.class)) {
+            existing.put(evaluation.getSubmissionId(), evaluation.getId());
+        }
+        return existing;
+    }
+
+    private Query leased(String submissionId, String owner) {
+        return Query.query(Criteria.where("_id").is(submissionId).and("leaseOwner").is(owner));
+    }
+
+    private Update evaluated(String evaluationId) {
+        return new Update()
+                .set("status", SubmissionStatus.EVALUATED)
+                .set("evaluationId", evaluationId)
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt")
+                .unset("lastEvaluationError");
+    }
+
+    private static final class BulkJob {
+        private final String id;
+        private final String testId;
+        private final Instant createdAt = Instant.now();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        private BulkEvaluationStatus status = BulkEvaluationStatus.QUEUED;
+        private Integer questions;
+        private long total;
+        private long processed;
+        private long evaluated;
+        private long skipped;
+        private long failed;
+        private Instant startedAt;
+        private volatile Instant completedAt;
+        private String error;
+
+        private BulkJob(String id, String testId) {
+            this.id = id;
+            this.testId = testId;
+        }
+
+        private synchronized void start(int questionCount, long pendingCount) {
+            status = BulkEvaluationStatus.RUNNING;
+            questions = questionCount;
+            total = pendingCount;
+            startedAt = Instant.now();
+            publish();
+        }
+
+        private synchronized void progress(int batchSize, int evaluatedCount, int skippedCount, int failedCount) {
+            processed += batchSize;
+            evaluated += evaluatedCount;
+            skipped += skippedCount;
+            failed += failedCount;
+            total = Math.max(total, processed);
+            publish();
+        }
+
+        private synchronized void complete() {
+            status = BulkEvaluationStatus.DONE;
+            total = processed;
+            completedAt = Instant.now();
+            publish();
+        }
+
+        private synchronized void fail(String message) {
+            error = message;
+            status = BulkEvaluationStatus.FAILED;
+            if (startedAt == null) {
+                startedAt = Instant.now();
+            }
+            completedAt = Instant.now();
+            publish();
+        }
+
+        private synchronized void addEmitter(SseEmitter emitter) {
+            emitter.onCompletion(() -> emitters.remove(emitter));
+            emitter.onTimeout(() -> emitters.remove(emitter));
+            emitter.onError(e -> emitters.remove(emitter));
+            emitters.add(emitter);
+            // Send the current state right away so late subscribers never miss the outcome
+            send(emitter, toResponse());
+        }
+
+        private void publish() {
+            BulkEvaluationResponse snapshot = toResponse();
+            for (SseEmitter emitter : emitters) {
+                send(emitter, snapshot);
+            }
+        }
+
+        private void send(SseEmitter emitter, BulkEvaluationResponse snapshot) {
+            try {
+                emitter.send(SseEmitter.event().name("progress").data(snapshot));
+                if (completedAt != null) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+
+        private synchronized BulkEvaluationResponse toResponse() {
+            return BulkEvaluationResponse.builder()
+                    .jobId(id)
+                    .testId(testId)
+                    .status(status)
+                    .questions(questions)
+                    .total(total)
+                    .processed(processed)
+                    .evaluated(evaluated)
+                    .skipped(skipped)
+                    .failed(failed)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
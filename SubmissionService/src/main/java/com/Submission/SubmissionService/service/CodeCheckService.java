@@ -0,0 +1,219 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.CodeCheckResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reports compile errors without running the program.
+ *
+ * Java is compiled inside the service by {@link JavaSyntaxChecker}. Python and JavaScript are
+ * parsed by a small checker program on the execution backend, and compiled languages go to the
+ * backend as a compile-only request. Everything else reports that no check is available.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodeCheckService {
+
+    private static final Map<String, String> LANGUAGE_ALIASES = Map.of(
+            "py", "python", "python3", "python",
+            "js", "javascript", "node", "javascript");
+
+    /**
+     * Parse stdin without running it; print "line:column:message" and exit 1 on a syntax error
+     */
+    private static final Map<String, String> SYNTAX_CHECKERS = Map.of(
+            "python", """
+                    import sys
+                    try:
+                        compile(sys.stdin.read(), "main.py", "exec")
+                    except SyntaxError as error:
+                        print(f"{error.lineno or 0}:{error.offset or 0}:{error.msg}")
+                        sys.exit(1)
+                    """,
+            "javascript", """
+                    const source = require('fs').readFileSync(0, 'utf8');
+                    try {
+                        new (require('vm').Script)(source, { filename: 'main.js' });
+                    } catch (error) {
+                        const location = /main\\.js:(\\d+)/.exec(error.stack || '');
+                        console.log(`${location ? location[1] : 0}:0:${error.message}`);
+                        process.exit(1);
+                    }
+                    """);
+
+    private static final Pattern CHECKER_LINE = Pattern.compile("^(\\d+):(\\d+):(.*)$", Pattern.MULTILINE);
+    // gcc, clang and go: "main.c:3:5: error: message", go leaves out the severity
+    private static final Pattern FILE_LINE = Pattern.compile(
+            "^[^:\\s]+:(\\d+):(?:(\\d+):)?\\s*(?:(fatal error|error|warning|note):\\s*)?(.+)$", Pattern.MULTILINE);
+    // rustc: "error[E0425]: message" followed by " --> main.rs:3:5"
+    private static final Pattern RUST_MESSAGE = Pattern.compile(
+            "^(error|warning)(?:\\[\\w+])?: (.+)\\n\\s*--> [^:]+:(\\d+):(\\d+)", Pattern.MULTILINE);
+
+    private final ExecutionDispatcher executionDispatcher;
+    private final JavaSyntaxChecker javaSyntaxChecker;
+
+    public CompletableFuture<CodeCheckResponse> check(RunCodeRequest request) {
+        long startedAt = System.nanoTime();
+        String language = resolveLanguage(request.getLanguage());
+
+        if (language.equals("java") && javaSyntaxChecker.isAvailable()) {
+            String version = executionDispatcher.resolveVersion(language, request.getVersion());
+            List<CodeCheckResponse.Diagnostic> diagnostics = javaSyntaxChecker.check(request.getCode(), featureRelease(version));
+            if (diagnostics != null) {
+                return CompletableFuture.completedFuture(CodeCheckResponse.builder()
+                        .language(language)
+                        .version(version)
+                        .success(diagnostics.stream().noneMatch(this::isError))
+                        .mode(CodeCheckResponse.MODE_IN_PROCESS)
+                        .diagnostics(diagnostics)
+                        .checkTimeMs(elapsedMs(startedAt))
+                        .build());
+            }
+            log.debug("No in-process compile slot free, checking Java on the backend");
+        }
+
+        String checker = SYNTAX_CHECKERS.get(language);
+        if (checker != null) {
+            RunCodeRequest checkRequest = RunCodeRequest.builder()
+                    .language(request.getLanguage())
+                    .version(request.getVersion())
+                    .code(checker)
+                    .stdin(request.getCode())
+                    .candidateId(request.getCandidateId())
+                    .build();
+            return executionDispatcher.executeCode(checkRequest, ExecutionPriority.INTERACTIVE)
+                    .thenApply(response -> fromChecker(response, startedAt));
+        }
+
+        if (executionDispatcher.isCompiledLanguage(request.getLanguage())) {
+            RunCodeRequest compileRequest = request.toBuilder()
+                    .stdin(null)
+                    .args(null)
+                    .compileOnly(true)
+                    .build();
+            return executionDispatcher.executeCode(compileRequest, ExecutionPriority.INTERACTIVE)
+                    .thenApply(response -> fromCompile(response, startedAt));
+        }
+
+        return CompletableFuture.completedFuture(CodeCheckResponse.builder()
+                .language(request.getLanguage())
+                .message("No syntax check available for " + request.getLanguage())
+                .checkTimeMs(elapsedMs(startedAt))
+                .build());
+    }
+
+    private CodeCheckResponse fromChecker(RunCodeResponse response, long startedAt) {
+        CodeCheckResponse.CodeCheckResponseBuilder result = CodeCheckResponse.builder()
+                .language(response.getLanguage())
+                .version(response.getVersion())
+                .mode(CodeCheckResponse.MODE_SANDBOX)
+                .checkTimeMs(elapsedMs(startedAt));
+        RunCodeResponse.RunResult run = response.getRun();
+        Integer code = run != null ? run.getCode() : null;
+        if (response.getMessage() != null || code == null || (code != 0 && code != 1)) {
+            return result.message(response.getMessage() != null ? response.getMessage() : "Syntax check failed to run")
+                    .build();
+        }
+
+        List<CodeCheckResponse.Diagnostic> diagnostics = new ArrayList<>();
+        Matcher matcher = CHECKER_LINE.matcher(run.getStdout() != null ? run.getStdout() : "");
+        while (matcher.find()) {
+            diagnostics.add(diagnostic(CodeCheckResponse.SEVERITY_ERROR, matcher.group(1), matcher.group(2),
+                    matcher.group(3)));
+        }
+        return result.success(code == 0)
+                .output(run.getStdout())
+                .diagnostics(diagnostics)
+                .build();
+    }
+
+    private CodeCheckResponse fromCompile(RunCodeResponse response, long startedAt) {
+        CodeCheckResponse.CodeCheckResponseBuilder result = CodeCheckResponse.builder()
+                .language(response.getLanguage())
+                .version(response.getVersion())
+                .mode(CodeCheckResponse.MODE_SANDBOX)
+                .checkTimeMs(elapsedMs(startedAt));
+        RunCodeResponse.CompileResult compile = response.getCompile();
+        if (response.getMessage() != null || compile == null) {
+            return result.message(response.getMessage() != null ? response.getMessage() : "No compile stage was reported")
+                    .build();
+        }
+
+        String output = compile.getOutput() != null ? compile.getOutput()
+                : (compile.getStdout() != null ? compile.getStdout() : "") + (compile.getStderr() != null ? compile.getStderr() : "");
+        return result.success(compile.getCode() != null && compile.getCode() == 0)
+                .output(output)
+                .diagnostics(parseCompilerOutput(output))
+                .build();
+    }
+
+    private List<CodeCheckResponse.Diagnostic> parseCompilerOutput(String output) {
+        List<CodeCheckResponse.Diagnostic> diagnostics = new ArrayList<>();
+        Matcher rust = RUST_MESSAGE.matcher(output);
+        while (rust.find()) {
+            diagnostics.add(diagnostic(rust.group(1).equals("error") ? CodeCheckResponse.SEVERITY_ERROR
+                    : CodeCheckResponse.SEVERITY_WARNING, rust.group(3), rust.group(4), rust.group(2)));
+        }
+        if (!diagnostics.isEmpty()) {
+            return diagnostics;
+        }
+        Matcher matcher = FILE_LINE.matcher(output);
+        while (matcher.find()) {
+            String kind = matcher.group(3);
+            String severity = kind == null || kind.endsWith("error") ? CodeCheckResponse.SEVERITY_ERROR
+                    : kind.equals("warning") ? CodeCheckResponse.SEVERITY_WARNING
+                    : CodeCheckResponse.SEVERITY_NOTE;
+            diagnostics.add(diagnostic(severity, matcher.group(1), matcher.group(2), matcher.group(4)));
+        }
+        return diagnostics;
+    }
+
+    private CodeCheckResponse.Diagnostic diagnostic(String severity, String line, String column, String message) {
+        long lineNumber = Long.parseLong(line);
+        long columnNumber = column != null ? Long.parseLong(column) : 0;
+        return CodeCheckResponse.Diagnostic.builder()
+                .severity(severity)
+                .line(lineNumber > 0 ? lineNumber : null)
+                .column(columnNumber > 0 ? columnNumber : null)
+                .message(message.trim())
+                .build();
+    }
+
+    private boolean isError(CodeCheckResponse.Diagnostic diagnostic) {
+        return CodeCheckResponse.SEVERITY_ERROR.equals(diagnostic.getSeverity());
+    }
+
+    /**
+     * "17.0.2" -> 17, "1.8.0" -> 8; null when there is no version to go by
+     */
+    private Integer featureRelease(String version) {
+        if (version == null) {
+            return null;
+        }
+        Matcher matcher = Pattern.compile("^(?:1\\.)?(\\d+)").matcher(version);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private String resolveLanguage(String language) {
+        String key = language == null ? "" : language.toLowerCase();
+        return LANGUAGE_ALIASES.getOrDefault(key, key);
+    }
+
+    private long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
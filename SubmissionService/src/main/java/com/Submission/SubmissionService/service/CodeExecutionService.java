@@ -1,27 +1,74 @@
 package com.Submission.SubmissionService.service;
 
 import com.Submission.SubmissionService.domain.CodeExecution;
+import com.Submission.SubmissionService.domain.ComparatorType;
+import com.Submission.SubmissionService.domain.ExecutionPriority;
 import com.Submission.SubmissionService.domain.ExecutionStatus;
 import com.Submission.SubmissionService.domain.SubmissionFile;
 import com.Submission.SubmissionService.dto.CodeExecutionResponse;
 import com.Submission.SubmissionService.dto.ExecuteCodeRequest;
+import com.Submission.SubmissionService.dto.ExecutionStatsResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import com.Submission.SubmissionService.exception.ExecutionOverloadedException;
 import com.Submission.SubmissionService.repository.CodeExecutionRepository;
 import com.Submission.SubmissionService.repository.SubmissionFileRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Runs a submitted file against every test case of its question and records one
+ * {@link CodeExecution} with a verdict and time per case.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CodeExecutionService {
 
+    private static final String VERDICT_ACCEPTED = "ACCEPTED";
+    private static final String VERDICT_WRONG_ANSWER = "WRONG_ANSWER";
+    private static final String VERDICT_RUNTIME_ERROR = "RUNTIME_ERROR";
+    private static final String VERDICT_TIME_LIMIT_EXCEEDED = "TIME_LIMIT_EXCEEDED";
+    private static final String VERDICT_OUTPUT_LIMIT_EXCEEDED = "OUTPUT_LIMIT_EXCEEDED";
+    private static final String VERDICT_COMPILATION_ERROR = "COMPILATION_ERROR";
+    private static final String VERDICT_ERROR = "ERROR";
+    private static final String VERDICT_SKIPPED = "SKIPPED";
+    private static final long MB = 1024 * 1024;
+
     private final CodeExecutionRepository executionRepository;
     private final SubmissionFileRepository fileRepository;
+    private final ExecutionDispatcher executionDispatcher;
+    private final ExecutionStatsService executionStatsService;
+    private final CustomChecker customChecker;
+    private final ShardedTestRunner shardedTestRunner;
+    private final TestSuiteCache testSuiteCache;
+    private final int persistedOutputBytes;
+
+    public CodeExecutionService(CodeExecutionRepository executionRepository,
+                                SubmissionFileRepository fileRepository,
+                                ExecutionDispatcher executionDispatcher,
+                                ExecutionStatsService executionStatsService,
+                                CustomChecker customChecker,
+                                ShardedTestRunner shardedTestRunner,
+                                TestSuiteCache testSuiteCache,
+                                @Value("${execution.output.persisted-bytes:8192}") int persistedOutputBytes) {
+        this.executionRepository = executionRepository;
+        this.fileRepository = fileRepository;
+        this.executionDispatcher = executionDispatcher;
+        this.executionStatsService = executionStatsService;
+        this.customChecker = customChecker;
+        this.shardedTestRunner = shardedTestRunner;
+        this.testSuiteCache = testSuiteCache;
+        this.persistedOutputBytes = persistedOutputBytes;
+    }
 
     public CodeExecutionResponse executeCode(ExecuteCodeRequest request) {
         log.info("Executing code for submission {} and file {}", 
@@ -30,48 +77,71 @@ public class CodeExecutionService {
         SubmissionFile file = fileRepository.findById(request.getFileId())
                 .orElseThrow(() -> new RuntimeException("File not found: " + request.getFileId()));
 
+        CodeExecution execution = execute(file, request);
+
+        executionStatsService.record(execution);
+        execution = executionRepository.save(execution);
+        log.info("Code execution completed with status: {} ({}/{} test cases passed)",
+                execution.getStatus(), execution.getPassedCount(), execution.getTotalCount());
+
+        return mapToResponse(execution);
+    }
+
+    /**
+     * Run the code of a submitted answer against every test case of its question, for grading.
+     * Nothing is recorded; the returned execution carries the verdict of each case.
+     */
+    public CodeExecution gradeAnswer(String submissionId, String questionId, String language, String code) {
+        SubmissionFile file = SubmissionFile.builder()
+                .submissionId(submissionId)
+                .questionId(questionId)
+                .language(language)
+                .content(code)
+                .build();
+        return execute(file, ExecuteCodeRequest.builder()
+                .submissionId(submissionId)
+                .questionId(questionId)
+                .build());
+    }
+
+    private CodeExecution execute(SubmissionFile file, ExecuteCodeRequest request) {
         CodeExecution execution = CodeExecution.builder()
                 .submissionId(request.getSubmissionId())
-                .fileId(request.getFileId())
+                .fileId(file.getId())
                 .questionId(request.getQuestionId())
                 .language(file.getLanguage())
-                .status(ExecutionStatus.RUNNING)
                 .executedAt(Instant.now())
                 .build();
 
-        execution = executionRepository.save(execution);
+        List<TestCaseSpec> testCases = loadTestCases(request);
+        execution.setTotalCount(testCases.size());
 
-        try {
-            Map<String, Object> executionResult = simulateExecution(
-                    file.getContent(), 
-                    file.getLanguage(), 
-                    request.getTestCases()
-            );
-
-            execution.setStatus((ExecutionStatus) executionResult.get("status"));
-            execution.setRunTimeMs((Long) executionResult.get("runTimeMs"));
-            execution.setMemoryUsedMb((Long) executionResult.get("memoryUsedMb"));
-            execution.setExitCode((Integer) executionResult.get("exitCode"));
-            execution.setStdout((String) executionResult.get("stdout"));
-            execution.setStderr((String) executionResult.get("stderr"));
-            execution.setTestCaseResults((List<Map<String, Object>>) executionResult.get("testCaseResults"));
-            execution.setPassedCount((Integer) executionResult.get("passedCount"));
-            execution.setTotalCount((Integer) executionResult.get("totalCount"));
-            execution.setScore((Double) executionResult.get("score"));
-
-        } catch (Exception e) {
-            log.error("Execution failed: ", e);
+        if (file.getContent() == null || file.getContent().trim().isEmpty()) {
+            execution.setStatus(ExecutionStatus.COMPILATION_ERROR);
+            execution.setStderr("Empty code submission");
+            execution.setExitCode(1);
+            execution.setPassedCount(0);
+            execution.setScore(0.0);
+        } else if (testCases.isEmpty()) {
             execution.setStatus(ExecutionStatus.ERROR);
-            execution.setStderr(e.getMessage());
+            execution.setStderr("No test cases found for question " + request.getQuestionId());
             execution.setPassedCount(0);
-            execution.setTotalCount(request.getTestCases() != null ? request.getTestCases().size() : 0);
             execution.setScore(0.0);
+        } else {
+            try {
+                runTestCases(execution, file, testCases, request);
+            } catch (ExecutionOverloadedException e) {
+                // Nothing was recorded yet; let the caller retry once capacity frees up
+                throw e;
+            } catch (Exception e) {
+                log.error("Execution failed: ", e);
+                execution.setStatus(ExecutionStatus.ERROR);
+                execution.setStderr(e.getMessage());
+                execution.setPassedCount(0);
+                execution.setScore(0.0);
+            }
         }
-
-        execution = executionRepository.save(execution);
-        log.info("Code execution completed with status: {}", execution.getStatus());
-
-        return mapToResponse(execution);
+        return execution;
     }
 
     public CodeExecutionResponse getExecution(String id) {
@@ -89,6 +159,14 @@ public class CodeExecutionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Wall time, CPU time and memory percentiles over every test case run for the question
+     */
+    public ExecutionStatsResponse getQuestionStats(String questionId) {
+        log.info("Fetching execution stats for question: {}", questionId);
+        return executionStatsService.getStats(questionId);
+    }
+
     public List<CodeExecutionResponse> getExecutionsByQuestion(String questionId) {
         log.info("Fetching executions for question: {}", questionId);
         return executionRepository.findByQuestionId(questionId)
@@ -97,61 +175,303 @@ public class CodeExecutionService {
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Object> simulateExecution(String code, String language, List<Map<String, Object>> testCases) {
-        Map<String, Object> result = new HashMap<>();
-        
-        if (code == null || code.trim().isEmpty()) {
-            result.put("status", ExecutionStatus.COMPILATION_ERROR);
-            result.put("stderr", "Empty code submission");
-            result.put("exitCode", 1);
-            result.put("runTimeMs", 0L);
-            result.put("memoryUsedMb", 0L);
-            result.put("passedCount", 0);
-            result.put("totalCount", testCases != null ? testCases.size() : 0);
-            result.put("score", 0.0);
-            result.put("testCaseResults", new ArrayList<>());
-            return result;
+    /**
+     * All test cases of the question, hidden ones included, from the question's cached test-suite
+     * bundle. Falls back to the cases sent with the request only when QuestionService confirms the
+     * question has none; a suite that cannot be loaded fails the execution, so grading is retried
+     * instead of scoring the answer against no cases.
+     */
+    private List<TestCaseSpec> loadTestCases(ExecuteCodeRequest request) {
+        List<Map<String, Object>> testCases = null;
+        TestSuiteCache.TestSuite suite = testSuiteCache.load(request.getQuestionId());
+        if (suite != null) {
+            testCases = suite.testCases();
+            // Questions with a reference solution carry a run time limit derived from its runtime
+            if (request.getTimeoutMs() == null && suite.runTimeLimitMs() != null) {
+                request.setTimeoutMs(suite.runTimeLimitMs());
+            }
+        }
+        if (testCases == null || testCases.isEmpty()) {
+            testCases = request.getTestCases() != null ? request.getTestCases() : List.of();
         }
 
-        List<Map<String, Object>> testCaseResults = new ArrayList<>();
-        int passedCount = 0;
-        int totalCount = testCases != null ? testCases.size() : 0;
-
-        if (testCases != null) {
-            for (int i = 0; i < testCases.size(); i++) {
-                Map<String, Object> testCase = testCases.get(i);
-                Map<String, Object> testResult = new HashMap<>();
-                
-                testResult.put("testCaseId", testCase.getOrDefault("id", "test_" + i));
-                testResult.put("passed", Math.random() > 0.3);
-                testResult.put("expected", testCase.get("expectedOutput"));
-                testResult.put("actual", "Simulated output");
-                testResult.put("timeMs", (long) (Math.random() * 100));
-                
-                if ((Boolean) testResult.get("passed")) {
-                    passedCount++;
+        List<TestCaseSpec> specs = new ArrayList<>();
+        for (int i = 0; i < testCases.size(); i++) {
+            Map<String, Object> testCase = testCases.get(i);
+            Object id = testCase.getOrDefault("testCaseId", testCase.getOrDefault("id", "test_" + i));
+            Object input = testCase.getOrDefault("inputData", testCase.get("input"));
+            Object expected = testCase.get("expectedOutput");
+            // Cases are hidden unless QuestionService marks them as samples
+            boolean hidden = !Boolean.TRUE.equals(testCase.get("isSample"));
+            Object comparator = testCase.get("comparator");
+            specs.add(new TestCaseSpec(String.valueOf(id),
+                    input != null ? input.toString() : "",
+                    expected != null ? expected.toString() : "",
+                    hidden,
+                    comparator != null ? ComparatorType.valueOf(comparator.toString().toUpperCase()) : null,
+                    toDouble(testCase.get("absoluteError")),
+                    toDouble(testCase.get("relativeError")),
+                    (String) testCase.get("checkerCode"),
+                    (String) testCase.get("checkerLanguage")));
+        }
+        return specs;
+    }
+
+    /**
+     * Run every test case on the evaluation lane and fill in the execution. For compiled languages
+     * the first case goes alone; a compile error then stands for all of them. The rest are split
+     * into shards that run side by side, and with fail-fast the first failing case stops the others.
+     */
+    private void runTestCases(CodeExecution execution, SubmissionFile file, List<TestCaseSpec> testCases,
+                              ExecuteCodeRequest request) {
+        boolean failFast = Boolean.TRUE.equals(request.getFailFast());
+        List<CaseRun> runs = new ArrayList<>();
+        int first = 0;
+        if (executionDispatcher.isCompiledLanguage(file.getLanguage())) {
+            CaseRun firstRun = await(runAndJudge(file, testCases.get(0), request));
+            if (isCompilationFailure(firstRun.response())) {
+                RunCodeResponse.CompileResult compile = firstRun.response().getCompile();
+                execution.setStatus(ExecutionStatus.COMPILATION_ERROR);
+                execution.setCompileOutput(bounded(compile.getOutput() != null ? compile.getOutput() : compile.getStderr()));
+                execution.setStderr(bounded(compile.getStderr()));
+                execution.setExitCode(compile.getCode());
+                execution.setPassedCount(0);
+                execution.setScore(0.0);
+                for (TestCaseSpec testCase : testCases) {
+                    execution.getTestCaseResults().add(toResult(testCase, VERDICT_COMPILATION_ERROR, null));
                 }
-                
-                testCaseResults.add(testResult);
+                return;
+            }
+            runs.add(firstRun);
+            first = 1;
+        }
+
+        // Only a compiled language has run its first case already
+        boolean stoppedEarly = failFast && !runs.isEmpty() && !VERDICT_ACCEPTED.equals(runs.get(0).verdict());
+        if (first < testCases.size() && !stoppedEarly) {
+            List<TestCaseSpec> remaining = testCases.subList(first, testCases.size());
+            List<String> stdins = remaining.stream().map(TestCaseSpec::input).toList();
+            runs.addAll(await(shardedTestRunner.run(toRunRequest(file, request, null), stdins, ExecutionPriority.EVALUATION,
+                    failFast,
+                    (index, response) -> judge(remaining.get(index), response, request.getSubmissionId())
+                            .thenApply(toCaseRun(response, null)::withVerdict),
+                    caseRun -> !VERDICT_ACCEPTED.equals(caseRun.verdict()))));
+        }
+
+        int passedCount = 0;
+        long maxTimeMs = 0;
+        Long maxCpuTimeMs = null;
+        Long maxMemoryBytes = null;
+        CaseRun firstFailure = null;
+        Set<String> verdicts = new HashSet<>();
+        for (int i = 0; i < testCases.size(); i++) {
+            CaseRun caseRun = i < runs.size() ? runs.get(i) : null;
+            if (caseRun == null) {
+                // Never ran: fail-fast stopped the suite first
+                execution.getTestCaseResults().add(toResult(testCases.get(i), VERDICT_SKIPPED, null));
+                continue;
+            }
+            String verdict = caseRun.verdict();
+            verdicts.add(verdict);
+            maxTimeMs = Math.max(maxTimeMs, caseRun.wallTimeMs());
+            maxCpuTimeMs = max(maxCpuTimeMs, caseRun.cpuTimeMs());
+            maxMemoryBytes = max(maxMemoryBytes, caseRun.memoryBytes());
+            if (VERDICT_ACCEPTED.equals(verdict)) {
+                passedCount++;
+            } else if (firstFailure == null) {
+                firstFailure = caseRun;
             }
+            execution.getTestCaseResults().add(toResult(testCases.get(i), verdict, caseRun));
+        }
+
+        RunCodeResponse reported = (firstFailure != null ? firstFailure : runs.get(0)).response();
+        RunCodeResponse.RunResult run = reported.getRun();
+        execution.setStdout(bounded(run != null ? run.getStdout() : null));
+        execution.setStderr(bounded(run != null ? run.getStderr() : reported.getMessage()));
+        execution.setExitCode(run != null ? run.getCode() : null);
+        if (reported.getCompile() != null) {
+            execution.setCompileOutput(bounded(reported.getCompile().getOutput()));
+        }
+        execution.setRunTimeMs(maxTimeMs);
+        execution.setCpuTimeMs(maxCpuTimeMs);
+        execution.setMemoryUsedMb(maxMemoryBytes != null ? (maxMemoryBytes + MB - 1) / MB : null);
+        execution.setPassedCount(passedCount);
+        execution.setScore((double) passedCount / testCases.size() * 100);
+
+        if (passedCount == testCases.size()) {
+            execution.setStatus(ExecutionStatus.SUCCESS);
+        } else if (verdicts.equals(Set.of(VERDICT_ERROR))) {
+            execution.setStatus(ExecutionStatus.ERROR);
+        } else if (verdicts.contains(VERDICT_TIME_LIMIT_EXCEEDED)) {
+            execution.setStatus(ExecutionStatus.TIMEOUT);
+        } else {
+            execution.setStatus(ExecutionStatus.FAILURE);
+        }
+    }
+
+    /**
+     * Queue one case. Its wall time is the backend's own measurement, or when the backend
+     * does not report one, the time from the moment a worker picked the case up.
+     */
+    private CompletableFuture<CaseRun> run(SubmissionFile file, TestCaseSpec testCase, ExecuteCodeRequest request) {
+        AtomicLong startedAt = new AtomicLong(System.nanoTime());
+        return executionDispatcher.executeCode(toRunRequest(file, request, testCase.input()), ExecutionPriority.EVALUATION,
+                        () -> startedAt.set(System.nanoTime()))
+                .thenApply(response -> toCaseRun(response,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt.get())));
+    }
+
+    private RunCodeRequest toRunRequest(SubmissionFile file, ExecuteCodeRequest request, String stdin) {
+        return RunCodeRequest.builder()
+                .language(file.getLanguage())
+                .code(file.getContent())
+                .stdin(stdin)
+                .runTimeout(request.getTimeoutMs() != null ? request.getTimeoutMs().intValue() : null)
+                .runMemoryLimit(request.getMemoryLimitMb() != null ? request.getMemoryLimitMb() * 1024 * 1024 : null)
+                .candidateId(request.getSubmissionId())
+                .build();
+    }
+
+    /**
+     * Measurements of one run; measuredMs stands in for a wall time the backend did not report
+     */
+    private CaseRun toCaseRun(RunCodeResponse response, Long measuredMs) {
+        RunCodeResponse.RunResult run = response.getRun();
+        long fallbackMs = measuredMs != null ? measuredMs : 0;
+        return run == null ? new CaseRun(response, fallbackMs, null, null, null)
+                : new CaseRun(response, run.getWallTimeMs() != null ? run.getWallTimeMs() : fallbackMs,
+                run.getCpuTimeMs(), run.getMemoryBytes(), null);
+    }
+
+    private CompletableFuture<CaseRun> runAndJudge(SubmissionFile file, TestCaseSpec testCase,
+                                                   ExecuteCodeRequest request) {
+        return run(file, testCase, request).thenCompose(caseRun ->
+                judge(testCase, caseRun.response(), request.getSubmissionId()).thenApply(caseRun::withVerdict));
+    }
+
+    /**
+     * Verdict for one case: failures of the run itself first, then the test case's comparator
+     * on the raw stdout. Checker programs run on the evaluation lane like the submission.
+     */
+    private CompletableFuture<String> judge(TestCaseSpec testCase, RunCodeResponse response, String candidateId) {
+        String failure = runFailure(response);
+        if (failure != null) {
+            return CompletableFuture.completedFuture(failure);
         }
+        String actual = response.getRun().getStdout();
 
-        double score = totalCount > 0 ? (double) passedCount / totalCount * 100 : 0.0;
+        if (testCase.comparator() == ComparatorType.CUSTOM && testCase.checkerCode() != null) {
+            return customChecker.check(testCase.checkerLanguage(), testCase.checkerCode(), testCase.input(),
+                            testCase.expectedOutput(), actual, candidateId)
+                    .handle((accepted, error) -> {
+                        if (error != null) {
+                            return VERDICT_ERROR;
+                        }
+                        return accepted ? VERDICT_ACCEPTED : VERDICT_WRONG_ANSWER;
+                    });
+        }
 
-        result.put("status", passedCount == totalCount ? ExecutionStatus.SUCCESS : ExecutionStatus.FAILURE);
-        result.put("runTimeMs", (long) (Math.random() * 500));
-        result.put("memoryUsedMb", (long) (Math.random() * 100));
-        result.put("exitCode", 0);
-        result.put("stdout", "Execution completed");
-        result.put("stderr", "");
-        result.put("testCaseResults", testCaseResults);
-        result.put("passedCount", passedCount);
-        result.put("totalCount", totalCount);
-        result.put("score", score);
+        // A CUSTOM case without a checker can only be compared as is
+        ComparatorType type = testCase.comparator() == ComparatorType.CUSTOM ? ComparatorType.EXACT : testCase.comparator();
+        boolean matches = OutputComparators.of(type, testCase.absoluteError(), testCase.relativeError())
+                .matches(testCase.expectedOutput(), actual);
+        return CompletableFuture.completedFuture(matches ? VERDICT_ACCEPTED : VERDICT_WRONG_ANSWER);
+    }
 
+    /**
+     * The verdict when the program did not run to a clean exit, otherwise null
+     */
+    private String runFailure(RunCodeResponse response) {
+        RunCodeResponse.RunResult run = response.getRun();
+        if (isCompilationFailure(response)) {
+            return VERDICT_COMPILATION_ERROR;
+        }
+        if (run == null) {
+            return VERDICT_ERROR;
+        }
+        if (run.getSignal() != null) {
+            return "SIGKILL".equals(run.getSignal()) ? VERDICT_TIME_LIMIT_EXCEEDED : VERDICT_RUNTIME_ERROR;
+        }
+        if (run.getCode() == null || run.getCode() != 0) {
+            return response.getMessage() != null ? VERDICT_ERROR : VERDICT_RUNTIME_ERROR;
+        }
+        if (Boolean.TRUE.equals(run.getStdoutTruncated())) {
+            // Only the start and end are left, so the output cannot be compared
+            return VERDICT_OUTPUT_LIMIT_EXCEEDED;
+        }
+        return null;
+    }
+
+    /**
+     * Per-case result. Input and outputs of hidden cases are left out so they never reach the candidate.
+     * Measurements are left out when the program never ran or the backend failed.
+     */
+    private Map<String, Object> toResult(TestCaseSpec testCase, String verdict, CaseRun caseRun) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("testCaseId", testCase.id());
+        result.put("hidden", testCase.hidden());
+        result.put("verdict", verdict);
+        result.put("passed", VERDICT_ACCEPTED.equals(verdict));
+        if (caseRun != null && !VERDICT_ERROR.equals(verdict)) {
+            result.put("timeMs", caseRun.wallTimeMs());
+            if (caseRun.cpuTimeMs() != null) {
+                result.put("cpuTimeMs", caseRun.cpuTimeMs());
+            }
+            if (caseRun.memoryBytes() != null) {
+                result.put("memoryKb", caseRun.memoryBytes() / 1024);
+            }
+        }
+        if (!testCase.hidden()) {
+            result.put("input", testCase.input());
+            result.put("expected", testCase.expectedOutput().trim());
+            result.put("actual", caseRun != null ? bounded(stdout(caseRun.response())) : "");
+        }
         return result;
     }
 
+    /**
+     * Join, rethrowing the failure itself, e.g. an ExecutionOverloadedException the caller turns into a 429
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Only the start and end of an output are stored, however much the program printed
+     */
+    private String bounded(String output) {
+        return BoundedOutputBuffer.cap(output, persistedOutputBytes);
+    }
+
+    private Double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    private Long max(Long current, Long value) {
+        if (value == null) {
+            return current;
+        }
+        return current == null ? value : Math.max(current, value);
+    }
+
+    private String stdout(RunCodeResponse response) {
+        RunCodeResponse.RunResult run = response.getRun();
+        return run != null && run.getStdout() != null ? run.getStdout().trim() : "";
+    }
+
+    private boolean isCompilationFailure(RunCodeResponse response) {
+        return response.getCompile() != null
+                && response.getCompile().getCode() != null
+                && response.getCompile().getCode() != 0;
+    }
+
     private CodeExecutionResponse mapToResponse(CodeExecution execution) {
         return CodeExecutionResponse.builder()
                 .id(execution.getId())
@@ -161,6 +481,7 @@ public class CodeExecutionService {
                 .language(execution.getLanguage())
                 .executedAt(execution.getExecutedAt())
                 .runTimeMs(execution.getRunTimeMs())
+                .cpuTimeMs(execution.getCpuTimeMs())
                 .memoryUsedMb(execution.getMemoryUsedMb())
                 .exitCode(execution.getExitCode())
                 .status(execution.getStatus())
@@ -175,5 +496,17 @@ public class CodeExecutionService {
                 .metadata(execution.getMetadata())
                 .build();
     }
-}
 
+    private record TestCaseSpec(String id, String input, String expectedOutput, boolean hidden,
+                                ComparatorType comparator, Double absoluteError, Double relativeError,
+                                String checkerCode, String checkerLanguage) {
+    }
+
+    private record CaseRun(RunCodeResponse response, long wallTimeMs, Long cpuTimeMs, Long memoryBytes,
+                           String verdict) {
+
+        private CaseRun withVerdict(String judged) {
+            return new CaseRun(response, wallTimeMs, cpuTimeMs, memoryBytes, judged);
+        }
+    }
+}
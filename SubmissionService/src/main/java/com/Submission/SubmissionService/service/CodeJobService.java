@@ -0,0 +1,219 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.CodeJobStatus;
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.CodeJobOutput;
+import com.Submission.SubmissionService.dto.CodeJobResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Job-based code execution: a run is accepted immediately and its progress is
+ * observed by polling or through a server-sent event stream. Jobs are held in
+ * memory only; finished jobs are dropped after the retention period.
+ */
+@Service
+@Slf4j
+public class CodeJobService {
+
+    private final ExecutionDispatcher executionDispatcher;
+    private final Duration retention;
+    private final long emitterTimeoutMs;
+    private final Map<String, CodeJob> jobs = new ConcurrentHashMap<>();
+
+    public CodeJobService(ExecutionDispatcher executionDispatcher,
+                          @Value("${execution.jobs.retention-seconds:300}") long retentionSeconds,
+                          @Value("${execution.jobs.sse-timeout-ms:120000}") long emitterTimeoutMs) {
+        this.executionDispatcher = executionDispatcher;
+        this.retention = Duration.ofSeconds(retentionSeconds);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    public CodeJobResponse submitJob(RunCodeRequest request) {
+        CodeJob job = new CodeJob(UUID.randomUUID().toString(), request.getLanguage());
+        jobs.put(job.id, job);
+
+        CompletableFuture<RunCodeResponse> future = executionDispatcher.streamCode(request, ExecutionPriority.INTERACTIVE,
+                () -> job.transition(executionDispatcher.isCompiledLanguage(request.getLanguage())
+                        ? CodeJobStatus.COMPILING : CodeJobStatus.RUNNING),
+                job::output);
+
+        if (future.isCompletedExceptionally()) {
+            // Rejected by the scheduler before it was queued; report it to the caller directly
+            jobs.remove(job.id);
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                job.fail(cause.getMessage());
+            } else {
+                job.complete(result);
+            }
+        });
+
+        log.info("Code job {} queued for {} code", job.id, request.getLanguage());
+        return job.toResponse();
+    }
+
+    public CodeJobResponse getJob(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    /**
+     * Open an SSE stream that receives a "status" event on every state change and an
+     * "output" event for every chunk of program output, and is completed once the job
+     * reaches DONE or FAILED. Output sent before subscribing is replayed first.
+     */
+    public SseEmitter subscribe(String jobId) {
+        CodeJob job = findJob(jobId);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        job.addEmitter(emitter);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${execution.jobs.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        int before = jobs.size();
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+        int evicted = before - jobs.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} finished code jobs", evicted);
+        }
+    }
+
+    private CodeJob findJob(String jobId) {
+        CodeJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Code job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private static final class CodeJob {
+        private final String id;
+        private final String language;
+        private final Instant createdAt = Instant.now();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final List<CodeJobOutput> output = new ArrayList<>(); // Bounded by the backend's output cap
+
+        private CodeJobStatus status = CodeJobStatus.QUEUED;
+        private Instant startedAt;
+        private volatile Instant completedAt;
+        private RunCodeResponse result;
+        private String error;
+
+        private CodeJob(String id, String language) {
+            this.id = id;
+            this.language = language;
+        }
+
+        private synchronized void transition(CodeJobStatus newStatus) {
+            status = newStatus;
+            if (startedAt == null) {
+                startedAt = Instant.now();
+            }
+            publish();
+        }
+
+        private synchronized void output(String stream, String chunk) {
+            if (completedAt != null) {
+                return;
+            }
+            CodeJobOutput event = CodeJobOutput.builder().stream(stream).data(chunk).build();
+            output.add(event);
+            for (SseEmitter emitter : emitters) {
+                sendOutput(emitter, event);
+            }
+        }
+
+        private synchronized void complete(RunCodeResponse runResult) {
+            output.clear(); // The result holds the same output from here on
+            result = runResult;
+            status = CodeJobStatus.DONE;
+            completedAt = Instant.now();
+            publish();
+        }
+
+        private synchronized void fail(String message) {
+            output.clear();
+            error = message;
+            status = CodeJobStatus.FAILED;
+            completedAt = Instant.now();
+            publish();
+        }
+
+        private synchronized void addEmitter(SseEmitter emitter) {
+            emitter.onCompletion(() -> emitters.remove(emitter));
+            emitter.onTimeout(() -> emitters.remove(emitter));
+            emitter.onError(e -> emitters.remove(emitter));
+            emitters.add(emitter);
+            // Send the current state right away so late subscribers never miss the outcome
+            send(emitter, toResponse());
+            output.forEach(event -> sendOutput(emitter, event));
+        }
+
+        private void publish() {
+            CodeJobResponse snapshot = toResponse();
+            for (SseEmitter emitter : emitters) {
+                send(emitter, snapshot);
+            }
+        }
+
+        private void send(SseEmitter emitter, CodeJobResponse snapshot) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(snapshot));
+                if (completedAt != null) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+
+        private void sendOutput(SseEmitter emitter, CodeJobOutput event) {
+            try {
+                emitter.send(SseEmitter.event().name("output").data(event));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+
+        private synchronized CodeJobResponse toResponse() {
+            return CodeJobResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .language(language)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A backend that compiles and runs untrusted code.
+ * Calls are synchronous; scheduling and rate limiting happen in {@link ExecutionDispatcher}.
+ */
+public interface CodeRunner {
+
+    /**
+     * Name shown in logs and backend status
+     */
+    String getName();
+
+    RunCodeResponse execute(RunCodeRequest request);
+
+    /**
+     * Execute, passing output to the listener as it is produced. Backends that only return
+     * output once the program has finished hand it over in one piece at the end.
+     */
+    default RunCodeResponse execute(RunCodeRequest request, OutputListener listener) {
+        RunCodeResponse response = execute(request);
+        RunCodeResponse.RunResult run = response.getRun();
+        if (run != null) {
+            if (run.getStdout() != null && !run.getStdout().isEmpty()) {
+                listener.onOutput(OutputListener.STDOUT, run.getStdout());
+            }
+            if (run.getStderr() != null && !run.getStderr().isEmpty()) {
+                listener.onOutput(OutputListener.STDERR, run.getStderr());
+            }
+        }
+        return response;
+    }
+
+    List<PistonRuntimeResponse> getRuntimes();
+
+    boolean isCompiledLanguage(String language);
+
+    /**
+     * Whether {@link #executeAll} compiles the program only once for all stdins.
+     * Backends that cannot reuse a compiled program get one scheduled execution per stdin instead.
+     */
+    default boolean compilesOnce() {
+        return false;
+    }
+
+    /**
+     * Run the same program against several stdins, one response per stdin in order.
+     */
+    default List<RunCodeResponse> executeAll(RunCodeRequest request, List<String> stdins) {
+        List<RunCodeResponse> responses = new ArrayList<>();
+        for (String stdin : stdins) {
+            RunCodeRequest single = request.toBuilder().stdin(stdin).build();
+            responses.add(execute(single));
+        }
+        return responses;
+    }
+}
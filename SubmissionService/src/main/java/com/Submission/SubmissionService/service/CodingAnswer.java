@@ -0,0 +1,24 @@
+package com.Submission.SubmissionService.service;
+
+import java.util.Map;
+
+/**
+ * A coding answer as the assessment page saves it: the code and the language the candidate
+ * picked for it. Answers saved before the language was recorded are plain code, with no language.
+ */
+record CodingAnswer(String code, String language) {
+
+    static CodingAnswer of(Object answer) {
+        if (answer instanceof Map<?, ?> map) {
+            Object code = map.get("code");
+            Object language = map.get("language");
+            return new CodingAnswer(code != null ? String.valueOf(code) : null,
+                    language != null && !String.valueOf(language).isBlank() ? String.valueOf(language) : null);
+        }
+        return new CodingAnswer(answer != null ? String.valueOf(answer) : null, null);
+    }
+
+    boolean hasCode() {
+        return code != null && !code.trim().isEmpty();
+    }
+}
@@ -0,0 +1,145 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.CodeExecution;
+import com.Submission.SubmissionService.domain.ExecutionStatus;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Grades coding answers by running them against their question's hidden test suite.
+ *
+ * All coding questions of a submission run side by side, each through the sharded test runner on
+ * the evaluation lane. At most {@code evaluation.coding.execution-budget} of them are in flight per
+ * evaluation, so one submission cannot fill the scheduler's queue, and the scheduler's
+ * per-evaluation cap still limits how many of their shards execute at once. Points are awarded in
+ * proportion to the cases passed; a question counts as correct only when every case passes.
+ */
+@Service
+@Slf4j
+public class CodingGrader {
+
+    private static final String VERDICT_ERROR = "ERROR";
+
+    private final CodeExecutionService codeExecutionService;
+    private final boolean enabled;
+    private final int executionBudget;
+
+    public CodingGrader(CodeExecutionService codeExecutionService,
+                        @Value("${evaluation.coding.enabled:true}") boolean enabled,
+                        @Value("${evaluation.coding.execution-budget:4}") int executionBudget) {
+        this.codeExecutionService = codeExecutionService;
+        this.enabled = enabled;
+        this.executionBudget = Math.max(1, executionBudget);
+    }
+
+    /**
+     * Whether coding answers are executed; otherwise a submitted answer earns the question's points
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run the answers to the coding questions at the given positions of the answer key and grade
+     * them, keyed by question id. Fails when any test case of an answer could not be run, so the
+     * evaluation is retried instead of scoring the candidate for an outage.
+     */
+    public Map<String, QuestionResult> grade(String submissionId, AnswerKey answerKey, List<Integer> questions,
+                                             Map<String, Object> answers) {
+        Semaphore budget = new Semaphore(executionBudget);
+        Map<String, Future<QuestionResult>> running = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i : questions) {
+                CodingAnswer answer = CodingAnswer.of(answers.get(answerKey.questionId(i)));
+                running.put(answerKey.questionId(i), executor.submit(() -> {
+                    budget.acquire();
+                    try {
+                        return gradeQuestion(submissionId, answerKey, i, answer);
+                    } finally {
+                        budget.release();
+                    }
+                }));
+            }
+        }
+
+        Map<String, QuestionResult> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<QuestionResult>> entry : running.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Grading question " + entry.getKey() + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while grading coding questions", e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The answer runs in the language the candidate picked, or the one its question is set in.
+     * Without either there is nothing to run it as, and guessing one would grade it as wrong.
+     */
+    private QuestionResult gradeQuestion(String submissionId, AnswerKey answerKey, int i, CodingAnswer answer) {
+        String questionId = answerKey.questionId(i);
+        String language = answer.language() != null ? answer.language() : answerKey.language(i);
+        if (language == null) {
+            throw new IllegalStateException("No language recorded for the answer to question " + questionId
+                    + " in submission " + submissionId);
+        }
+        String code = answer.code();
+        CodeExecution execution = codeExecutionService.gradeAnswer(submissionId, questionId, language, code);
+
+        int total = execution.getTotalCount() != null ? execution.getTotalCount() : 0;
+        int passed = execution.getPassedCount() != null ? execution.getPassedCount() : 0;
+        // A case the backend could not run says nothing about the answer, so none may count as failed
+        boolean unrun = execution.getStatus() == ExecutionStatus.ERROR && total > 0
+                || execution.getTestCaseResults() != null && execution.getTestCaseResults().stream()
+                .anyMatch(result -> VERDICT_ERROR.equals(result.get("verdict")));
+        if (unrun) {
+            throw new IllegalStateException("Could not run every test case of the answer to question " + questionId
+                    + ": " + execution.getStderr());
+        }
+
+        String feedback;
+        if (execution.getStatus() == ExecutionStatus.COMPILATION_ERROR) {
+            feedback = "Compilation error";
+        } else if (total == 0) {
+            log.warn("Question {} has no test cases, its answer in submission {} earns no points", questionId,
+                    submissionId);
+            feedback = "No test cases to grade against";
+        } else {
+            feedback = passed + "/" + total + " test cases passed";
+        }
+
+        int points = answerKey.points(i);
+        return QuestionResult.builder()
+                .questionId(questionId)
+                .questionType(answerKey.type(i))
+                .userAnswer(code)
+                .language(language)
+                .isCorrect(total > 0 && passed == total)
+                .pointsAwarded(total > 0 ? (double) points * passed / total : 0.0)
+                .maxPoints((double) points)
+                .feedback(feedback)
+                .difficulty(answerKey.difficulty(i))
+                .passedCount(passed)
+                .totalCount(total)
+                .testCaseResults(execution.getTestCaseResults())
+                .build();
+    }
+}
@@ -0,0 +1,273 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of compiled programs for the local runner, keyed by
+ * language, resolved runtime version and SHA-256 of the source.
+ *
+ * Entries are build directories on disk, evicted least-recently-used first once the
+ * total size exceeds the configured limit. A directory handed out through a {@link Lease}
+ * is never evicted while the lease is open. The cache starts empty on every boot.
+ */
+@Component
+@Slf4j
+public class CompiledArtifactCache {
+
+    private final boolean enabled;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // guarded by this
+    private final Set<String> storing = new HashSet<>(); // guarded by this
+    private long totalBytes; // guarded by this
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CompiledArtifactCache(@Value("${execution.local.artifact-cache.enabled:true}") boolean enabled,
+                                 @Value("${execution.local.artifact-cache.dir:${java.io.tmpdir}/code-artifacts}") String cacheDir,
+                                 @Value("${execution.local.artifact-cache.max-size-mb:512}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        if (enabled) {
+            try {
+                deleteRecursively(this.cacheDir);
+                Files.createDirectories(this.cacheDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot prepare artifact cache at " + cacheDir, e);
+            }
+            log.info("Compiled artifact cache at {} ({} MB)", cacheDir, maxSizeMb);
+        }
+    }
+
+    /**
+     * Find a compiled program for this source. Returns null on a miss; a hit must be closed after use.
+     */
+    public Lease lookup(String language, String version, String code) {
+        if (!enabled) {
+            return null;
+        }
+        String key = key(language, version, code);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            entry.leases++;
+            hits.incrementAndGet();
+            log.debug("Artifact cache hit for {} {}", language, key);
+            return new Lease(entry);
+        }
+    }
+
+    /**
+     * Move a successfully compiled build directory into the cache. Returns a lease on the cached copy,
+     * or null when caching is disabled or the artifact does not fit, in which case buildDir is left in place.
+     */
+    public Lease store(String language, String version, String code, Path buildDir,
+                       RunCodeResponse.CompileResult compile) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        long size = sizeOf(buildDir);
+        if (size > maxBytes) {
+            log.debug("{} artifact of {} bytes exceeds the cache size, not caching", language, size);
+            return null;
+        }
+
+        String key = key(language, version, code);
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                // Compiled concurrently by another run; keep the first copy
+                existing.leases++;
+                return new Lease(existing);
+            }
+            if (!storing.add(key)) {
+                // Another run is moving the same artifact in right now; use our own copy this time
+                return null;
+            }
+        }
+
+        Path target = cacheDir.resolve(key);
+        try {
+            try {
+                Files.move(buildDir, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                // Work dir is on another file system; the cache dir only ever sees complete entries
+                Path staging = cacheDir.resolve(key + ".tmp");
+                copyRecursively(buildDir, staging);
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            makeReadOnly(target);
+        } catch (IOException e) {
+            synchronized (this) {
+                storing.remove(key);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            storing.remove(key);
+            Entry entry = new Entry(key, target, size, compile);
+            entry.leases++;
+            entries.put(key, entry);
+            totalBytes += size;
+            evict();
+            return new Lease(entry);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Drop least recently used entries that nobody holds until the cache fits its limit.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.leases > 0) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= entry.sizeBytes;
+            deleteQuietly(entry.directory);
+            log.debug("Evicted artifact {} ({} bytes)", entry.key, entry.sizeBytes);
+        }
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.leases--;
+        if (entry.leases == 0 && totalBytes > maxBytes) {
+            evict();
+        }
+    }
+
+    private String key(String language, String version, String code) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            String source = HexFormat.of().formatHex(sha256.digest(code.getBytes(StandardCharsets.UTF_8)));
+            String runtime = (language + "-" + (version != null ? version : "unknown")).replaceAll("[^A-Za-z0-9.+-]", "_");
+            return runtime + "-" + source;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private long sizeOf(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private void makeReadOnly(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(Files::isRegularFile).forEach(file -> file.toFile().setWritable(false, false));
+        }
+    }
+
+    private void copyRecursively(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.copy(path, target.resolve(source.relativize(path).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path directory) {
+        try {
+            deleteRecursively(directory);
+        } catch (IOException e) {
+            log.warn("Could not delete artifact {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Path directory;
+        private final long sizeBytes;
+        private final RunCodeResponse.CompileResult compile;
+        private int leases; // guarded by the cache
+
+        private Entry(String key, Path directory, long sizeBytes, RunCodeResponse.CompileResult compile) {
+            this.key = key;
+            this.directory = directory;
+            this.sizeBytes = sizeBytes;
+            this.compile = compile;
+        }
+    }
+
+    /**
+     * A cached build directory pinned against eviction until closed
+     */
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public Path getDirectory() {
+            return entry.directory;
+        }
+
+        /**
+         * Output of the compilation that produced this artifact
+         */
+        public RunCodeResponse.CompileResult getCompile() {
+            return entry.compile;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Judges output with a checker program supplied by the question author, run on the same
+ * sandboxed backends as submissions.
+ *
+ * The checker's stdin starts with one line holding the UTF-8 byte lengths of the test input,
+ * the expected output and the actual output, followed by the three texts back to back.
+ * Exit code 0 accepts, 1 rejects; anything else is a checker failure.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomChecker {
+
+    private final ExecutionDispatcher executionDispatcher;
+
+    /**
+     * Completes with whether the output is accepted, or exceptionally if the checker itself failed
+     */
+    public CompletableFuture<Boolean> check(String checkerLanguage, String checkerCode, String input,
+                                            String expected, String actual, String candidateId) {
+        byte[] inputBytes = bytes(input);
+        byte[] expectedBytes = bytes(expected);
+        byte[] actualBytes = bytes(actual);
+        String stdin = inputBytes.length + " " + expectedBytes.length + " " + actualBytes.length + "\n"
+                + nullToEmpty(input) + nullToEmpty(expected) + nullToEmpty(actual);
+
+        RunCodeRequest request = RunCodeRequest.builder()
+                .language(checkerLanguage)
+                .code(checkerCode)
+                .stdin(stdin)
+                .candidateId(candidateId)
+                .build();
+
+        return executionDispatcher.executeCode(request, ExecutionPriority.EVALUATION).thenApply(response -> {
+            RunCodeResponse.RunResult run = response.getRun();
+            Integer code = run != null ? run.getCode() : null;
+            if (code != null && (code == 0 || code == 1)) {
+                return code == 0;
+            }
+            String reason = response.getMessage() != null ? response.getMessage()
+                    : run != null ? "exit code " + code + ", signal " + run.getSignal() + ": " + run.getStderr()
+                    : "no run result";
+            log.warn("Checker program failed: {}", reason);
+            throw new IllegalStateException("Checker failed: " + reason);
+        });
+    }
+
+    private byte[] bytes(String text) {
+        return nullToEmpty(text).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String nullToEmpty(String text) {
+        return text != null ? text : "";
+    }
+}
@@ -4,6 +4,7 @@ import com.Submission.SubmissionService.domain.*;
 import com.Submission.SubmissionService.dto.EvaluateSubmissionRequest;
 import com.Submission.SubmissionService.dto.EvaluationResponse;
 import com.Submission.SubmissionService.repository.EvaluationRepository;
+import com.Submission.SubmissionService.repository.ProvisionalEvaluationRepository;
 import com.Submission.SubmissionService.repository.SubmissionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +13,9 @@ import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 @Service
 @RequiredArgsConstructor
@@ -21,9 +25,12 @@ public class EvaluationService {
     private final EvaluationRepository evaluationRepository;
     private final SubmissionRepository submissionRepository;
     private final RestTemplate restTemplate;
+    private final AnswerKeyCache answerKeyCache;
+    private final ProvisionalEvaluationRepository provisionalEvaluationRepository;
+    private final CodingGrader codingGrader;
 
     private static final String ASSESSMENT_SERVICE_URL = "http://localhost:8081";
-    private static final String QUESTION_SERVICE_URL = "http://localhost:8082";
+    static final double DEFAULT_PASSING_THRESHOLD = 60.0;
 
     /**
      * Evaluate a submission by comparing user answers with correct answers
@@ -49,46 +56,129 @@ public class EvaluationService {
             return mapToResponse(existingEval.get());
         }
 
-        // 2. Get assessment structure and questions from metadata
+        // 2. Answer key of the test, cached across its submissions
+        AnswerKey answerKey = answerKeyCache.get(submission.getTestId());
+        log.info("✓ Answer key ready: {} questions", answerKey.size());
+
+        // 3. Grade each question, reusing what was graded during the attempt
+        Double passingThreshold = request != null && request.getPassingThreshold() != null
+            ? request.getPassingThreshold() : DEFAULT_PASSING_THRESHOLD;
+        String candidateId = assessmentCandidateId(submission.getMetadata());
+        Map<String, QuestionResult> provisional = candidateId != null
+                ? provisionalEvaluationRepository.findById(candidateId)
+                        .filter(p -> p.getAnswerKeyVersion() != null && p.getAnswerKeyVersion().equals(answerKey.version()))
+                        .map(ProvisionalEvaluation::getResults)
+                        .orElse(Map.of())
+                : Map.of();
+        boolean runCoding = request == null || !Boolean.FALSE.equals(request.getAutoEvaluateCoding());
+        Evaluation evaluation = grade(submission, answerKey, passingThreshold, true, provisional, runCoding);
+
+        // 4. Save evaluation record
+        evaluation = evaluationRepository.save(evaluation);
+        log.info("✓ Evaluation saved to MongoDB with ID: {}", evaluation.getId());
+
+        // 5. Update submission with evaluation results
+        submission.setTotalScore(evaluation.getTotalScore());
+        submission.setMaxScore(evaluation.getMaxScore());
+        submission.setEvaluationId(evaluation.getId());
+        submission.setStatus(SubmissionStatus.EVALUATED);
+        submissionRepository.save(submission);
+        log.info("✓ Submission updated with evaluation results");
+        if (candidateId != null) {
+            provisionalEvaluationRepository.deleteById(candidateId);
+        }
+
+        // 6. Sync scores back to AssessmentService
+        syncScoresToAssessmentService(submission.getMetadata(), evaluation);
+
+        return mapToResponse(evaluation);
+    }
+
+    /**
+     * Score the submission's answers against the answer key. The evaluation is built but not saved;
+     * verbose logs every question, which bulk evaluation leaves out. A provisional result, graded while
+     * the attempt was in progress against the same answer key, is taken as is when the final answer is
+     * the one it was graded for. With runCoding, coding answers are run against their hidden tests
+     * first, all at once.
+     */
+    Evaluation grade(Submission submission, AnswerKey answerKey, Double passingThreshold, boolean verbose,
+                     Map<String, QuestionResult> provisional, boolean runCoding) {
         Map<String, Object> metadata = submission.getMetadata();
         @SuppressWarnings("unchecked")
         Map<String, Object> answers = (Map<String, Object>) metadata.get("answers");
 
         if (answers == null || answers.isEmpty()) {
-            log.error("❌ No answers found in submission");
+            log.error("❌ No answers found in submission {}", submission.getId());
             throw new RuntimeException("No answers found in submission");
         }
 
-        log.info("Total answers submitted: {}", answers.size());
-        String testId = submission.getTestId();
-
-        // 3. Fetch assessment structure
-        log.info("Fetching assessment structure for testId: {}", testId);
-        Map<String, Object> assessmentStructure = fetchAssessmentStructure(testId);
-        log.info("✓ Assessment structure fetched successfully");
-
-        // Debug: Log the structure to see what we received
-        log.debug("Assessment structure keys: {}", assessmentStructure.keySet());
-        if (assessmentStructure.containsKey("questionsMap")) {
-            Object questionsMapObj = assessmentStructure.get("questionsMap");
-            log.info("questionsMap type: {}", questionsMapObj != null ? questionsMapObj.getClass().getName() : "null");
-            if (questionsMapObj instanceof Map) {
-                Map<?, ?> qMap = (Map<?, ?>) questionsMapObj;
-                log.info("questionsMap size: {}", qMap.size());
-                log.info("questionsMap keys: {}", qMap.keySet());
+        if (verbose) {
+            log.info("Total answers submitted: {}", answers.size());
+            log.info("");
+            log.info("========================================");
+            log.info("EVALUATING QUESTIONS");
+            log.info("========================================");
+        }
+
+        // Coding answers are never graded ahead, so they all go to the execution backend together
+        Map<String, QuestionResult> coding = Map.of();
+        if (runCoding && codingGrader.isEnabled()) {
+            List<Integer> codingQuestions = new ArrayList<>();
+            for (int i = 0; i < answerKey.size(); i++) {
+                Object answer = answers.get(answerKey.questionId(i));
+                if (AnswerKey.TYPE_CODING.equals(answerKey.type(i)) && CodingAnswer.of(answer).hasCode()) {
+                    codingQuestions.add(i);
+                }
+            }
+            if (!codingQuestions.isEmpty()) {
+                coding = codingGrader.grade(submission.getId(), answerKey, codingQuestions, answers);
             }
-        } else {
-            log.error("❌ questionsMap key not found in assessment structure!");
-            log.error("Available keys: {}", assessmentStructure.keySet());
         }
 
-        // 4. Evaluate each question
-        log.info("");
-        log.info("========================================");
-        log.info("EVALUATING QUESTIONS");
-        log.info("========================================");
+        List<QuestionResult> questionResults = new ArrayList<>(answerKey.size());
+        int reused = 0;
 
-        List<QuestionResult> questionResults = new ArrayList<>();
+        for (int i = 0; i < answerKey.size(); i++) {
+            if (verbose) {
+                log.info("");
+                log.info("Question #{} (ID: {})", i + 1, answerKey.questionId(i));
+                log.info("  Type: {}", answerKey.type(i));
+                log.info("  Points: {}", answerKey.points(i));
+            }
+
+            QuestionResult result = provisional.get(answerKey.questionId(i));
+            Object finalAnswer = answers.get(answerKey.questionId(i));
+            String finalAnswerText = finalAnswer != null ? String.valueOf(finalAnswer) : null;
+            if (coding.containsKey(answerKey.questionId(i))) {
+                result = coding.get(answerKey.questionId(i));
+                if (verbose) {
+                    log.info("  → Result: {} ({}/{} points)", result.getFeedback(), result.getPointsAwarded(),
+                            result.getMaxPoints());
+                }
+            } else if (result != null && !AnswerKey.TYPE_CODING.equals(result.getQuestionType())
+                    && Objects.equals(result.getUserAnswer(), finalAnswerText)) {
+                reused++;
+                if (verbose) {
+                    log.info("  → Result: {} (graded during the attempt)", result.getFeedback());
+                }
+            } else {
+                result = evaluateQuestion(answerKey, i, answers, verbose);
+            }
+            questionResults.add(result);
+        }
+
+        Evaluation evaluation = summarize(submission.getId(), questionResults, passingThreshold, verbose);
+        if (verbose && reused > 0) {
+            log.info("Graded during the attempt: {} of {} questions", reused, questionResults.size());
+        }
+        return evaluation;
+    }
+
+    /**
+     * Build the evaluation's totals from its question results; it is not saved
+     */
+    Evaluation summarize(String submissionId, List<QuestionResult> questionResults, Double passingThreshold,
+                         boolean verbose) {
         double totalScore = 0.0;
         double maxScore = 0.0;
         double mcqScore = 0.0;
@@ -102,76 +192,40 @@ public class EvaluationService {
         int attempted = 0;
         int correct = 0;
         int incorrect = 0;
-        int questionNumber = 0;
-
-        @SuppressWarnings("unchecked")
-        Map<String, List<Map<String, Object>>> questionsMap =
-            (Map<String, List<Map<String, Object>>>) assessmentStructure.get("questionsMap");
-
-        if (questionsMap != null && !questionsMap.isEmpty()) {
-            log.info("Processing {} sections from questionsMap", questionsMap.size());
-            for (Map.Entry<String, List<Map<String, Object>>> sectionEntry : questionsMap.entrySet()) {
-                String sectionId = sectionEntry.getKey();
-                List<Map<String, Object>> sectionQuestions = sectionEntry.getValue();
-
-                log.info("");
-                log.info("--- Section ID: {} (Questions: {}) ---", sectionId, sectionQuestions != null ? sectionQuestions.size() : 0);
 
-                if (sectionQuestions == null || sectionQuestions.isEmpty()) {
-                    log.warn("⚠️  No questions found in section {}", sectionId);
-                    continue;
-                }
-
-                for (Map<String, Object> question : sectionQuestions) {
-                    questionNumber++;
-                    String questionId = String.valueOf(question.get("questionId"));
-                    String questionType = (String) question.get("type");
-                    String questionText = (String) question.get("questionText");
-                    Integer points = (Integer) question.get("points");
-                    if (points == null) points = 1;
-
-                    maxScore += points;
-
-                    log.info("");
-                    log.info("Question #{} (ID: {})", questionNumber, questionId);
-                    log.info("  Type: {}", questionType);
-                    log.info("  Points: {}", points);
-                    if (questionText != null && questionText.length() > 100) {
-                        log.info("  Text: {}...", questionText.substring(0, 100));
-                    } else {
-                        log.info("  Text: {}", questionText);
-                    }
+        for (QuestionResult result : questionResults) {
+            String questionType = result.getQuestionType();
+            double points = result.getMaxPoints() != null ? result.getMaxPoints() : 0.0;
 
-                    QuestionResult result = evaluateQuestion(questionId, questionType, answers, question, points, questionNumber);
-                    questionResults.add(result);
+            maxScore += points;
 
-                    if (result.getUserAnswer() != null && !result.getUserAnswer().isEmpty()) {
-                        attempted++;
-                    }
+            if (result.getUserAnswer() != null && !result.getUserAnswer().isEmpty()) {
+                attempted++;
+            }
 
-                    if (result.getIsCorrect() != null && result.getIsCorrect()) {
-                        correct++;
-                        totalScore += result.getPointsAwarded();
-                    } else if (result.getUserAnswer() != null && !result.getUserAnswer().isEmpty()) {
-                        incorrect++;
-                    }
+            // Coding answers may earn part of the points without being correct
+            double awarded = result.getPointsAwarded() != null ? result.getPointsAwarded() : 0.0;
+            totalScore += awarded;
+            if (result.getIsCorrect() != null && result.getIsCorrect()) {
+                correct++;
+            } else if (result.getUserAnswer() != null && !result.getUserAnswer().isEmpty()) {
+                incorrect++;
+            }
 
-                    // Track MCQ vs Coding
-                    if ("MCQ".equals(questionType)) {
-                        mcqTotal++;
-                        mcqMaxScore += points;
-                        if (result.getIsCorrect() != null && result.getIsCorrect()) {
-                            mcqCorrect++;
-                            mcqScore += result.getPointsAwarded();
-                        }
-                    } else if ("CODING".equals(questionType)) {
-                        codingTotal++;
-                        codingMaxScore += points;
-                        if (result.getIsCorrect() != null && result.getIsCorrect()) {
-                            codingPassed++;
-                            codingScore += result.getPointsAwarded();
-                        }
-                    }
+            // Track MCQ vs Coding
+            if (AnswerKey.TYPE_MCQ.equals(questionType)) {
+                mcqTotal++;
+                mcqMaxScore += points;
+                mcqScore += awarded;
+                if (result.getIsCorrect() != null && result.getIsCorrect()) {
+                    mcqCorrect++;
+                }
+            } else if (AnswerKey.TYPE_CODING.equals(questionType)) {
+                codingTotal++;
+                codingMaxScore += points;
+                codingScore += awarded;
+                if (result.getIsCorrect() != null && result.getIsCorrect()) {
+                    codingPassed++;
                 }
             }
         }
@@ -180,37 +234,36 @@ public class EvaluationService {
         double percentageScore = maxScore > 0 ? (totalScore / maxScore) * 100.0 : 0.0;
 
         // Determine if passed
-        Double passingThreshold = request != null && request.getPassingThreshold() != null
-            ? request.getPassingThreshold() : 60.0;
         boolean passed = percentageScore >= passingThreshold;
 
         // Print summary
-        log.info("");
-        log.info("========================================");
-        log.info("EVALUATION SUMMARY");
-        log.info("========================================");
-        log.info("Total Questions: {}", questionResults.size());
-        log.info("Attempted: {}", attempted);
-        log.info("Correct: {}", correct);
-        log.info("Incorrect: {}", incorrect);
-        log.info("Unanswered: {}", unanswered);
-        log.info("");
-        log.info("MCQ Performance:");
-        log.info("  - Total MCQ: {}", mcqTotal);
-        log.info("  - Correct: {}", mcqCorrect);
-        log.info("  - Score: {}/{} points", mcqScore, mcqMaxScore);
-        log.info("");
-        log.info("Coding Performance:");
-        log.info("  - Total Coding: {}", codingTotal);
-        log.info("  - Passed: {}", codingPassed);
-        log.info("  - Score: {}/{} points", codingScore, codingMaxScore);
-        log.info("");
-        log.info("FINAL SCORE: {}/{} points ({}%)", totalScore, maxScore, String.format("%.2f", percentageScore));
-        log.info("Status: {} (Threshold: {}%)", passed ? "✓ PASSED" : "✗ FAILED", passingThreshold);
-        log.info("========================================");
+        if (verbose) {
+            log.info("");
+            log.info("========================================");
+            log.info("EVALUATION SUMMARY");
+            log.info("========================================");
+            log.info("Total Questions: {}", questionResults.size());
+            log.info("Attempted: {}", attempted);
+            log.info("Correct: {}", correct);
+            log.info("Incorrect: {}", incorrect);
+            log.info("Unanswered: {}", unanswered);
+            log.info("");
+            log.info("MCQ Performance:");
+            log.info("  - Total MCQ: {}", mcqTotal);
+            log.info("  - Correct: {}", mcqCorrect);
+            log.info("  - Score: {}/{} points", mcqScore, mcqMaxScore);
+            log.info("");
+            log.info("Coding Performance:");
+            log.info("  - Total Coding: {}", codingTotal);
+            log.info("  - Passed: {}", codingPassed);
+            log.info("  - Score: {}/{} points", codingScore, codingMaxScore);
+            log.info("");
+            log.info("FINAL SCORE: {}/{} points ({}%)", totalScore, maxScore, String.format("%.2f", percentageScore));
+            log.info("Status: {} (Threshold: {}%)", passed ? "✓ PASSED" : "✗ FAILED", passingThreshold);
+            log.info("========================================");
+        }
 
-        // 5. Create evaluation record
-        Evaluation evaluation = Evaluation.builder()
+        return Evaluation.builder()
                 .submissionId(submissionId)
                 .totalScore(totalScore)
                 .maxScore(maxScore)
@@ -232,60 +285,48 @@ public class EvaluationService {
                 .totalQuestionsIncorrect(incorrect)
                 .totalQuestionsUnanswered(unanswered)
                 .build();
-
-        evaluation = evaluationRepository.save(evaluation);
-        log.info("✓ Evaluation saved to MongoDB with ID: {}", evaluation.getId());
-
-        // 6. Update submission with evaluation results
-        submission.setTotalScore(totalScore);
-        submission.setMaxScore(maxScore);
-        submission.setEvaluationId(evaluation.getId());
-        submission.setStatus(SubmissionStatus.EVALUATED);
-        submissionRepository.save(submission);
-        log.info("✓ Submission updated with evaluation results");
-
-        // 7. Sync scores back to AssessmentService
-        syncScoresToAssessmentService(metadata, evaluation);
-
-        return mapToResponse(evaluation);
     }
 
     /**
-     * Evaluate a single question
+     * Evaluate the question at position i of the answer key
      */
-    private QuestionResult evaluateQuestion(String questionId, String questionType,
-                                           Map<String, Object> answers,
-                                           Map<String, Object> questionData,
-                                           Integer points,
-                                           int questionNumber) {
-        Object userAnswerObj = answers.get(questionId);
-        String userAnswer = userAnswerObj != null ? String.valueOf(userAnswerObj) : null;
+    QuestionResult evaluateQuestion(AnswerKey answerKey, int i, Map<String, Object> answers,
+                                    boolean verbose) {
+        String questionType = answerKey.type(i);
+        int points = answerKey.points(i);
+        Object userAnswerObj = answers.get(answerKey.questionId(i));
+        String userAnswer = AnswerKey.TYPE_CODING.equals(questionType) ? CodingAnswer.of(userAnswerObj).code()
+                : userAnswerObj != null ? String.valueOf(userAnswerObj) : null;
 
         QuestionResult.QuestionResultBuilder resultBuilder = QuestionResult.builder()
-                .questionId(questionId)
+                .questionId(answerKey.questionId(i))
                 .questionType(questionType)
                 .userAnswer(userAnswer)
-                .maxPoints(points.doubleValue())
-                .difficulty((String) questionData.get("difficultyLevel"));
+                .maxPoints((double) points)
+                .difficulty(answerKey.difficulty(i));
 
-        if ("MCQ".equals(questionType)) {
+        if (AnswerKey.TYPE_MCQ.equals(questionType)) {
             // Evaluate MCQ question
-            return evaluateMCQQuestion(resultBuilder, questionData, userAnswer, points, questionNumber);
-        } else if ("CODING".equals(questionType)) {
-            // For coding questions, we'll mark as correct if user provided an answer
+            return evaluateMCQQuestion(resultBuilder, answerKey, i, userAnswer, verbose);
+        } else if (AnswerKey.TYPE_CODING.equals(questionType)) {
+            // Only reached when coding answers are not executed: a submitted answer earns the points
             boolean hasAnswer = userAnswer != null && !userAnswer.trim().isEmpty();
 
-            log.info("  → User Answer: {}", hasAnswer ? "Code submitted" : "No answer");
-            log.info("  → Result: {} ({} points)",
-                    hasAnswer ? "✓ SUBMITTED" : "✗ NOT SUBMITTED",
-                    hasAnswer ? points : 0);
+            if (verbose) {
+                log.info("  → User Answer: {}", hasAnswer ? "Code submitted" : "No answer");
+                log.info("  → Result: {} ({} points)",
+                        hasAnswer ? "✓ SUBMITTED" : "✗ NOT SUBMITTED",
+                        hasAnswer ? points : 0);
+            }
 
             resultBuilder
                     .isCorrect(hasAnswer)
-                    .pointsAwarded(hasAnswer ? points.doubleValue() : 0.0)
+                    .pointsAwarded(hasAnswer ? (double) points : 0.0)
                     .feedback(hasAnswer ? "Code submitted" : "No code submitted");
         } else {
-            log.info("  → Unknown question type");
+            if (verbose) {
+                log.info("  → Unknown question type");
+            }
             resultBuilder
                     .isCorrect(false)
                     .pointsAwarded(0.0)
@@ -296,19 +337,18 @@ public class EvaluationService {
     }
 
     /**
-     * Evaluate MCQ question by checking correct answer
+     * Evaluate MCQ question against the correct options in the answer key
      */
     private QuestionResult evaluateMCQQuestion(QuestionResult.QuestionResultBuilder resultBuilder,
-                                              Map<String, Object> questionData,
+                                              AnswerKey answerKey,
+                                              int i,
                                               String userAnswer,
-                                              Integer points,
-                                              int questionNumber) {
-        // Get MCQ options from question data
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> mcqOptions = (List<Map<String, Object>>) questionData.get("mcqOptions");
-
-        if (mcqOptions == null || mcqOptions.isEmpty()) {
-            log.info("  → ⚠️  No MCQ options available");
+                                              boolean verbose) {
+        int points = answerKey.points(i);
+        if (answerKey.optionCount(i) == 0) {
+            if (verbose) {
+                log.info("  → ⚠️  No MCQ options available");
+            }
             return resultBuilder
                     .isCorrect(false)
                     .pointsAwarded(0.0)
@@ -317,23 +357,11 @@ public class EvaluationService {
                     .build();
         }
 
-        // Find correct answer and match user's answer
-        String correctAnswerLabel = null;
-        String correctAnswerText = null;
-        String userAnswerLabel = null;
-
-        // First, find the correct answer
-        for (Map<String, Object> option : mcqOptions) {
-            Boolean isCorrect = (Boolean) option.get("isCorrect");
-            if (isCorrect != null && isCorrect) {
-                correctAnswerLabel = (String) option.get("optionLabel");
-                correctAnswerText = (String) option.get("optionText");
-                break;
-            }
-        }
-
+        String correctAnswerLabel = answerKey.correctLabels(i);
         if (correctAnswerLabel == null) {
-            log.info("  → ⚠️  No correct answer marked in database");
+            if (verbose) {
+                log.info("  → ⚠️  No correct answer marked in database");
+            }
             return resultBuilder
                     .isCorrect(false)
                     .pointsAwarded(0.0)
@@ -342,84 +370,49 @@ public class EvaluationService {
                     .build();
         }
 
-        // Now determine what the user selected
-        // User's answer could be:
-        // 1. Option label (A, B, C, D)
-        // 2. Option text (full text of the option)
-        // 3. Option ID (numeric ID)
-
-        if (userAnswer != null && !userAnswer.isEmpty()) {
-            // Check if user answer matches any option label (A, B, C, D)
-            if (userAnswer.length() <= 2 && userAnswer.matches("[A-Da-d]")) {
-                // User selected by label (A, B, C, D)
-                userAnswerLabel = userAnswer.toUpperCase();
-            } else {
-                // User might have selected by option text or ID
-                // Find which option matches the user's answer
-                for (Map<String, Object> option : mcqOptions) {
-                    String optionLabel = (String) option.get("optionLabel");
-                    String optionText = (String) option.get("optionText");
-                    Object optionIdObj = option.get("optionId");
-                    String optionId = optionIdObj != null ? String.valueOf(optionIdObj) : null;
-
-                    // Check if user answer matches option text
-                    if (optionText != null && optionText.equals(userAnswer)) {
-                        userAnswerLabel = optionLabel;
-                        break;
-                    }
-                    // Check if user answer matches option ID
-                    if (optionId != null && optionId.equals(userAnswer)) {
-                        userAnswerLabel = optionLabel;
-                        break;
-                    }
-                }
-
-                // If we still couldn't find a match, use the original answer
-                if (userAnswerLabel == null) {
-                    userAnswerLabel = userAnswer;
-                }
-            }
-        }
-
-        // Compare user answer with correct answer
-        boolean isAnswerCorrect = correctAnswerLabel.equalsIgnoreCase(userAnswerLabel);
+        // The user's answer may be an option label (A, B, C, D), the option's text or its id
+        String userAnswerLabel = answerKey.resolveLabel(i, userAnswer);
+        boolean isAnswerCorrect = answerKey.isCorrectLabel(i, userAnswerLabel);
 
         // Detailed logging
-        log.info("  → User Selected: {} (mapped to: {})",
-                userAnswer != null ? userAnswer : "NOT ANSWERED",
-                userAnswerLabel != null ? userAnswerLabel : "N/A");
-        log.info("  → Correct Answer: {} ({})", correctAnswerLabel,
-                correctAnswerText != null ? correctAnswerText : "");
-
-        if (userAnswer == null || userAnswer.isEmpty()) {
-            log.info("  → Result: ⊘ NOT ATTEMPTED (0/{} points)", points);
-        } else if (isAnswerCorrect) {
-            log.info("  → Result: ✓ CORRECT ({}/{} points)", points, points);
-        } else {
-            log.info("  → Result: ✗ WRONG (0/{} points)", points);
+        if (verbose) {
+            log.info("  → User Selected: {} (mapped to: {})",
+                    userAnswer != null ? userAnswer : "NOT ANSWERED",
+                    userAnswerLabel != null ? userAnswerLabel : "N/A");
+            log.info("  → Correct Answer: {}", correctAnswerLabel);
+
+            if (userAnswer == null || userAnswer.isEmpty()) {
+                log.info("  → Result: ⊘ NOT ATTEMPTED (0/{} points)", points);
+            } else if (isAnswerCorrect) {
+                log.info("  → Result: ✓ CORRECT ({}/{} points)", points, points);
+            } else {
+                log.info("  → Result: ✗ WRONG (0/{} points)", points);
+            }
         }
 
         return resultBuilder
+                .selectedOptionId(answerKey.resolveOptionId(i, userAnswer))
                 .correctAnswer(correctAnswerLabel)
                 .isCorrect(isAnswerCorrect)
-                .pointsAwarded(isAnswerCorrect ? points.doubleValue() : 0.0)
+                .pointsAwarded(isAnswerCorrect ? (double) points : 0.0)
                 .feedback(isAnswerCorrect ? "Correct!" :
                          (userAnswer == null ? "Not attempted" : "Incorrect. Correct answer: " + correctAnswerLabel))
                 .build();
     }
 
     /**
-     * Fetch assessment structure from AssessmentService
+     * Forget the cached answer key of a test, e.g. after its assessment was edited
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> fetchAssessmentStructure(String testId) {
-        try {
-            String url = ASSESSMENT_SERVICE_URL + "/assessments/" + testId + "/structure";
-            return restTemplate.getForObject(url, Map.class);
-        } catch (Exception e) {
-            log.error("Error fetching assessment structure for testId {}: {}", testId, e.getMessage());
-            throw new RuntimeException("Failed to fetch assessment structure: " + e.getMessage());
-        }
+    public void evictAnswerKey(String testId) {
+        answerKeyCache.evict(testId);
+        log.info("Answer key of test {} evicted", testId);
+    }
+
+    /**
+     * Evaluation of the submission, if it has been evaluated
+     */
+    public Optional<EvaluationResponse> findEvaluationBySubmissionId(String submissionId) {
+        return evaluationRepository.findBySubmissionId(submissionId).map(this::mapToResponse);
     }
 
     /**
@@ -459,6 +452,7 @@ public class EvaluationService {
                 .codingPassed(evaluation.getCodingPassed())
                 .codingTotal(evaluation.getCodingTotal())
                 .evaluatedAt(evaluation.getEvaluatedAt())
+                .regradedAt(evaluation.getRegradedAt())
                 .evaluatorId(evaluation.getEvaluatorId())
                 .remarks(evaluation.getRemarks())
                 .breakdown(evaluation.getBreakdown())
@@ -473,21 +467,52 @@ public class EvaluationService {
                 .build();
     }
 
+    /**
+     * The AssessmentService candidate (attempt) id the submission was created for, if any
+     */
+    static String assessmentCandidateId(Map<String, Object> metadata) {
+        Object candidateIdObj = metadata != null ? metadata.get("assessmentCandidateId") : null;
+        if (candidateIdObj instanceof Number number) {
+            return String.valueOf(number.longValue());
+        } else if (candidateIdObj instanceof String candidateId && !candidateId.isBlank()) {
+            return candidateId.trim();
+        }
+        return null;
+    }
+
+    /**
+     * Sync the scores of many evaluations to AssessmentService from virtual threads, at most
+     * concurrency requests at a time, and wait until all are done
+     */
+    void syncScoresToAssessmentService(Map<String, Map<String, Object>> metadataBySubmission,
+                                       List<Evaluation> evaluations, int concurrency) {
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        try (ExecutorService sync = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Evaluation evaluation : evaluations) {
+                Map<String, Object> metadata = metadataBySubmission.get(evaluation.getSubmissionId());
+                if (metadata == null) {
+                    continue;
+                }
+                sync.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        syncScoresToAssessmentService(metadata, evaluation);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
     /**
      * Sync evaluation scores back to AssessmentService
      */
-    private void syncScoresToAssessmentService(Map<String, Object> metadata, Evaluation evaluation) {
+    void syncScoresToAssessmentService(Map<String, Object> metadata, Evaluation evaluation) {
         try {
             // Get the assessment candidate ID from metadata
-            Long assessmentCandidateId = null;
-            if (metadata.containsKey("assessmentCandidateId")) {
-                Object candidateIdObj = metadata.get("assessmentCandidateId");
-                if (candidateIdObj instanceof Number) {
-                    assessmentCandidateId = ((Number) candidateIdObj).longValue();
-                } else if (candidateIdObj instanceof String) {
-                    assessmentCandidateId = Long.parseLong((String) candidateIdObj);
-                }
-            }
+            String candidateId = assessmentCandidateId(metadata);
+            Long assessmentCandidateId = candidateId != null ? Long.parseLong(candidateId) : null;
 
             if (assessmentCandidateId == null) {
                 log.warn("⚠️  No assessmentCandidateId found in metadata, skipping score sync to AssessmentService");
@@ -0,0 +1,311 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.Submission;
+import com.Submission.SubmissionService.domain.SubmissionStatus;
+import com.Submission.SubmissionService.dto.EvaluateSubmissionRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates submitted submissions in the background, shared safely between service instances.
+ *
+ * Each worker thread claims one submission at a time with an atomic findAndModify: the oldest
+ * SUBMITTED one, or a RUNNING one whose lease has expired because its worker died. Claiming sets
+ * status RUNNING, the lease owner and an expiry, and counts the attempt. Leases of submissions
+ * being evaluated are renewed on a heartbeat. A failed evaluation is retried after a backoff, by
+ * leaving the submission RUNNING with no owner until its lease runs out, and is marked FAILED once
+ * it has used up its attempts. The unique submission index on evaluations keeps a submission whose
+ * lease was lost mid-evaluation from being scored twice.
+ */
+@Component
+@Slf4j
+public class EvaluationWorker {
+
+    private final MongoTemplate mongoTemplate;
+    private final EvaluationService evaluationService;
+    private final boolean enabled;
+    private final int concurrency;
+    private final long pollIntervalMs;
+    private final Duration leaseDuration;
+    private final Duration retryBackoff;
+    private final int maxAttempts;
+    private final String workerId;
+
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final AtomicLong evaluated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public EvaluationWorker(MongoTemplate mongoTemplate,
+                            EvaluationService evaluationService,
+                            @Value("${evaluation.worker.enabled:true}") boolean enabled,
+                            @Value("${evaluation.worker.concurrency:2}") int concurrency,
+                            @Value("${evaluation.worker.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${evaluation.worker.lease-ms:120000}") long leaseMs,
+                            @Value("${evaluation.worker.retry-backoff-ms:30000}") long retryBackoffMs,
+                            @Value("${evaluation.worker.max-attempts:3}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.evaluationService = evaluationService;
+        this.enabled = enabled;
+        this.concurrency = Math.max(1, concurrency);
+        this.pollIntervalMs = pollIntervalMs;
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start polling once the application is up, so no submission is claimed by a half-started instance
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Evaluation worker disabled; submissions are only evaluated on request");
+            return;
+        }
+        running = true;
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "evaluation-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(this::poll);
+        }
+        log.info("Evaluation worker {} started with {} threads, lease {} s", workerId, concurrency,
+                leaseDuration.toSeconds());
+    }
+
+    /**
+     * Put the submission back in the queue, e.g. when evaluation is requested again after it failed,
+     * and wake an idle worker. Submissions being evaluated or already evaluated are left alone.
+     */
+    public void enqueue(String submissionId, Double passingThreshold) {
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(submissionId)), Submission.class)) {
+            throw new RuntimeException("Submission not found: " + submissionId);
+        }
+        Query query = Query.query(Criteria.where("_id").is(submissionId)
+                .and("status").nin(SubmissionStatus.RUNNING, SubmissionStatus.EVALUATED));
+        Update update = new Update()
+                .set("status", SubmissionStatus.SUBMITTED)
+                .set("evaluationAttempts", 0)
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt");
+        if (passingThreshold != null) {
+            update.set("passingThreshold", passingThreshold);
+        }
+        mongoTemplate.updateFirst(query, update, Submission.class);
+        wakeUp();
+    }
+
+    /**
+     * Let an idle worker look for work now instead of at its next poll
+     */
+    public void wakeUp() {
+        if (running && wakeUps.availablePermits() < concurrency) {
+            wakeUps.release();
+        }
+    }
+
+    public long getEvaluated() {
+        return evaluated.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Extend the leases this instance holds, and give up on submissions whose worker died on the
+     * last attempt
+     */
+    @Scheduled(fixedDelayString = "${evaluation.worker.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (!running) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (!held.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(held).and("leaseOwner").is(workerId)
+                            .and("status").is(SubmissionStatus.RUNNING)),
+                    Update.update("leaseExpiresAt", now.plus(leaseDuration)), Submission.class);
+        }
+        long abandoned = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("status").is(SubmissionStatus.RUNNING)
+                        .and("leaseExpiresAt").lt(now)
+                        .and("evaluationAttempts").gte(maxAttempts)),
+                new Update()
+                        .set("status", SubmissionStatus.FAILED)
+                        .set("lastEvaluationError", "Evaluation did not finish in " + maxAttempts + " attempts")
+                        .unset("leaseOwner")
+                        .unset("leaseExpiresAt"),
+                Submission.class).getModifiedCount();
+        if (abandoned > 0) {
+            log.warn("Marked {} submissions FAILED after {} evaluation attempts", abandoned, maxAttempts);
+        }
+    }
+
+    /**
+     * Expire this instance's leases so other instances take the work over right away
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        workers.shutdownNow();
+        if (!held.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(held).and("leaseOwner").is(workerId)),
+                    new Update().set("leaseExpiresAt", Instant.now()).unset("leaseOwner"), Submission.class);
+        }
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                if (!claimNext()) {
+                    wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Mongo unreachable and the like; try again after a pause
+                log.warn("Evaluation worker could not claim work: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claim and evaluate one submission on the calling thread; false if there was nothing to claim
+     */
+    boolean claimNext() {
+        Submission submission = claim();
+        if (submission == null) {
+            return false;
+        }
+        process(submission);
+        return true;
+    }
+
+    /**
+     * Atomically take the oldest claimable submission, or null if there is none
+     */
+    private Submission claim() {
+        Instant now = Instant.now();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").is(SubmissionStatus.SUBMITTED),
+                Criteria.where("status").is(SubmissionStatus.RUNNING).and("leaseExpiresAt").lt(now));
+        Criteria attemptsLeft = new Criteria().orOperator(
+                Criteria.where("evaluationAttempts").exists(false),
+                Criteria.where("evaluationAttempts").is(null),
+                Criteria.where("evaluationAttempts").lt(maxAttempts));
+        Query query = Query.query(new Criteria().andOperator(claimable, attemptsLeft))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("status", SubmissionStatus.RUNNING)
+                .set("leaseOwner", workerId)
+                .set("leaseExpiresAt", now.plus(leaseDuration))
+                .inc("evaluationAttempts", 1);
+        Submission submission = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Submission.class);
+        if (submission != null) {
+            held.add(submission.getId());
+        }
+        return submission;
+    }
+
+    private void process(Submission submission) {
+        String id = submission.getId();
+        log.info("Worker {} claimed submission {} (attempt {})", workerId, id, submission.getEvaluationAttempts());
+        try {
+            evaluationService.evaluateSubmission(id, EvaluateSubmissionRequest.builder()
+                    .passingThreshold(submission.getPassingThreshold())
+                    .build());
+            // Also covers a submission whose evaluation already existed, which the service returns as is
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(id).and("leaseOwner").is(workerId)),
+                    new Update()
+                            .set("status", SubmissionStatus.EVALUATED)
+                            .unset("leaseOwner")
+                            .unset("leaseExpiresAt")
+                            .unset("lastEvaluationError"),
+                    Submission.class);
+            evaluated.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            boolean lastAttempt = submission.getEvaluationAttempts() != null
+                    && submission.getEvaluationAttempts() >= maxAttempts;
+            log.warn("Evaluation of submission {} failed (attempt {} of {}): {}", id,
+                    submission.getEvaluationAttempts(), maxAttempts, e.getMessage());
+            Update update = new Update()
+                    .set("lastEvaluationError", String.valueOf(e.getMessage()))
+                    .unset("leaseOwner");
+            if (lastAttempt) {
+                update.set("status", SubmissionStatus.FAILED).unset("leaseExpiresAt");
+            } else {
+                // Stays RUNNING without an owner; claimable again once the backoff has passed
+                update.set("leaseExpiresAt", Instant.now().plus(retryBackoff));
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("leaseOwner").is(workerId)),
+                    update, Submission.class);
+        } finally {
+            held.remove(id);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
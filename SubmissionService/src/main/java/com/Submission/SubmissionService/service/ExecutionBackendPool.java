@@ -0,0 +1,228 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.ExecutionBackendStatus;
+import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Spreads executions over several backends.
+ *
+ * Each call goes to the healthy backend with the fewest requests in flight. A backend that fails
+ * is skipped and the call is retried on the next one; after enough consecutive failures it is
+ * ejected until an active health probe succeeds again. If every backend is ejected, calls are
+ * still attempted on all of them rather than failing outright.
+ */
+@Slf4j
+public class ExecutionBackendPool implements CodeRunner {
+
+    private final List<Backend> backends;
+    private final int failureThreshold;
+
+    public ExecutionBackendPool(List<CodeRunner> runners, int failureThreshold) {
+        if (runners.isEmpty()) {
+            throw new IllegalArgumentException("At least one execution backend is required");
+        }
+        this.backends = runners.stream().map(Backend::new).toList();
+        this.failureThreshold = failureThreshold;
+        log.info("Execution backends: {}", runners.stream().map(CodeRunner::getName).toList());
+    }
+
+    @Override
+    public String getName() {
+        return "pool";
+    }
+
+    @Override
+    public RunCodeResponse execute(RunCodeRequest request) {
+        try {
+            return call(runner -> runner.execute(request));
+        } catch (RuntimeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    @Override
+    public RunCodeResponse execute(RunCodeRequest request, OutputListener listener) {
+        try {
+            return call(runner -> runner.execute(request, listener));
+        } catch (RuntimeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    @Override
+    public List<RunCodeResponse> executeAll(RunCodeRequest request, List<String> stdins) {
+        if (!compilesOnce()) {
+            return CodeRunner.super.executeAll(request, stdins);
+        }
+        try {
+            return call(runner -> runner.executeAll(request, stdins));
+        } catch (RuntimeException e) {
+            RunCodeResponse error = errorResponse(e);
+            return stdins.stream().map(stdin -> error).toList();
+        }
+    }
+
+    @Override
+    public List<PistonRuntimeResponse> getRuntimes() {
+        return call(CodeRunner::getRuntimes);
+    }
+
+    @Override
+    public boolean isCompiledLanguage(String language) {
+        return backends.get(0).runner.isCompiledLanguage(language);
+    }
+
+    /**
+     * Only when every backend does, since a batch may land on any of them
+     */
+    @Override
+    public boolean compilesOnce() {
+        return backends.stream().allMatch(backend -> backend.runner.compilesOnce());
+    }
+
+    public List<ExecutionBackendStatus> getStatus() {
+        return backends.stream().map(Backend::toStatus).toList();
+    }
+
+    /**
+     * Probe every backend through its runtimes list. Ejected backends rejoin once a probe succeeds.
+     */
+    @Scheduled(fixedDelayString = "${execution.pool.health-check-interval-ms:10000}")
+    public void checkHealth() {
+        for (Backend backend : backends) {
+            try {
+                backend.runner.getRuntimes();
+                if (!backend.healthy) {
+                    log.info("Execution backend {} passed its health check, restoring it", backend.runner.getName());
+                }
+                backend.recordSuccess();
+            } catch (RuntimeException e) {
+                backend.recordFailure(e);
+            }
+        }
+    }
+
+    /**
+     * Run a call on the best backend, moving on to the next one whenever a backend fails
+     */
+    private <T> T call(Function<CodeRunner, T> action) {
+        Set<Backend> tried = new HashSet<>();
+        RuntimeException lastFailure = null;
+        Backend backend;
+        while ((backend = choose(tried)) != null) {
+            tried.add(backend);
+            backend.inFlight.incrementAndGet();
+            backend.requests.increment();
+            try {
+                T result = action.apply(backend.runner);
+                backend.recordSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                log.warn("Execution backend {} failed: {}", backend.runner.getName(), e.getMessage());
+                backend.recordFailure(e);
+                lastFailure = e;
+            } finally {
+                backend.inFlight.decrementAndGet();
+            }
+        }
+        throw lastFailure != null ? lastFailure : new IllegalStateException("No execution backend available");
+    }
+
+    /**
+     * Least outstanding requests among healthy backends, ties broken at random
+     */
+    private Backend choose(Set<Backend> excluded) {
+        List<Backend> candidates = new ArrayList<>();
+        for (Backend backend : backends) {
+            if (backend.healthy && !excluded.contains(backend)) {
+                candidates.add(backend);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Every remaining backend is ejected; trying one beats failing without an attempt
+            for (Backend backend : backends) {
+                if (!excluded.contains(backend)) {
+                    candidates.add(backend);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        Backend best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Backend candidate = candidates.get((offset + i) % candidates.size());
+            if (best == null || candidate.inFlight.get() < best.inFlight.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private RunCodeResponse errorResponse(RuntimeException e) {
+        RunCodeResponse errorResponse = new RunCodeResponse();
+        errorResponse.setMessage("Execution failed: " + e.getMessage());
+
+        RunCodeResponse.RunResult runResult = new RunCodeResponse.RunResult();
+        runResult.setStderr(e.getMessage());
+        runResult.setCode(1);
+        errorResponse.setRun(runResult);
+        return errorResponse;
+    }
+
+    private final class Backend {
+        private final CodeRunner runner;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile boolean healthy = true;
+        private volatile String lastError;
+
+        private Backend(CodeRunner runner) {
+            this.runner = runner;
+        }
+
+        private void recordSuccess() {
+            consecutiveFailures.set(0);
+            healthy = true;
+        }
+
+        private void recordFailure(RuntimeException e) {
+            failures.increment();
+            lastError = e.getMessage();
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold && healthy) {
+                healthy = false;
+                log.warn("Ejecting execution backend {} after {} consecutive failures",
+                        runner.getName(), consecutiveFailures.get());
+            }
+        }
+
+        private ExecutionBackendStatus toStatus() {
+            return ExecutionBackendStatus.builder()
+                    .name(runner.getName())
+                    .healthy(healthy)
+                    .inFlight(inFlight.get())
+                    .requests(requests.sum())
+                    .failures(failures.sum())
+                    .consecutiveFailures(consecutiveFailures.get())
+                    .lastError(lastError)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ComparatorType;
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.BatchRunRequest;
+import com.Submission.SubmissionService.dto.BatchRunResponse;
+import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Entry point for all code execution. Runs every call through the {@link ExecutionScheduler}
+ * and hands it to the {@link ExecutionBackendPool}.
+ *
+ * Identical requests (same language, version, code, stdin, args and limits) share one
+ * execution while in flight, and deterministic results are reused for a short time,
+ * so retries and double clicks never take another scheduler slot.
+ */
+@Service
+@Slf4j
+public class ExecutionDispatcher {
+
+    private final ExecutionScheduler executionScheduler;
+    private final CodeRunner codeRunner;
+    private final RuntimeRegistry runtimeRegistry;
+    private final SingleFlightCache<RunCodeResponse> runCache;
+    private final SingleFlightCache<List<RunCodeResponse>> batchCache;
+    private final int displayedOutputBytes;
+
+    public ExecutionDispatcher(ExecutionScheduler executionScheduler,
+                               ExecutionBackendPool executionBackendPool,
+                               @Value("${execution.cache.ttl-seconds:30}") long cacheTtlSeconds,
+                               @Value("${execution.cache.max-entries:1000}") int cacheMaxEntries,
+                               @Value("${execution.output.displayed-bytes:65536}") int displayedOutputBytes) {
+        this.executionScheduler = executionScheduler;
+        this.displayedOutputBytes = displayedOutputBytes;
+        this.runCache = new SingleFlightCache<>(Duration.ofSeconds(cacheTtlSeconds), cacheMaxEntries);
+        this.batchCache = new SingleFlightCache<>(Duration.ofSeconds(cacheTtlSeconds), cacheMaxEntries);
+        this.codeRunner = executionBackendPool;
+        this.runtimeRegistry = new RuntimeRegistry(codeRunner);
+    }
+
+    /**
+     * Runtimes served from the in-memory registry
+     */
+    public List<PistonRuntimeResponse> getRuntimes() {
+        return runtimeRegistry.getRuntimes();
+    }
+
+    /**
+     * Load runtimes at startup and keep them fresh in the background
+     */
+    @Scheduled(fixedDelayString = "${execution.runtimes.refresh-interval-ms:600000}")
+    public void refreshRuntimes() {
+        try {
+            runtimeRegistry.refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh runtimes from {}: {}", codeRunner.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * The version a request for this language would run on
+     */
+    public String resolveVersion(String language, String requestedVersion) {
+        return runtimeRegistry.resolveVersion(language, requestedVersion);
+    }
+
+    public boolean isCompiledLanguage(String language) {
+        return codeRunner.isCompiledLanguage(language);
+    }
+
+    /**
+     * Queue code for execution. Completes once the scheduler has
+     * dispatched the request and the backend has answered, with
+     * its output cut down to what is shown to the candidate.
+     */
+    public CompletableFuture<RunCodeResponse> executeCode(RunCodeRequest request) {
+        return executeCode(request, ExecutionPriority.INTERACTIVE).thenApply(this::forDisplay);
+    }
+
+    public CompletableFuture<RunCodeResponse> executeCode(RunCodeRequest request, ExecutionPriority priority) {
+        return executeCode(request, priority, () -> {
+        });
+    }
+
+    /**
+     * Same as {@link #executeCode(RunCodeRequest, ExecutionPriority)}, calling onDispatch on the worker
+     * thread just before the request is handed to the backend.
+     */
+    public CompletableFuture<RunCodeResponse> executeCode(RunCodeRequest request, ExecutionPriority priority,
+                                                          Runnable onDispatch) {
+        RunCodeRequest pinned = pinVersion(request);
+        return runCache.get(requestKey(pinned, List.of(nullToEmpty(pinned.getStdin()))),
+                () -> executionScheduler.submit(pinned.getCandidateId(), priority, 1, () -> {
+                    onDispatch.run();
+                    return codeRunner.execute(pinned);
+                }),
+                this::isDeterministic);
+    }
+
+    /**
+     * Like {@link #executeCode(RunCodeRequest, ExecutionPriority, Runnable)}, passing output to the
+     * listener while the program runs. Streamed runs never share an execution or a cached result,
+     * since a caller joining late would miss the output already sent.
+     */
+    public CompletableFuture<RunCodeResponse> streamCode(RunCodeRequest request, ExecutionPriority priority,
+                                                         Runnable onDispatch, OutputListener listener) {
+        RunCodeRequest pinned = pinVersion(request);
+        return executionScheduler.submit(pinned.getCandidateId(), priority, 1, () -> {
+            onDispatch.run();
+            return codeRunner.execute(pinned, listener);
+        });
+    }
+
+    /**
+     * Run one shard of a test suite, uncached. Backends that compile once run the whole shard as a single
+     * scheduled execution with a cost of one per stdin. Elsewhere every case is a call to the backend, so
+     * each is scheduled on its own and takes its own token; the shard's cases run one after another.
+     * The returned future may be cancelled while the shard is still queued or between its cases. Stop is
+     * checked before each case and the remaining cases are left out of the result. Wall time is filled in
+     * where the backend does not report it.
+     */
+    public CompletableFuture<List<RunCodeResponse>> executeShard(RunCodeRequest request, List<String> stdins,
+                                                                 ExecutionPriority priority, BooleanSupplier stop) {
+        RunCodeRequest pinned = pinVersion(request);
+        if (codeRunner.compilesOnce()) {
+            return executionScheduler.submit(pinned.getCandidateId(), priority, stdins.size(),
+                    () -> stop.getAsBoolean() ? List.of() : codeRunner.executeAll(pinned, stdins));
+        }
+
+        CompletableFuture<List<RunCodeResponse>> shard = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<RunCodeResponse>> current = new AtomicReference<>();
+        shard.whenComplete((responses, error) -> {
+            CompletableFuture<RunCodeResponse> queued = current.get();
+            if (shard.isCancelled() && queued != null) {
+                queued.cancel(false);
+            }
+        });
+        executeNextCase(pinned, stdins, priority, stop, new ArrayList<>(), shard, current);
+        return shard;
+    }
+
+    private void executeNextCase(RunCodeRequest pinned, List<String> stdins, ExecutionPriority priority,
+                                 BooleanSupplier stop, List<RunCodeResponse> responses,
+                                 CompletableFuture<List<RunCodeResponse>> shard,
+                                 AtomicReference<CompletableFuture<RunCodeResponse>> current) {
+        if (shard.isDone()) {
+            return;
+        }
+        if (responses.size() == stdins.size() || stop.getAsBoolean()) {
+            shard.complete(responses);
+            return;
+        }
+        String stdin = stdins.get(responses.size());
+        CompletableFuture<RunCodeResponse> next = executionScheduler.submit(pinned.getCandidateId(), priority, 1, () -> {
+            long startedAt = System.nanoTime();
+            RunCodeResponse response = codeRunner.execute(pinned.toBuilder().stdin(stdin).build());
+            if (response.getRun() != null && response.getRun().getWallTimeMs() == null) {
+                response.getRun().setWallTimeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            }
+            return response;
+        });
+        current.set(next);
+        if (shard.isCancelled()) {
+            next.cancel(false);
+        }
+        next.whenComplete((response, error) -> {
+            if (error != null) {
+                shard.completeExceptionally(error);
+                return;
+            }
+            responses.add(response);
+            executeNextCase(pinned, stdins, priority, stop, responses, shard, current);
+        });
+    }
+
+    /**
+     * Execute one source file against every test case of a batch.
+     * Backends that keep the compiled program run the whole batch as one scheduled execution.
+     * Otherwise the first case runs on its own: if it fails to compile, the compile error is
+     * reported for the whole batch and the remaining cases are never sent. Each case's output is
+     * cut down to what is shown to the candidate unless the request asks for the full output.
+     */
+    public CompletableFuture<BatchRunResponse> executeBatch(BatchRunRequest request) {
+        CompletableFuture<BatchRunResponse> batch = executeBatch(request, ExecutionPriority.INTERACTIVE);
+        return Boolean.TRUE.equals(request.getFullOutput()) ? batch : batch.thenApply(this::forDisplay);
+    }
+
+    public CompletableFuture<BatchRunResponse> executeBatch(BatchRunRequest request, ExecutionPriority priority) {
+        List<BatchRunRequest.TestCaseInput> testCases = request.getTestCases();
+        log.info("Executing {} code against {} test cases", request.getLanguage(), testCases.size());
+
+        if (codeRunner.compilesOnce()) {
+            List<String> stdins = testCases.stream().map(testCase -> nullToEmpty(testCase.getInput())).toList();
+            RunCodeRequest runRequest = pinVersion(toRunRequest(request, null));
+            return batchCache.get(requestKey(runRequest, stdins),
+                            () -> executionScheduler.submit(runRequest.getCandidateId(), priority, stdins.size(),
+                                    () -> codeRunner.executeAll(runRequest, stdins)),
+                            responses -> responses.stream().allMatch(this::isDeterministic))
+                    .thenApply(responses -> toBatchResponse(testCases, responses));
+        }
+
+        return executeCode(toRunRequest(request, testCases.get(0).getInput()), priority)
+                .thenCompose(first -> {
+                    if (isCompilationFailure(first)) {
+                        return CompletableFuture.completedFuture(toBatchResponse(testCases, List.of(first)));
+                    }
+
+                    // Remaining cases are queued together and run as workers and tokens allow
+                    List<CompletableFuture<RunCodeResponse>> remaining = new ArrayList<>();
+                    for (int i = 1; i < testCases.size(); i++) {
+                        remaining.add(executeCode(toRunRequest(request, testCases.get(i).getInput()), priority));
+                    }
+
+                    return CompletableFuture.allOf(remaining.toArray(new CompletableFuture<?>[0]))
+                            .thenApply(ignored -> {
+                                List<RunCodeResponse> responses = new ArrayList<>();
+                                responses.add(first);
+                                remaining.forEach(future -> responses.add(future.join()));
+                                return toBatchResponse(testCases, responses);
+                            });
+                });
+    }
+
+    /**
+     * Build the batch response. A single compile-failed response stands for every case.
+     */
+    private BatchRunResponse toBatchResponse(List<BatchRunRequest.TestCaseInput> testCases,
+                                             List<RunCodeResponse> responses) {
+        RunCodeResponse first = responses.get(0);
+        BatchRunResponse batchResponse = new BatchRunResponse();
+        batchResponse.setTotalCount(testCases.size());
+        batchResponse.setLanguage(first.getLanguage());
+        batchResponse.setVersion(first.getVersion());
+        batchResponse.setCompile(first.getCompile());
+        batchResponse.setMessage(first.getMessage());
+
+        if (isCompilationFailure(first)) {
+            log.info("Compilation failed, skipping remaining {} test cases", testCases.size() - 1);
+            for (int i = 0; i < testCases.size(); i++) {
+                batchResponse.getResults().add(toCompileFailureResult(i, testCases.get(i), first.getCompile()));
+            }
+            batchResponse.setPassedCount(0);
+            return batchResponse;
+        }
+
+        for (int i = 0; i < testCases.size(); i++) {
+            batchResponse.getResults().add(toTestCaseResult(i, testCases.get(i), responses.get(i)));
+        }
+
+        int passedCount = (int) batchResponse.getResults().stream()
+                .filter(BatchRunResponse.TestCaseResult::getPassed)
+                .count();
+        batchResponse.setPassedCount(passedCount);
+        log.info("Batch execution completed: {}/{} test cases passed", passedCount, testCases.size());
+        return batchResponse;
+    }
+
+    private RunCodeRequest pinVersion(RunCodeRequest request) {
+        String version = runtimeRegistry.resolveVersion(request.getLanguage(), request.getVersion());
+        return Objects.equals(version, request.getVersion()) ? request : request.toBuilder().version(version).build();
+    }
+
+    /**
+     * Results worth reusing: the backend answered and the program was not killed.
+     * A time-limit kill or backend error may well turn out differently on the next attempt.
+     */
+    private boolean isDeterministic(RunCodeResponse response) {
+        if (response.getMessage() != null) {
+            return false;
+        }
+        if (response.getCompile() != null && response.getCompile().getSignal() != null) {
+            return false;
+        }
+        return response.getRun() == null || response.getRun().getSignal() == null;
+    }
+
+    /**
+     * SHA-256 over every field that can change the outcome, each one length-prefixed
+     */
+    private String requestKey(RunCodeRequest request, List<String> stdins) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            List<String> parts = new ArrayList<>(List.of(
+                    request.getLanguage().toLowerCase(),
+                    nullToEmpty(request.getVersion()),
+                    request.getCode(),
+                    String.valueOf(request.getArgs()),
+                    String.valueOf(request.getRunTimeout()),
+                    String.valueOf(request.getCompileTimeout()),
+                    String.valueOf(request.getCompileMemoryLimit()),
+                    String.valueOf(request.getRunMemoryLimit()),
+                    String.valueOf(request.getCompileOnly())));
+            parts.addAll(stdins);
+            for (String part : parts) {
+                byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                sha256.update((bytes.length + ":").getBytes(StandardCharsets.US_ASCII));
+                sha256.update(bytes);
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cap every case's output in place; the batch response is built per caller. A case whose output
+     * was cut is marked truncated, so it is never taken as an expected output.
+     */
+    private BatchRunResponse forDisplay(BatchRunResponse response) {
+        for (BatchRunResponse.TestCaseResult result : response.getResults()) {
+            String shown = BoundedOutputBuffer.cap(result.getActualOutput(), displayedOutputBytes);
+            if (shown != null && !shown.equals(result.getActualOutput())) {
+                result.setOutputTruncated(true);
+            }
+            result.setActualOutput(shown);
+            result.setStderr(BoundedOutputBuffer.cap(result.getStderr(), displayedOutputBytes));
+        }
+        return response;
+    }
+
+    /**
+     * A copy with the run's output capped; the response itself may be shared through the cache
+     */
+    private RunCodeResponse forDisplay(RunCodeResponse response) {
+        RunCodeResponse.RunResult run = response.getRun();
+        if (run == null) {
+            return response;
+        }
+        RunCodeResponse.RunResult shown = run.toBuilder()
+                .stdout(BoundedOutputBuffer.cap(run.getStdout(), displayedOutputBytes))
+                .stderr(BoundedOutputBuffer.cap(run.getStderr(), displayedOutputBytes))
+                .output(BoundedOutputBuffer.cap(run.getOutput(), displayedOutputBytes))
+                .build();
+        return response.toBuilder().run(shown).build();
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private RunCodeRequest toRunRequest(BatchRunRequest request, String stdin) {
+        return RunCodeRequest.builder()
+                .language(request.getLanguage())
+                .code(request.getCode())
+                .version(request.getVersion())
+                .stdin(stdin)
+                .args(request.getArgs())
+                .runTimeout(request.getRunTimeout())
+                .compileTimeout(request.getCompileTimeout())
+                .compileMemoryLimit(request.getCompileMemoryLimit())
+                .runMemoryLimit(request.getRunMemoryLimit())
+                .candidateId(request.getCandidateId())
+                .build();
+    }
+
+    private boolean isCompilationFailure(RunCodeResponse response) {
+        return response.getCompile() != null
+                && response.getCompile().getCode() != null
+                && response.getCompile().getCode() != 0;
+    }
+
+    private BatchRunResponse.TestCaseResult toTestCaseResult(int index, BatchRunRequest.TestCaseInput testCase,
+                                                             RunCodeResponse response) {
+        RunCodeResponse.RunResult run = response.getRun();
+        String actualOutput = run != null && run.getStdout() != null ? run.getStdout().trim() : "";
+        String expectedOutput = testCase.getExpectedOutput() != null ? testCase.getExpectedOutput().trim() : "";
+        ComparatorType comparator = testCase.getComparator() == ComparatorType.CUSTOM
+                ? ComparatorType.EXACT : testCase.getComparator();
+        boolean truncated = run != null && Boolean.TRUE.equals(run.getStdoutTruncated());
+        boolean passed = run != null && Integer.valueOf(0).equals(run.getCode()) && !truncated
+                && OutputComparators.of(comparator, testCase.getAbsoluteError(), testCase.getRelativeError())
+                .matches(testCase.getExpectedOutput(), run.getStdout());
+
+        return BatchRunResponse.TestCaseResult.builder()
+                .index(index)
+                .input(testCase.getInput())
+                .expectedOutput(expectedOutput)
+                .actualOutput(actualOutput)
+                .stderr(run != null ? run.getStderr() : response.getMessage())
+                .code(run != null ? run.getCode() : null)
+                .signal(run != null ? run.getSignal() : null)
+                .wallTimeMs(run != null ? run.getWallTimeMs() : null)
+                .cpuTimeMs(run != null ? run.getCpuTimeMs() : null)
+                .memoryBytes(run != null ? run.getMemoryBytes() : null)
+                .outputTruncated(truncated)
+                .passed(passed)
+                .build();
+    }
+
+    private BatchRunResponse.TestCaseResult toCompileFailureResult(int index, BatchRunRequest.TestCaseInput testCase,
+                                                                   RunCodeResponse.CompileResult compile) {
+        return BatchRunResponse.TestCaseResult.builder()
+                .index(index)
+                .input(testCase.getInput())
+                .expectedOutput(testCase.getExpectedOutput())
+                .actualOutput("")
+                .stderr(compile.getStderr())
+                .code(compile.getCode())
+                .signal(compile.getSignal())
+                .passed(false)
+                .build();
+    }
+}
@@ -0,0 +1,499 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.SchedulerMetricsResponse;
+import com.Submission.SubmissionService.exception.ExecutionOverloadedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Schedules code executions against the execution backend.
+ *
+ * Callers get a CompletableFuture back immediately and never hold a thread while waiting.
+ * Pending executions sit in a bounded queue; a single dispatcher thread hands them to a fixed
+ * worker pool whenever a worker is free and the token bucket allows another request.
+ *
+ * Work is queued per candidate and served by deficit round robin, so a candidate who keeps
+ * clicking Run only delays their own runs. Each candidate has a cap on concurrent runs.
+ * Evaluation work goes to a separate lane that gets several dispatches for every interactive one,
+ * with its own, usually higher, cap so the shards of one grading run can execute side by side.
+ *
+ * Admission is decided up front: the scheduler tracks the service rate it actually achieves
+ * under load and rejects interactive work with a retry hint once the expected queue wait would
+ * pass the configured maximum, rather than letting callers wait until they time out.
+ */
+@Component
+@Slf4j
+public class ExecutionScheduler {
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxQueueSize;
+    private final int workerThreads;
+    private final int maxConcurrentPerCandidate;
+    private final int maxConcurrentPerEvaluation;
+    private final int evaluationWeight;
+    private final double maxQueueWaitSeconds;
+
+    private final TokenBucket tokenBucket;
+    private final Queue<PendingExecution<?>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong queuedCost = new AtomicLong();
+    private final AtomicInteger evaluationQueueDepth = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService workers;
+
+    // Only touched on the dispatcher thread
+    private final Lane interactiveLane;
+    private final Lane evaluationLane;
+    private int evaluationCredit;
+    private ScheduledFuture<?> pendingWakeup;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicInteger activeCandidates = new AtomicInteger();
+
+    // Service rate in cost units per second, sampled only while there is a backlog
+    private final AtomicLong completedCost = new AtomicLong();
+    private long lastSampledCost; // dispatcher thread
+    private volatile boolean backlogged;
+    private volatile double serviceRate;
+
+    @Autowired
+    public ExecutionScheduler(@Value("${execution.scheduler.rate-per-second:4}") double ratePerSecond,
+                              @Value("${execution.scheduler.burst:1}") int burst,
+                              @Value("${execution.scheduler.max-queue-size:500}") int maxQueueSize,
+                              @Value("${execution.scheduler.worker-threads:16}") int workerThreads,
+                              @Value("${execution.scheduler.max-concurrent-per-candidate:2}") int maxConcurrentPerCandidate,
+                              @Value("${execution.scheduler.max-concurrent-per-evaluation:4}") int maxConcurrentPerEvaluation,
+                              @Value("${execution.scheduler.evaluation-weight:4}") int evaluationWeight,
+                              @Value("${execution.scheduler.max-queue-wait-ms:30000}") long maxQueueWaitMs) {
+        this(ratePerSecond, burst, maxQueueSize, workerThreads, maxConcurrentPerCandidate, maxConcurrentPerEvaluation,
+                evaluationWeight, maxQueueWaitMs, new TokenBucket(ratePerSecond, burst));
+    }
+
+    /**
+     * @param tokenBucket paces dispatches; tests pass one running on a fake clock
+     */
+    ExecutionScheduler(double ratePerSecond, int burst, int maxQueueSize, int workerThreads,
+                       int maxConcurrentPerCandidate, int maxConcurrentPerEvaluation, int evaluationWeight,
+                       long maxQueueWaitMs, TokenBucket tokenBucket) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxQueueSize = maxQueueSize;
+        this.workerThreads = workerThreads;
+        this.maxConcurrentPerCandidate = maxConcurrentPerCandidate;
+        this.maxConcurrentPerEvaluation = maxConcurrentPerEvaluation;
+        this.interactiveLane = new Lane(maxConcurrentPerCandidate);
+        this.evaluationLane = new Lane(maxConcurrentPerEvaluation);
+        this.evaluationWeight = evaluationWeight;
+        this.maxQueueWaitSeconds = maxQueueWaitMs / 1000.0;
+        this.serviceRate = ratePerSecond; // until it has been measured
+        this.tokenBucket = tokenBucket;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("execution-dispatcher"));
+        this.workers = Executors.newFixedThreadPool(workerThreads, namedThreadFactory("execution-worker"));
+        this.dispatcher.scheduleAtFixedRate(this::sampleServiceRate, 1, 1, TimeUnit.SECONDS);
+        log.info("Execution scheduler started: {} req/s, burst {}, queue {} (max wait {} ms), workers {}, {} per candidate",
+                ratePerSecond, burst, maxQueueSize, maxQueueWaitMs, workerThreads, maxConcurrentPerCandidate);
+    }
+
+    /**
+     * Queue an interactive task that belongs to no particular candidate
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submit(null, ExecutionPriority.INTERACTIVE, 1, task);
+    }
+
+    /**
+     * Queue a task for execution. The returned future fails with an ExecutionOverloadedException
+     * when the task would wait longer than allowed or the queue is full.
+     * Evaluation work is only subject to the hard queue size.
+     *
+     * @param candidateId whose fair share the task counts against; null for anonymous callers
+     * @param cost        relative amount of work, e.g. the number of test cases in a batch
+     */
+    public <T> CompletableFuture<T> submit(String candidateId, ExecutionPriority priority, int cost, Supplier<T> task) {
+        int taskCost = Math.max(1, cost);
+        long retryAfter = admit(priority, taskCost);
+        if (retryAfter > 0) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ExecutionOverloadedException(
+                    "Code execution is busy, please retry in " + retryAfter + " seconds", retryAfter));
+        }
+
+        PendingExecution<T> pending = new PendingExecution<>(task, candidateId != null ? candidateId : ANONYMOUS,
+                priority, taskCost, System.nanoTime());
+        if (priority == ExecutionPriority.EVALUATION) {
+            evaluationQueueDepth.incrementAndGet();
+        }
+        incoming.add(pending);
+        submitted.increment();
+        requestDrain();
+        return pending.future;
+    }
+
+    /**
+     * Reserve queue space for a task. Returns 0 when admitted, otherwise the
+     * number of seconds after which a retry is likely to be admitted.
+     */
+    private long admit(ExecutionPriority priority, int cost) {
+        if (queueDepth.incrementAndGet() > maxQueueSize) {
+            queueDepth.decrementAndGet();
+            log.warn("Execution queue full ({} pending), rejecting request", maxQueueSize);
+            return retryAfterSeconds(queuedCost.get());
+        }
+        if (priority == ExecutionPriority.EVALUATION) {
+            queuedCost.addAndGet(cost);
+            return 0;
+        }
+
+        long limit = getQueueCostLimit();
+        while (true) {
+            long queued = queuedCost.get();
+            // An idle queue always takes one task, however large
+            if (queued > 0 && queued + cost > limit) {
+                queueDepth.decrementAndGet();
+                log.warn("Estimated queue wait {} ms exceeds the limit, rejecting request",
+                        Math.round((queued + cost) / currentServiceRate() * 1000));
+                return retryAfterSeconds(queued + cost - limit);
+            }
+            if (queuedCost.compareAndSet(queued, queued + cost)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * How much queued work, in cost units, can be served within the maximum queue wait at the measured rate.
+     * Never less than one task per worker, so a low estimate cannot keep the workers from filling up.
+     */
+    private long getQueueCostLimit() {
+        return Math.max(workerThreads, (long) (currentServiceRate() * maxQueueWaitSeconds));
+    }
+
+    private long retryAfterSeconds(long excessCost) {
+        return Math.max(1, (long) Math.ceil(excessCost / currentServiceRate()));
+    }
+
+    private double currentServiceRate() {
+        return Math.max(0.1, serviceRate);
+    }
+
+    /**
+     * Fold the last second's throughput into the service-rate EWMA. Idle seconds say nothing
+     * about capacity, so only seconds in which work was waiting are counted.
+     */
+    private void sampleServiceRate() {
+        long total = completedCost.get();
+        long delta = total - lastSampledCost;
+        lastSampledCost = total;
+        if (backlogged || queueDepth.get() > 0) {
+            serviceRate = 0.8 * serviceRate + 0.2 * delta;
+        }
+        backlogged = false;
+    }
+
+    public SchedulerMetricsResponse getMetrics() {
+        long dispatched = completed.sum() + running.get();
+        return SchedulerMetricsResponse.builder()
+                .ratePerSecond(ratePerSecond)
+                .burst(burst)
+                .maxQueueSize(maxQueueSize)
+                .maxQueueWaitMs(Math.round(maxQueueWaitSeconds * 1000))
+                .workerThreads(workerThreads)
+                .maxConcurrentPerCandidate(maxConcurrentPerCandidate)
+                .maxConcurrentPerEvaluation(maxConcurrentPerEvaluation)
+                .evaluationWeight(evaluationWeight)
+                .queueDepth(queueDepth.get())
+                .queuedCost(queuedCost.get())
+                .queueCostLimit(getQueueCostLimit())
+                .serviceRatePerSecond(serviceRate)
+                .estimatedWaitMs(Math.round(queuedCost.get() / currentServiceRate() * 1000))
+                .evaluationQueueDepth(evaluationQueueDepth.get())
+                .activeCandidates(activeCandidates.get())
+                .running(running.get())
+                .submitted(submitted.sum())
+                .completed(completed.sum())
+                .rejected(rejected.sum())
+                .averageWaitMs(dispatched > 0 ? totalWaitNanos.sum() / 1_000_000.0 / dispatched : 0.0)
+                .maxWaitMs(maxWaitNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    private void requestDrain() {
+        if (drainRequested.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Dispatch as many queued executions as free workers and available tokens allow.
+     * Runs on the dispatcher thread only.
+     */
+    private void drain() {
+        PendingExecution<?> arrived;
+        while ((arrived = incoming.poll()) != null) {
+            (arrived.priority == ExecutionPriority.EVALUATION ? evaluationLane : interactiveLane).enqueue(arrived);
+        }
+        activeCandidates.set(interactiveLane.flows.size() + evaluationLane.flows.size());
+
+        if (running.get() >= workerThreads && (interactiveLane.hasWork() || evaluationLane.hasWork())) {
+            backlogged = true;
+        }
+        while (running.get() < workerThreads) {
+            Lane lane = nextLane();
+            if (lane == null) {
+                return;
+            }
+            Flow flow = lane.nextFlow();
+            if (flow == null) {
+                // Every candidate queued in this lane already runs at its cap; try the other lane
+                lane = lane == evaluationLane ? interactiveLane : evaluationLane;
+                flow = lane.nextFlow();
+                if (flow == null) {
+                    return;
+                }
+            }
+
+            long waitNanos = tokenBucket.tryAcquire();
+            if (waitNanos > 0) {
+                backlogged = true;
+                scheduleWakeup(waitNanos);
+                return;
+            }
+
+            flow.running.incrementAndGet(); // before take(), which may retire the flow once it is empty
+            PendingExecution<?> next = lane.take(flow);
+            evaluationCredit = lane == evaluationLane ? evaluationCredit - 1 : evaluationWeight;
+            dispatch(lane, flow, next);
+        }
+    }
+
+    /**
+     * Weighted round robin between the lanes: up to evaluationWeight evaluation
+     * dispatches for every interactive one while both have work.
+     */
+    private Lane nextLane() {
+        boolean evaluationWaiting = evaluationLane.hasWork();
+        boolean interactiveWaiting = interactiveLane.hasWork();
+        if (evaluationWaiting && (!interactiveWaiting || evaluationCredit > 0)) {
+            return evaluationLane;
+        }
+        if (interactiveWaiting) {
+            return interactiveLane;
+        }
+        return null;
+    }
+
+    private void scheduleWakeup(long delayNanos) {
+        if (pendingWakeup != null && !pendingWakeup.isDone()) {
+            return;
+        }
+        pendingWakeup = dispatcher.schedule(() -> {
+            // Cleared first: if the bucket is still empty, this drain has to be able to schedule the next wakeup
+            pendingWakeup = null;
+            drain();
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private <T> void dispatch(Lane lane, Flow flow, PendingExecution<T> pending) {
+        long waited = System.nanoTime() - pending.enqueuedAt;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+        running.incrementAndGet();
+
+        workers.execute(() -> {
+            try {
+                pending.future.complete(pending.task.get());
+            } catch (Throwable t) {
+                pending.future.completeExceptionally(t);
+            } finally {
+                flow.running.decrementAndGet();
+                running.decrementAndGet();
+                completed.increment();
+                completedCost.addAndGet(pending.cost);
+                if (!dispatcher.isShutdown()) {
+                    dispatcher.execute(() -> {
+                        lane.forget(flow);
+                        drain();
+                    });
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Per-candidate queues of one priority, served by deficit round robin with a quantum of one
+     * unit of cost per visit. Only used on the dispatcher thread.
+     */
+    private final class Lane {
+        private final int maxConcurrent; // per candidate
+        private final Map<String, Flow> flows = new HashMap<>();
+        private final ArrayDeque<Flow> active = new ArrayDeque<>();
+
+        private Lane(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        private void enqueue(PendingExecution<?> pending) {
+            Flow flow = flows.computeIfAbsent(pending.candidateId, Flow::new);
+            if (flow.queue.isEmpty()) {
+                // A newly active candidate gets a quantum right away instead of waiting a full round
+                flow.deficit = 1;
+                active.addLast(flow);
+            }
+            flow.queue.add(pending);
+        }
+
+        private boolean hasWork() {
+            return !active.isEmpty();
+        }
+
+        /**
+         * The candidate to serve next, or null if all candidates with work are at their concurrency cap
+         */
+        private Flow nextFlow() {
+            int capped = 0;
+            while (!active.isEmpty() && capped < active.size()) {
+                Flow flow = active.peekFirst();
+                PendingExecution<?> head = flow.peekLive();
+                if (head == null) {
+                    active.pollFirst();
+                    retire(flow);
+                    continue;
+                }
+                if (flow.running.get() >= maxConcurrent) {
+                    active.addLast(active.pollFirst());
+                    capped++;
+                    continue;
+                }
+                capped = 0;
+                if (flow.deficit >= head.cost) {
+                    return flow;
+                }
+                flow.deficit += 1;
+                active.addLast(active.pollFirst());
+            }
+            return null;
+        }
+
+        /**
+         * Remove the head of the flow returned by {@link #nextFlow()} for dispatch
+         */
+        private PendingExecution<?> take(Flow flow) {
+            PendingExecution<?> next = flow.queue.poll();
+            flow.deficit -= next.cost;
+            queueDepth.decrementAndGet();
+            queuedCost.addAndGet(-next.cost);
+            if (next.priority == ExecutionPriority.EVALUATION) {
+                evaluationQueueDepth.decrementAndGet();
+            }
+            if (flow.peekLive() == null) {
+                active.remove(flow);
+                retire(flow);
+            }
+            return next;
+        }
+
+        /**
+         * A flow without queued work leaves the round robin. It stays known while its runs
+         * are in flight so the concurrency cap still counts them.
+         */
+        private void retire(Flow flow) {
+            flow.deficit = 0;
+            forget(flow);
+        }
+
+        private void forget(Flow flow) {
+            if (flow.queue.isEmpty() && flow.running.get() == 0) {
+                flows.remove(flow.candidateId, flow);
+            }
+        }
+    }
+
+    private final class Flow {
+        private final String candidateId;
+        private final ArrayDeque<PendingExecution<?>> queue = new ArrayDeque<>();
+        private final AtomicInteger running = new AtomicInteger(); // decremented by workers
+        private long deficit;
+
+        private Flow(String candidateId) {
+            this.candidateId = candidateId;
+        }
+
+        /**
+         * Head of the queue, skipping executions cancelled by the caller while waiting
+         */
+        private PendingExecution<?> peekLive() {
+            PendingExecution<?> head;
+            while ((head = queue.peek()) != null && head.future.isDone()) {
+                queue.poll();
+                queueDepth.decrementAndGet();
+                queuedCost.addAndGet(-head.cost);
+                if (head.priority == ExecutionPriority.EVALUATION) {
+                    evaluationQueueDepth.decrementAndGet();
+                }
+            }
+            return head;
+        }
+    }
+
+    private static final class PendingExecution<T> {
+        private final Supplier<T> task;
+        private final String candidateId;
+        private final ExecutionPriority priority;
+        private final int cost;
+        private final long enqueuedAt;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private PendingExecution(Supplier<T> task, String candidateId, ExecutionPriority priority, int cost,
+                                 long enqueuedAt) {
+            this.task = task;
+            this.candidateId = candidateId;
+            this.priority = priority;
+            this.cost = cost;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
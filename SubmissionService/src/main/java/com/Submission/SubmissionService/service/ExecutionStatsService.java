@@ -0,0 +1,113 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.CodeExecution;
+import com.Submission.SubmissionService.dto.ExecutionStatsResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Per-question distributions of wall time, CPU time and peak memory over every test case run.
+ * A question's histograms are rebuilt from the timings of its stored executions the first time
+ * it is seen, then kept up to date in memory as new executions are recorded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionStatsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, QuestionStats> statsByQuestion = new ConcurrentHashMap<>();
+
+    /**
+     * Add a finished execution. Call before it is saved, so a first-time load does not count it twice.
+     */
+    public void record(CodeExecution execution) {
+        if (execution.getQuestionId() != null) {
+            statsFor(execution.getQuestionId()).add(execution);
+        }
+    }
+
+    public ExecutionStatsResponse getStats(String questionId) {
+        QuestionStats stats = statsFor(questionId);
+        return ExecutionStatsResponse.builder()
+                .questionId(questionId)
+                .executions(stats.executions.sum())
+                .wallTimeMs(toDistribution(stats.wallTimeMs))
+                .cpuTimeMs(toDistribution(stats.cpuTimeMs))
+                .memoryKb(toDistribution(stats.memoryKb))
+                .build();
+    }
+
+    /**
+     * The question's stats, loaded outside the map so a slow load does not block other questions.
+     * Concurrent first loads may both run, the first one published is kept.
+     */
+    private QuestionStats statsFor(String questionId) {
+        QuestionStats stats = statsByQuestion.get(questionId);
+        if (stats != null) {
+            return stats;
+        }
+        QuestionStats loaded = load(questionId);
+        QuestionStats published = statsByQuestion.putIfAbsent(questionId, loaded);
+        return published != null ? published : loaded;
+    }
+
+    private QuestionStats load(String questionId) {
+        Query query = Query.query(Criteria.where("questionId").is(questionId));
+        query.fields().include("testCaseResults.timeMs", "testCaseResults.cpuTimeMs", "testCaseResults.memoryKb");
+        QuestionStats stats = new QuestionStats();
+        try (Stream<CodeExecution> executions = mongoTemplate.stream(query, CodeExecution.class)) {
+            executions.forEach(stats::add);
+        }
+        log.debug("Loaded execution stats for question {} from {} executions", questionId, stats.executions.sum());
+        return stats;
+    }
+
+    private ExecutionStatsResponse.Distribution toDistribution(LogLinearHistogram histogram) {
+        return ExecutionStatsResponse.Distribution.builder()
+                .count(histogram.getCount())
+                .min(histogram.getMin())
+                .mean(histogram.getMean())
+                .p50(histogram.getValueAtPercentile(50))
+                .p90(histogram.getValueAtPercentile(90))
+                .p95(histogram.getValueAtPercentile(95))
+                .p99(histogram.getValueAtPercentile(99))
+                .p999(histogram.getValueAtPercentile(99.9))
+                .max(histogram.getMax())
+                .build();
+    }
+
+    private static final class QuestionStats {
+        private final LongAdder executions = new LongAdder();
+        private final LogLinearHistogram wallTimeMs = new LogLinearHistogram();
+        private final LogLinearHistogram cpuTimeMs = new LogLinearHistogram();
+        private final LogLinearHistogram memoryKb = new LogLinearHistogram();
+
+        private void add(CodeExecution execution) {
+            executions.increment();
+            if (execution.getTestCaseResults() == null) {
+                return;
+            }
+            for (Map<String, Object> result : execution.getTestCaseResults()) {
+                recordIfPresent(wallTimeMs, result.get("timeMs"));
+                recordIfPresent(cpuTimeMs, result.get("cpuTimeMs"));
+                recordIfPresent(memoryKb, result.get("memoryKb"));
+            }
+        }
+
+        private void recordIfPresent(LogLinearHistogram histogram, Object value) {
+            if (value instanceof Number number) {
+                histogram.record(number.longValue());
+            }
+        }
+    }
+}
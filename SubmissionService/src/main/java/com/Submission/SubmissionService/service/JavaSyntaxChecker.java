@@ -0,0 +1,259 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.CodeCheckResponse;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Compiles Java sources inside this JVM to report compile errors without a sandbox round trip.
+ *
+ * The compiler is looked up once; standard file managers, which cache the platform classes
+ * but are not thread-safe, are pooled and each used by one compilation at a time. Sources are
+ * compiled as Main.java against the platform classes only, never the service's own class path,
+ * and nothing is written to disk. Annotation processing is off, so no submitted code runs here.
+ *
+ * Each compile gets compile-timeout-ms; one that takes longer is reported as no result, so the
+ * check goes to the backend, and is stopped at its next compiler phase. Its compile slot stays
+ * taken until it has stopped.
+ */
+@Component
+@Slf4j
+public class JavaSyntaxChecker {
+
+    private static final String FILE_NAME = "Main.java";
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final ConcurrentLinkedQueue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+    private final Semaphore permits;
+    private final long waitMs;
+    private final long compileTimeoutMs;
+
+    public JavaSyntaxChecker(@Value("${execution.check.max-concurrent-compiles:0}") int maxConcurrentCompiles,
+                             @Value("${execution.check.max-wait-ms:2000}") long waitMs,
+                             @Value("${execution.check.compile-timeout-ms:5000}") long compileTimeoutMs) {
+        int permits = maxConcurrentCompiles > 0 ? maxConcurrentCompiles : Runtime.getRuntime().availableProcessors();
+        this.permits = new Semaphore(permits);
+        this.waitMs = waitMs;
+        this.compileTimeoutMs = compileTimeoutMs;
+    }
+
+    /**
+     * Loading javac and the platform classes takes a while; do it before the first candidate asks
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (compiler == null) {
+            log.warn("No system Java compiler (running on a JRE?), Java checks go to the execution backend");
+            return;
+        }
+        Thread.ofVirtual().start(() -> check("public class Main { public static void main(String[] args) { } }", null));
+    }
+
+    /**
+     * Whether this JVM has a compiler; otherwise the caller should fall back to the backend
+     */
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    /**
+     * Compile the source and return its diagnostics, or null when no compile slot
+     * became free in time or the compile did not finish within compile-timeout-ms.
+     *
+     * @param release Java feature release to compile for, or null for this JVM's
+     */
+    public List<CodeCheckResponse.Diagnostic> check(String code, Integer release) {
+        try {
+            if (!permits.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(compileTimeoutMs);
+        CompletableFuture<List<CodeCheckResponse.Diagnostic>> compile;
+        try {
+            compile = CompletableFuture.supplyAsync(() -> compile(code, release, deadline),
+                    command -> Thread.ofVirtual().start(command));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        // The slot is freed by the compile itself, so one still running after its timeout keeps it
+        compile.whenComplete((result, failure) -> permits.release());
+        try {
+            return compile.get(compileTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Java check did not compile within {} ms, checking on the backend", compileTimeoutMs);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (timedOut(e)) {
+                return null;
+            }
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private List<CodeCheckResponse.Diagnostic> compile(String code, Integer release, long deadline) {
+        StandardJavaFileManager standard = fileManagers.poll();
+        if (standard == null) {
+            standard = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = new ArrayList<>(List.of("-proc:none", "-implicit:none", "-Xlint:none",
+                "-XDshould-stop.ifNoError=FLOW"));
+        if (release != null && release < Runtime.version().feature()) {
+            options.addAll(List.of("--release", String.valueOf(release)));
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(new StringWriter(), new InMemoryFileManager(standard),
+                diagnostics, options, null, List.of(new Source(code)));
+        if (task instanceof JavacTask javacTask) {
+            javacTask.addTaskListener(new Deadline(deadline));
+        }
+        task.call();
+
+        List<CodeCheckResponse.Diagnostic> result = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            result.add(CodeCheckResponse.Diagnostic.builder()
+                    .severity(severity(diagnostic.getKind()))
+                    .line(diagnostic.getLineNumber() != Diagnostic.NOPOS ? diagnostic.getLineNumber() : null)
+                    .column(diagnostic.getColumnNumber() != Diagnostic.NOPOS ? diagnostic.getColumnNumber() : null)
+                    .message(diagnostic.getMessage(Locale.ROOT))
+                    .build());
+        }
+        // A file manager is only reused after a compile that ran to the end
+        fileManagers.offer(standard);
+        return result;
+    }
+
+    private boolean timedOut(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CompileTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String severity(Diagnostic.Kind kind) {
+        return switch (kind) {
+            case ERROR -> CodeCheckResponse.SEVERITY_ERROR;
+            case WARNING, MANDATORY_WARNING -> CodeCheckResponse.SEVERITY_WARNING;
+            default -> CodeCheckResponse.SEVERITY_NOTE;
+        };
+    }
+
+    /**
+     * Stops a compile at the start or end of its next phase once its deadline has passed
+     */
+    private record Deadline(long deadline) implements TaskListener {
+        @Override
+        public void started(TaskEvent event) {
+            check();
+        }
+
+        @Override
+        public void finished(TaskEvent event) {
+            check();
+        }
+
+        private void check() {
+            if (System.nanoTime() - deadline > 0) {
+                throw new CompileTimeoutException();
+            }
+        }
+    }
+
+    private static final class CompileTimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The submitted source, held in memory
+     */
+    private static final class Source extends SimpleJavaFileObject {
+        private final String code;
+
+        private Source(String code) {
+            super(URI.create("string:///" + FILE_NAME), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    /**
+     * Hides the class and source paths, so only platform classes resolve, and discards any class output
+     */
+    private static final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private InMemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds,
+                                             boolean recurse) throws IOException {
+            if (location == StandardLocation.CLASS_PATH || location == StandardLocation.SOURCE_PATH) {
+                return List.of();
+            }
+            return super.list(location, packageName, kinds, recurse);
+        }
+
+        @Override
+        public boolean hasLocation(Location location) {
+            return location != StandardLocation.SOURCE_PATH && super.hasLocation(location);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream();
+                }
+            };
+        }
+    }
+}
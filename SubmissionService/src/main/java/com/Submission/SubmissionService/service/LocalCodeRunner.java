@@ -0,0 +1,1028 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Runs code in child processes on this machine.
+ *
+ * Every process is started through a small shell wrapper that applies rlimits (CPU seconds,
+ * address space, file size and optionally user processes) before exec'ing the program.
+ * When a cgroup v2 parent is configured, each run also gets its own cgroup with memory.max
+ * and pids.max. Wall time is enforced here by killing the process tree, and stdout/stderr are
+ * capped. Each execution works in its own temporary directory with a cleared environment.
+ *
+ * This isolates resource usage, not privileges: run the service as a dedicated unprivileged
+ * user (or inside a container) when the backend is exposed to untrusted code. The number of
+ * processes must be limited, by the cgroup or by RLIMIT_NPROC for that dedicated user; without
+ * either the backend refuses to run anything. Time and memory limits asked for by a request are
+ * clamped to the configured maximums.
+ *
+ * Python, JavaScript and Java runs are served by pre-started workers when one is ready: the
+ * interpreter or JVM is already loaded and waits, under the same sandbox, for the build
+ * directory on the first line of stdin. Each worker runs exactly one program.
+ */
+@Service
+@Slf4j
+public class LocalCodeRunner implements CodeRunner {
+
+    private static final int DEFAULT_RUN_TIMEOUT_MS = 3000;
+    private static final int DEFAULT_COMPILE_TIMEOUT_MS = 10000;
+    private static final long USAGE_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+\\.\\d+(?:\\.\\d+)?)");
+    private static final long WARM_START_TIMEOUT_MS = 30000;
+    // A worker's own start-up counts against RLIMIT_CPU, so it gets this much on top
+    private static final long WARM_CPU_HEADROOM_SECONDS = 2;
+    private static final int WARM_READY = '+';
+
+    /**
+     * Moves itself into the cgroup and applies the rlimits passed as the first five arguments, then execs the rest.
+     * An empty cgroup path skips the cgroup; a limit of "unlimited" leaves that rlimit untouched.
+     */
+    private static final String SANDBOX_SCRIPT = """
+            if [ -n "$1" ]; then echo $$ > "$1/cgroup.procs" || exit 125; fi
+            [ "$2" = unlimited ] || ulimit -t "$2" || exit 125
+            [ "$3" = unlimited ] || ulimit -v "$3" || exit 125
+            [ "$4" = unlimited ] || ulimit -f "$4" || exit 125
+            [ "$5" = unlimited ] || ulimit -u "$5" || exit 125
+            shift 5
+            exec "$@"
+            """;
+
+    /**
+     * Warm workers write one byte to stderr once loaded, then read the build directory from
+     * stdin one byte at a time so nothing meant for the program is consumed or buffered.
+     */
+    private static final String PYTHON_WORKER = """
+            import os, runpy, sys
+            import bisect, collections, functools, heapq, itertools, math, re
+            sys.stderr.write("+")
+            sys.stderr.flush()
+            header = bytearray()
+            while True:
+                byte = os.read(0, 1)
+                if not byte or byte == b"\\n":
+                    break
+                header += byte
+            if not header:
+                sys.exit(0)
+            build = header.decode()
+            main = os.path.join(build, "main.py")
+            sys.argv = [main]
+            sys.path[0] = build
+            try:
+                runpy.run_path(main, run_name="__main__")
+            except SystemExit:
+                raise
+            except BaseException:
+                import traceback
+                kind, error, trace = sys.exc_info()
+                while trace is not None and trace.tb_frame.f_code.co_filename != main:
+                    trace = trace.tb_next
+                traceback.print_exception(kind, error, trace)
+                sys.exit(1)
+            """;
+
+    private static final String NODE_WORKER = """
+            const fs = require('fs'), path = require('path'), Module = require('module');
+            fs.writeSync(2, '+');
+            const header = [], byte = Buffer.alloc(1);
+            while (fs.readSync(0, byte, 0, 1, null) === 1 && byte[0] !== 10) header.push(byte[0]);
+            if (header.length > 0) {
+                process.argv[1] = path.join(Buffer.from(header).toString('utf8'), 'main.js');
+                Module.runMain();
+            }
+            """;
+
+    private static final String JAVA_WORKER = """
+            import java.io.ByteArrayOutputStream;
+            import java.io.FileDescriptor;
+            import java.io.FileInputStream;
+            import java.lang.reflect.InvocationTargetException;
+            import java.lang.reflect.Method;
+            import java.net.URL;
+            import java.net.URLClassLoader;
+            import java.nio.charset.StandardCharsets;
+            import java.nio.file.Path;
+
+            public class WarmWorker {
+                public static void main(String[] args) throws Throwable {
+                    // Load what most programs touch first
+                    new java.util.Scanner("1 a").nextInt();
+                    new java.io.BufferedReader(new java.io.InputStreamReader(System.in)).ready();
+                    new java.util.StringTokenizer("1 a").nextToken();
+                    System.err.write('+');
+                    System.err.flush();
+
+                    FileInputStream in = new FileInputStream(FileDescriptor.in);
+                    ByteArrayOutputStream header = new ByteArrayOutputStream();
+                    int read;
+                    while ((read = in.read()) != -1 && read != '\\n') {
+                        header.write(read);
+                    }
+                    if (header.size() == 0) {
+                        return;
+                    }
+                    URL build = Path.of(header.toString(StandardCharsets.UTF_8)).toUri().toURL();
+                    ClassLoader loader = new URLClassLoader(new URL[]{build}, ClassLoader.getPlatformClassLoader());
+                    Thread.currentThread().setContextClassLoader(loader);
+                    Method main = loader.loadClass("Main").getMethod("main", String[].class);
+                    main.setAccessible(true);
+                    try {
+                        main.invoke(null, (Object) args);
+                    } catch (InvocationTargetException e) {
+                        // Report it as if Main had been started directly
+                        Throwable cause = e.getCause();
+                        StackTraceElement[] trace = cause.getStackTrace();
+                        int keep = trace.length;
+                        while (keep > 0 && isLauncherFrame(trace[keep - 1])) {
+                            keep--;
+                        }
+                        cause.setStackTrace(java.util.Arrays.copyOf(trace, keep));
+                        throw cause;
+                    }
+                }
+
+                private static boolean isLauncherFrame(StackTraceElement frame) {
+                    String name = frame.getClassName();
+                    return name.equals("WarmWorker") || name.equals("java.lang.reflect.Method")
+                            || name.startsWith("jdk.internal.reflect.");
+                }
+            }
+            """;
+
+    private static final Map<String, String> LANGUAGE_ALIASES = Map.ofEntries(
+            Map.entry("python", "python"), Map.entry("py", "python"), Map.entry("python3", "python"),
+            Map.entry("javascript", "javascript"), Map.entry("js", "javascript"), Map.entry("node", "javascript"),
+            Map.entry("java", "java"),
+            Map.entry("c", "c"),
+            Map.entry("cpp", "c++"), Map.entry("c++", "c++"),
+            Map.entry("go", "go"), Map.entry("golang", "go"),
+            Map.entry("rust", "rust"), Map.entry("rs", "rust")
+    );
+
+    private static final Map<String, Toolchain> TOOLCHAINS = Map.of(
+            "python", new Toolchain("python", "main.py", List.of("python3", "--version"),
+                    null, List.of("python3", "{build}/main.py"), true,
+                    List.of("python3", "-c", PYTHON_WORKER)),
+            "javascript", new Toolchain("javascript", "main.js", List.of("node", "--version"),
+                    null, List.of("node", "{build}/main.js"), false,
+                    List.of("node", "-e", NODE_WORKER)),
+            "java", new Toolchain("java", "Main.java", List.of("javac", "-version"),
+                    List.of("javac", "-J-Xmx512m", "-d", ".", "Main.java"),
+                    List.of("java", "-Xmx{memoryMb}m", "-Xss64m", "-XX:+UseSerialGC", "-cp", "{build}", "Main"), false,
+                    List.of("java", "-Xmx{memoryMb}m", "-Xss64m", "-XX:+UseSerialGC", "-cp", "{worker}", "WarmWorker")),
+            "c", new Toolchain("c", "main.c", List.of("gcc", "--version"),
+                    List.of("gcc", "-O2", "-std=c17", "-o", "main", "main.c", "-lm"), List.of("{build}/main"), true, null),
+            "c++", new Toolchain("c++", "main.cpp", List.of("g++", "--version"),
+                    List.of("g++", "-O2", "-std=c++17", "-o", "main", "main.cpp"), List.of("{build}/main"), true, null),
+            "go", new Toolchain("go", "main.go", List.of("go", "version"),
+                    List.of("go", "build", "-o", "main", "main.go"), List.of("{build}/main"), false, null),
+            "rust", new Toolchain("rust", "main.rs", List.of("rustc", "--version"),
+                    List.of("rustc", "-O", "-o", "main", "main.rs"), List.of("{build}/main"), true, null)
+    );
+
+    private final Path workDir;
+    private final String path;
+    private final int maxOutputBytes;
+    private final long defaultMemoryLimitBytes;
+    private final long maxFileSizeKb;
+    private final int maxProcesses;
+    private final boolean limitUserProcesses;
+    private final Path cgroupParent;
+    private final long maxRunTimeoutMs;
+    private final long maxCompileTimeoutMs;
+    private final long maxMemoryLimitBytes;
+    private final long maxCompileMemoryLimitBytes;
+    private final CompiledArtifactCache artifactCache;
+    private final WarmWorkerPool<WarmKey, WarmProcess> warmPool;
+
+    private volatile List<PistonRuntimeResponse> runtimes;
+    private Path javaWorkerDir; // guarded by this, compiled on first use
+
+    public LocalCodeRunner(@Value("${execution.local.work-dir:${java.io.tmpdir}/code-runs}") String workDir,
+                           @Value("${execution.local.path:/usr/local/bin:/usr/bin:/bin}") String path,
+                           @Value("${execution.local.max-output-bytes:4194304}") int maxOutputBytes,
+                           @Value("${execution.local.memory-limit-mb:256}") long memoryLimitMb,
+                           @Value("${execution.local.max-file-size-kb:10240}") long maxFileSizeKb,
+                           @Value("${execution.local.max-processes:64}") int maxProcesses,
+                           @Value("${execution.local.limit-user-processes:false}") boolean limitUserProcesses,
+                           @Value("${execution.local.cgroup-parent:}") String cgroupParent,
+                           @Value("${execution.local.max-run-timeout-ms:15000}") long maxRunTimeoutMs,
+                           @Value("${execution.local.max-compile-timeout-ms:30000}") long maxCompileTimeoutMs,
+                           @Value("${execution.local.max-memory-limit-mb:1024}") long maxMemoryLimitMb,
+                           @Value("${execution.local.max-compile-memory-limit-mb:2048}") long maxCompileMemoryLimitMb,
+                           @Value("${execution.local.warm-pool.enabled:true}") boolean warmPoolEnabled,
+                           @Value("${execution.local.warm-pool.max-idle-per-runtime:4}") int warmPoolMaxIdle,
+                           @Value("${execution.local.warm-pool.idle-timeout-ms:60000}") long warmPoolIdleTimeoutMs,
+                           @Value("${execution.local.warm-pool.spawn-threads:2}") int warmPoolSpawnThreads,
+                           CompiledArtifactCache artifactCache) {
+        this.workDir = Paths.get(workDir);
+        this.path = path;
+        this.maxOutputBytes = maxOutputBytes;
+        this.defaultMemoryLimitBytes = memoryLimitMb * 1024 * 1024;
+        this.maxFileSizeKb = maxFileSizeKb;
+        this.maxProcesses = maxProcesses;
+        this.limitUserProcesses = limitUserProcesses;
+        this.cgroupParent = cgroupParent.isBlank() ? null : Paths.get(cgroupParent);
+        this.maxRunTimeoutMs = maxRunTimeoutMs;
+        this.maxCompileTimeoutMs = maxCompileTimeoutMs;
+        this.maxMemoryLimitBytes = maxMemoryLimitMb * 1024 * 1024;
+        this.maxCompileMemoryLimitBytes = maxCompileMemoryLimitMb * 1024 * 1024;
+        this.artifactCache = artifactCache;
+        this.warmPool = warmPoolEnabled
+                ? new WarmWorkerPool<>(this::spawnWarm, warmPoolMaxIdle, warmPoolIdleTimeoutMs, warmPoolSpawnThreads)
+                : null;
+    }
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    /**
+     * Whether runs are held to a process count, through the cgroup's pids.max or RLIMIT_NPROC
+     */
+    public boolean isProcessLimited() {
+        return cgroupParent != null || limitUserProcesses;
+    }
+
+    /**
+     * Installed toolchains, detected once from their version output
+     */
+    @Override
+    public List<PistonRuntimeResponse> getRuntimes() {
+        List<PistonRuntimeResponse> detected = runtimes;
+        if (detected == null) {
+            detected = new ArrayList<>();
+            for (Toolchain toolchain : TOOLCHAINS.values()) {
+                String version = detectVersion(toolchain);
+                if (version != null) {
+                    detected.add(PistonRuntimeResponse.builder()
+                            .language(toolchain.language())
+                            .version(version)
+                            .aliases(aliasesOf(toolchain.language()))
+                            .build());
+                }
+            }
+            detected.sort(Comparator.comparing(PistonRuntimeResponse::getLanguage));
+            runtimes = List.copyOf(detected);
+            log.info("Detected {} local runtimes", detected.size());
+        }
+        return detected;
+    }
+
+    @Override
+    public boolean isCompiledLanguage(String language) {
+        Toolchain toolchain = TOOLCHAINS.get(resolveLanguage(language));
+        return toolchain != null && toolchain.compileCommand() != null;
+    }
+
+    @Override
+    public boolean compilesOnce() {
+        return true;
+    }
+
+    @Override
+    public RunCodeResponse execute(RunCodeRequest request) {
+        return executeAll(request, Collections.singletonList(request.getStdin())).get(0);
+    }
+
+    /**
+     * Streams the program's stdout and stderr to the listener while it runs
+     */
+    @Override
+    public RunCodeResponse execute(RunCodeRequest request, OutputListener listener) {
+        return run(request, Collections.singletonList(request.getStdin()), listener).get(0);
+    }
+
+    /**
+     * Compile once (or reuse a cached artifact), then run every stdin in a fresh directory of its own.
+     * A compile failure is returned for every stdin.
+     */
+    @Override
+    public List<RunCodeResponse> executeAll(RunCodeRequest request, List<String> stdins) {
+        return run(request, stdins, null);
+    }
+
+    private List<RunCodeResponse> run(RunCodeRequest request, List<String> stdins, OutputListener listener) {
+        String language = resolveLanguage(request.getLanguage());
+        Toolchain toolchain = TOOLCHAINS.get(language);
+        if (toolchain == null) {
+            return repeat(errorResponse(request.getLanguage() + " is not supported by the local runner"), stdins.size());
+        }
+
+        Path root = workDir.resolve(UUID.randomUUID().toString());
+        CompiledArtifactCache.Lease artifact = null;
+        try {
+            String version = runtimeVersion(language);
+            Path buildDir;
+            RunCodeResponse.CompileResult compile = null;
+
+            if (toolchain.compileCommand() != null) {
+                artifact = artifactCache.lookup(language, version, request.getCode());
+            }
+            if (artifact != null) {
+                buildDir = artifact.getDirectory();
+                compile = artifact.getCompile();
+            } else {
+                buildDir = Files.createDirectories(root.resolve("build"));
+                Files.writeString(buildDir.resolve(toolchain.fileName()), request.getCode(), StandardCharsets.UTF_8);
+
+                if (toolchain.compileCommand() != null) {
+                    ProcessResult result = runSandboxed(toolchain.compileCommand(), buildDir, null,
+                            bounded(request.getCompileTimeout(), DEFAULT_COMPILE_TIMEOUT_MS, maxCompileTimeoutMs),
+                            bounded(request.getCompileMemoryLimit(), maxCompileMemoryLimitBytes,
+                                    maxCompileMemoryLimitBytes), false, null);
+                    compile = RunCodeResponse.CompileResult.builder()
+                            .stdout(result.stdout())
+                            .stderr(result.stderr())
+                            .output(result.stdout() + result.stderr())
+                            .code(result.code())
+                            .signal(result.signal())
+                            .wallTimeMs(result.wallTimeMs())
+                            .cpuTimeMs(result.cpuTimeMs())
+                            .memoryBytes(result.memoryBytes())
+                            .build();
+                    if (result.code() == null || result.code() != 0) {
+                        RunCodeResponse failed = RunCodeResponse.builder()
+                                .language(language)
+                                .version(version)
+                                .compile(compile)
+                                .build();
+                        return repeat(failed, stdins.size());
+                    }
+
+                    artifact = artifactCache.store(language, version, request.getCode(), buildDir, compile);
+                    if (artifact != null) {
+                        buildDir = artifact.getDirectory();
+                    }
+                }
+            }
+
+            if (Boolean.TRUE.equals(request.getCompileOnly())) {
+                RunCodeResponse compiled = RunCodeResponse.builder()
+                        .language(language)
+                        .version(version)
+                        .compile(compile)
+                        .build();
+                return repeat(compiled, stdins.size());
+            }
+
+            List<String> runCommand = new ArrayList<>();
+            long memoryLimit = bounded(request.getRunMemoryLimit(), defaultMemoryLimitBytes, maxMemoryLimitBytes);
+            for (String part : toolchain.runCommand()) {
+                runCommand.add(part.replace("{build}", buildDir.toAbsolutePath().toString())
+                        .replace("{memoryMb}", String.valueOf(Math.max(16, memoryLimit / (1024 * 1024)))));
+            }
+            if (request.getArgs() != null) {
+                runCommand.addAll(request.getArgs());
+            }
+
+            long timeoutMs = bounded(request.getRunTimeout(), DEFAULT_RUN_TIMEOUT_MS, maxRunTimeoutMs);
+            // Workers cannot take extra arguments, so only plain runs use them
+            boolean warm = warmPool != null && toolchain.warmCommand() != null
+                    && (request.getArgs() == null || request.getArgs().isEmpty());
+            List<RunCodeResponse> responses = new ArrayList<>();
+            for (int i = 0; i < stdins.size(); i++) {
+                WarmProcess worker = warm ? warmPool.acquire(new WarmKey(language, memoryLimit, cpuSeconds(timeoutMs))) : null;
+                ProcessResult result;
+                if (worker != null) {
+                    try {
+                        result = finish(worker.sandboxed(),
+                                buildDir.toAbsolutePath() + "\n" + (stdins.get(i) != null ? stdins.get(i) : ""),
+                                timeoutMs, listener, true);
+                    } finally {
+                        worker.discard();
+                    }
+                } else {
+                    Path runDir = Files.createDirectories(root.resolve("run-" + i));
+                    result = runSandboxed(runCommand, runDir, stdins.get(i), timeoutMs,
+                            memoryLimit, toolchain.limitAddressSpace(), listener);
+                    deleteRecursively(runDir);
+                }
+                responses.add(RunCodeResponse.builder()
+                        .language(language)
+                        .version(version)
+                        .compile(compile)
+                        .run(RunCodeResponse.RunResult.builder()
+                                .stdout(result.stdout())
+                                .stdoutTruncated(result.stdoutTruncated())
+                                .stderr(result.stderr())
+                                .output(result.stdout() + result.stderr())
+                                .code(result.code())
+                                .signal(result.signal())
+                                .wallTimeMs(result.wallTimeMs())
+                                .cpuTimeMs(result.cpuTimeMs())
+                                .memoryBytes(result.memoryBytes())
+                                .build())
+                        .build());
+            }
+            return responses;
+        } catch (IOException e) {
+            log.error("Local execution failed: {}", e.getMessage(), e);
+            return repeat(errorResponse("Execution failed: " + e.getMessage()), stdins.size());
+        } finally {
+            if (artifact != null) {
+                artifact.close();
+            }
+            deleteRecursively(root);
+        }
+    }
+
+    /**
+     * Start a command under the sandbox wrapper and wait for it, killing the
+     * whole process tree once the wall-time limit has passed.
+     */
+    private ProcessResult runSandboxed(List<String> command, Path directory, String stdin,
+                                       long timeoutMs, long memoryLimitBytes, boolean limitAddressSpace,
+                                       OutputListener listener) throws IOException {
+        long startedAt = System.nanoTime();
+        Sandboxed sandboxed = spawn(command, directory, cpuSeconds(timeoutMs), memoryLimitBytes, limitAddressSpace);
+        return finish(sandboxed, stdin, timeoutMs, listener, false, startedAt);
+    }
+
+    private Sandboxed spawn(List<String> command, Path directory, long cpuSeconds, long memoryLimitBytes,
+                            boolean limitAddressSpace) throws IOException {
+        if (!isProcessLimited()) {
+            throw new IllegalStateException("Local runs need a process limit: set execution.local.cgroup-parent, "
+                    + "or execution.local.limit-user-processes for a dedicated service user");
+        }
+        Path cgroup = createCgroup(memoryLimitBytes);
+
+        List<String> wrapped = new ArrayList<>(List.of("/bin/sh", "-c", SANDBOX_SCRIPT, "sandbox",
+                cgroup != null ? cgroup.toString() : "",
+                String.valueOf(cpuSeconds),
+                limitAddressSpace && memoryLimitBytes > 0 ? String.valueOf(memoryLimitBytes / 1024) : "unlimited",
+                String.valueOf(maxFileSizeKb),
+                limitUserProcesses ? String.valueOf(maxProcesses) : "unlimited"));
+        wrapped.addAll(command);
+
+        ProcessBuilder builder = new ProcessBuilder(wrapped).directory(directory.toFile());
+        Map<String, String> environment = builder.environment();
+        environment.clear();
+        environment.put("PATH", path);
+        environment.put("HOME", directory.toAbsolutePath().toString());
+        environment.put("TMPDIR", directory.toAbsolutePath().toString());
+        environment.put("LANG", "C.UTF-8");
+        environment.put("GOCACHE", workDir.resolve(".gocache").toAbsolutePath().toString());
+
+        try {
+            return new Sandboxed(builder.start(), cgroup);
+        } catch (IOException e) {
+            removeCgroup(cgroup);
+            throw e;
+        }
+    }
+
+    private ProcessResult finish(Sandboxed sandboxed, String stdin, long timeoutMs, OutputListener listener,
+                                 boolean warm) throws IOException {
+        return finish(sandboxed, stdin, timeoutMs, listener, warm, System.nanoTime());
+    }
+
+    /**
+     * Feed stdin to a started process and wait for it, killing the whole process tree once
+     * the wall-time limit has passed. CPU time and peak memory come from the cgroup when
+     * there is one, otherwise from sampling /proc while the program runs. For a warm worker,
+     * CPU time spent before this call is not counted.
+     */
+    private ProcessResult finish(Sandboxed sandboxed, String stdin, long timeoutMs, OutputListener listener,
+                                 boolean warm, long startedAt) throws IOException {
+        Process process = sandboxed.process();
+        Path cgroup = sandboxed.cgroup();
+        try {
+            ResourceUsage usage = new ResourceUsage();
+            if (warm) {
+                usage.excludeSpentSoFar(process, cgroup);
+            }
+            OutputCollector stdout = new OutputCollector(process.getInputStream(), maxOutputBytes,
+                    OutputListener.STDOUT, listener);
+            OutputCollector stderr = new OutputCollector(process.getErrorStream(), maxOutputBytes,
+                    OutputListener.STDERR, listener);
+            Thread stdinWriter = Thread.ofVirtual().start(() -> writeStdin(process.getOutputStream(), stdin));
+
+            boolean finished = waitFor(process, timeoutMs, usage);
+            long wallTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            if (cgroup != null) {
+                usage.readCgroup(cgroup);
+            }
+            if (!finished) {
+                killTree(process, cgroup);
+                process.waitFor(1, TimeUnit.SECONDS);
+            }
+            stdinWriter.interrupt();
+
+            Integer code = finished ? process.exitValue() : null;
+            String signal = finished ? signalName(code) : "SIGKILL";
+            if (signal != null) {
+                code = null;
+            }
+            // Anything the program left running in the background goes with it
+            killTree(process, cgroup);
+            return new ProcessResult(stdout.await(), stdout.isTruncated(), stderr.await(), code, signal,
+                    wallTimeMs, usage.cpuTimeMs(), usage.memoryBytes());
+        } catch (InterruptedException e) {
+            killTree(process, cgroup);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the program", e);
+        } finally {
+            removeCgroup(cgroup);
+        }
+    }
+
+    /**
+     * Start a worker for the key and wait until its runtime has loaded. Returns null if the
+     * runtime is missing or the worker does not report ready in time.
+     */
+    private WarmProcess spawnWarm(WarmKey key) {
+        Toolchain toolchain = TOOLCHAINS.get(key.language());
+        Path directory = workDir.resolve("warm-" + UUID.randomUUID());
+        Sandboxed sandboxed = null;
+        try {
+            String worker = toolchain.language().equals("java") ? javaWorkerDir().toAbsolutePath().toString() : "";
+            List<String> command = new ArrayList<>();
+            for (String part : toolchain.warmCommand()) {
+                command.add(part.replace("{worker}", worker)
+                        .replace("{memoryMb}", String.valueOf(Math.max(16, key.memoryLimitBytes() / (1024 * 1024)))));
+            }
+            Files.createDirectories(directory);
+            sandboxed = spawn(command, directory, key.cpuSeconds() + WARM_CPU_HEADROOM_SECONDS,
+                    key.memoryLimitBytes(), toolchain.limitAddressSpace());
+            WarmProcess warmProcess = new WarmProcess(sandboxed, directory);
+            if (awaitReady(sandboxed.process())) {
+                return warmProcess;
+            }
+            log.warn("{} worker did not become ready", key.language());
+            warmProcess.discard();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not start a {} worker: {}", key.language(), e.getMessage());
+            if (sandboxed != null) {
+                killTree(sandboxed.process(), sandboxed.cgroup());
+                removeCgroup(sandboxed.cgroup());
+            }
+            deleteRecursively(directory);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (sandboxed != null) {
+                new WarmProcess(sandboxed, directory).discard();
+            }
+            return null;
+        }
+    }
+
+    private boolean awaitReady(Process process) throws InterruptedException {
+        AtomicInteger first = new AtomicInteger(-1);
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try {
+                first.set(process.getErrorStream().read());
+            } catch (IOException e) {
+                // Killed before it was ready
+            }
+        });
+        reader.join(WARM_START_TIMEOUT_MS);
+        return first.get() == WARM_READY;
+    }
+
+    /**
+     * Compile the Java worker class once into the work directory
+     */
+    private synchronized Path javaWorkerDir() throws IOException, InterruptedException {
+        if (javaWorkerDir != null) {
+            return javaWorkerDir;
+        }
+        Path directory = Files.createDirectories(workDir.resolve(".java-worker"));
+        Files.writeString(directory.resolve("WarmWorker.java"), JAVA_WORKER, StandardCharsets.UTF_8);
+        ProcessBuilder builder = new ProcessBuilder("javac", "-d", ".", "WarmWorker.java")
+                .directory(directory.toFile())
+                .redirectErrorStream(true);
+        builder.environment().put("PATH", path);
+        Process process = builder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (!process.waitFor(60, TimeUnit.SECONDS) || process.exitValue() != 0) {
+            process.destroyForcibly();
+            throw new IOException("javac failed for the worker class: " + output);
+        }
+        javaWorkerDir = directory;
+        return directory;
+    }
+
+    /**
+     * Drop warm workers nobody has asked for within the idle timeout
+     */
+    @Scheduled(fixedDelayString = "${execution.local.warm-pool.evict-interval-ms:10000}")
+    public void evictIdleWorkers() {
+        if (warmPool != null) {
+            warmPool.evictIdle();
+            log.debug("Warm workers: {} idle, {} hits, {} misses",
+                    warmPool.getIdleCount(), warmPool.getHits(), warmPool.getMisses());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (warmPool != null) {
+            warmPool.close();
+        }
+    }
+
+    /**
+     * Wait up to timeoutMs for the process, sampling its usage every few milliseconds
+     */
+    private boolean waitFor(Process process, long timeoutMs, ResourceUsage usage) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (process.waitFor(Math.min(remaining, USAGE_SAMPLE_INTERVAL_NANOS), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            usage.sample(process);
+        }
+    }
+
+    private void writeStdin(OutputStream stdin, String input) {
+        try (stdin) {
+            if (input != null) {
+                stdin.write(input.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            // The program exited or closed stdin without reading everything
+        }
+    }
+
+    private void killTree(Process process, Path cgroup) {
+        if (cgroup != null) {
+            try {
+                Files.writeString(cgroup.resolve("cgroup.kill"), "1");
+            } catch (IOException e) {
+                log.debug("Could not kill cgroup {}: {}", cgroup, e.getMessage());
+            }
+        }
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private Path createCgroup(long memoryLimitBytes) {
+        if (cgroupParent == null) {
+            return null;
+        }
+        try {
+            Path cgroup = Files.createDirectory(cgroupParent.resolve("run-" + UUID.randomUUID()));
+            if (memoryLimitBytes > 0) {
+                Files.writeString(cgroup.resolve("memory.max"), String.valueOf(memoryLimitBytes));
+                Files.writeString(cgroup.resolve("memory.swap.max"), "0");
+            }
+            Files.writeString(cgroup.resolve("pids.max"), String.valueOf(maxProcesses));
+            return cgroup;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create cgroup under " + cgroupParent + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void removeCgroup(Path cgroup) {
+        if (cgroup == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(cgroup);
+        } catch (IOException e) {
+            log.warn("Could not remove cgroup {}: {}", cgroup, e.getMessage());
+        }
+    }
+
+    /**
+     * CPU time limit in whole seconds covering the wall clock timeout, at least one
+     */
+    private long cpuSeconds(long timeoutMs) {
+        return Math.max(1, (timeoutMs + 999) / 1000);
+    }
+
+    /**
+     * Java reports a process killed by a signal as 128 + the signal number
+     */
+    private String signalName(Integer exitCode) {
+        if (exitCode == null || exitCode <= 128) {
+            return null;
+        }
+        return switch (exitCode - 128) {
+            case 4 -> "SIGILL";
+            case 6 -> "SIGABRT";
+            case 7 -> "SIGBUS";
+            case 8 -> "SIGFPE";
+            case 9 -> "SIGKILL";
+            case 11 -> "SIGSEGV";
+            case 13 -> "SIGPIPE";
+            case 15 -> "SIGTERM";
+            case 24 -> "SIGXCPU";
+            case 25 -> "SIGXFSZ";
+            default -> null;
+        };
+    }
+
+    private String detectVersion(Toolchain toolchain) {
+        try {
+            ProcessBuilder builder = new ProcessBuilder(toolchain.versionCommand()).redirectErrorStream(true);
+            builder.environment().put("PATH", path);
+            Process process = builder.start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (!process.waitFor(10, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                process.destroyForcibly();
+                return null;
+            }
+            Matcher matcher = VERSION_PATTERN.matcher(output);
+            return matcher.find() ? matcher.group(1) : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String runtimeVersion(String language) {
+        return getRuntimes().stream()
+                .filter(runtime -> runtime.getLanguage().equals(language))
+                .map(PistonRuntimeResponse::getVersion)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String resolveLanguage(String language) {
+        String key = language == null ? "" : language.toLowerCase();
+        return LANGUAGE_ALIASES.getOrDefault(key, key);
+    }
+
+    private List<String> aliasesOf(String language) {
+        return LANGUAGE_ALIASES.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(language) && !entry.getKey().equals(language))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    private long positiveOr(Number value, long fallback) {
+        return value != null && value.longValue() > 0 ? value.longValue() : fallback;
+    }
+
+    /**
+     * The limit a request asked for, or the fallback, never above the server's maximum
+     */
+    private long bounded(Number value, long fallback, long max) {
+        return Math.min(positiveOr(value, fallback), max);
+    }
+
+    private RunCodeResponse errorResponse(String message) {
+        RunCodeResponse response = new RunCodeResponse();
+        response.setMessage(message);
+        RunCodeResponse.RunResult runResult = new RunCodeResponse.RunResult();
+        runResult.setStderr(message);
+        runResult.setCode(1);
+        response.setRun(runResult);
+        return response;
+    }
+
+    private List<RunCodeResponse> repeat(RunCodeResponse response, int times) {
+        List<RunCodeResponse> responses = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, times); i++) {
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Could not clean up {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * How a language is compiled and run. {build} is replaced with the absolute build
+     * directory and {memoryMb} with the run memory limit. Runtimes that reserve large
+     * amounts of virtual memory (JVM, V8, Go) are limited through the cgroup or their own flags
+     * instead of the address-space rlimit. The warm command starts a pre-loaded worker, with
+     * {worker} standing for the compiled Java worker class; null where start-up is already cheap.
+     */
+    private record Toolchain(String language, String fileName, List<String> versionCommand,
+                             List<String> compileCommand, List<String> runCommand, boolean limitAddressSpace,
+                             List<String> warmCommand) {
+    }
+
+    private record Sandboxed(Process process, Path cgroup) {
+    }
+
+    /**
+     * Workers are interchangeable when they share a runtime and the limits applied at start
+     */
+    private record WarmKey(String language, long memoryLimitBytes, long cpuSeconds) {
+    }
+
+    /**
+     * A started worker waiting for its program in a directory of its own
+     */
+    private final class WarmProcess implements WarmWorkerPool.Worker {
+        private final Sandboxed sandboxed;
+        private final Path directory;
+
+        private WarmProcess(Sandboxed sandboxed, Path directory) {
+            this.sandboxed = sandboxed;
+            this.directory = directory;
+        }
+
+        private Sandboxed sandboxed() {
+            return sandboxed;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return sandboxed.process().isAlive();
+        }
+
+        @Override
+        public void discard() {
+            killTree(sandboxed.process(), sandboxed.cgroup());
+            removeCgroup(sandboxed.cgroup());
+            deleteRecursively(directory);
+        }
+    }
+
+    private record ProcessResult(String stdout, boolean stdoutTruncated, String stderr, Integer code, String signal,
+                                 long wallTimeMs, Long cpuTimeMs, Long memoryBytes) {
+    }
+
+    /**
+     * CPU time and peak memory of a process tree. Samples of /proc are a lower bound: a
+     * program that finishes between two samples reports what was seen last, or nothing
+     * at all if it exits before the first one. Cgroup counters, when read, replace them.
+     */
+    private static final class ResourceUsage {
+        private static final Pattern VM_HWM = Pattern.compile("^VmHWM:\\s+(\\d+) kB", Pattern.MULTILINE);
+
+        private Long cpuTimeMs;
+        private Long memoryBytes;
+        private long cpuBaselineMs;
+
+        /**
+         * Count CPU time from now on only, for a process that was started earlier
+         */
+        private void excludeSpentSoFar(Process process, Path cgroup) {
+            if (cgroup != null) {
+                readCgroup(cgroup);
+            } else {
+                sample(process);
+            }
+            cpuBaselineMs = cpuTimeMs != null ? cpuTimeMs : 0;
+        }
+
+        private void sample(Process process) {
+            long cpuNanos = 0;
+            long memory = 0;
+            List<ProcessHandle> tree = new ArrayList<>();
+            tree.add(process.toHandle());
+            process.descendants().forEach(tree::add);
+            for (ProcessHandle handle : tree) {
+                cpuNanos += handle.info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+                memory += peakResidentBytes(handle.pid());
+            }
+            cpuTimeMs = Math.max(cpuTimeMs != null ? cpuTimeMs : 0, TimeUnit.NANOSECONDS.toMillis(cpuNanos));
+            memoryBytes = Math.max(memoryBytes != null ? memoryBytes : 0, memory);
+        }
+
+        private void readCgroup(Path cgroup) {
+            try {
+                for (String line : Files.readAllLines(cgroup.resolve("cpu.stat"))) {
+                    if (line.startsWith("usage_usec ")) {
+                        cpuTimeMs = Long.parseLong(line.substring("usage_usec ".length()).trim()) / 1000;
+                    }
+                }
+                Path peak = cgroup.resolve("memory.peak");
+                if (Files.exists(peak)) {
+                    memoryBytes = Long.parseLong(Files.readString(peak).trim());
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.debug("Could not read usage of cgroup {}: {}", cgroup, e.getMessage());
+            }
+        }
+
+        private long peakResidentBytes(long pid) {
+            try {
+                Matcher matcher = VM_HWM.matcher(Files.readString(Paths.get("/proc", String.valueOf(pid), "status")));
+                return matcher.find() ? Long.parseLong(matcher.group(1)) * 1024 : 0;
+            } catch (IOException e) {
+                // Exited between listing and reading
+                return 0;
+            }
+        }
+
+        private Long cpuTimeMs() {
+            return cpuTimeMs != null ? Math.max(0, cpuTimeMs - cpuBaselineMs) : null;
+        }
+
+        private Long memoryBytes() {
+            return memoryBytes;
+        }
+    }
+
+    /**
+     * Drains a stream on a virtual thread so the child never blocks on a full pipe.
+     * Keeps the first and last maxBytes / 2 bytes, and forwards up to maxBytes to the
+     * listener as it arrives, decoded as UTF-8 across chunk boundaries.
+     */
+    private static final class OutputCollector {
+        private final BoundedOutputBuffer buffer;
+        private final Thread reader;
+
+        private OutputCollector(InputStream stream, int maxBytes, String streamName, OutputListener listener) {
+            this.buffer = BoundedOutputBuffer.ofSize(maxBytes);
+            this.reader = Thread.ofVirtual().start(() -> {
+                byte[] chunk = new byte[8192];
+                CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                ByteBuffer pending = ByteBuffer.allocate(chunk.length + 4);
+                CharBuffer decoded = CharBuffer.allocate(chunk.length + 4);
+                long streamed = 0;
+                try (stream) {
+                    int read;
+                    while ((read = stream.read(chunk)) != -1) {
+                        buffer.write(chunk, 0, read);
+                        if (listener == null || streamed > maxBytes) {
+                            continue;
+                        }
+                        int forward = (int) Math.min(read, maxBytes - streamed);
+                        streamed += read;
+                        pending.put(chunk, 0, forward);
+                        pending.flip();
+                        decoder.decode(pending, decoded, false);
+                        pending.compact();
+                        decoded.flip();
+                        String text = decoded.toString();
+                        decoded.clear();
+                        if (streamed > maxBytes) {
+                            text += "\n[output truncated]\n";
+                        }
+                        if (text.isEmpty()) {
+                            continue;
+                        }
+                        try {
+                            listener.onOutput(streamName, text);
+                        } catch (RuntimeException e) {
+                            // Keep draining the pipe, just stop forwarding
+                            log.warn("Output listener failed: {}", e.getMessage());
+                            streamed = Long.MAX_VALUE;
+                        }
+                    }
+                } catch (IOException e) {
+                    // Stream closed when the process was killed
+                }
+            });
+        }
+
+        private String await() throws InterruptedException {
+            reader.join(TimeUnit.SECONDS.toMillis(2));
+            return buffer.toString();
+        }
+
+        private boolean isTruncated() {
+            return buffer.isTruncated();
+        }
+    }
+}
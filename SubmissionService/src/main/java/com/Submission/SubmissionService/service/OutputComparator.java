@@ -0,0 +1,26 @@
+package com.Submission.SubmissionService.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * Decides whether a program's output matches the expected output.
+ * Implementations read both sides once, front to back. Outputs reach them as Strings of at
+ * most execution.output.max-bytes, already in memory, through {@link #matches(String, String)}.
+ */
+@FunctionalInterface
+public interface OutputComparator {
+
+    boolean matches(Reader expected, Reader actual) throws IOException;
+
+    default boolean matches(String expected, String actual) {
+        try {
+            return matches(new StringReader(expected != null ? expected : ""),
+                    new StringReader(actual != null ? actual : ""));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
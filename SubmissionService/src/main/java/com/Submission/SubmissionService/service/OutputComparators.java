@@ -0,0 +1,179 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ComparatorType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The built-in comparators. They walk both outputs front to back as runs of whitespace and
+ * non-whitespace (or as lines), stopping at the first difference.
+ */
+public final class OutputComparators {
+
+    public static final double DEFAULT_ERROR = 1e-6;
+
+    private static final Pattern NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private OutputComparators() {
+    }
+
+    /**
+     * The comparator for a test case. Null means EXACT; null errors mean {@link #DEFAULT_ERROR}.
+     * CUSTOM needs a checker program and is not handled here.
+     */
+    public static OutputComparator of(ComparatorType type, Double absoluteError, Double relativeError) {
+        return switch (type != null ? type : ComparatorType.EXACT) {
+            case EXACT -> OutputComparators::exact;
+            case TOKEN -> OutputComparators::tokens;
+            case FLOAT -> floats(absoluteError != null ? absoluteError : DEFAULT_ERROR,
+                    relativeError != null ? relativeError : DEFAULT_ERROR);
+            case UNORDERED_LINES -> OutputComparators::unorderedLines;
+            case CUSTOM -> throw new IllegalArgumentException("CUSTOM comparison needs a checker program");
+        };
+    }
+
+    /**
+     * Same runs of characters in the same order, ignoring whitespace at the start and end
+     */
+    static boolean exact(Reader expected, Reader actual) throws IOException {
+        RunReader left = new RunReader(expected);
+        RunReader right = new RunReader(actual);
+        while (true) {
+            String a = left.next(true);
+            String b = right.next(true);
+            if (a == null || b == null) {
+                return a == null && b == null;
+            }
+            if (!a.equals(b)) {
+                return false;
+            }
+        }
+    }
+
+    static boolean tokens(Reader expected, Reader actual) throws IOException {
+        RunReader left = new RunReader(expected);
+        RunReader right = new RunReader(actual);
+        while (true) {
+            String a = left.next(false);
+            String b = right.next(false);
+            if (a == null || b == null) {
+                return a == null && b == null;
+            }
+            if (!a.equals(b)) {
+                return false;
+            }
+        }
+    }
+
+    static OutputComparator floats(double absoluteError, double relativeError) {
+        return (expected, actual) -> {
+            RunReader left = new RunReader(expected);
+            RunReader right = new RunReader(actual);
+            while (true) {
+                String a = left.next(false);
+                String b = right.next(false);
+                if (a == null || b == null) {
+                    return a == null && b == null;
+                }
+                if (!a.equals(b) && !closeEnough(a, b, absoluteError, relativeError)) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * Same multiset of lines, ignoring blank lines and trailing whitespace
+     */
+    static boolean unorderedLines(Reader expected, Reader actual) throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        BufferedReader left = new BufferedReader(expected);
+        String line;
+        while ((line = left.readLine()) != null) {
+            if (!line.isBlank()) {
+                counts.merge(line.stripTrailing(), 1, Integer::sum);
+            }
+        }
+        BufferedReader right = new BufferedReader(actual);
+        while ((line = right.readLine()) != null) {
+            if (!line.isBlank()) {
+                Integer remaining = counts.computeIfPresent(line.stripTrailing(), (key, count) -> count - 1);
+                if (remaining == null || remaining < 0) {
+                    return false;
+                }
+            }
+        }
+        return counts.values().stream().allMatch(count -> count == 0);
+    }
+
+    private static boolean closeEnough(String expected, String actual, double absoluteError, double relativeError) {
+        if (!NUMBER.matcher(expected).matches() || !NUMBER.matcher(actual).matches()) {
+            return false;
+        }
+        double a = Double.parseDouble(expected);
+        double b = Double.parseDouble(actual);
+        double difference = Math.abs(a - b);
+        return difference <= absoluteError || difference <= relativeError * Math.abs(a);
+    }
+
+    /**
+     * Splits a character stream into maximal runs of whitespace and of non-whitespace.
+     */
+    private static final class RunReader {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private boolean started;
+
+        private RunReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * The next run. With keepWhitespace, whitespace runs are returned too, except at the
+         * start and the end of the stream; otherwise only non-whitespace tokens are returned.
+         * Null once the stream is exhausted.
+         */
+        private String next(boolean keepWhitespace) throws IOException {
+            while (true) {
+                int first = peek();
+                if (first == -1) {
+                    return null;
+                }
+                boolean whitespace = Character.isWhitespace(first);
+                StringBuilder run = new StringBuilder();
+                int c;
+                while ((c = peek()) != -1 && Character.isWhitespace(c) == whitespace) {
+                    run.append((char) c);
+                    position++;
+                }
+                boolean leading = !started;
+                started = true;
+                if (!whitespace) {
+                    return run.toString();
+                }
+                if (keepWhitespace && !leading && peek() != -1) {
+                    return run.toString();
+                }
+            }
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+    }
+}
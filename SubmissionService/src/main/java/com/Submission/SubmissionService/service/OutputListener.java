@@ -0,0 +1,14 @@
+package com.Submission.SubmissionService.service;
+
+/**
+ * Receives program output while it runs. Called from the backend's reader threads,
+ * so implementations must be thread-safe and return quickly.
+ */
+@FunctionalInterface
+public interface OutputListener {
+
+    String STDOUT = "stdout";
+    String STDERR = "stderr";
+
+    void onOutput(String stream, String chunk);
+}
@@ -4,65 +4,88 @@ import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
 import com.Submission.SubmissionService.dto.RunCodeRequest;
 import com.Submission.SubmissionService.dto.RunCodeResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
-import org.springframework.stereotype.Service;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
-@Service
+/**
+ * Runs code on a Piston instance. One instance per configured Piston URL, see ExecutionBackendConfig.
+ */
 @Slf4j
-public class PistonApiService {
-
-    @Value("${piston.api.url:https://emkc.org/api/v2/piston}")
-    private String pistonApiUrl;
-
+public class PistonApiService implements CodeRunner {
+
+    private static final Map<String, String> PISTON_LANGUAGES = Map.ofEntries(
+            Map.entry("javascript", "javascript"),
+            Map.entry("js", "javascript"),
+            Map.entry("python", "python"),
+            Map.entry("py", "python"),
+            Map.entry("java", "java"),
+            Map.entry("cpp", "c++"),
+            Map.entry("c++", "c++"),
+            Map.entry("c", "c"),
+            Map.entry("csharp", "csharp"),
+            Map.entry("c#", "csharp"),
+            Map.entry("go", "go"),
+            Map.entry("rust", "rust"),
+            Map.entry("ruby", "ruby"),
+            Map.entry("php", "php"),
+            Map.entry("typescript", "typescript"),
+            Map.entry("ts", "typescript"),
+            Map.entry("kotlin", "kotlin"),
+            Map.entry("swift", "swift")
+    );
+
+    private static final Map<String, String> DEFAULT_FILE_NAMES = Map.ofEntries(
+            Map.entry("javascript", "main.js"),
+            Map.entry("js", "main.js"),
+            Map.entry("python", "main.py"),
+            Map.entry("py", "main.py"),
+            Map.entry("java", "Main.java"),
+            Map.entry("cpp", "main.cpp"),
+            Map.entry("c++", "main.cpp"),
+            Map.entry("c", "main.c"),
+            Map.entry("csharp", "main.cs"),
+            Map.entry("c#", "main.cs"),
+            Map.entry("go", "main.go"),
+            Map.entry("rust", "main.rs"),
+            Map.entry("ruby", "main.rb"),
+            Map.entry("php", "main.php"),
+            Map.entry("typescript", "main.ts"),
+            Map.entry("ts", "main.ts"),
+            Map.entry("kotlin", "main.kt"),
+            Map.entry("swift", "main.swift")
+    );
+
+    private final String pistonApiUrl;
+    private final int maxOutputBytes;
     private final RestTemplate restTemplate;
-    private final Lock rateLimitLock = new ReentrantLock();
-    private long lastRequestTime = 0;
-    private static final long MIN_REQUEST_INTERVAL_MS = 250; // 250ms to be safe (API limit is 200ms)
 
-    public PistonApiService() {
-        this.restTemplate = new RestTemplate();
+    public PistonApiService(String pistonApiUrl, int connectTimeoutMs, int readTimeoutMs, int maxOutputBytes) {
+        this.pistonApiUrl = pistonApiUrl;
+        this.maxOutputBytes = maxOutputBytes;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
     }
 
-    /**
-     * Enforce rate limiting for Piston API (1 request per 200ms)
-     */
-    private void enforceRateLimit() {
-        rateLimitLock.lock();
-        try {
-            long currentTime = System.currentTimeMillis();
-            long timeSinceLastRequest = currentTime - lastRequestTime;
-
-            if (timeSinceLastRequest < MIN_REQUEST_INTERVAL_MS) {
-                long waitTime = MIN_REQUEST_INTERVAL_MS - timeSinceLastRequest;
-                log.debug("Rate limiting: waiting {}ms before next request", waitTime);
-                try {
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.warn("Rate limit wait interrupted", e);
-                }
-            }
-
-            lastRequestTime = System.currentTimeMillis();
-        } finally {
-            rateLimitLock.unlock();
-        }
+    @Override
+    public String getName() {
+        return "piston@" + pistonApiUrl;
     }
 
     /**
      * Get list of available runtimes from Piston
      */
+    @Override
     public List<PistonRuntimeResponse> getRuntimes() {
         try {
             log.info("Fetching available runtimes from Piston API");
-            enforceRateLimit();
             String url = pistonApiUrl + "/runtimes";
 
             ResponseEntity<List<PistonRuntimeResponse>> response = restTemplate.exchange(
@@ -82,15 +105,14 @@ public class PistonApiService {
     }
 
     /**
-     * Execute code using Piston API
+     * Execute code using Piston API. Throws when Piston itself cannot be reached
+     * or fails, so the backend pool can move the request elsewhere.
      */
-    public RunCodeResponse executeCode(RunCodeRequest request) {
+    @Override
+    public RunCodeResponse execute(RunCodeRequest request) {
         try {
             log.info("Executing {} code via Piston API", request.getLanguage());
 
-            // Enforce rate limiting
-            enforceRateLimit();
-
             // Prepare the request payload for Piston
             Map<String, Object> pistonRequest = new HashMap<>();
             pistonRequest.put("language", mapLanguageToPiston(request.getLanguage()));
@@ -118,7 +140,10 @@ public class PistonApiService {
             if (request.getArgs() != null && !request.getArgs().isEmpty()) {
                 pistonRequest.put("args", request.getArgs());
             }
-            if (request.getRunTimeout() != null) {
+            if (Boolean.TRUE.equals(request.getCompileOnly())) {
+                // Piston always runs after compiling; give the run no time and drop it below
+                pistonRequest.put("run_timeout", 1);
+            } else if (request.getRunTimeout() != null) {
                 pistonRequest.put("run_timeout", request.getRunTimeout());
             } else {
                 pistonRequest.put("run_timeout", 3000); // Default 3 seconds
@@ -147,11 +172,12 @@ public class PistonApiService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(pistonRequest, headers);
 
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     entity,
-                    Map.class
+                    new ParameterizedTypeReference<Map<String, Object>>() {
+                    }
             );
 
             // Parse the response
@@ -163,21 +189,28 @@ public class PistonApiService {
             log.info("Code execution completed. Language: {}, Version: {}",
                     responseBody.get("language"), responseBody.get("version"));
 
-            return mapPistonResponse(responseBody);
+            RunCodeResponse mapped = mapPistonResponse(responseBody);
+            if (Boolean.TRUE.equals(request.getCompileOnly())) {
+                mapped.setRun(null);
+            }
+            return mapped;
 
-        } catch (Exception e) {
-            log.error("Error executing code via Piston API: {}", e.getMessage(), e);
+        } catch (HttpClientErrorException e) {
+            // Piston rejected the request itself (e.g. unknown language), which says nothing about its health
+            log.warn("Piston API rejected the request: {}", e.getMessage());
 
-            // Return error response
             RunCodeResponse errorResponse = new RunCodeResponse();
-            errorResponse.setMessage("Execution failed: " + e.getMessage());
+            errorResponse.setMessage("Execution failed: " + e.getResponseBodyAsString());
 
             RunCodeResponse.RunResult runResult = new RunCodeResponse.RunResult();
-            runResult.setStderr(e.getMessage());
+            runResult.setStderr(e.getResponseBodyAsString());
             runResult.setCode(1);
             errorResponse.setRun(runResult);
 
             return errorResponse;
+        } catch (RestClientException e) {
+            log.error("Error executing code via Piston API: {}", e.getMessage());
+            throw new RuntimeException("Piston API request failed: " + e.getMessage(), e);
         }
     }
 
@@ -185,59 +218,32 @@ public class PistonApiService {
      * Map language names to Piston-compatible names
      */
     private String mapLanguageToPiston(String language) {
-        Map<String, String> languageMap = new HashMap<>();
-        languageMap.put("javascript", "javascript");
-        languageMap.put("js", "javascript");
-        languageMap.put("python", "python");
-        languageMap.put("py", "python");
-        languageMap.put("java", "java");
-        languageMap.put("cpp", "c++");
-        languageMap.put("c++", "c++");
-        languageMap.put("c", "c");
-        languageMap.put("csharp", "csharp");
-        languageMap.put("c#", "csharp");
-        languageMap.put("go", "go");
-        languageMap.put("rust", "rust");
-        languageMap.put("ruby", "ruby");
-        languageMap.put("php", "php");
-        languageMap.put("typescript", "typescript");
-        languageMap.put("ts", "typescript");
-        languageMap.put("kotlin", "kotlin");
-        languageMap.put("swift", "swift");
-
-        return languageMap.getOrDefault(language.toLowerCase(), language.toLowerCase());
+        String key = language.toLowerCase();
+        return PISTON_LANGUAGES.getOrDefault(key, key);
+    }
+
+    /**
+     * Whether the language goes through a compile stage before it runs
+     */
+    @Override
+    public boolean isCompiledLanguage(String language) {
+        return switch (mapLanguageToPiston(language)) {
+            case "java", "c", "c++", "csharp", "go", "rust", "kotlin", "swift", "typescript" -> true;
+            default -> false;
+        };
     }
 
     /**
      * Get default file name based on language
      */
     private String getDefaultFileName(String language) {
-        Map<String, String> fileNames = new HashMap<>();
-        fileNames.put("javascript", "main.js");
-        fileNames.put("js", "main.js");
-        fileNames.put("python", "main.py");
-        fileNames.put("py", "main.py");
-        fileNames.put("java", "Main.java");
-        fileNames.put("cpp", "main.cpp");
-        fileNames.put("c++", "main.cpp");
-        fileNames.put("c", "main.c");
-        fileNames.put("csharp", "main.cs");
-        fileNames.put("c#", "main.cs");
-        fileNames.put("go", "main.go");
-        fileNames.put("rust", "main.rs");
-        fileNames.put("ruby", "main.rb");
-        fileNames.put("php", "main.php");
-        fileNames.put("typescript", "main.ts");
-        fileNames.put("ts", "main.ts");
-        fileNames.put("kotlin", "main.kt");
-        fileNames.put("swift", "main.swift");
-
-        return fileNames.getOrDefault(language.toLowerCase(), "main.txt");
+        return DEFAULT_FILE_NAMES.getOrDefault(language.toLowerCase(), "main.txt");
     }
 
     /**
      * Map Piston API response to our response DTO
      */
+    @SuppressWarnings("unchecked")
     private RunCodeResponse mapPistonResponse(Map<String, Object> pistonResponse) {
         RunCodeResponse response = new RunCodeResponse();
         response.setLanguage((String) pistonResponse.get("language"));
@@ -248,11 +254,17 @@ public class PistonApiService {
         if (pistonResponse.containsKey("run")) {
             Map<String, Object> runData = (Map<String, Object>) pistonResponse.get("run");
             RunCodeResponse.RunResult runResult = new RunCodeResponse.RunResult();
-            runResult.setStdout((String) runData.get("stdout"));
-            runResult.setStderr((String) runData.get("stderr"));
-            runResult.setOutput((String) runData.get("output"));
+            runResult.setStdout(capOutput(runData.get("stdout")));
+            // Piston reports its own limit as status OL; ours shows as a shorter stdout
+            runResult.setStdoutTruncated("OL".equals(runData.get("status"))
+                    || runData.get("stdout") != null && !runData.get("stdout").equals(runResult.getStdout()));
+            runResult.setStderr(capOutput(runData.get("stderr")));
+            runResult.setOutput(capOutput(runData.get("output")));
             runResult.setCode((Integer) runData.get("code"));
             runResult.setSignal((String) runData.get("signal"));
+            runResult.setWallTimeMs(toLong(runData.get("wall_time")));
+            runResult.setCpuTimeMs(toLong(runData.get("cpu_time")));
+            runResult.setMemoryBytes(toLong(runData.get("memory")));
             response.setRun(runResult);
         }
 
@@ -260,14 +272,32 @@ public class PistonApiService {
         if (pistonResponse.containsKey("compile")) {
             Map<String, Object> compileData = (Map<String, Object>) pistonResponse.get("compile");
             RunCodeResponse.CompileResult compileResult = new RunCodeResponse.CompileResult();
-            compileResult.setStdout((String) compileData.get("stdout"));
-            compileResult.setStderr((String) compileData.get("stderr"));
-            compileResult.setOutput((String) compileData.get("output"));
+            compileResult.setStdout(capOutput(compileData.get("stdout")));
+            compileResult.setStderr(capOutput(compileData.get("stderr")));
+            compileResult.setOutput(capOutput(compileData.get("output")));
             compileResult.setCode((Integer) compileData.get("code"));
             compileResult.setSignal((String) compileData.get("signal"));
+            compileResult.setWallTimeMs(toLong(compileData.get("wall_time")));
+            compileResult.setCpuTimeMs(toLong(compileData.get("cpu_time")));
+            compileResult.setMemoryBytes(toLong(compileData.get("memory")));
             response.setCompile(compileResult);
         }
 
         return response;
     }
+
+    /**
+     * Piston bounds output with its own output_max_size; this keeps a larger setting from
+     * carrying more than execution.output.max-bytes on into judging
+     */
+    private String capOutput(Object value) {
+        return BoundedOutputBuffer.cap((String) value, maxOutputBytes);
+    }
+
+    /**
+     * Newer Piston versions report wall_time, cpu_time (ms) and memory (bytes); older ones leave them out
+     */
+    private Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
 }
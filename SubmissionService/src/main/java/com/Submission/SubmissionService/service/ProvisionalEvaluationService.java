@@ -0,0 +1,89 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ProvisionalEvaluation;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import com.Submission.SubmissionService.dto.ProvisionalAnswersRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grades answers while an attempt is in progress, so evaluation on submit mostly adds up results.
+ *
+ * AssessmentService sends the answers changed by each autosave. Only those questions are graded,
+ * against the test's cached answer key, and written into the attempt's provisional evaluation with
+ * one partial update. The stored results carry the answer key's version; when the key changes, the
+ * next autosave starts the document over and questions not answered since are graded on submit.
+ * Coding answers are left to submit, where they are run against their hidden tests.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProvisionalEvaluationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final AnswerKeyCache answerKeyCache;
+    private final EvaluationService evaluationService;
+
+    /**
+     * Grade the answers changed by one autosave of the attempt
+     */
+    public void applyAnswers(String candidateId, ProvisionalAnswersRequest request) {
+        AnswerKey answerKey = answerKeyCache.get(request.getTestId());
+        if (answerKey.version() == null) {
+            // Without a version, submit could not tell whether these results are still valid
+            log.debug("Answer key of test {} has no version, not grading attempt {} ahead", request.getTestId(),
+                    candidateId);
+            return;
+        }
+
+        Map<String, Object> answers = request.getAnswers() != null ? request.getAnswers() : Map.of();
+        Map<String, QuestionResult> graded = new HashMap<>();
+        for (String questionId : answers.keySet()) {
+            int i = answerKey.indexOf(questionId);
+            if (i >= 0 && !AnswerKey.TYPE_CODING.equals(answerKey.type(i))) {
+                graded.put(questionId, evaluationService.evaluateQuestion(answerKey, i, answers, false));
+            }
+        }
+
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("testId", request.getTestId())
+                .set("userId", request.getUserId())
+                .set("updatedAt", now);
+        graded.forEach((questionId, result) -> update.set("results." + questionId, result));
+        if (request.getRemoved() != null) {
+            request.getRemoved().forEach(questionId -> update.unset("results." + questionId));
+        }
+        long matched = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(candidateId).and("answerKeyVersion").is(answerKey.version())),
+                update, ProvisionalEvaluation.class).getMatchedCount();
+        if (matched == 0) {
+            // First autosave of the attempt, or the answer key changed since the last one
+            mongoTemplate.save(ProvisionalEvaluation.builder()
+                    .id(candidateId)
+                    .testId(request.getTestId())
+                    .userId(request.getUserId())
+                    .answerKeyVersion(answerKey.version())
+                    .results(graded)
+                    .updatedAt(now)
+                    .build());
+        }
+        log.debug("Graded {} answers of attempt {} ahead of submit", graded.size(), candidateId);
+    }
+
+    /**
+     * Forget the attempt's provisional results, e.g. when it is abandoned
+     */
+    public void discard(String candidateId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(candidateId)), ProvisionalEvaluation.class);
+    }
+}
@@ -0,0 +1,238 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.Evaluation;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import com.Submission.SubmissionService.domain.Submission;
+import com.Submission.SubmissionService.dto.RegradeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes stored evaluations after an answer key correction, e.g. an option's correct flag or a
+ * question's points changed after the exam.
+ *
+ * The multikey index on questionResults.questionId is the reverse index from a question to the
+ * evaluations that graded it, so only those are read. Each matching result is graded again from the
+ * stored answer against the corrected key; MCQ answers are re-resolved from the option they picked,
+ * coding results keep their share of the points. Only evaluations whose results actually change are written back, with
+ * unordered bulk updates that replace just the changed array entries and the totals. Submission
+ * scores follow, and the new totals are synced to AssessmentService.
+ */
+@Service
+@Slf4j
+public class RegradeService {
+
+    private final MongoTemplate mongoTemplate;
+    private final EvaluationService evaluationService;
+    private final AnswerKeyCache answerKeyCache;
+    private final int batchSize;
+    private final int syncConcurrency;
+
+    public RegradeService(MongoTemplate mongoTemplate,
+                          EvaluationService evaluationService,
+                          AnswerKeyCache answerKeyCache,
+                          @Value("${evaluation.regrade.batch-size:500}") int batchSize,
+                          @Value("${evaluation.bulk.sync-concurrency:16}") int syncConcurrency) {
+        this.mongoTemplate = mongoTemplate;
+        this.evaluationService = evaluationService;
+        this.answerKeyCache = answerKeyCache;
+        this.batchSize = Math.max(1, batchSize);
+        this.syncConcurrency = syncConcurrency;
+    }
+
+    /**
+     * Regrade every evaluation that contains one of the questions
+     */
+    public RegradeResponse regrade(List<String> questionIds) {
+        long started = System.nanoTime();
+        AnswerKey answerKey = answerKeyCache.fetch(questionIds.stream().distinct().toList());
+        List<String> known = new ArrayList<>();
+        for (int i = 0; i < answerKey.size(); i++) {
+            known.add(answerKey.questionId(i));
+        }
+        // Tests containing the questions must not keep grading new submissions with the old key
+        answerKeyCache.evictContaining(known);
+
+        long matched = 0;
+        long[] changed = new long[2]; // evaluations, question results
+        if (!known.isEmpty()) {
+            Query query = Query.query(Criteria.where("questionResults.questionId").in(known));
+            List<Evaluation> batch = new ArrayList<>(batchSize);
+            try (Stream<Evaluation> evaluations = mongoTemplate.stream(query, Evaluation.class)) {
+                for (Evaluation evaluation : (Iterable<Evaluation>) evaluations::iterator) {
+                    matched++;
+                    batch.add(evaluation);
+                    if (batch.size() == batchSize) {
+                        regradeBatch(batch, answerKey, changed);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                regradeBatch(batch, answerKey, changed);
+            }
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Regraded questions {}: {} evaluations matched, {} changed ({} question results) in {} ms",
+                known, matched, changed[0], changed[1], durationMs);
+        return RegradeResponse.builder()
+                .questionIds(known)
+                .evaluationsMatched(matched)
+                .evaluationsChanged(changed[0])
+                .questionResultsChanged(changed[1])
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private void regradeBatch(List<Evaluation> batch, AnswerKey answerKey, long[] changed) {
+        // Millisecond precision, as stored, so the evaluations written below can be found by it
+        Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        BulkOperations evaluationUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Evaluation.class);
+        List<Evaluation> regraded = new ArrayList<>();
+
+        for (Evaluation evaluation : batch) {
+            List<QuestionResult> results = new ArrayList<>(evaluation.getQuestionResults());
+            // The positions are checked too, in case the document changed since it was read
+            Criteria target = Criteria.where("_id").is(evaluation.getId());
+            Update update = new Update();
+            int changedResults = 0;
+            for (int j = 0; j < results.size(); j++) {
+                QuestionResult result = results.get(j);
+                int i = answerKey.indexOf(result.getQuestionId());
+                if (i < 0) {
+                    continue;
+                }
+                QuestionResult corrected = regradeQuestion(answerKey, i, result);
+                if (!sameOutcome(result, corrected)) {
+                    results.set(j, corrected);
+                    target.and("questionResults." + j + ".questionId").is(result.getQuestionId());
+                    update.set("questionResults." + j, corrected);
+                    changedResults++;
+                }
+            }
+            if (changedResults == 0) {
+                continue;
+            }
+
+            Double threshold = evaluation.getPassingThreshold() != null
+                    ? evaluation.getPassingThreshold() : EvaluationService.DEFAULT_PASSING_THRESHOLD;
+            Evaluation totals = evaluationService.summarize(evaluation.getSubmissionId(), results, threshold, false);
+            totals.setId(evaluation.getId());
+            update.set("totalScore", totals.getTotalScore())
+                    .set("maxScore", totals.getMaxScore())
+                    .set("percentageScore", totals.getPercentageScore())
+                    .set("mcqScore", totals.getMcqScore())
+                    .set("mcqMaxScore", totals.getMcqMaxScore())
+                    .set("mcqCorrect", totals.getMcqCorrect())
+                    .set("mcqTotal", totals.getMcqTotal())
+                    .set("codingScore", totals.getCodingScore())
+                    .set("codingMaxScore", totals.getCodingMaxScore())
+                    .set("codingPassed", totals.getCodingPassed())
+                    .set("codingTotal", totals.getCodingTotal())
+                    .set("passed", totals.getPassed())
+                    .set("totalQuestionsAttempted", totals.getTotalQuestionsAttempted())
+                    .set("totalQuestionsCorrect", totals.getTotalQuestionsCorrect())
+                    .set("totalQuestionsIncorrect", totals.getTotalQuestionsIncorrect())
+                    .set("totalQuestionsUnanswered", totals.getTotalQuestionsUnanswered())
+                    .set("regradedAt", now);
+            evaluationUpdates.updateOne(Query.query(target), update);
+            regraded.add(totals);
+            changed[1] += changedResults;
+        }
+        if (regraded.isEmpty()) {
+            return;
+        }
+
+        long written = evaluationUpdates.execute().getModifiedCount();
+        changed[0] += written;
+        if (written < regraded.size()) {
+            log.warn("{} of {} regraded evaluations changed while regrading and were left as they are",
+                    regraded.size() - written, regraded.size());
+            // Submission scores and the sync follow only the evaluations that were written
+            Query writtenQuery = Query.query(Criteria.where("_id").in(regraded.stream().map(Evaluation::getId).toList())
+                    .and("regradedAt").is(now));
+            writtenQuery.fields().include("_id");
+            Set<String> writtenIds = new HashSet<>();
+            mongoTemplate.find(writtenQuery, Evaluation.class).forEach(evaluation -> writtenIds.add(evaluation.getId()));
+            regraded.removeIf(evaluation -> !writtenIds.contains(evaluation.getId()));
+            if (regraded.isEmpty()) {
+                return;
+            }
+        }
+
+        BulkOperations submissionUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Submission.class);
+        for (Evaluation evaluation : regraded) {
+            submissionUpdates.updateOne(Query.query(Criteria.where("_id").is(evaluation.getSubmissionId())),
+                    new Update().set("totalScore", evaluation.getTotalScore()).set("maxScore", evaluation.getMaxScore()));
+        }
+        submissionUpdates.execute();
+
+        Query submissions = Query.query(Criteria.where("_id").in(regraded.stream().map(Evaluation::getSubmissionId).toList()));
+        submissions.fields().include("_id", "metadata");
+        Map<String, Map<String, Object>> metadata = new HashMap<>();
+        for (Submission submission : mongoTemplate.find(submissions, Submission.class)) {
+            metadata.put(submission.getId(), submission.getMetadata());
+        }
+        evaluationService.syncScoresToAssessmentService(metadata, regraded, syncConcurrency);
+    }
+
+    /**
+     * The result the stored answer earns under the corrected key
+     */
+    private QuestionResult regradeQuestion(AnswerKey answerKey, int i, QuestionResult result) {
+        if (AnswerKey.TYPE_CODING.equals(answerKey.type(i)) && AnswerKey.TYPE_CODING.equals(result.getQuestionType())) {
+            // The code is not run again; the result keeps its share of the question's points
+            double points = answerKey.points(i);
+            double share = result.getMaxPoints() != null && result.getMaxPoints() > 0 && result.getPointsAwarded() != null
+                    ? result.getPointsAwarded() / result.getMaxPoints() : 0.0;
+            return QuestionResult.builder()
+                    .questionId(result.getQuestionId())
+                    .questionType(result.getQuestionType())
+                    .userAnswer(result.getUserAnswer())
+                    .correctAnswer(result.getCorrectAnswer())
+                    .isCorrect(result.getIsCorrect())
+                    .pointsAwarded(share * points)
+                    .maxPoints(points)
+                    .feedback(result.getFeedback())
+                    .difficulty(answerKey.difficulty(i))
+                    .language(result.getLanguage())
+                    .passedCount(result.getPassedCount())
+                    .totalCount(result.getTotalCount())
+                    .testCaseResults(result.getTestCaseResults())
+                    .build();
+        }
+        // An MCQ answer is matched by the option it picked, since the option's text may have been corrected since
+        String answer = result.getSelectedOptionId() != null ? result.getSelectedOptionId() : result.getUserAnswer();
+        Map<String, Object> answers = answer != null ? Map.of(result.getQuestionId(), answer) : Map.of();
+        QuestionResult corrected = evaluationService.evaluateQuestion(answerKey, i, answers, false);
+        corrected.setUserAnswer(result.getUserAnswer());
+        return corrected;
+    }
+
+    private boolean sameOutcome(QuestionResult before, QuestionResult after) {
+        return Objects.equals(before.getQuestionType(), after.getQuestionType())
+                && Objects.equals(before.getIsCorrect(), after.getIsCorrect())
+                && Objects.equals(before.getPointsAwarded(), after.getPointsAwarded())
+                && Objects.equals(before.getMaxPoints(), after.getMaxPoints())
+                && Objects.equals(before.getCorrectAnswer(), after.getCorrectAnswer())
+                && Objects.equals(before.getDifficulty(), after.getDifficulty());
+    }
+}
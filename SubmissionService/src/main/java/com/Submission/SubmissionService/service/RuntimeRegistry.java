@@ -0,0 +1,107 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory snapshot of the runtimes offered by a {@link CodeRunner}.
+ *
+ * The snapshot is replaced as a whole on every refresh, so lookups never hit the backend
+ * and never see a half-built table. Requests without a concrete version are pinned to the
+ * newest version of their language, which spares the backend from resolving "*" each time.
+ */
+@Slf4j
+public class RuntimeRegistry {
+
+    private static final Pattern VERSION_SEPARATOR = Pattern.compile("[.\\-+]");
+
+    private static final Comparator<PistonRuntimeResponse> VERSION_ORDER = (a, b) -> {
+        String[] left = VERSION_SEPARATOR.split(a.getVersion() != null ? a.getVersion() : "");
+        String[] right = VERSION_SEPARATOR.split(b.getVersion() != null ? b.getVersion() : "");
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            String l = i < left.length ? left[i] : "0";
+            String r = i < right.length ? right[i] : "0";
+            int result = l.matches("\\d+") && r.matches("\\d+")
+                    ? Long.compare(Long.parseLong(l), Long.parseLong(r))
+                    : l.compareTo(r);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    };
+
+    private final CodeRunner codeRunner;
+    private volatile Snapshot snapshot;
+
+    public RuntimeRegistry(CodeRunner codeRunner) {
+        this.codeRunner = codeRunner;
+    }
+
+    /**
+     * Reload runtimes from the backend. A failed refresh keeps the previous snapshot.
+     */
+    public synchronized void refresh() {
+        List<PistonRuntimeResponse> runtimes = codeRunner.getRuntimes();
+        Map<String, PistonRuntimeResponse> byName = new HashMap<>();
+        for (PistonRuntimeResponse runtime : runtimes) {
+            register(byName, runtime.getLanguage(), runtime);
+            if (runtime.getAliases() != null) {
+                runtime.getAliases().forEach(alias -> register(byName, alias, runtime));
+            }
+        }
+        snapshot = new Snapshot(List.copyOf(runtimes), Map.copyOf(byName), Instant.now());
+        log.info("Runtime registry loaded {} runtimes from {}", runtimes.size(), codeRunner.getName());
+    }
+
+    /**
+     * All runtimes, loading them first if no refresh has succeeded yet
+     */
+    public List<PistonRuntimeResponse> getRuntimes() {
+        return current().runtimes();
+    }
+
+    /**
+     * The concrete version to request: the caller's own version when one is given,
+     * otherwise the newest known version of the language, or null if the language is unknown.
+     */
+    public String resolveVersion(String language, String requestedVersion) {
+        if (requestedVersion != null && !requestedVersion.isBlank() && !requestedVersion.equals("*")) {
+            return requestedVersion;
+        }
+        Snapshot current = snapshot;
+        if (current == null || language == null) {
+            return requestedVersion;
+        }
+        PistonRuntimeResponse runtime = current.byName().get(language.toLowerCase());
+        return runtime != null ? runtime.getVersion() : requestedVersion;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Keep the newest version when several runtimes share a name
+     */
+    private void register(Map<String, PistonRuntimeResponse> byName, String name, PistonRuntimeResponse runtime) {
+        byName.merge(name.toLowerCase(), runtime,
+                (existing, candidate) -> VERSION_ORDER.compare(candidate, existing) > 0 ? candidate : existing);
+    }
+
+    private record Snapshot(List<PistonRuntimeResponse> runtimes, Map<String, PistonRuntimeResponse> byName,
+                            Instant loadedAt) {
+    }
+}
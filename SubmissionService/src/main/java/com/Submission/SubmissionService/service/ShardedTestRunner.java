@@ -0,0 +1,114 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Runs a program against a whole test suite split into shards.
+ *
+ * Cases are dealt round robin into up to {@code execution.evaluation.shards} shards, so slow cases
+ * (often the large ones at the end of a suite) spread evenly. On backends that compile once every
+ * shard is one scheduled execution; elsewhere its cases are scheduled one by one, each taking a token.
+ * Shards run side by side up to the scheduler's per-evaluation cap. Verdicts are merged back into
+ * suite order.
+ *
+ * In fail-fast mode the first failing verdict stops the suite: queued shards are cancelled and
+ * running ones skip their remaining cases. Cases that never ran get a null verdict.
+ */
+@Component
+@Slf4j
+public class ShardedTestRunner {
+
+    private final ExecutionDispatcher executionDispatcher;
+    private final int maxShards;
+
+    public ShardedTestRunner(ExecutionDispatcher executionDispatcher,
+                             @Value("${execution.evaluation.shards:4}") int maxShards) {
+        this.executionDispatcher = executionDispatcher;
+        this.maxShards = Math.max(1, maxShards);
+    }
+
+    /**
+     * Run every stdin and judge each response as its shard completes.
+     *
+     * @param judge  verdict for the case at the given suite index
+     * @param failed whether a verdict fails the suite, used for fail-fast
+     * @return one verdict per stdin in suite order, null for cases skipped by fail-fast
+     */
+    public <V> CompletableFuture<List<V>> run(RunCodeRequest program, List<String> stdins, ExecutionPriority priority,
+                                              boolean failFast,
+                                              BiFunction<Integer, RunCodeResponse, CompletableFuture<V>> judge,
+                                              Predicate<V> failed) {
+        int shardCount = Math.min(maxShards, stdins.size());
+        AtomicBoolean stopped = new AtomicBoolean();
+        @SuppressWarnings("unchecked")
+        V[] verdicts = (V[]) new Object[stdins.size()];
+
+        // Judged on worker threads while this one is still queueing shards
+        List<CompletableFuture<List<RunCodeResponse>>> executions = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (stopped.get()) {
+                // An earlier shard already failed the suite; the rest are never queued
+                break;
+            }
+            List<Integer> indexes = new ArrayList<>();
+            List<String> shardStdins = new ArrayList<>();
+            for (int i = shard; i < stdins.size(); i += shardCount) {
+                indexes.add(i);
+                shardStdins.add(stdins.get(i));
+            }
+
+            CompletableFuture<List<RunCodeResponse>> execution =
+                    executionDispatcher.executeShard(program, shardStdins, priority, stopped::get);
+            executions.add(execution);
+            if (stopped.get()) {
+                execution.cancel(false);
+            }
+            shards.add(execution
+                    .thenCompose(responses -> {
+                        List<CompletableFuture<Void>> judged = new ArrayList<>();
+                        for (int i = 0; i < responses.size(); i++) {
+                            int index = indexes.get(i);
+                            judged.add(judge.apply(index, responses.get(i)).thenAccept(verdict -> {
+                                verdicts[index] = verdict;
+                                if (failFast && failed.test(verdict) && stopped.compareAndSet(false, true)) {
+                                    log.debug("Case {} failed, cancelling the remaining shards", index);
+                                    executions.forEach(pending -> pending.cancel(false));
+                                }
+                            }));
+                        }
+                        return CompletableFuture.allOf(judged.toArray(new CompletableFuture<?>[0]));
+                    })
+                    .exceptionally(error -> {
+                        // A shard cancelled by fail-fast simply contributes no verdicts
+                        if (unwrap(error) instanceof CancellationException && stopped.get()) {
+                            return null;
+                        }
+                        throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                    }));
+        }
+
+        return CompletableFuture.allOf(shards.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> Arrays.asList(verdicts));
+    }
+
+    private Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
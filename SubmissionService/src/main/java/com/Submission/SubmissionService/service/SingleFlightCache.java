@@ -0,0 +1,118 @@
+package com.Submission.SubmissionService.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one future and keeps
+ * cacheable results for a short time in a size-bounded LRU map.
+ */
+public class SingleFlightCache<V> {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, CachedValue<V>> results; // guarded by itself
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public SingleFlightCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock source of monotonic nanoseconds for expiry; tests pass a fake clock
+     */
+    SingleFlightCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValue<V>> eldest) {
+                return size() > SingleFlightCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return a cached result, join a load already in flight for the key, or start one.
+     * Only results accepted by cacheable are kept after the load completes.
+     */
+    public CompletableFuture<V> get(String key, Supplier<CompletableFuture<V>> loader, Predicate<V> cacheable) {
+        V cached = getCached(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            joined.increment();
+            // A copy, so one caller cancelling does not cancel the load for everyone
+            return existing.copy();
+        }
+
+        loads.increment();
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((value, error) -> {
+            if (error == null && ttlNanos > 0 && cacheable.test(value)) {
+                synchronized (results) {
+                    results.put(key, new CachedValue<>(value, nanoClock.getAsLong() + ttlNanos));
+                }
+            }
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return shared.copy();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getJoined() {
+        return joined.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    private V getCached(String key) {
+        synchronized (results) {
+            CachedValue<V> cached = results.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - cached.expiresAt > 0) {
+                results.remove(key);
+                return null;
+            }
+            return cached.value;
+        }
+    }
+
+    private record CachedValue<V>(V value, long expiresAt) {
+    }
+}
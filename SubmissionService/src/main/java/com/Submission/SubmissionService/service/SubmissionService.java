@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 public class SubmissionService {
 
     private final SubmissionRepository submissionRepository;
+    private final EvaluationWorker evaluationWorker;
 
     public SubmissionResponse createSubmission(CreateSubmissionRequest request) {
         log.info("Creating submission for user {} and test {}", request.getUserId(), request.getTestId());
@@ -33,6 +34,7 @@ public class SubmissionService {
 
         submission = submissionRepository.save(submission);
         log.info("Submission created with id: {}", submission.getId());
+        evaluationWorker.wakeUp();
 
         return mapToResponse(submission);
     }
@@ -122,6 +124,8 @@ public class SubmissionService {
                 .metadata(submission.getMetadata())
                 .fileIds(submission.getFileIds())
                 .evaluationId(submission.getEvaluationId())
+                .evaluationAttempts(submission.getEvaluationAttempts())
+                .lastEvaluationError(submission.getLastEvaluationError())
                 .build();
     }
 }
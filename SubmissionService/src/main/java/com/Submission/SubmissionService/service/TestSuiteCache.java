@@ -0,0 +1,350 @@
+package com.Submission.SubmissionService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local copy of the test-suite bundles QuestionService publishes per question.
+ *
+ * A bundle is gzip-compressed JSON named by the SHA-256 of its content, which QuestionService
+ * also sends as its ETag. Every load revalidates with If-None-Match, so an unchanged suite costs
+ * a 304 without a body and its bytes cross the network once per version. Bundles are kept on disk
+ * across restarts and evicted least-recently-used first beyond the size limit; the most recently
+ * used ones are also kept parsed in memory. When QuestionService cannot be reached, the last known
+ * bundle of the question is used; without one the load fails rather than passing for an empty suite.
+ */
+@Component
+@Slf4j
+public class TestSuiteCache {
+
+    private static final String BUNDLE_SUFFIX = ".json.gz";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final String questionServiceUrl;
+    private final Path bundleDir;
+    private final Path pointerDir;
+    private final long maxBytes;
+    private final int memoryEntries;
+
+    private final Map<String, String> currentHashes = new ConcurrentHashMap<>(); // question id -> bundle hash
+    private final LinkedHashMap<String, Long> bundleSizes = new LinkedHashMap<>(16, 0.75f, true); // guarded by this
+    private final LinkedHashMap<String, TestSuite> parsed = new LinkedHashMap<>(16, 0.75f, true); // guarded by this
+    private long totalBytes; // guarded by this
+
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+
+    /**
+     * @param runTimeLimitMs per-case limit derived from the question's reference solution, or null
+     */
+    public record TestSuite(String hash, Long runTimeLimitMs, List<Map<String, Object>> testCases) {
+    }
+
+    public TestSuiteCache(RestTemplate restTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${question.service.url:http://localhost:8082}") String questionServiceUrl,
+                          @Value("${execution.test-suite-cache.dir:${java.io.tmpdir}/test-suites}") String cacheDir,
+                          @Value("${execution.test-suite-cache.max-size-mb:1024}") long maxSizeMb,
+                          @Value("${execution.test-suite-cache.memory-entries:32}") int memoryEntries) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.questionServiceUrl = questionServiceUrl;
+        this.bundleDir = Paths.get(cacheDir, "bundles");
+        this.pointerDir = Paths.get(cacheDir, "questions");
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.memoryEntries = Math.max(0, memoryEntries);
+        try {
+            Files.createDirectories(bundleDir);
+            Files.createDirectories(pointerDir);
+            // Bundles never change, so the ones left from the last run are still good
+            try (Stream<Path> files = Files.list(bundleDir)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.comparing(this::lastModified))::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(BUNDLE_SUFFIX)) {
+                        long size = Files.size(file);
+                        bundleSizes.put(name.substring(0, name.length() - BUNDLE_SUFFIX.length()), size);
+                        totalBytes += size;
+                    } else {
+                        Files.deleteIfExists(file); // partial download
+                    }
+                }
+            }
+            try (Stream<Path> files = Files.list(pointerDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.getFileName().toString().endsWith(".tmp")) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare test suite cache at " + cacheDir, e);
+        }
+        log.info("Test suite cache at {}: {} bundles, {} bytes", cacheDir, bundleSizes.size(), totalBytes);
+    }
+
+    /**
+     * The question's current test suite, or null when QuestionService answers that the question has none.
+     *
+     * @throws IllegalStateException when the suite could not be fetched and no earlier copy is cached
+     */
+    public TestSuite load(String questionId) {
+        return load(questionId, currentHash(questionId));
+    }
+
+    private TestSuite load(String questionId, String known) {
+        HttpHeaders headers = new HttpHeaders();
+        if (known != null) {
+            headers.setIfNoneMatch("\"" + known + "\"");
+        }
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange(
+                    questionServiceUrl + "/questions/" + questionId + "/test-suite",
+                    HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && known != null) {
+                notModified.incrementAndGet();
+                TestSuite suite = read(known);
+                if (suite != null) {
+                    return suite;
+                }
+                // Evicted since it was revalidated; fetch it again in full
+                return load(questionId, null);
+            }
+            String hash = hashOf(response.getHeaders().getETag());
+            byte[] content = response.getBody();
+            if (hash == null || content == null) {
+                throw new IllegalStateException("Test suite of question " + questionId + " came without an ETag or body");
+            }
+            downloads.incrementAndGet();
+            return store(questionId, hash, content);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                log.warn("No test suite for question {}", questionId);
+                return null;
+            }
+            throw new IllegalStateException("Could not fetch test suite for question " + questionId + ": "
+                    + e.getStatusCode(), e);
+        } catch (RestClientException e) {
+            TestSuite suite = known != null ? read(known) : null;
+            if (suite == null) {
+                throw new IllegalStateException("Could not fetch test suite for question " + questionId + ": "
+                        + e.getMessage(), e);
+            }
+            log.warn("Could not revalidate test suite of question {}, using cached bundle {}: {}",
+                    questionId, known, e.getMessage());
+            return suite;
+        }
+    }
+
+    public long getNotModified() {
+        return notModified.get();
+    }
+
+    public long getDownloads() {
+        return downloads.get();
+    }
+
+    /**
+     * Hash of the question's last seen bundle, if that bundle is still on disk
+     */
+    private String currentHash(String questionId) {
+        String hash = currentHashes.computeIfAbsent(questionId, id -> {
+            try {
+                Path pointer = pointerDir.resolve(fileName(id));
+                return Files.exists(pointer) ? Files.readString(pointer).trim() : null;
+            } catch (IOException e) {
+                return null;
+            }
+        });
+        synchronized (this) {
+            return hash != null && bundleSizes.containsKey(hash) ? hash : null;
+        }
+    }
+
+    /**
+     * Check the downloaded bundle against its hash, move it into place and return it parsed
+     */
+    private TestSuite store(String questionId, String hash, byte[] content) {
+        try {
+            byte[] json = gunzip(content);
+            String actual = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+            if (!actual.equals(hash)) {
+                throw new IllegalStateException("Test suite of question " + questionId + " does not match its ETag "
+                        + hash + " (content hash " + actual + ")");
+            }
+
+            boolean present;
+            synchronized (this) {
+                present = bundleSizes.containsKey(hash);
+            }
+            if (!present) {
+                Path staging = Files.createTempFile(bundleDir, hash, ".tmp");
+                Files.write(staging, content);
+                Files.move(staging, bundleDir.resolve(hash + BUNDLE_SUFFIX), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                synchronized (this) {
+                    if (bundleSizes.put(hash, (long) content.length) == null) {
+                        totalBytes += content.length;
+                    }
+                    evict(hash);
+                }
+                log.info("Cached test suite {} of question {} ({} bytes)", hash, questionId, content.length);
+            }
+
+            Path pointer = Files.createTempFile(pointerDir, "pointer-", ".tmp");
+            Files.writeString(pointer, hash);
+            Files.move(pointer, pointerDir.resolve(fileName(questionId)), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            currentHashes.put(questionId, hash);
+            // Parsed from the downloaded bytes, as another store may already have evicted the file
+            return remember(parse(hash, new ByteArrayInputStream(json)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not cache test suite of question " + questionId, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The cached bundle, or null when it has been evicted in the meantime
+     */
+    private TestSuite read(String hash) {
+        synchronized (this) {
+            TestSuite suite = parsed.get(hash);
+            if (suite != null) {
+                bundleSizes.get(hash); // counts as a use for eviction
+                return suite;
+            }
+        }
+        Path file = bundleDir.resolve(hash + BUNDLE_SUFFIX);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                return remember(parse(hash, in));
+            }
+        } catch (NoSuchFileException e) {
+            forget(hash);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read cached test suite " + hash, e);
+        }
+    }
+
+    private TestSuite parse(String hash, InputStream json) throws IOException {
+        Map<?, ?> bundle = objectMapper.readValue(json, Map.class);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> testCases = (List<Map<String, Object>>) bundle.get("testCases");
+        Object limit = bundle.get("runTimeLimitMs");
+        return new TestSuite(hash, limit instanceof Number number ? number.longValue() : null,
+                testCases != null ? testCases : List.of());
+    }
+
+    private synchronized TestSuite remember(TestSuite suite) {
+        bundleSizes.get(suite.hash());
+        if (memoryEntries > 0 && bundleSizes.containsKey(suite.hash())) {
+            parsed.put(suite.hash(), suite);
+            Iterator<String> oldest = parsed.keySet().iterator();
+            while (parsed.size() > memoryEntries) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+        return suite;
+    }
+
+    /**
+     * Drop a bundle whose file is gone, e.g. deleted by hand, so the next download writes it again
+     */
+    private synchronized void forget(String hash) {
+        Long size = bundleSizes.remove(hash);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        parsed.remove(hash);
+    }
+
+    /**
+     * Drop least recently used bundles until the cache fits its limit, never the one just stored
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = bundleSizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            parsed.remove(entry.getKey());
+            totalBytes -= entry.getValue();
+            try {
+                Files.deleteIfExists(bundleDir.resolve(entry.getKey() + BUNDLE_SUFFIX));
+            } catch (IOException e) {
+                log.warn("Could not delete test suite {}: {}", entry.getKey(), e.getMessage());
+            }
+            log.debug("Evicted test suite {} ({} bytes)", entry.getKey(), entry.getValue());
+        }
+    }
+
+    private byte[] gunzip(byte[] content) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * The hash inside an ETag such as "abc" or W/"abc"; only lowercase hex is accepted, as it names files
+     */
+    private String hashOf(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        String hash = etag.replaceFirst("^W/", "").replace("\"", "").trim();
+        return hash.matches("[0-9a-f]{64}") ? hash : null;
+    }
+
+    private String fileName(String questionId) {
+        return HexFormat.of().formatHex(questionId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
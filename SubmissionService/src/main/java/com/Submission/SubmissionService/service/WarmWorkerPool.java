@@ -0,0 +1,231 @@
+package com.Submission.SubmissionService.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Pre-started, single-use workers per key, kept at a size that follows recent demand.
+ *
+ * Workers are spawned ahead of time on background threads and each is handed out at most
+ * once; the caller discards it after its run. {@link #acquire} never waits for a spawn: with
+ * no ready worker it returns null and the caller starts one the slow way. The number of idle
+ * workers per key follows Little's law, the recent arrival rate times the measured warm-up
+ * time plus one, capped at maxIdle. Workers that die while idle or stay idle past the
+ * timeout are discarded, so a key nobody uses any more drains to nothing.
+ */
+@Slf4j
+public class WarmWorkerPool<K, W extends WarmWorkerPool.Worker> implements AutoCloseable {
+
+    private static final double SMOOTHING = 0.2;
+
+    public interface Worker {
+        boolean isAlive();
+
+        /**
+         * Stop the worker and release everything it holds; may be called more than once
+         */
+        void discard();
+    }
+
+    private final Function<K, W> spawner;
+    private final int maxIdle;
+    private final long idleTimeoutNanos;
+    private final ExecutorService spawners;
+    private final Map<K, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param spawner starts a worker and returns once it is ready, or returns null if it could not be started
+     */
+    public WarmWorkerPool(Function<K, W> spawner, int maxIdle, long idleTimeoutMs, int spawnThreads) {
+        this.spawner = spawner;
+        this.maxIdle = Math.max(1, maxIdle);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        AtomicInteger counter = new AtomicInteger();
+        this.spawners = Executors.newFixedThreadPool(Math.max(1, spawnThreads), runnable -> {
+            Thread thread = new Thread(runnable, "warm-worker-spawner-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Take a ready worker for the key, or null if none is idle. Either way the request counts
+     * as demand, and replacements are started in the background.
+     */
+    public W acquire(K key) {
+        if (closed) {
+            return null;
+        }
+        Slot slot = slots.computeIfAbsent(key, ignored -> new Slot());
+        List<W> dead = new ArrayList<>();
+        W worker = null;
+        synchronized (slot) {
+            long now = System.nanoTime();
+            slot.recordArrival(now);
+            while (worker == null && !slot.idle.isEmpty()) {
+                W candidate = slot.idle.poll().worker();
+                if (candidate.isAlive()) {
+                    worker = candidate;
+                } else {
+                    dead.add(candidate);
+                }
+            }
+            refill(key, slot, now);
+        }
+        dead.forEach(Worker::discard);
+        (worker != null ? hits : misses).incrementAndGet();
+        return worker;
+    }
+
+    /**
+     * Discard workers that died or have been idle longer than the timeout
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        List<W> evicted = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                for (Iterator<Idle<W>> it = slot.idle.iterator(); it.hasNext(); ) {
+                    Idle<W> idle = it.next();
+                    if (now - idle.readyAt() > idleTimeoutNanos || !idle.worker().isAlive()) {
+                        evicted.add(idle.worker());
+                        it.remove();
+                    }
+                }
+            }
+        }
+        evicted.forEach(Worker::discard);
+        if (!evicted.isEmpty()) {
+            log.debug("Discarded {} idle workers", evicted.size());
+        }
+    }
+
+    public int getIdleCount() {
+        int idle = 0;
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                idle += slot.idle.size();
+            }
+        }
+        return idle;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        spawners.shutdownNow();
+        List<W> idle = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                slot.idle.forEach(entry -> idle.add(entry.worker()));
+                slot.idle.clear();
+            }
+        }
+        idle.forEach(Worker::discard);
+    }
+
+    /**
+     * Start workers until idle plus starting ones reach the target. A key whose last spawn
+     * failed is left alone for one idle timeout rather than retried on every request.
+     */
+    private void refill(K key, Slot slot, long now) {
+        if (closed || (slot.failedAt != 0 && now - slot.failedAt < idleTimeoutNanos)) {
+            return;
+        }
+        int target = slot.target(now);
+        while (slot.idle.size() + slot.spawning < target) {
+            slot.spawning++;
+            spawners.execute(() -> spawn(key, slot));
+        }
+    }
+
+    private void spawn(K key, Slot slot) {
+        long startedAt = System.nanoTime();
+        W worker = null;
+        try {
+            worker = spawner.apply(key);
+        } catch (RuntimeException e) {
+            log.warn("Could not start a worker for {}: {}", key, e.getMessage());
+        }
+        long now = System.nanoTime();
+        boolean keep;
+        synchronized (slot) {
+            slot.spawning--;
+            if (worker == null) {
+                slot.failedAt = now;
+                return;
+            }
+            slot.failedAt = 0;
+            slot.recordWarmUp(now - startedAt);
+            keep = !closed;
+            if (keep) {
+                slot.idle.add(new Idle<>(worker, now));
+            }
+        }
+        if (!keep) {
+            worker.discard();
+        }
+    }
+
+    private record Idle<W>(W worker, long readyAt) {
+    }
+
+    /**
+     * Idle workers and demand estimates of one key, guarded by the slot itself
+     */
+    private final class Slot {
+        private final ArrayDeque<Idle<W>> idle = new ArrayDeque<>();
+        private int spawning;
+        private double arrivalsPerSecond;
+        private long lastArrival;
+        private double warmUpSeconds = -1; // not measured yet
+        private long failedAt;
+
+        private void recordArrival(long now) {
+            if (lastArrival != 0) {
+                double interval = Math.max(1e-3, (now - lastArrival) / 1e9);
+                arrivalsPerSecond = SMOOTHING / interval + (1 - SMOOTHING) * arrivalsPerSecond;
+            }
+            lastArrival = now;
+        }
+
+        private void recordWarmUp(long nanos) {
+            double seconds = nanos / 1e9;
+            warmUpSeconds = warmUpSeconds < 0 ? seconds : SMOOTHING * seconds + (1 - SMOOTHING) * warmUpSeconds;
+        }
+
+        /**
+         * Requests expected while one worker warms up, plus one. The rate decays once no
+         * request has come for longer than the gap it predicts.
+         */
+        private int target(long now) {
+            double sinceLast = Math.max(1e-3, (now - lastArrival) / 1e9);
+            double rate = Math.min(arrivalsPerSecond, 1 / sinceLast);
+            double warmUp = warmUpSeconds < 0 ? 1 : warmUpSeconds;
+            return (int) Math.min(maxIdle, Math.ceil(rate * warmUp) + 1);
+        }
+    }
+}
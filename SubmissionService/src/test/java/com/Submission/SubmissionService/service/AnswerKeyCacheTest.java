@@ -0,0 +1,100 @@
+package com.Submission.SubmissionService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnswerKeyCacheTest {
+
+    private static final String ANSWER_KEY = "{\"questions\":[{\"questionId\":\"q-1\",\"type\":\"MCQ\"}]}";
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    @Test
+    void notModifiedKeepsTheCachedKey() {
+        structureWith("q-1");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(answerKey("\"v1\""), ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        AnswerKeyCache cache = cache(0);
+
+        AnswerKey first = cache.get("test-1");
+        AnswerKey revalidated = cache.get("test-1");
+
+        assertSame(first, revalidated);
+        assertEquals("\"v1\"", revalidated.version());
+        assertEquals(1, cache.getKeyDownloads());
+        assertEquals(1, cache.getNotModified());
+        assertEquals(1, cache.getStructureFetches());
+        assertEquals(List.of("\"v1\""), sentEtags().get(1));
+    }
+
+    @Test
+    void keyIsNotRevalidatedWhileFresh() {
+        structureWith("q-1");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(answerKey("\"v1\""));
+        AnswerKeyCache cache = cache(60000);
+
+        assertSame(cache.get("test-1"), cache.get("test-1"));
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+                eq(byte[].class));
+    }
+
+    @Test
+    void cachedKeyIsKeptWhenRevalidationFails() {
+        structureWith("q-1");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(answerKey("\"v1\""))
+                .thenThrow(new ResourceAccessException("QuestionService down"));
+        AnswerKeyCache cache = cache(0);
+
+        AnswerKey first = cache.get("test-1");
+
+        assertSame(first, cache.get("test-1"));
+    }
+
+    private AnswerKeyCache cache(long revalidateMs) {
+        return new AnswerKeyCache(restTemplate, new ObjectMapper(), "http://assessment", "http://question",
+                revalidateMs, 600000);
+    }
+
+    private void structureWith(String questionId) {
+        when(restTemplate.getForObject("http://assessment/assessments/test-1/structure", Map.class))
+                .thenReturn(Map.of("questionsMap", Map.of("section-1",
+                        List.of(Map.of("questionId", questionId, "type", "MCQ")))));
+    }
+
+    private ResponseEntity<byte[]> answerKey(String etag) {
+        return ResponseEntity.ok().eTag(etag).body(ANSWER_KEY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * If-None-Match of every answer key request, in order
+     */
+    private List<List<String>> sentEtags() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<HttpEntity<?>> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), requests.capture(), eq(byte[].class));
+        return requests.getAllValues().stream().map(request -> request.getHeaders().getIfNoneMatch()).toList();
+    }
+}
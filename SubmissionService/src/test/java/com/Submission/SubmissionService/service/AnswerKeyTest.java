@@ -0,0 +1,42 @@
+package com.Submission.SubmissionService.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerKeyTest {
+
+    @Test
+    void answerResolvesToTheSameOptionIdByTextLabelOrId() {
+        AnswerKey answerKey = answerKey("Paris");
+
+        assertEquals("11", answerKey.resolveOptionId(0, "Paris"));
+        assertEquals("11", answerKey.resolveOptionId(0, "b"));
+        assertEquals("11", answerKey.resolveOptionId(0, "11"));
+        assertNull(answerKey.resolveOptionId(0, "Rome"));
+    }
+
+    @Test
+    void optionIdStillResolvesAfterTheOptionTextWasCorrected() {
+        String picked = answerKey("Pariss").resolveOptionId(0, "Pariss");
+
+        AnswerKey corrected = answerKey("Paris");
+
+        assertTrue(corrected.isCorrectLabel(0, corrected.resolveLabel(0, picked)));
+    }
+
+    private AnswerKey answerKey(String correctText) {
+        return AnswerKey.compile(List.of(Map.of(
+                "questionId", "q-1",
+                "type", "MCQ",
+                "mcqOptions", List.of(
+                        Map.of("optionId", 10, "optionLabel", "A", "optionText", "London", "isCorrect", false),
+                        Map.of("optionId", 11, "optionLabel", "B", "optionText", correctText, "isCorrect", true)))),
+                null);
+    }
+}
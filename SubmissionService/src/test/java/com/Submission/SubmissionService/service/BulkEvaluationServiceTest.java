@@ -0,0 +1,128 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.BulkEvaluationStatus;
+import com.Submission.SubmissionService.domain.Evaluation;
+import com.Submission.SubmissionService.domain.Submission;
+import com.Submission.SubmissionService.domain.SubmissionStatus;
+import com.Submission.SubmissionService.dto.BulkEvaluationResponse;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkEvaluationServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final EvaluationService evaluationService = mock(EvaluationService.class);
+    private final AnswerKeyCache answerKeyCache = mock(AnswerKeyCache.class);
+    private final BulkOperations evaluationInserts = mock(BulkOperations.class);
+    private final BulkOperations submissionUpdates = mock(BulkOperations.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submissionEvaluatedConcurrentlyIsTreatedAsAlreadyEvaluated() throws Exception {
+        AnswerKey answerKey = AnswerKey.compile(List.of(Map.of("questionId", "q-1", "type", "MCQ")), null);
+        when(answerKeyCache.get("test-1")).thenReturn(answerKey);
+        when(mongoTemplate.count(any(Query.class), eq(Submission.class))).thenReturn(2L);
+        List<Submission> batch = List.of(submission("s-1"), submission("s-2"));
+        // Candidates, the ones actually leased, then nothing left
+        when(mongoTemplate.find(any(Query.class), eq(Submission.class))).thenReturn(batch, batch, List.of());
+        // No evaluation up front; s-2 got one from a worker while the batch was graded
+        when(mongoTemplate.find(any(Query.class), eq(Evaluation.class))).thenReturn(List.of(),
+                List.of(Evaluation.builder().id("e-worker").submissionId("s-2").build()));
+        when(evaluationService.grade(any(Submission.class), eq(answerKey), any(), anyBoolean(), anyMap(), anyBoolean()))
+                .thenAnswer(invocation -> Evaluation.builder()
+                        .submissionId(invocation.<Submission>getArgument(0).getId())
+                        .totalScore(1.0).maxScore(1.0).build());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Evaluation.class)).thenReturn(evaluationInserts);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Submission.class)).thenReturn(submissionUpdates);
+        when(evaluationInserts.insert(anyList())).thenReturn(evaluationInserts);
+        when(evaluationInserts.execute()).thenThrow(duplicateKeyAt(1));
+
+        BulkEvaluationService service = new BulkEvaluationService(mongoTemplate, evaluationService, answerKeyCache,
+                500, 4, 300000, 4, 3600, 600000);
+        BulkEvaluationResponse job = awaitCompletion(service, service.startJob("test-1", null).getJobId());
+
+        assertEquals(BulkEvaluationStatus.DONE, job.getStatus());
+        assertEquals(1, job.getEvaluated());
+        assertEquals(1, job.getSkipped());
+        assertEquals(0, job.getFailed());
+
+        Map<String, Document> updates = submissionUpdates();
+        assertEquals(2, updates.size());
+        assertEquals(SubmissionStatus.EVALUATED, updates.get("s-1").get("status"));
+        assertEquals(1.0, updates.get("s-1").get("totalScore"));
+        // The worker's evaluation is kept, and its score is not overwritten with this batch's
+        assertEquals(SubmissionStatus.EVALUATED, updates.get("s-2").get("status"));
+        assertEquals("e-worker", updates.get("s-2").get("evaluationId"));
+        assertFalse(updates.get("s-2").containsKey("totalScore"));
+
+        ArgumentCaptor<List<Evaluation>> synced = ArgumentCaptor.forClass(List.class);
+        verify(evaluationService).syncScoresToAssessmentService(anyMap(), synced.capture(), anyInt());
+        assertEquals(List.of("s-1"), synced.getValue().stream().map(Evaluation::getSubmissionId).toList());
+    }
+
+    private Submission submission(String id) {
+        return Submission.builder().id(id).testId("test-1").status(SubmissionStatus.RUNNING)
+                .metadata(new HashMap<>()).build();
+    }
+
+    private static BulkOperationException duplicateKeyAt(int index) {
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), index);
+        return new BulkOperationException("Bulk write failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(error), null, null, Set.of()));
+    }
+
+    /**
+     * The $set of each submission update written back, by submission id
+     */
+    private Map<String, Document> submissionUpdates() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(submissionUpdates, times(2)).updateOne(queries.capture(), updates.capture());
+        Map<String, Document> bySubmission = new HashMap<>();
+        for (int i = 0; i < queries.getAllValues().size(); i++) {
+            bySubmission.put((String) queries.getAllValues().get(i).getQueryObject().get("_id"),
+                    updates.getAllValues().get(i).getUpdateObject().get("$set", Document.class));
+        }
+        return bySubmission;
+    }
+
+    private static BulkEvaluationResponse awaitCompletion(BulkEvaluationService service, String jobId)
+            throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            BulkEvaluationResponse job = service.getJob(jobId);
+            if (job.getCompletedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Bulk evaluation job did not finish");
+    }
+}
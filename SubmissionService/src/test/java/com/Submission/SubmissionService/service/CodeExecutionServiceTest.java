@@ -0,0 +1,131 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.CodeExecution;
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.domain.ExecutionStatus;
+import com.Submission.SubmissionService.domain.SubmissionFile;
+import com.Submission.SubmissionService.dto.CodeExecutionResponse;
+import com.Submission.SubmissionService.dto.ExecuteCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import com.Submission.SubmissionService.exception.ExecutionOverloadedException;
+import com.Submission.SubmissionService.repository.CodeExecutionRepository;
+import com.Submission.SubmissionService.repository.SubmissionFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CodeExecutionServiceTest {
+
+    private final CodeExecutionRepository executionRepository = mock(CodeExecutionRepository.class);
+    private final SubmissionFileRepository fileRepository = mock(SubmissionFileRepository.class);
+    private final ExecutionDispatcher executionDispatcher = mock(ExecutionDispatcher.class);
+    private final TestSuiteCache testSuiteCache = mock(TestSuiteCache.class);
+    private CodeExecutionService codeExecutionService;
+
+    @BeforeEach
+    void setUp() {
+        codeExecutionService = new CodeExecutionService(executionRepository, fileRepository, executionDispatcher,
+                mock(ExecutionStatsService.class), mock(CustomChecker.class),
+                new ShardedTestRunner(executionDispatcher, 1), testSuiteCache, 8192);
+        when(executionRepository.save(any(CodeExecution.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileRepository.findById("file-1")).thenReturn(Optional.of(SubmissionFile.builder()
+                .id("file-1")
+                .language("python")
+                .content("print(input())")
+                .build()));
+        when(testSuiteCache.load("q-1")).thenReturn(new TestSuiteCache.TestSuite("hash", null, List.of(
+                Map.of("testCaseId", "t1", "inputData", "1", "expectedOutput", "1"),
+                Map.of("testCaseId", "t2", "inputData", "2", "expectedOutput", "2"),
+                Map.of("testCaseId", "t3", "inputData", "3", "expectedOutput", "3"))));
+        when(executionDispatcher.isCompiledLanguage("python")).thenReturn(false);
+    }
+
+    @Test
+    void failFastOnInterpretedLanguageReportsTheFailingCase() {
+        when(executionDispatcher.executeShard(any(), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(output("1"), output("wrong"), output("3"))));
+
+        CodeExecutionResponse response = codeExecutionService.executeCode(failFastRequest());
+
+        assertEquals(ExecutionStatus.FAILURE, response.getStatus());
+        assertEquals(2, response.getPassedCount());
+        assertEquals("WRONG_ANSWER", response.getTestCaseResults().get(1).get("verdict"));
+    }
+
+    @Test
+    void failFastOnInterpretedLanguagePassesACorrectProgram() {
+        when(executionDispatcher.executeShard(any(), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(output("1"), output("2"), output("3"))));
+
+        CodeExecutionResponse response = codeExecutionService.executeCode(failFastRequest());
+
+        assertEquals(ExecutionStatus.SUCCESS, response.getStatus());
+        assertEquals(3, response.getPassedCount());
+    }
+
+    @Test
+    void outputLongerThanTheOldDisplayCapIsJudgedInFull() {
+        String line = "x".repeat(100_000);
+        when(testSuiteCache.load("q-2")).thenReturn(new TestSuiteCache.TestSuite("hash-2", null, List.of(
+                Map.of("testCaseId", "t1", "inputData", "1", "expectedOutput", line))));
+        when(executionDispatcher.executeShard(any(), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(output(line))));
+
+        CodeExecutionResponse response = codeExecutionService.executeCode(request("q-2", false));
+
+        assertEquals(ExecutionStatus.SUCCESS, response.getStatus());
+    }
+
+    @Test
+    void truncatedOutputIsNeverCompared() {
+        RunCodeResponse truncated = output("1");
+        truncated.getRun().setStdoutTruncated(true);
+        when(executionDispatcher.executeShard(any(), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(truncated, output("2"), output("3"))));
+
+        CodeExecutionResponse response = codeExecutionService.executeCode(request("q-1", false));
+
+        assertEquals(ExecutionStatus.FAILURE, response.getStatus());
+        assertEquals("OUTPUT_LIMIT_EXCEEDED", response.getTestCaseResults().get(0).get("verdict"));
+    }
+
+    @Test
+    void overloadOnTheFirstCaseOfACompiledLanguageReachesTheCaller() {
+        when(executionDispatcher.isCompiledLanguage("python")).thenReturn(true);
+        when(executionDispatcher.executeCode(any(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ExecutionOverloadedException("Execution queue is full", 5)));
+
+        assertThrows(ExecutionOverloadedException.class, () -> codeExecutionService.executeCode(failFastRequest()));
+    }
+
+    private ExecuteCodeRequest failFastRequest() {
+        return request("q-1", true);
+    }
+
+    private ExecuteCodeRequest request(String questionId, boolean failFast) {
+        return ExecuteCodeRequest.builder()
+                .submissionId("submission-1")
+                .fileId("file-1")
+                .questionId(questionId)
+                .failFast(failFast)
+                .build();
+    }
+
+    private RunCodeResponse output(String stdout) {
+        return RunCodeResponse.builder()
+                .run(RunCodeResponse.RunResult.builder().stdout(stdout + "\n").code(0).wallTimeMs(5L).build())
+                .build();
+    }
+}
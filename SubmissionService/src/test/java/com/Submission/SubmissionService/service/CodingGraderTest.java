@@ -0,0 +1,113 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.CodeExecution;
+import com.Submission.SubmissionService.domain.ExecutionStatus;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import com.Submission.SubmissionService.repository.CodeExecutionRepository;
+import com.Submission.SubmissionService.repository.SubmissionFileRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CodingGraderTest {
+
+    private final CodeExecutionService codeExecutionService = mock(CodeExecutionService.class);
+    private final CodingGrader codingGrader = new CodingGrader(codeExecutionService, true, 4);
+
+    @Test
+    void gradesTheAnswerInTheLanguageTheCandidatePicked() {
+        when(codeExecutionService.gradeAnswer(any(), any(), any(), any())).thenReturn(passed());
+
+        Map<String, QuestionResult> results = codingGrader.grade("submission-1", answerKey("java"), List.of(0),
+                Map.of("q-1", Map.of("code", "print(1)", "language", "python")));
+
+        verify(codeExecutionService).gradeAnswer("submission-1", "q-1", "python", "print(1)");
+        assertEquals("python", results.get("q-1").getLanguage());
+        assertEquals("print(1)", results.get("q-1").getUserAnswer());
+    }
+
+    @Test
+    void plainCodeRunsInTheLanguageOfItsQuestion() {
+        when(codeExecutionService.gradeAnswer(any(), any(), any(), any())).thenReturn(passed());
+
+        codingGrader.grade("submission-1", answerKey("python"), List.of(0), Map.of("q-1", "print(1)"));
+
+        verify(codeExecutionService).gradeAnswer("submission-1", "q-1", "python", "print(1)");
+    }
+
+    @Test
+    void answerWithoutAnyLanguageFailsTheEvaluation() {
+        assertThrows(IllegalStateException.class, () -> codingGrader.grade("submission-1", answerKey(null),
+                List.of(0), Map.of("q-1", "print(1)")));
+        verify(codeExecutionService, never()).gradeAnswer(any(), any(), any(), eq("print(1)"));
+    }
+
+    @Test
+    void oneCaseTheBackendCouldNotRunFailsTheEvaluation() {
+        CodeExecution partlyRun = passed();
+        partlyRun.setStatus(ExecutionStatus.FAILURE);
+        partlyRun.setPassedCount(1);
+        partlyRun.setTestCaseResults(List.of(Map.of("verdict", "ACCEPTED"), Map.of("verdict", "ERROR")));
+        when(codeExecutionService.gradeAnswer(any(), any(), any(), any())).thenReturn(partlyRun);
+
+        assertThrows(IllegalStateException.class, () -> codingGrader.grade("submission-1", answerKey("python"),
+                List.of(0), Map.of("q-1", "print(1)")));
+    }
+
+    @Test
+    void suiteThatCannotBeLoadedFailsTheEvaluation() {
+        TestSuiteCache testSuiteCache = mock(TestSuiteCache.class);
+        when(testSuiteCache.load("q-1")).thenThrow(new IllegalStateException("Could not fetch test suite"));
+
+        assertThrows(IllegalStateException.class, () -> graderWith(testSuiteCache).grade("submission-1",
+                answerKey("python"), List.of(0), Map.of("q-1", "print(1)")));
+    }
+
+    @Test
+    void questionConfirmedToHaveNoTestCasesEarnsNoPoints() {
+        TestSuiteCache testSuiteCache = mock(TestSuiteCache.class);
+        when(testSuiteCache.load("q-1")).thenReturn(null);
+
+        QuestionResult result = graderWith(testSuiteCache).grade("submission-1", answerKey("python"), List.of(0),
+                Map.of("q-1", "print(1)")).get("q-1");
+
+        assertEquals(0.0, result.getPointsAwarded());
+        assertEquals("No test cases to grade against", result.getFeedback());
+    }
+
+    private CodingGrader graderWith(TestSuiteCache testSuiteCache) {
+        ExecutionDispatcher executionDispatcher = mock(ExecutionDispatcher.class);
+        CodeExecutionService realService = new CodeExecutionService(mock(CodeExecutionRepository.class),
+                mock(SubmissionFileRepository.class), executionDispatcher, mock(ExecutionStatsService.class),
+                mock(CustomChecker.class), new ShardedTestRunner(executionDispatcher, 1), testSuiteCache, 8192);
+        return new CodingGrader(realService, true, 4);
+    }
+
+    private AnswerKey answerKey(String programmingLanguage) {
+        Map<String, Object> question = new HashMap<>();
+        question.put("questionId", "q-1");
+        question.put("type", AnswerKey.TYPE_CODING);
+        question.put("points", 10);
+        question.put("programmingLanguage", programmingLanguage);
+        return AnswerKey.compile(List.of(question), null);
+    }
+
+    private CodeExecution passed() {
+        return CodeExecution.builder()
+                .status(ExecutionStatus.SUCCESS)
+                .passedCount(2)
+                .totalCount(2)
+                .build();
+    }
+}
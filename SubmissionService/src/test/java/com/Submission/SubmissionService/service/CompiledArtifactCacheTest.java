@@ -0,0 +1,81 @@
+package com.Submission.SubmissionService.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledArtifactCacheTest {
+
+    // Three artifacts of this size do not fit a 1 MB cache, two do
+    private static final int ARTIFACT_BYTES = 400 * 1024;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void artifactIsFoundForTheSameSourceAndRuntimeOnly() throws IOException {
+        CompiledArtifactCache cache = cache();
+        store(cache, "a").close();
+
+        try (CompiledArtifactCache.Lease hit = cache.lookup("java", "15.0.2", "a")) {
+            assertNotNull(hit);
+            assertTrue(Files.exists(hit.getDirectory().resolve("Main.class")));
+        }
+        assertNull(cache.lookup("java", "17.0.1", "a"));
+        assertNull(cache.lookup("java", "15.0.2", "b"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedArtifactIsEvictedPastTheSizeLimit() throws IOException {
+        CompiledArtifactCache cache = cache();
+        store(cache, "a").close();
+        Path b;
+        try (CompiledArtifactCache.Lease lease = store(cache, "b")) {
+            b = lease.getDirectory();
+        }
+        cache.lookup("java", "15.0.2", "a").close(); // a is now more recent than b
+
+        store(cache, "c").close();
+
+        assertNull(cache.lookup("java", "15.0.2", "b"));
+        assertFalse(Files.exists(b));
+        assertNotNull(cache.lookup("java", "15.0.2", "a"));
+        assertNotNull(cache.lookup("java", "15.0.2", "c"));
+    }
+
+    @Test
+    void leasedArtifactIsNotEvictedUntilReleased() throws IOException {
+        CompiledArtifactCache cache = cache();
+        CompiledArtifactCache.Lease a = store(cache, "a");
+        store(cache, "b").close();
+
+        store(cache, "c").close();
+
+        // a is the eldest, but in use, so b goes instead
+        assertTrue(Files.exists(a.getDirectory()));
+        assertNull(cache.lookup("java", "15.0.2", "b"));
+        a.close();
+        assertNotNull(cache.lookup("java", "15.0.2", "a"));
+    }
+
+    private CompiledArtifactCache cache() {
+        return new CompiledArtifactCache(true, workDir.resolve("cache").toString(), 1);
+    }
+
+    private CompiledArtifactCache.Lease store(CompiledArtifactCache cache, String code) throws IOException {
+        Path buildDir = Files.createDirectories(workDir.resolve("build-" + code));
+        Files.write(buildDir.resolve("Main.class"), new byte[ARTIFACT_BYTES]);
+        return cache.store("java", "15.0.2", code, buildDir, null);
+    }
+}
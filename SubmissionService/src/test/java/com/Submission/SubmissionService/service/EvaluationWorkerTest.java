@@ -0,0 +1,117 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.Submission;
+import com.Submission.SubmissionService.domain.SubmissionStatus;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EvaluationWorkerTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final EvaluationService evaluationService = mock(EvaluationService.class);
+    private final EvaluationWorker worker = new EvaluationWorker(mongoTemplate, evaluationService, true, 1, 60000,
+            120000, 30000, 3);
+
+    @Test
+    void submissionWhoseLeaseExpiredIsClaimedAgainAndEvaluated() {
+        claims(Submission.builder().id("s-1").status(SubmissionStatus.RUNNING).evaluationAttempts(2).build());
+
+        assertTrue(worker.claimNext());
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(claim.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Submission.class));
+        String claimable = claim.getValue().getQueryObject().toString();
+        assertTrue(claimable.contains("status=SUBMITTED"));
+        assertTrue(claimable.contains("status=RUNNING, leaseExpiresAt=Document{{$lt="));
+        assertTrue(claimable.contains("evaluationAttempts=Document{{$lt=3}}"));
+        verify(evaluationService).evaluateSubmission(eq("s-1"), any());
+        assertEquals(SubmissionStatus.EVALUATED, written("s-1").get("status"));
+    }
+
+    @Test
+    void failureOnTheLastAttemptMarksTheSubmissionFailed() {
+        claims(Submission.builder().id("s-1").status(SubmissionStatus.RUNNING).evaluationAttempts(3).build());
+        when(evaluationService.evaluateSubmission(eq("s-1"), any())).thenThrow(new IllegalStateException("boom"));
+
+        assertTrue(worker.claimNext());
+
+        Document set = written("s-1");
+        assertEquals(SubmissionStatus.FAILED, set.get("status"));
+        assertEquals("boom", set.get("lastEvaluationError"));
+        assertEquals(1, worker.getFailed());
+    }
+
+    @Test
+    void failureWithAttemptsLeftLeavesTheSubmissionForARetry() {
+        claims(Submission.builder().id("s-1").status(SubmissionStatus.RUNNING).evaluationAttempts(1).build());
+        when(evaluationService.evaluateSubmission(eq("s-1"), any())).thenThrow(new IllegalStateException("boom"));
+
+        assertTrue(worker.claimNext());
+
+        Document set = written("s-1");
+        assertFalse(set.containsKey("status"));
+        assertTrue(set.containsKey("leaseExpiresAt"));
+    }
+
+    @Test
+    void nothingClaimableEvaluatesNothing() {
+        assertFalse(worker.claimNext());
+        verify(evaluationService, never()).evaluateSubmission(any(), any());
+    }
+
+    @Test
+    void heartbeatFailsSubmissionsWhoseWorkerDiedOnTheLastAttempt() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Submission.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        worker.start();
+        try {
+            worker.heartbeat();
+        } finally {
+            worker.shutdown();
+        }
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Submission.class));
+        String abandoned = query.getValue().getQueryObject().toString();
+        assertTrue(abandoned.contains("status=RUNNING"));
+        assertTrue(abandoned.contains("leaseExpiresAt=Document{{$lt="));
+        assertTrue(abandoned.contains("evaluationAttempts=Document{{$gte=3}}"));
+        assertEquals(SubmissionStatus.FAILED, update.getValue().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    private void claims(Submission submission) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Submission.class))).thenReturn(submission, (Submission) null);
+    }
+
+    /**
+     * The $set of the update the worker wrote back for the submission, guarded by its lease
+     */
+    private Document written(String submissionId) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Submission.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals(submissionId, filter.get("_id"));
+        assertTrue(filter.containsKey("leaseOwner"));
+        return update.getValue().getUpdateObject().get("$set", Document.class);
+    }
+}
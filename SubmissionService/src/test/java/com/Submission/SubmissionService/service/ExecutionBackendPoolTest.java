@@ -0,0 +1,133 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.ExecutionBackendStatus;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionBackendPoolTest {
+
+    private final RunCodeRequest request = RunCodeRequest.builder().language("python").code("print(1)").build();
+    private final CodeRunner first = runner("first");
+    private final CodeRunner second = runner("second");
+
+    @Test
+    void callGoesToTheBackendWithFewerRequestsInFlight() throws Exception {
+        AtomicBoolean holding = new AtomicBoolean();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        holdFirstCall(first, holding, entered, release);
+        holdFirstCall(second, holding, entered, release);
+        ExecutionBackendPool pool = new ExecutionBackendPool(List.of(first, second), 3);
+
+        CompletableFuture<RunCodeResponse> held = CompletableFuture.supplyAsync(() -> pool.execute(request));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        String busy = pool.getStatus().stream().filter(status -> status.getInFlight() == 1)
+                .map(ExecutionBackendStatus::getName).findFirst().orElseThrow();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(busy.equals("first") ? "second" : "first", pool.execute(request).getMessage());
+        }
+        release.countDown();
+        assertEquals(busy, held.get(5, TimeUnit.SECONDS).getMessage());
+    }
+
+    @Test
+    void failedCallIsRetriedOnAnotherBackendAndRepeatedFailuresEjectIt() {
+        when(first.execute(request)).thenThrow(new IllegalStateException("connection refused"));
+        ExecutionBackendPool pool = new ExecutionBackendPool(List.of(first, second), 2);
+
+        // Ties are broken at random, so keep calling until the failing backend was picked twice
+        for (int i = 0; i < 100 && status(pool, "first").getHealthy(); i++) {
+            assertEquals("second", pool.execute(request).getMessage());
+        }
+        assertFalse(status(pool, "first").getHealthy());
+        assertEquals(2, status(pool, "first").getFailures());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("second", pool.execute(request).getMessage());
+        }
+        verify(first, times(2)).execute(request);
+        assertTrue(status(pool, "second").getHealthy());
+    }
+
+    @Test
+    void ejectedBackendRejoinsOnceItsHealthCheckPasses() {
+        when(first.execute(request)).thenThrow(new IllegalStateException("connection refused"));
+        ExecutionBackendPool pool = new ExecutionBackendPool(List.of(first, second), 1);
+        pool.execute(request);
+        pool.execute(request);
+        assertFalse(status(pool, "first").getHealthy());
+
+        when(first.getRuntimes()).thenReturn(List.of());
+        pool.checkHealth();
+
+        assertTrue(status(pool, "first").getHealthy());
+    }
+
+    @Test
+    void callIsStillAttemptedWhenEveryBackendIsEjected() {
+        when(first.execute(request)).thenThrow(new IllegalStateException("down"));
+        when(second.execute(request)).thenThrow(new IllegalStateException("down"));
+        ExecutionBackendPool pool = new ExecutionBackendPool(List.of(first, second), 1);
+        pool.execute(request);
+        assertFalse(status(pool, "first").getHealthy());
+        assertFalse(status(pool, "second").getHealthy());
+
+        doReturn(response("second")).when(second).execute(request);
+        boolean recovered = false;
+        for (int i = 0; i < 10 && !recovered; i++) {
+            recovered = "second".equals(pool.execute(request).getMessage());
+        }
+
+        assertTrue(recovered);
+    }
+
+    private CodeRunner runner(String name) {
+        CodeRunner runner = mock(CodeRunner.class);
+        when(runner.getName()).thenReturn(name);
+        when(runner.execute(any(RunCodeRequest.class))).thenReturn(response(name));
+        return runner;
+    }
+
+    /**
+     * The first call made on either runner blocks until released; every other call answers right away
+     */
+    private void holdFirstCall(CodeRunner runner, AtomicBoolean holding, CountDownLatch entered,
+                               CountDownLatch release) {
+        String name = runner.getName();
+        when(runner.execute(request)).thenAnswer(invocation -> {
+            if (holding.compareAndSet(false, true)) {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return response(name);
+        });
+    }
+
+    private ExecutionBackendStatus status(ExecutionBackendPool pool, String name) {
+        return pool.getStatus().stream().filter(status -> status.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static RunCodeResponse response(String backend) {
+        RunCodeResponse response = new RunCodeResponse();
+        response.setMessage(backend);
+        return response;
+    }
+}
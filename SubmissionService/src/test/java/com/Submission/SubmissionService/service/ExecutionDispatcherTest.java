@@ -0,0 +1,127 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.BatchRunRequest;
+import com.Submission.SubmissionService.dto.BatchRunResponse;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExecutionDispatcherTest {
+
+    private final ExecutionScheduler executionScheduler = mock(ExecutionScheduler.class);
+    private final ExecutionBackendPool executionBackendPool = mock(ExecutionBackendPool.class);
+    private final RunCodeRequest program = RunCodeRequest.builder()
+            .language("python")
+            .version("3.10.0")
+            .code("print(input())")
+            .candidateId("submission-1")
+            .build();
+    private ExecutionDispatcher executionDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        executionDispatcher = new ExecutionDispatcher(executionScheduler, executionBackendPool, 30, 100, 65536);
+        when(executionScheduler.submit(any(), any(), anyInt(), any())).thenAnswer(invocation -> {
+            Supplier<?> task = invocation.getArgument(3);
+            return CompletableFuture.completedFuture(task.get());
+        });
+        when(executionBackendPool.execute(any(RunCodeRequest.class))).thenAnswer(invocation -> {
+            RunCodeRequest request = invocation.getArgument(0);
+            return RunCodeResponse.builder()
+                    .run(RunCodeResponse.RunResult.builder().stdout(request.getStdin()).code(0).build())
+                    .build();
+        });
+    }
+
+    @Test
+    void shardOnPerCallBackendSchedulesEveryCaseOnItsOwn() {
+        when(executionBackendPool.compilesOnce()).thenReturn(false);
+
+        List<RunCodeResponse> responses = executionDispatcher
+                .executeShard(program, List.of("1", "2", "3"), ExecutionPriority.EVALUATION, () -> false)
+                .join();
+
+        assertEquals(List.of("1", "2", "3"), responses.stream().map(response -> response.getRun().getStdout()).toList());
+        // One token per call to the backend
+        verify(executionScheduler, times(3)).submit(eq("submission-1"), eq(ExecutionPriority.EVALUATION), eq(1), any());
+    }
+
+    @Test
+    void shardOnPerCallBackendQueuesNothingOnceStopped() {
+        when(executionBackendPool.compilesOnce()).thenReturn(false);
+        int[] runs = {0};
+
+        List<RunCodeResponse> responses = executionDispatcher
+                .executeShard(program, List.of("1", "2", "3"), ExecutionPriority.EVALUATION, () -> runs[0]++ >= 1)
+                .join();
+
+        assertEquals(1, responses.size());
+        verify(executionScheduler, times(1)).submit(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void shardOnCompileOnceBackendIsOneExecution() {
+        when(executionBackendPool.compilesOnce()).thenReturn(true);
+        when(executionBackendPool.executeAll(any(), any())).thenReturn(List.of(new RunCodeResponse(), new RunCodeResponse()));
+
+        List<RunCodeResponse> responses = executionDispatcher
+                .executeShard(program, List.of("1", "2"), ExecutionPriority.EVALUATION, () -> false)
+                .join();
+
+        assertEquals(2, responses.size());
+        verify(executionScheduler, times(1)).submit(eq("submission-1"), eq(ExecutionPriority.EVALUATION), eq(2), any());
+    }
+
+    @Test
+    void interactiveBatchShowsCappedOutputButJudgesAllOfIt() {
+        when(executionBackendPool.compilesOnce()).thenReturn(false);
+        String output = "x".repeat(100_000);
+
+        BatchRunResponse.TestCaseResult result = executionDispatcher.executeBatch(batch(output, null)).join()
+                .getResults().get(0);
+
+        assertTrue(result.getPassed());
+        assertTrue(result.getOutputTruncated());
+        assertTrue(result.getActualOutput().length() < output.length());
+    }
+
+    @Test
+    void batchAskingForFullOutputGetsAllOfIt() {
+        when(executionBackendPool.compilesOnce()).thenReturn(false);
+        String output = "x".repeat(100_000);
+
+        BatchRunResponse.TestCaseResult result = executionDispatcher.executeBatch(batch(output, true)).join()
+                .getResults().get(0);
+
+        assertFalse(result.getOutputTruncated());
+        assertEquals(output, result.getActualOutput());
+    }
+
+    private BatchRunRequest batch(String output, Boolean fullOutput) {
+        return BatchRunRequest.builder()
+                .language("python")
+                .version("3.10.0")
+                .code("print(input())")
+                .candidateId("candidate-1")
+                .fullOutput(fullOutput)
+                .testCases(List.of(BatchRunRequest.TestCaseInput.builder().input(output).expectedOutput(output).build()))
+                .build();
+    }
+}
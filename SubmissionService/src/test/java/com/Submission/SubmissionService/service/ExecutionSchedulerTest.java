@@ -0,0 +1,244 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.exception.ExecutionOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionSchedulerTest {
+
+    private static final int BURST = 10;
+
+    // Fake clock for the token bucket; dispatches only happen when the test moves it
+    private final AtomicLong now = new AtomicLong();
+    private ExecutionScheduler scheduler;
+
+    @AfterEach
+    void shutDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void holdsQueuedWorkUntilTheBucketRefills() throws Exception {
+        scheduler = scheduler(1, 2, 2, 4, 30000);
+
+        CompletableFuture<String> run = scheduler.submit("alice", ExecutionPriority.INTERACTIVE, 1, () -> "done");
+        Thread.sleep(100); // several real-time wakeups, all finding the bucket empty
+
+        assertFalse(run.isDone());
+        assertEquals(1, scheduler.getMetrics().getQueueDepth());
+
+        releaseTokens(1);
+        assertEquals("done", run.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void candidateWithManyQueuedRunsDoesNotHoldBackAnother() throws Exception {
+        scheduler = scheduler(1, 2, 2, 4, 30000);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<String>> runs = List.of(
+                record(order, "alice", ExecutionPriority.INTERACTIVE, "a1"),
+                record(order, "alice", ExecutionPriority.INTERACTIVE, "a2"),
+                record(order, "alice", ExecutionPriority.INTERACTIVE, "a3"),
+                record(order, "bob", ExecutionPriority.INTERACTIVE, "b1"));
+        releaseTokens(BURST);
+        awaitAll(runs);
+
+        assertEquals(List.of("a1", "b1", "a2", "a3"), order);
+    }
+
+    @Test
+    void evaluationLaneGetsWeightedPriorityOverInteractiveWork() throws Exception {
+        scheduler = scheduler(1, 2, 2, 2, 30000);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<String>> runs = List.of(
+                record(order, "alice", ExecutionPriority.INTERACTIVE, "i1"),
+                record(order, "bob", ExecutionPriority.INTERACTIVE, "i2"),
+                record(order, "evaluation-1", ExecutionPriority.EVALUATION, "e1"),
+                record(order, "evaluation-1", ExecutionPriority.EVALUATION, "e2"),
+                record(order, "evaluation-1", ExecutionPriority.EVALUATION, "e3"),
+                record(order, "evaluation-1", ExecutionPriority.EVALUATION, "e4"));
+        releaseTokens(BURST);
+        awaitAll(runs);
+
+        // Two evaluation dispatches for every interactive one while both lanes have work
+        assertEquals(List.of("i1", "e1", "e2", "i2", "e3", "e4"), order);
+    }
+
+    @Test
+    void candidateAtTheConcurrencyCapWaitsWhileOthersRun() throws Exception {
+        scheduler = scheduler(4, 2, 4, 4, 30000);
+        assertCapped("alice", ExecutionPriority.INTERACTIVE, 2);
+    }
+
+    @Test
+    void evaluationAtItsConcurrencyCapWaitsWhileOthersRun() throws Exception {
+        scheduler = scheduler(4, 1, 2, 4, 30000);
+        assertCapped("evaluation-1", ExecutionPriority.EVALUATION, 2);
+    }
+
+    @Test
+    void rejectsInteractiveWorkOnceQueuedCostWouldPassTheLimit() {
+        // 2 cost units per second for at most 2 seconds: 4 units may wait
+        scheduler = scheduler(2, 100, 1, 2000);
+
+        CompletableFuture<String> first = submit("alice", ExecutionPriority.INTERACTIVE, 3);
+        CompletableFuture<String> second = submit("bob", ExecutionPriority.INTERACTIVE, 1);
+        CompletableFuture<String> third = submit("carol", ExecutionPriority.INTERACTIVE, 3);
+
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        // 4 queued + 3 is 3 over the limit, which takes 1.5 seconds to drain
+        assertEquals(2, retryAfter(third));
+        assertEquals(4, scheduler.getMetrics().getQueuedCost());
+        assertEquals(1, scheduler.getMetrics().getRejected());
+    }
+
+    @Test
+    void idleQueueAdmitsOneTaskWhateverItsCost() {
+        scheduler = scheduler(2, 100, 1, 2000);
+
+        CompletableFuture<String> large = submit("alice", ExecutionPriority.INTERACTIVE, 50);
+        CompletableFuture<String> next = submit("bob", ExecutionPriority.INTERACTIVE, 1);
+
+        assertFalse(large.isDone());
+        assertEquals(24, retryAfter(next)); // (50 + 1 - 4) / 2, rounded up
+    }
+
+    @Test
+    void evaluationWorkIsAdmittedPastTheWaitLimit() {
+        scheduler = scheduler(2, 100, 1, 2000);
+
+        CompletableFuture<String> shard = submit("evaluation-1", ExecutionPriority.EVALUATION, 10);
+        CompletableFuture<String> another = submit("evaluation-1", ExecutionPriority.EVALUATION, 10);
+        CompletableFuture<String> run = submit("alice", ExecutionPriority.INTERACTIVE, 1);
+
+        assertFalse(shard.isDone());
+        assertFalse(another.isDone());
+        assertEquals(9, retryAfter(run)); // (20 + 1 - 4) / 2, rounded up
+    }
+
+    @Test
+    void fullQueueRejectsEvenEvaluationWork() {
+        scheduler = scheduler(1, 2, 1, 30000);
+
+        submit("evaluation-1", ExecutionPriority.EVALUATION, 1);
+        submit("evaluation-1", ExecutionPriority.EVALUATION, 2);
+        CompletableFuture<String> rejected = submit("evaluation-1", ExecutionPriority.EVALUATION, 1);
+
+        assertEquals(3, retryAfter(rejected)); // the 3 queued units at 1 per second
+        assertEquals(2, scheduler.getMetrics().getQueueDepth());
+    }
+
+    /**
+     * Queue one run more than the cap for the given flow plus a run for someone else, and check that
+     * the extra run only starts once one of the capped runs finishes, although a worker was free all along.
+     */
+    private void assertCapped(String flow, ExecutionPriority priority, int cap) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(cap + 1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        List<CompletableFuture<String>> runs = new ArrayList<>();
+        for (int i = 1; i <= cap + 1; i++) {
+            runs.add(blocking(order, flow, priority, flow + "-" + i, started, release));
+        }
+        CompletableFuture<String> other = blocking(order, "someone-else", ExecutionPriority.INTERACTIVE,
+                "other", started, release);
+        releaseTokens(BURST);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertFalse(order.contains(flow + "-" + (cap + 1)));
+        assertEquals(cap + 1, scheduler.getMetrics().getRunning());
+
+        release.countDown();
+        awaitAll(runs);
+        other.get(5, TimeUnit.SECONDS);
+        assertTrue(order.contains(flow + "-" + (cap + 1)));
+    }
+
+    private CompletableFuture<String> record(List<String> order, String flow, ExecutionPriority priority, String name) {
+        return scheduler.submit(flow, priority, 1, () -> {
+            order.add(name);
+            return name;
+        });
+    }
+
+    private CompletableFuture<String> blocking(List<String> order, String flow, ExecutionPriority priority,
+                                              String name, CountDownLatch started, CountDownLatch release) {
+        return scheduler.submit(flow, priority, 1, () -> {
+            order.add(name);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return name;
+        });
+    }
+
+    private static void awaitAll(List<CompletableFuture<String>> runs) throws Exception {
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A scheduler whose bucket refills 100 tokens per fake second and starts out empty
+     */
+    private ExecutionScheduler scheduler(int workerThreads, int maxConcurrentPerCandidate,
+                                         int maxConcurrentPerEvaluation, int evaluationWeight, long maxQueueWaitMs) {
+        return scheduler(100, 100, workerThreads, maxConcurrentPerCandidate, maxConcurrentPerEvaluation,
+                evaluationWeight, maxQueueWaitMs);
+    }
+
+    /**
+     * A scheduler for admission tests: nothing is dispatched, as the fake clock never moves
+     */
+    private ExecutionScheduler scheduler(double ratePerSecond, int maxQueueSize, int workerThreads, long maxQueueWaitMs) {
+        return scheduler(ratePerSecond, maxQueueSize, workerThreads, 2, 4, 4, maxQueueWaitMs);
+    }
+
+    private ExecutionScheduler scheduler(double ratePerSecond, int maxQueueSize, int workerThreads,
+                                         int maxConcurrentPerCandidate, int maxConcurrentPerEvaluation,
+                                         int evaluationWeight, long maxQueueWaitMs) {
+        TokenBucket bucket = new TokenBucket(ratePerSecond, BURST, now::get);
+        while (bucket.tryAcquire() == 0) {
+            // spend the initial burst
+        }
+        return new ExecutionScheduler(ratePerSecond, BURST, maxQueueSize, workerThreads, maxConcurrentPerCandidate,
+                maxConcurrentPerEvaluation, evaluationWeight, maxQueueWaitMs, bucket);
+    }
+
+    private CompletableFuture<String> submit(String flow, ExecutionPriority priority, int cost) {
+        return scheduler.submit(flow, priority, cost, () -> flow);
+    }
+
+    private static long retryAfter(CompletableFuture<String> rejected) {
+        CompletionException failure = assertThrows(CompletionException.class, rejected::join);
+        return assertInstanceOf(ExecutionOverloadedException.class, failure.getCause()).getRetryAfterSeconds();
+    }
+
+    private void releaseTokens(int tokens) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10L * tokens));
+    }
+}
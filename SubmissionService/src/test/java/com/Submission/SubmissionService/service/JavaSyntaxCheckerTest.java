@@ -0,0 +1,31 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.CodeCheckResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JavaSyntaxCheckerTest {
+
+    private static final String BROKEN = "public class Main { public static void main(String[] args) { int x = } }";
+
+    @Test
+    void compileErrorsAreReported() {
+        List<CodeCheckResponse.Diagnostic> diagnostics = new JavaSyntaxChecker(1, 2000, 10000).check(BROKEN, null);
+
+        assertNotNull(diagnostics);
+        assertEquals(CodeCheckResponse.SEVERITY_ERROR, diagnostics.get(0).getSeverity());
+    }
+
+    @Test
+    void compileOverItsTimeoutGivesNoResultAndFreesItsSlot() {
+        JavaSyntaxChecker checker = new JavaSyntaxChecker(1, 2000, 0);
+
+        assertNull(checker.check(BROKEN, null));
+        assertNull(checker.check(BROKEN, null));
+    }
+}
@@ -0,0 +1,23 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ComparatorType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputComparatorsTest {
+
+    private final OutputComparator unorderedLines = OutputComparators.of(ComparatorType.UNORDERED_LINES, null, null);
+
+    @Test
+    void sameLinesInAnotherOrderMatch() {
+        assertTrue(unorderedLines.matches("a 1\nb 2\nb 2\n", "b 2  \n\na 1\nb 2"));
+    }
+
+    @Test
+    void linesAreComparedByContentAndCount() {
+        assertFalse(unorderedLines.matches("a 1\nb 2\nb 2\n", "a 1\nb 2\na 1\n"));
+        assertFalse(unorderedLines.matches("a 1\nb 2\n", "a 1\nb 2\nb 2\n"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ProvisionalEvaluation;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import com.Submission.SubmissionService.dto.ProvisionalAnswersRequest;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProvisionalEvaluationServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final AnswerKeyCache answerKeyCache = mock(AnswerKeyCache.class);
+    private final EvaluationService evaluationService = mock(EvaluationService.class);
+    private final ProvisionalEvaluationService service =
+            new ProvisionalEvaluationService(mongoTemplate, answerKeyCache, evaluationService);
+
+    @Test
+    void answerKeyChangeDiscardsResultsGradedAgainstTheOldOne() {
+        AnswerKey answerKey = answerKey("v2");
+        when(answerKeyCache.get("test-1")).thenReturn(answerKey);
+        when(evaluationService.evaluateQuestion(eq(answerKey), anyInt(), anyMap(), anyBoolean()))
+                .thenAnswer(invocation -> result(answerKey.questionId(invocation.getArgument(1))));
+        // The stored results carry the previous version, so the versioned update matches nothing
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ProvisionalEvaluation.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        service.applyAnswers("candidate-1", request(Map.of("q-1", "Paris", "q-2", "print(1)")));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(ProvisionalEvaluation.class));
+        assertEquals("v2", query.getValue().getQueryObject().get("answerKeyVersion"));
+        ArgumentCaptor<ProvisionalEvaluation> saved = ArgumentCaptor.forClass(ProvisionalEvaluation.class);
+        verify(mongoTemplate).save(saved.capture());
+        assertEquals("candidate-1", saved.getValue().getId());
+        assertEquals("v2", saved.getValue().getAnswerKeyVersion());
+        // Only what this autosave graded; coding answers wait for submit
+        assertEquals(Set.of("q-1"), saved.getValue().getResults().keySet());
+    }
+
+    @Test
+    void sameAnswerKeyOnlyTouchesTheChangedQuestions() {
+        AnswerKey answerKey = answerKey("v1");
+        when(answerKeyCache.get("test-1")).thenReturn(answerKey);
+        when(evaluationService.evaluateQuestion(eq(answerKey), anyInt(), anyMap(), anyBoolean()))
+                .thenAnswer(invocation -> result(answerKey.questionId(invocation.getArgument(1))));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ProvisionalEvaluation.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ProvisionalAnswersRequest request = request(Map.of("q-1", "Paris"));
+        request.setRemoved(List.of("q-3"));
+
+        service.applyAnswers("candidate-1", request);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(ProvisionalEvaluation.class));
+        Document written = update.getValue().getUpdateObject();
+        assertTrue(written.get("$set", Document.class).containsKey("results.q-1"));
+        assertTrue(written.get("$unset", Document.class).containsKey("results.q-3"));
+        verify(mongoTemplate, never()).save(any(ProvisionalEvaluation.class));
+    }
+
+    @Test
+    void answerKeyWithoutVersionIsNotGradedAhead() {
+        when(answerKeyCache.get("test-1")).thenReturn(answerKey(null));
+
+        service.applyAnswers("candidate-1", request(Map.of("q-1", "Paris")));
+
+        verifyNoInteractions(mongoTemplate, evaluationService);
+    }
+
+    private AnswerKey answerKey(String version) {
+        return AnswerKey.compile(List.of(
+                Map.of("questionId", "q-1", "type", "MCQ"),
+                Map.of("questionId", "q-2", "type", "CODING"),
+                Map.of("questionId", "q-3", "type", "MCQ")), version);
+    }
+
+    private ProvisionalAnswersRequest request(Map<String, Object> answers) {
+        return ProvisionalAnswersRequest.builder().testId("test-1").userId("user-1").answers(answers).build();
+    }
+
+    private QuestionResult result(String questionId) {
+        return QuestionResult.builder().questionId(questionId).questionType("MCQ").isCorrect(true)
+                .pointsAwarded(1.0).maxPoints(1.0).build();
+    }
+}
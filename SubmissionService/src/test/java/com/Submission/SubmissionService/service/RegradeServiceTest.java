@@ -0,0 +1,76 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.Evaluation;
+import com.Submission.SubmissionService.domain.QuestionResult;
+import com.Submission.SubmissionService.domain.Submission;
+import com.Submission.SubmissionService.dto.RegradeResponse;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegradeServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final EvaluationService evaluationService = mock(EvaluationService.class);
+    private final AnswerKeyCache answerKeyCache = mock(AnswerKeyCache.class);
+    private final BulkOperations evaluationUpdates = mock(BulkOperations.class);
+    private final BulkOperations submissionUpdates = mock(BulkOperations.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onlyEvaluationsActuallyWrittenUpdateSubmissionsAndSync() {
+        AnswerKey answerKey = AnswerKey.compile(List.of(Map.of("questionId", "q-1", "type", "MCQ")), null);
+        when(answerKeyCache.fetch(List.of("q-1"))).thenReturn(answerKey);
+        when(mongoTemplate.stream(any(Query.class), eq(Evaluation.class)))
+                .thenReturn(Stream.of(evaluation("e-1", "s-1"), evaluation("e-2", "s-2")));
+        when(evaluationService.evaluateQuestion(eq(answerKey), eq(0), anyMap(), anyBoolean()))
+                .thenAnswer(invocation -> QuestionResult.builder().questionId("q-1").questionType("MCQ")
+                        .isCorrect(true).pointsAwarded(1.0).maxPoints(1.0).build());
+        when(evaluationService.summarize(any(), any(), any(), anyBoolean())).thenAnswer(invocation ->
+                Evaluation.builder().submissionId(invocation.getArgument(0)).totalScore(1.0).maxScore(1.0).build());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Evaluation.class)).thenReturn(evaluationUpdates);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Submission.class)).thenReturn(submissionUpdates);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(evaluationUpdates.execute()).thenReturn(result);
+        // e-2 changed in between, so its conditional update matched nothing
+        when(mongoTemplate.find(any(Query.class), eq(Evaluation.class)))
+                .thenReturn(List.of(Evaluation.builder().id("e-1").build()));
+
+        RegradeResponse response = new RegradeService(mongoTemplate, evaluationService, answerKeyCache, 500, 4)
+                .regrade(List.of("q-1"));
+
+        assertEquals(1, response.getEvaluationsChanged());
+        verify(submissionUpdates, times(1)).updateOne(any(Query.class), any(Update.class));
+        ArgumentCaptor<List<Evaluation>> synced = ArgumentCaptor.forClass(List.class);
+        verify(evaluationService).syncScoresToAssessmentService(anyMap(), synced.capture(), anyInt());
+        assertEquals(List.of("s-1"), synced.getValue().stream().map(Evaluation::getSubmissionId).toList());
+    }
+
+    private Evaluation evaluation(String id, String submissionId) {
+        List<QuestionResult> results = new ArrayList<>();
+        results.add(QuestionResult.builder().questionId("q-1").questionType("MCQ").userAnswer("Paris")
+                .isCorrect(false).pointsAwarded(0.0).maxPoints(1.0).build());
+        return Evaluation.builder().id(id).submissionId(submissionId).questionResults(results).build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.dto.PistonRuntimeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuntimeRegistryTest {
+
+    private final CodeRunner codeRunner = mock(CodeRunner.class);
+    private final RuntimeRegistry registry = new RuntimeRegistry(codeRunner);
+
+    @Test
+    void unpinnedRequestsResolveToTheNewestVersionByNameOrAlias() {
+        when(codeRunner.getRuntimes()).thenReturn(List.of(
+                runtime("python", "3.9.4", "py"),
+                runtime("python", "3.10.0", "py"),
+                runtime("java", "15.0.2")));
+        registry.refresh();
+
+        assertEquals("3.10.0", registry.resolveVersion("python", null));
+        assertEquals("3.10.0", registry.resolveVersion("PY", "*"));
+        assertEquals("15.0.2", registry.resolveVersion("java", ""));
+        assertEquals("3.9.4", registry.resolveVersion("python", "3.9.4"));
+        assertNull(registry.resolveVersion("cobol", null));
+    }
+
+    @Test
+    void failedRefreshKeepsThePreviousSnapshot() {
+        when(codeRunner.getRuntimes())
+                .thenReturn(List.of(runtime("java", "15.0.2")))
+                .thenThrow(new IllegalStateException("backend down"));
+        registry.refresh();
+
+        assertThrows(IllegalStateException.class, registry::refresh);
+
+        assertEquals("15.0.2", registry.resolveVersion("java", null));
+        assertEquals(1, registry.getRuntimes().size());
+    }
+
+    @Test
+    void runtimesAreLoadedOnFirstUseAndThenServedFromTheSnapshot() {
+        when(codeRunner.getRuntimes()).thenReturn(List.of(runtime("java", "15.0.2")));
+
+        assertEquals(1, registry.getRuntimes().size());
+        assertEquals(1, registry.getRuntimes().size());
+
+        verify(codeRunner, times(1)).getRuntimes();
+    }
+
+    private PistonRuntimeResponse runtime(String language, String version, String... aliases) {
+        return PistonRuntimeResponse.builder().language(language).version(version).aliases(List.of(aliases)).build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.Submission.SubmissionService.service;
+
+import com.Submission.SubmissionService.domain.ExecutionPriority;
+import com.Submission.SubmissionService.dto.RunCodeRequest;
+import com.Submission.SubmissionService.dto.RunCodeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardedTestRunnerTest {
+
+    private final ExecutionDispatcher executionDispatcher = mock(ExecutionDispatcher.class);
+    private final RunCodeRequest program = RunCodeRequest.builder().language("python").code("print(input())").build();
+
+    @Test
+    void mergesShardVerdictsBackIntoSuiteOrder() {
+        List<List<String>> shards = new ArrayList<>();
+        when(executionDispatcher.executeShard(eq(program), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenAnswer(invocation -> {
+                    List<String> stdins = invocation.getArgument(1);
+                    shards.add(stdins);
+                    return CompletableFuture.completedFuture(stdins.stream().map(this::echo).toList());
+                });
+
+        List<String> verdicts = new ShardedTestRunner(executionDispatcher, 3)
+                .run(program, List.of("0", "1", "2", "3", "4", "5", "6"), ExecutionPriority.EVALUATION, false,
+                        (index, response) -> CompletableFuture.completedFuture(index + ":" + response.getRun().getStdout()),
+                        verdict -> false)
+                .join();
+
+        assertEquals(List.of("0:0", "1:1", "2:2", "3:3", "4:4", "5:5", "6:6"), verdicts);
+        // Round robin: every shard gets a slice of the whole suite
+        assertEquals(List.of(List.of("0", "3", "6"), List.of("1", "4"), List.of("2", "5")), shards);
+    }
+
+    @Test
+    void failFastCancelsShardsStillQueued() {
+        CompletableFuture<List<RunCodeResponse>> queued = new CompletableFuture<>();
+        CompletableFuture<List<RunCodeResponse>> running = new CompletableFuture<>();
+        when(executionDispatcher.executeShard(eq(program), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenAnswer(invocation -> {
+                    List<String> stdins = invocation.getArgument(1);
+                    return stdins.contains("0") ? queued : running;
+                });
+
+        CompletableFuture<List<Boolean>> suite = new ShardedTestRunner(executionDispatcher, 2)
+                .run(program, List.of("0", "1", "2", "3"), ExecutionPriority.EVALUATION, true,
+                        (index, response) -> CompletableFuture.completedFuture(!"1".equals(response.getRun().getStdout())),
+                        passed -> !passed);
+        running.complete(List.of(echo("1"), echo("3")));
+
+        assertTrue(queued.isCancelled());
+        assertEquals(Arrays.asList(null, false, null, true), suite.join());
+    }
+
+    @Test
+    void failFastQueuesNoShardAfterTheSuiteFailed() {
+        when(executionDispatcher.executeShard(eq(program), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenAnswer(invocation -> {
+                    List<String> stdins = invocation.getArgument(1);
+                    return CompletableFuture.completedFuture(stdins.stream().map(this::echo).toList());
+                });
+
+        List<Boolean> verdicts = new ShardedTestRunner(executionDispatcher, 2)
+                .run(program, List.of("0", "1", "2", "3"), ExecutionPriority.EVALUATION, true,
+                        (index, response) -> CompletableFuture.completedFuture(false),
+                        passed -> !passed)
+                .join();
+
+        verify(executionDispatcher, times(1)).executeShard(eq(program), anyList(), eq(ExecutionPriority.EVALUATION), any());
+        assertEquals(Arrays.asList(false, null, false, null), verdicts);
+    }
+
+    @Test
+    void shardFailingOnAnotherThreadWhileLaterShardsAreQueuedCancelsThem() {
+        CompletableFuture<List<RunCodeResponse>> first = new CompletableFuture<>();
+        CompletableFuture<List<RunCodeResponse>> second = new CompletableFuture<>();
+        when(executionDispatcher.executeShard(eq(program), anyList(), eq(ExecutionPriority.EVALUATION), any()))
+                .thenReturn(first)
+                .thenAnswer(invocation -> {
+                    // The first shard fails on a worker thread while this one is still queueing
+                    Thread worker = Thread.ofPlatform().start(() -> first.complete(List.of(echo("0"))));
+                    worker.join();
+                    return second;
+                });
+
+        List<Boolean> verdicts = new ShardedTestRunner(executionDispatcher, 3)
+                .run(program, List.of("0", "1", "2"), ExecutionPriority.EVALUATION, true,
+                        (index, response) -> CompletableFuture.completedFuture(false),
+                        passed -> !passed)
+                .join();
+
+        assertTrue(second.isCancelled());
+        verify(executionDispatcher, times(2)).executeShard(eq(program), anyList(), eq(ExecutionPriority.EVALUATION), any());
+        assertEquals(Arrays.asList(false, null, null), verdicts);
+    }
+
+    private RunCodeResponse echo(String stdin) {
+        return RunCodeResponse.builder()
+                .run(RunCodeResponse.RunResult.builder().stdout(stdin).code(0).build())
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.Submission.SubmissionService.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void concurrentCallersJoinOneLoad() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(Duration.ofSeconds(10), 10, now::get);
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get("key", () -> started(load), value -> true);
+        CompletableFuture<String> second = cache.get("key", () -> started(new CompletableFuture<>()), value -> true);
+        load.complete("result");
+
+        assertEquals("result", first.join());
+        assertEquals("result", second.join());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getJoined());
+    }
+
+    @Test
+    void callerCancellingDoesNotCancelTheLoadForOthers() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(Duration.ofSeconds(10), 10, now::get);
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> leaving = cache.get("key", () -> started(load), value -> true);
+        CompletableFuture<String> staying = cache.get("key", () -> started(new CompletableFuture<>()), value -> true);
+        leaving.cancel(true); // the caller that started the load
+
+        assertFalse(load.isCancelled());
+        load.complete("result");
+        assertEquals("result", staying.join());
+    }
+
+    @Test
+    void resultExpiresAfterTheTtl() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(Duration.ofSeconds(10), 10, now::get);
+
+        cache.get("key", () -> started(CompletableFuture.completedFuture("first")), value -> true).join();
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("first", cache.get("key", () -> started(CompletableFuture.completedFuture("second")),
+                value -> true).join());
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals("second", cache.get("key", () -> started(CompletableFuture.completedFuture("second")),
+                value -> true).join());
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void leastRecentlyUsedResultIsEvictedPastTheBound() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(Duration.ofSeconds(10), 2, now::get);
+        load(cache, "a");
+        load(cache, "b");
+        load(cache, "a"); // hit, so b is now the eldest
+
+        load(cache, "c");
+        assertEquals(3, loads.get());
+        load(cache, "a");
+        assertEquals(3, loads.get());
+        load(cache, "b");
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void uncacheableAndFailedResultsAreNotKept() {
+        SingleFlightCache<String> cache = new SingleFlightCache<>(Duration.ofSeconds(10), 10, now::get);
+
+        cache.get("key", () -> started(CompletableFuture.completedFuture("timed out")), "ok"::equals).join();
+        CompletableFuture<String> failed = cache.get("key",
+                () -> started(CompletableFuture.failedFuture(new IllegalStateException("down"))), value -> true);
+        assertThrows(CompletionException.class, failed::join);
+        cache.get("key", () -> started(CompletableFuture.completedFuture("ok")), "ok"::equals).join();
+
+        assertEquals(3, loads.get());
+        assertTrue(cache.get("key", () -> started(new CompletableFuture<>()), "ok"::equals).isDone());
+    }
+
+    private void load(SingleFlightCache<String> cache, String key) {
+        cache.get(key, () -> started(CompletableFuture.completedFuture(key)), value -> true).join();
+    }
+
+    private CompletableFuture<String> started(CompletableFuture<String> load) {
+        loads.incrementAndGet();
+        return load;
+    }
+}
@@ -0,0 +1,154 @@
+package com.Submission.SubmissionService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestSuiteCacheTest {
+
+    private static final String SUITE = "{\"runTimeLimitMs\":2000,\"testCases\":[{\"input\":\"1\",\"expectedOutput\":\"2\"}]}";
+    private static final String URL = "http://question/questions/q-1/test-suite";
+
+    @TempDir
+    Path cacheDir;
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    @Test
+    void unchangedSuiteIsRevalidatedWithoutDownloadingItAgain() throws Exception {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(bundle(SUITE), notModified());
+        TestSuiteCache cache = cache(32);
+
+        cache.load("q-1");
+        TestSuiteCache.TestSuite suite = cache.load("q-1");
+
+        assertEquals(hash(SUITE), suite.hash());
+        assertEquals(2000L, suite.runTimeLimitMs());
+        assertEquals(1, suite.testCases().size());
+        assertEquals(1, cache.getDownloads());
+        assertEquals(1, cache.getNotModified());
+        assertEquals(List.of("\"" + hash(SUITE) + "\""), sentEtags(2).get(1));
+    }
+
+    @Test
+    void bundleGoneAfterRevalidationIsDownloadedAgain() throws Exception {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(bundle(SUITE), notModified(), bundle(SUITE));
+        TestSuiteCache cache = cache(0); // nothing kept parsed, so every hit reads the file
+        cache.load("q-1");
+        Path file = cacheDir.resolve("bundles").resolve(hash(SUITE) + ".json.gz");
+        // Evicted between the If-None-Match going out and the 304 coming back
+        Files.delete(file);
+
+        TestSuiteCache.TestSuite suite = cache.load("q-1");
+
+        assertEquals(1, suite.testCases().size());
+        assertEquals(2, cache.getDownloads());
+        List<List<String>> etags = sentEtags(3);
+        assertTrue(etags.get(2).isEmpty());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void cachedBundleIsUsedWhileQuestionServiceIsUnreachable() throws Exception {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(bundle(SUITE))
+                .thenThrow(new ResourceAccessException("connection refused"));
+        TestSuiteCache cache = cache(32);
+        cache.load("q-1");
+
+        assertEquals(hash(SUITE), cache.load("q-1").hash());
+    }
+
+    @Test
+    void loadFailsWithoutACachedBundleRatherThanPassingForAnEmptySuite() {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        assertThrows(IllegalStateException.class, () -> cache(32).load("q-1"));
+    }
+
+    @Test
+    void questionWithoutSuiteLoadsAsNull() {
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertNull(cache(32).load("q-1"));
+    }
+
+    @Test
+    void bundleNotMatchingItsEtagIsRejected() throws Exception {
+        ResponseEntity<byte[]> tampered = ResponseEntity.ok().eTag("\"" + hash("{}") + "\"").body(gzip(SUITE));
+        when(restTemplate.exchange(eq(URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+                .thenReturn(tampered);
+
+        assertThrows(IllegalStateException.class, () -> cache(32).load("q-1"));
+    }
+
+    private TestSuiteCache cache(int memoryEntries) {
+        return new TestSuiteCache(restTemplate, new ObjectMapper(), "http://question", cacheDir.toString(), 16,
+                memoryEntries);
+    }
+
+    private ResponseEntity<byte[]> bundle(String json) throws Exception {
+        return ResponseEntity.ok().eTag("\"" + hash(json) + "\"").body(gzip(json));
+    }
+
+    private ResponseEntity<byte[]> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+
+    /**
+     * If-None-Match of every test suite request, in order
+     */
+    private List<List<String>> sentEtags(int requests) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<HttpEntity<?>> sent = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(requests)).exchange(eq(URL), eq(HttpMethod.GET), sent.capture(), eq(byte[].class));
+        return sent.getAllValues().stream().map(request -> request.getHeaders().getIfNoneMatch()).toList();
+    }
+
+    private static String hash(String json) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
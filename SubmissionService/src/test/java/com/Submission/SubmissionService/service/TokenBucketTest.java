@@ -0,0 +1,60 @@
+package com.Submission.SubmissionService.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void givesOutTheBurstThenReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(2, 3, now::get);
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(millis(500), bucket.tryAcquire());
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, 1, now::get);
+        assertEquals(0, bucket.tryAcquire());
+
+        now.addAndGet(millis(200));
+        assertEquals(millis(300), bucket.tryAcquire());
+
+        now.addAndGet(millis(300));
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(millis(500), bucket.tryAcquire());
+    }
+
+    @Test
+    void idleTimeNeverBanksMoreThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(2, 3, now::get);
+        assertEquals(0, bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(millis(500), bucket.tryAcquire());
+    }
+
+    @Test
+    void rejectsRatesAndBurstsThatCannotAdmitAnything() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, now::get));
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
@@ -11,21 +11,28 @@ import {
 } from '@heroicons/react/24/outline';
 
 const CodingQuestion = ({ question, answer, onAnswerChange }) => {
-  const [code, setCode] = useState(answer || '');
-  const [language, setLanguage] = useState('javascript');
+  // A coding answer is saved with the language it was written in, so it is graded in that language
+  const [code, setCode] = useState(answer?.code || '');
+  const [language, setLanguage] = useState(answer?.language || 'javascript');
   const [testResults, setTestResults] = useState([]);
   const [showTestCases, setShowTestCases] = useState(true);
   const [isRunning, setIsRunning] = useState(false);
 
-  // Update code when answer prop changes
+  // Update code and language when answer prop changes
   useEffect(() => {
-    if (answer !== undefined && answer !== code) {
-      setCode(answer);
+    if (answer?.code !== undefined && answer.code !== code) {
+      setCode(answer.code);
+    }
+    if (answer?.language && answer.language !== language) {
+      setLanguage(answer.language);
     }
   }, [answer]);
 
-  // Extract language from question if specified
+  // Extract language from question if specified, unless the candidate already picked one
   useEffect(() => {
+    if (answer?.language) {
+      return;
+    }
     if (question?.language) {
       setLanguage(question.language.toLowerCase());
     } else if (question?.allowedLanguages && question.allowedLanguages.length > 0) {
@@ -35,60 +42,86 @@ const CodingQuestion = ({ question, answer, onAnswerChange }) => {
 
   const handleCodeChange = (value) => {
     setCode(value || '');
-    onAnswerChange(value || '');
+    onAnswerChange({ code: value || '', language });
+  };
+
+  const handleLanguageChange = (value) => {
+    setLanguage(value);
+    if (code) {
+      onAnswerChange({ code, language: value });
+    }
   };
 
   const handleRunCode = async () => {
     setIsRunning(true);
 
     try {
+      if (language === 'java') {
+        // Java compile errors are reported by the service itself in milliseconds, without queueing a run
+        const checkResponse = await fetch('http://localhost:8083/api/code/check', {
+          method: 'POST',
+          headers: {
+            'Content-Type': 'application/json',
+          },
+          body: JSON.stringify({
+            language: language,
+            code: code,
+          }),
+        });
+
+        if (checkResponse.ok) {
+          const check = await checkResponse.json();
+          if (check.success === false) {
+            const errors = (check.diagnostics || [])
+              .filter((diagnostic) => diagnostic.severity === 'ERROR')
+              .map((diagnostic) => `Line ${diagnostic.line ?? '?'}: ${diagnostic.message}`);
+            alert(`Compilation failed:\n${errors.join('\n')}`);
+            setIsRunning(false);
+            return;
+          }
+        }
+      }
+
       // Run the code against test cases
       if (question?.testCases && question.testCases.length > 0) {
-        const results = await Promise.all(
-          question.testCases.map(async (testCase, idx) => {
-            try {
-              const response = await fetch('http://localhost:8083/api/code/run', {
-                method: 'POST',
-                headers: {
-                  'Content-Type': 'application/json',
-                },
-                body: JSON.stringify({
-                  language: language,
-                  code: code,
-                  stdin: testCase.input || '',
-                  runTimeout: 3000,
-                }),
-              });
+        const response = await fetch('http://localhost:8083/api/code/run/batch', {
+          method: 'POST',
+          headers: {
+            'Content-Type': 'application/json',
+          },
+          body: JSON.stringify({
+            language: language,
+            code: code,
+            runTimeout: 3000,
+            testCases: question.testCases.map((testCase) => ({
+              input: testCase.input || '',
+              expectedOutput: testCase.expectedOutput || '',
+              comparator: testCase.comparator,
+              absoluteError: testCase.absoluteError,
+              relativeError: testCase.relativeError,
+            })),
+          }),
+        });
 
-              const result = await response.json();
+        if (response.status === 429) {
+          // Execution capacity is saturated; the message says when to retry
+          const busy = await response.json();
+          alert(busy.message);
+          setIsRunning(false);
+          return;
+        }
 
-              const actualOutput = result.run?.stdout?.trim() || '';
-              const expectedOutput = (testCase.expectedOutput || '').trim();
-              const passed = actualOutput === expectedOutput && result.run?.code === 0;
+        const batch = await response.json();
 
-              return {
-                id: idx,
-                input: testCase.input,
-                expectedOutput: expectedOutput,
-                actualOutput: actualOutput,
-                passed: passed,
-                executionTime: 0, // Piston doesn't provide execution time
-                error: result.run?.stderr || null
-              };
-            } catch (error) {
-              console.error(`Error running test case ${idx}:`, error);
-              return {
-                id: idx,
-                input: testCase.input,
-                expectedOutput: testCase.expectedOutput,
-                actualOutput: '',
-                passed: false,
-                executionTime: 0,
-                error: error.message
-              };
-            }
-          })
-        );
+        const results = (batch.results || []).map((result) => ({
+          id: result.index,
+          input: result.input,
+          expectedOutput: result.expectedOutput,
+          actualOutput: result.actualOutput,
+          passed: result.passed,
+          executionTime: result.wallTimeMs ?? 0, // Not reported by older Piston versions
+          error: result.stderr || null
+        }));
 
         setTestResults(results);
         console.log('Test results:', results);
@@ -107,6 +140,13 @@ const CodingQuestion = ({ question, answer, onAnswerChange }) => {
           }),
         });
 
+        if (response.status === 429) {
+          const busy = await response.json();
+          alert(busy.message);
+          setIsRunning(false);
+          return;
+        }
+
         const result = await response.json();
         console.log('Execution result:', result);
 
@@ -256,7 +296,7 @@ const CodingQuestion = ({ question, answer, onAnswerChange }) => {
             <div className="flex items-center space-x-4">
               <select
                 value={language}
-                onChange={(e) => setLanguage(e.target.value)}
+                onChange={(e) => handleLanguageChange(e.target.value)}
                 className="px-3 py-1.5 border border-gray-300 rounded-md text-sm focus:outline-none focus:ring-2 focus:ring-blue-500"
                 disabled={question?.allowedLanguages && question.allowedLanguages.length === 1}
               >
@@ -374,8 +374,8 @@ const AssessmentTest = () => {
               <div className="flex-1 overflow-hidden">
                 <CodingQuestion
                   question={currentQuestion}
-                  answer={answers[currentQuestion.questionId] || ''}
-                  onAnswerChange={(code) => handleAnswerSelect(currentQuestion.questionId, code)}
+                  answer={answers[currentQuestion.questionId]}
+                  onAnswerChange={(codingAnswer) => handleAnswerSelect(currentQuestion.questionId, codingAnswer)}
                 />
               </div>
 